@@ -15,7 +15,7 @@
  */
 package io.dropwizard.revolver;
 
-import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Gauge;
 import com.codahale.metrics.json.MetricsModule;
 import com.collections.CollectionUtils;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -29,7 +29,11 @@ import io.dropwizard.Configuration;
 import io.dropwizard.ConfiguredBundle;
 import io.dropwizard.assets.AssetsBundle;
 import io.dropwizard.msgpack.MsgPackBundle;
+import io.dropwizard.revolver.accesslog.AccessLog;
+import io.dropwizard.revolver.accesslog.AccessLogConfig;
+import io.dropwizard.revolver.accesslog.AccessLogWriter;
 import io.dropwizard.revolver.aeroapike.AerospikeConnectionManager;
+import io.dropwizard.revolver.cache.ResponseCaches;
 import io.dropwizard.revolver.callback.InlineCallbackHandler;
 import io.dropwizard.revolver.core.RevolverExecutionException;
 import io.dropwizard.revolver.core.config.AerospikeMailBoxConfig;
@@ -38,7 +42,14 @@ import io.dropwizard.revolver.core.config.RevolverConfig;
 import io.dropwizard.revolver.core.config.RevolverServiceConfig;
 import io.dropwizard.revolver.core.config.ServiceDiscoveryConfig;
 import io.dropwizard.revolver.core.config.hystrix.ThreadPoolConfig;
+import io.dropwizard.revolver.core.engine.QueueWaitMetrics;
+import io.dropwizard.revolver.core.tracing.BufferedTraceCollector;
+import io.dropwizard.revolver.core.tracing.LineTraceExporter;
+import io.dropwizard.revolver.core.tracing.Tracing;
+import io.dropwizard.revolver.core.tracing.TracingConfig;
+import io.dropwizard.revolver.core.util.RevolverCommandHelper;
 import io.dropwizard.revolver.discovery.RevolverServiceResolver;
+import io.dropwizard.revolver.discovery.ServiceDiscoveryHealthCheck;
 import io.dropwizard.revolver.discovery.model.RangerEndpointSpec;
 import io.dropwizard.revolver.discovery.model.SimpleEndpointSpec;
 import io.dropwizard.revolver.exception.RevolverExceptionMapper;
@@ -47,21 +58,29 @@ import io.dropwizard.revolver.filters.RevolverRequestFilter;
 import io.dropwizard.revolver.handler.ConfigSource;
 import io.dropwizard.revolver.handler.DynamicConfigHandler;
 import io.dropwizard.revolver.http.RevolverHttpClientFactory;
+import io.dropwizard.revolver.http.RevolverHttpConnectionWarmer;
 import io.dropwizard.revolver.http.RevolverHttpCommand;
 import io.dropwizard.revolver.http.auth.BasicAuthConfig;
 import io.dropwizard.revolver.http.auth.TokenAuthConfig;
 import io.dropwizard.revolver.http.config.RevolverHttpApiConfig;
 import io.dropwizard.revolver.http.config.RevolverHttpServiceConfig;
 import io.dropwizard.revolver.http.config.RevolverHttpsServiceConfig;
+import io.dropwizard.revolver.http.metrics.ApiMetrics;
+import io.dropwizard.revolver.http.metrics.HttpClientMetrics;
+import io.dropwizard.revolver.http.metrics.StageMetrics;
 import io.dropwizard.revolver.http.model.ApiPathMap;
-import io.dropwizard.revolver.optimizer.OptimizerMetricsCache;
 import io.dropwizard.revolver.optimizer.OptimizerMetricsCollector;
+import io.dropwizard.revolver.optimizer.OptimizerMetricsRecorder;
+import io.dropwizard.revolver.optimizer.OptimizerMetricsStore;
 import io.dropwizard.revolver.optimizer.RevolverConfigUpdater;
+import io.dropwizard.revolver.optimizer.ThreadPoolResizer;
+import io.dropwizard.revolver.optimizer.TimeoutController;
 import io.dropwizard.revolver.optimizer.config.OptimizerConfig;
 import io.dropwizard.revolver.optimizer.config.OptimizerConfigUpdaterConfig;
 import io.dropwizard.revolver.optimizer.config.OptimizerMetricsCollectorConfig;
 import io.dropwizard.revolver.persistence.AeroSpikePersistenceProvider;
 import io.dropwizard.revolver.persistence.InMemoryPersistenceProvider;
+import io.dropwizard.revolver.persistence.InstrumentedPersistenceProvider;
 import io.dropwizard.revolver.persistence.PersistenceProvider;
 import io.dropwizard.revolver.resource.RevolverApiManageResource;
 import io.dropwizard.revolver.resource.RevolverCallbackResource;
@@ -76,6 +95,7 @@ import io.dropwizard.riemann.RiemannBundle;
 import io.dropwizard.riemann.RiemannConfig;
 import io.dropwizard.setup.Bootstrap;
 import io.dropwizard.setup.Environment;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
@@ -123,7 +143,13 @@ public abstract class RevolverBundle<T extends Configuration> implements Configu
         apis.sort(Comparator.comparing(RevolverHttpApiConfig::getPath));
         apis.forEach(apiConfig -> {
             ApiPathMap apiPathMap = ApiPathMap.builder().api(apiConfig)
-                    .path(generatePathExpression(apiConfig.getPath())).build();
+                    .path(generatePathExpression(apiConfig.getPath()))
+                    .metrics(ApiMetrics.register(serviceConfiguration.getService(),
+                            apiConfig.getApi()))
+                    .executionConfig(RevolverCommandHelper.executionConfig(
+                            revolverConfig == null ? null : revolverConfig.getGlobal(),
+                            serviceConfiguration, apiConfig,
+                            apiConfig.getApi(), false)).build();
             //Update
             int elementIndex = serviceToPathMap
                     .getOrDefault(serviceConfiguration.getService(), Collections.emptyList())
@@ -201,6 +227,25 @@ public abstract class RevolverBundle<T extends Configuration> implements Configu
 
             }
         }
+        ThreadPoolResizer.sync(revolverConfig);
+        TimeoutController.sync(revolverConfig);
+    }
+
+    /**
+     * Resizes the service's connection limits to its current total concurrency without
+     * rebuilding its client
+     *
+     * @return the new connection pool size
+     */
+    public static int updateConnectionPool(RevolverHttpServiceConfig config) {
+        setTotalConcurrencyForService(config);
+        Integer previous = serviceConnectionPoolMap
+                .put(config.getService(), config.getConnectionPoolSize());
+        RevolverHttpClientFactory.resizeDispatcher(config);
+        if (previous != null && previous < config.getConnectionPoolSize()) {
+            RevolverHttpConnectionWarmer.warmUpAsync(config);
+        }
+        return config.getConnectionPoolSize();
     }
 
     private static void registerHttpsCommand(RevolverServiceConfig config) {
@@ -307,6 +352,7 @@ public abstract class RevolverBundle<T extends Configuration> implements Configu
                     && !serviceConnectionPoolMap.get(httpConfig.getService())
                     .equals(((RevolverHttpServiceConfig) config).getConnectionPoolSize())) {
                 RevolverHttpClientFactory.refreshClient(httpConfig);
+                RevolverHttpConnectionWarmer.warmUpAsync(httpConfig);
             }
         } else {
             serviceConfig.put(config.getService(), httpConfig);
@@ -351,6 +397,12 @@ public abstract class RevolverBundle<T extends Configuration> implements Configu
         HystrixCodaHaleMetricsPublisher metricsPublisher = new HystrixCodaHaleMetricsPublisher(
                 environment.metrics());
         val metrics = environment.metrics();
+        QueueWaitMetrics.setMetricRegistry(metrics);
+        ApiMetrics.setMetricRegistry(metrics);
+        HttpClientMetrics.setMetricRegistry(metrics);
+        ResponseCaches.setMetricRegistry(metrics);
+        metrics.gauge("revolver.client.cache.size",
+                () -> (Gauge<Long>) RevolverHttpClientFactory::clientCount);
         ScheduledExecutorService scheduledExecutorService = environment.lifecycle()
                 .scheduledExecutorService("metrics-builder").build();
         ScheduledExecutorService configUpdaterExecutorService = environment.lifecycle()
@@ -369,12 +421,17 @@ public abstract class RevolverBundle<T extends Configuration> implements Configu
                 new RevolverExceptionMapper(environment.getObjectMapper(), msgPackObjectMapper));
         environment.jersey().register(new TimeoutExceptionMapper(environment.getObjectMapper()));
 
-        PersistenceProvider persistenceProvider = getPersistenceProvider(configuration,
-                environment);
+        PersistenceProvider persistenceProvider = new InstrumentedPersistenceProvider(
+                getPersistenceProvider(configuration, environment), metrics,
+                revolverConfig.getMailBox() == null ? "in_memory"
+                        : revolverConfig.getMailBox().getType());
         InlineCallbackHandler callbackHandler = InlineCallbackHandler.builder()
                 .persistenceProvider(persistenceProvider).revolverConfig(revolverConfig).build();
 
-        setupOptimizer(metrics, scheduledExecutorService, configUpdaterExecutorService);
+        setupOptimizer(scheduledExecutorService, configUpdaterExecutorService);
+        setupTracing(environment);
+        setupAccessLog(environment);
+        StageMetrics.setup(metrics, revolverConfig.getStageMetrics());
 
         environment.jersey().register(new RevolverRequestFilter(revolverConfig));
 
@@ -475,29 +532,84 @@ public abstract class RevolverBundle<T extends Configuration> implements Configu
                     .objectMapper(environment.getObjectMapper())
                     .serviceDiscoveryConfig(serviceDiscoveryConfig).build();
         }
+        environment.lifecycle().manage(serviceNameResolver);
         loadServiceConfiguration(revolverConfig);
         try {
-            serviceNameResolver.getExecutorService()
-                    .awaitTermination(serviceDiscoveryConfig.getWaitForDiscoveryInMs(), TimeUnit.MILLISECONDS);
+            if (!serviceNameResolver.awaitReadiness(serviceDiscoveryConfig.getWaitForDiscoveryInMs(),
+                    TimeUnit.MILLISECONDS)) {
+                log.warn("Service discovery not ready for services: {}",
+                        serviceNameResolver.getWarmingServices());
+            }
         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
             log.error("Error occurred in service discovery completion : ", e);
         }
+        RevolverHttpConnectionWarmer.warmUp(serviceConfig.values());
+        environment.healthChecks()
+                .register("revolver-service-discovery",
+                        new ServiceDiscoveryHealthCheck(serviceNameResolver));
+    }
+
+    private void setupTracing(Environment environment) {
+        TracingConfig tracingConfig = revolverConfig.getTracing();
+        if (tracingConfig == null || !tracingConfig.isEnabled()) {
+            return;
+        }
+        try {
+            BufferedTraceCollector traceCollector = new BufferedTraceCollector(tracingConfig,
+                    new LineTraceExporter(tracingConfig.getPath()));
+            environment.lifecycle().manage(traceCollector);
+            environment.metrics().register("revolver.tracing.published",
+                    (Gauge<Long>) traceCollector::getPublished);
+            environment.metrics().register("revolver.tracing.dropped",
+                    (Gauge<Long>) traceCollector::getDropped);
+            environment.metrics().register("revolver.tracing.exported",
+                    (Gauge<Long>) traceCollector::getExported);
+            environment.metrics().register("revolver.tracing.failed",
+                    (Gauge<Long>) traceCollector::getFailed);
+            Tracing.setCollector(traceCollector, tracingConfig.getSampleRate());
+        } catch (IOException e) {
+            log.error("Error setting up tracing : ", e);
+        }
+    }
+
+    private void setupAccessLog(Environment environment) {
+        AccessLogConfig accessLogConfig = revolverConfig.getAccessLog();
+        if (accessLogConfig == null || !accessLogConfig.isEnabled()) {
+            return;
+        }
+        try {
+            AccessLogWriter accessLogWriter = new AccessLogWriter(accessLogConfig);
+            environment.lifecycle().manage(accessLogWriter);
+            environment.metrics().register("revolver.accesslog.published",
+                    (Gauge<Long>) accessLogWriter::getPublished);
+            environment.metrics().register("revolver.accesslog.dropped",
+                    (Gauge<Long>) accessLogWriter::getDropped);
+            environment.metrics().register("revolver.accesslog.written",
+                    (Gauge<Long>) accessLogWriter::getWritten);
+            environment.metrics().register("revolver.accesslog.failed",
+                    (Gauge<Long>) accessLogWriter::getFailed);
+            AccessLog.setWriter(accessLogWriter, accessLogConfig);
+        } catch (IOException e) {
+            log.error("Error setting up access log : ", e);
+        }
     }
 
-    private void setupOptimizer(MetricRegistry metrics, ScheduledExecutorService scheduledExecutorService,
+    private void setupOptimizer(ScheduledExecutorService scheduledExecutorService,
             ScheduledExecutorService configUpdaterExecutorService) {
         OptimizerConfig optimizerConfig = revolverConfig.getOptimizerConfig();
         if (optimizerConfig != null && optimizerConfig.isEnabled()) {
             log.info("Optimizer config enabled");
+            OptimizerMetricsRecorder.setEnabled(true);
             OptimizerMetricsCollectorConfig optimizerMetricsCollectorConfig = optimizerConfig
                     .getMetricsCollectorConfig();
             OptimizerConfigUpdaterConfig configUpdaterConfig = optimizerConfig
                     .getConfigUpdaterConfig();
-            OptimizerMetricsCache optimizerMetricsCache = OptimizerMetricsCache.builder().
+            OptimizerMetricsStore optimizerMetricsStore = OptimizerMetricsStore.builder().
                     optimizerMetricsCollectorConfig(optimizerMetricsCollectorConfig)
                     .build();
             OptimizerMetricsCollector optimizerMetricsCollector = OptimizerMetricsCollector
-                    .builder().metrics(metrics).optimizerMetricsCache(optimizerMetricsCache)
+                    .builder().optimizerMetricsStore(optimizerMetricsStore)
                     .optimizerConfig(optimizerConfig).build();
 
             scheduledExecutorService.scheduleAtFixedRate(optimizerMetricsCollector,
@@ -507,7 +619,7 @@ public abstract class RevolverBundle<T extends Configuration> implements Configu
 
             RevolverConfigUpdater revolverConfigUpdater = RevolverConfigUpdater.builder()
                     .optimizerConfig(optimizerConfig)
-                    .optimizerMetricsCache(optimizerMetricsCache).revolverConfig(revolverConfig)
+                    .optimizerMetricsStore(optimizerMetricsStore).revolverConfig(revolverConfig)
                     .build();
 
             configUpdaterExecutorService.scheduleAtFixedRate(revolverConfigUpdater,
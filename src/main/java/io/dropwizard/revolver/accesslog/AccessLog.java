@@ -0,0 +1,99 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.accesslog;
+
+import java.util.concurrent.ThreadLocalRandom;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Access log entries for upstream calls, callbacks and mailbox operations. Entries go to the
+ * access log writer when one is set and to debug logging otherwise; request and response bodies
+ * are never logged.
+ *
+ * @author phaneesh
+ */
+@Slf4j
+public class AccessLog {
+
+    private static volatile AccessLogWriter writer;
+    private static volatile double sampleRate = 1.0;
+    private static volatile boolean logErrors = true;
+
+    private AccessLog() {
+    }
+
+    public static void setWriter(AccessLogWriter accessLogWriter, AccessLogConfig config) {
+        if (config != null) {
+            sampleRate = config.getSampleRate();
+            logErrors = config.isLogErrors();
+        }
+        writer = accessLogWriter;
+    }
+
+    public static void upstream(String service, String api, String method, String host, int port,
+            String path, int status, long latencyInMillis, String requestId) {
+        AccessLogWriter accessLogWriter = writer;
+        if (accessLogWriter == null) {
+            if (log.isDebugEnabled()) {
+                log.debug("[{}/{}] {} {}:{}{} {} {}ms", service, api, method, host, port, path,
+                        status, latencyInMillis);
+            }
+            return;
+        }
+        if (sampled(status)) {
+            accessLogWriter.append(AccessLogRecord.Type.UPSTREAM, service, api, method, host,
+                    port, path, status, latencyInMillis, requestId);
+        }
+    }
+
+    public static void callback(String requestId, String method, String host, int port,
+            String path, int status, long latencyInMillis) {
+        AccessLogWriter accessLogWriter = writer;
+        if (accessLogWriter == null) {
+            if (log.isDebugEnabled()) {
+                log.debug("Callback for request id: {} | {} {}:{}{} {} {}ms", requestId, method,
+                        host, port, path, status, latencyInMillis);
+            }
+            return;
+        }
+        if (sampled(status)) {
+            accessLogWriter.append(AccessLogRecord.Type.CALLBACK, null, null, method, host, port,
+                    path, status, latencyInMillis, requestId);
+        }
+    }
+
+    public static void mailbox(String operation, String requestId, long latencyInMillis) {
+        AccessLogWriter accessLogWriter = writer;
+        if (accessLogWriter == null) {
+            if (log.isDebugEnabled()) {
+                log.debug("Mailbox {} for request id: {} complete in {} ms", operation, requestId,
+                        latencyInMillis);
+            }
+            return;
+        }
+        if (sampled(0)) {
+            accessLogWriter.append(AccessLogRecord.Type.MAILBOX, null, operation, null, null, 0,
+                    null, 0, latencyInMillis, requestId);
+        }
+    }
+
+    private static boolean sampled(int status) {
+        double rate = sampleRate;
+        return rate >= 1.0 || (logErrors && status >= 500)
+                || ThreadLocalRandom.current().nextDouble() < rate;
+    }
+}
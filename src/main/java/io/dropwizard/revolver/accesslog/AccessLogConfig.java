@@ -0,0 +1,58 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.accesslog;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * @author phaneesh
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class AccessLogConfig {
+
+    private boolean enabled;
+
+    //Fraction of records written; errors are written regardless when logErrors is set
+    @Builder.Default
+    private double sampleRate = 1.0;
+
+    @Builder.Default
+    private boolean logErrors = true;
+
+    //Records held for the writer; records appended while it is full are dropped
+    @Builder.Default
+    private int bufferSize = 8192;
+
+    @Builder.Default
+    private long flushIntervalInMillis = 500;
+
+    @Builder.Default
+    private String path = "revolver-access.log";
+
+    //The file is rolled over to path.1 .. path.archivedFileCount once it reaches this size
+    @Builder.Default
+    private long maxFileSizeInBytes = 100L * 1024 * 1024;
+
+    @Builder.Default
+    private int archivedFileCount = 5;
+}
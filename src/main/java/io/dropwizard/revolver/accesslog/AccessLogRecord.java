@@ -0,0 +1,63 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.accesslog;
+
+import lombok.Getter;
+
+/**
+ * A fixed schema access log entry. Records are allocated once with the ring and overwritten in
+ * place; a record is only written by the thread that claimed its slot and only read by the
+ * writer after the slot is published.
+ *
+ * @author phaneesh
+ */
+@Getter
+public class AccessLogRecord {
+
+    public enum Type {
+        UPSTREAM,
+        CALLBACK,
+        MAILBOX
+    }
+
+    private long timestamp;
+    private Type type;
+    private String service;
+    private String api;
+    private String method;
+    private String host;
+    private int port;
+    private String path;
+    private int status;
+    private long latencyInMillis;
+    private String requestId;
+
+    void set(long timestamp, Type type, String service, String api, String method, String host,
+            int port, String path, int status, long latencyInMillis, String requestId) {
+        this.timestamp = timestamp;
+        this.type = type;
+        this.service = service;
+        this.api = api;
+        this.method = method;
+        this.host = host;
+        this.port = port;
+        this.path = path;
+        this.status = status;
+        this.latencyInMillis = latencyInMillis;
+        this.requestId = requestId;
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.accesslog;
+
+import io.dropwizard.lifecycle.Managed;
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Access log records go into a ring of preallocated records that calling threads claim without
+ * locks; a single background thread formats them and writes them to a rolling file. Records
+ * appended while the ring is full are dropped and counted rather than blocking the call.
+ *
+ * @author phaneesh
+ */
+@Slf4j
+public class AccessLogWriter implements Managed {
+
+    private static final char SEPARATOR = '\t';
+    private static final String NONE = "-";
+
+    private final AccessLogRecord[] ring;
+    //Slot n of the ring is readable once its sequence is n + 1
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    private final RollingFileWriter output;
+    private final long flushIntervalInMillis;
+    private final StringBuilder line = new StringBuilder(256);
+    private ScheduledExecutorService writer;
+
+    public AccessLogWriter(AccessLogConfig config) throws IOException {
+        this(config, new RollingFileWriter(config.getPath(), config.getMaxFileSizeInBytes(),
+                config.getArchivedFileCount()));
+    }
+
+    AccessLogWriter(AccessLogConfig config, RollingFileWriter output) {
+        int capacity = Integer.highestOneBit(Math.max(2, config.getBufferSize() - 1)) << 1;
+        this.ring = new AccessLogRecord[capacity];
+        for (int i = 0; i < capacity; i++) {
+            ring[i] = new AccessLogRecord();
+        }
+        this.sequences = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+        this.output = output;
+        this.flushIntervalInMillis = Math.max(1, config.getFlushIntervalInMillis());
+    }
+
+    public boolean append(AccessLogRecord.Type type, String service, String api, String method,
+            String host, int port, String path, int status, long latencyInMillis,
+            String requestId) {
+        long slot;
+        do {
+            slot = tail.get();
+            if (slot - head.get() >= ring.length) {
+                dropped.incrementAndGet();
+                return false;
+            }
+        } while (!tail.compareAndSet(slot, slot + 1));
+        int index = (int) (slot & mask);
+        ring[index].set(System.currentTimeMillis(), type, service, api, method, host, port, path,
+                status, latencyInMillis, requestId);
+        sequences.lazySet(index, slot + 1);
+        published.incrementAndGet();
+        return true;
+    }
+
+    @Override
+    public void start() {
+        writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "revolver-access-log-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        writer.scheduleWithFixedDelay(this::drain, flushIntervalInMillis, flushIntervalInMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() throws Exception {
+        if (writer != null) {
+            writer.shutdown();
+            writer.awaitTermination(flushIntervalInMillis, TimeUnit.MILLISECONDS);
+        }
+        drain();
+        output.close();
+    }
+
+    /**
+     * Writes everything published so far; only called from the writer thread
+     */
+    synchronized void drain() {
+        long next = head.get();
+        IOException error = null;
+        while (true) {
+            int index = (int) (next & mask);
+            //Claimed but not yet written; picked up on the next drain
+            if (sequences.get(index) != next + 1) {
+                break;
+            }
+            format(ring[index]);
+            next++;
+            head.lazySet(next);
+            try {
+                output.write(line);
+                written.incrementAndGet();
+            } catch (IOException e) {
+                failed.incrementAndGet();
+                error = e;
+            }
+        }
+        try {
+            output.flush();
+        } catch (IOException e) {
+            error = e;
+        }
+        if (error != null) {
+            log.warn("Error writing access log : {}", error.getMessage());
+        }
+    }
+
+    private void format(AccessLogRecord record) {
+        line.setLength(0);
+        line.append(record.getTimestamp());
+        append(record.getType().name());
+        append(record.getService());
+        append(record.getApi());
+        append(record.getMethod());
+        append(record.getHost());
+        line.append(SEPARATOR).append(record.getPort());
+        append(record.getPath());
+        line.append(SEPARATOR).append(record.getStatus());
+        line.append(SEPARATOR).append(record.getLatencyInMillis());
+        append(record.getRequestId());
+        line.append('\n');
+    }
+
+    private void append(String value) {
+        line.append(SEPARATOR).append(value == null || value.isEmpty() ? NONE : value);
+    }
+
+    public long getPublished() {
+        return published.get();
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    public long getWritten() {
+        return written.get();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.accesslog;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends to a file and rolls it over to numbered archives once it reaches the configured size.
+ * Size is tracked in characters written, which is exact for the ascii records written here.
+ * Not thread safe; only the access log writer thread uses it.
+ *
+ * @author phaneesh
+ */
+class RollingFileWriter implements Closeable {
+
+    private final Path path;
+    private final long maxFileSizeInBytes;
+    private final int archivedFileCount;
+    private Writer writer;
+    private long size;
+
+    RollingFileWriter(String path, long maxFileSizeInBytes, int archivedFileCount)
+            throws IOException {
+        this.path = Paths.get(path);
+        this.maxFileSizeInBytes = maxFileSizeInBytes;
+        this.archivedFileCount = Math.max(0, archivedFileCount);
+        open();
+    }
+
+    void write(CharSequence line) throws IOException {
+        if (maxFileSizeInBytes > 0 && size >= maxFileSizeInBytes) {
+            roll();
+        }
+        writer.append(line);
+        size += line.length();
+    }
+
+    void flush() throws IOException {
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    private void open() throws IOException {
+        writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND);
+        size = Files.size(path);
+    }
+
+    private void roll() throws IOException {
+        writer.close();
+        if (archivedFileCount == 0) {
+            Files.delete(path);
+        } else {
+            for (int i = archivedFileCount - 1; i > 0; i--) {
+                Path archive = archive(i);
+                if (Files.exists(archive)) {
+                    Files.move(archive, archive(i + 1), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            Files.move(path, archive(1), StandardCopyOption.REPLACE_EXISTING);
+        }
+        open();
+    }
+
+    private Path archive(int index) {
+        return path.resolveSibling(path.getFileName() + "." + index);
+    }
+}
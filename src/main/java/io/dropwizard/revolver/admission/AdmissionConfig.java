@@ -0,0 +1,86 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.admission;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Settings for priority aware load shedding of an api. Load is the highest of pool utilisation,
+ * queue utilisation and p99 latency against the latency threshold; a request is shed when the
+ * load reaches the threshold of its priority. Critical requests are never shed at admission.
+ * The priority comes from a client header, so claims above the api's max priority are lowered.
+ *
+ * @author phaneesh
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AdmissionConfig {
+
+    private boolean enabled;
+
+    //Priority of requests that do not carry the priority header
+    @Builder.Default
+    private RequestPriority defaultPriority = RequestPriority.NORMAL;
+
+    //Highest priority a request can claim; raise to CRITICAL only when every caller is trusted
+    @Builder.Default
+    private RequestPriority maxPriority = RequestPriority.HIGH;
+
+    @Builder.Default
+    private double highPriorityShedLoad = 0.95;
+
+    @Builder.Default
+    private double normalPriorityShedLoad = 0.8;
+
+    @Builder.Default
+    private double lowPriorityShedLoad = 0.5;
+
+    //p99 latency that counts as full load; latency is ignored when not set
+    @Builder.Default
+    private int latencyThresholdInMillis = 0;
+
+    @Builder.Default
+    private int retryAfterInSeconds = 1;
+
+    /**
+     * @return priority claimed by the header value, or the default priority, capped at the max
+     * priority
+     */
+    public RequestPriority priority(String claimed) {
+        RequestPriority priority = RequestPriority.parse(claimed, defaultPriority);
+        return maxPriority != null && priority.compareTo(maxPriority) < 0 ? maxPriority
+                : priority;
+    }
+
+    public double shedLoad(RequestPriority priority) {
+        switch (priority) {
+            case HIGH:
+                return highPriorityShedLoad;
+            case NORMAL:
+                return normalPriorityShedLoad;
+            case LOW:
+                return lowPriorityShedLoad;
+            default:
+                return Double.MAX_VALUE;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.admission;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.netflix.hystrix.HystrixCommandKey;
+import com.netflix.hystrix.HystrixCommandMetrics;
+import com.netflix.hystrix.HystrixThreadPoolKey;
+import com.netflix.hystrix.HystrixThreadPoolMetrics;
+import io.dropwizard.revolver.core.config.hystrix.ThreadPoolConfig;
+import io.dropwizard.revolver.core.engine.RevolverExecutionConfig;
+import io.dropwizard.revolver.core.engine.RevolverExecutionEngine;
+import io.dropwizard.revolver.core.engine.SemaphoreExecutionEngine;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sheds low priority requests before they reach a saturating upstream pool, so that the pool's
+ * own arrival order rejection only ever applies to high priority traffic.
+ *
+ * @author phaneesh
+ */
+public class AdmissionController {
+
+    private static final String METRIC_PREFIX = "revolver.admission";
+
+    private final MetricRegistry metrics;
+
+    //Shed meters by service key, indexed by priority and resolved on first use
+    private final Map<String, Meter[]> shed = new ConcurrentHashMap<>();
+
+    public AdmissionController(MetricRegistry metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * @return true if the request may proceed
+     */
+    public boolean admit(String serviceKey, AdmissionConfig config, RequestPriority priority,
+            RevolverExecutionConfig executionConfig, RevolverExecutionEngine engine) {
+        double shedLoad = config.shedLoad(priority);
+        if (shedLoad == Double.MAX_VALUE || load(executionConfig, engine, config) < shedLoad) {
+            return true;
+        }
+        shedMeter(serviceKey, priority).mark();
+        return false;
+    }
+
+    private Meter shedMeter(String serviceKey, RequestPriority priority) {
+        Meter[] meters = shed.computeIfAbsent(serviceKey,
+                key -> new Meter[RequestPriority.values().length]);
+        Meter meter = meters[priority.ordinal()];
+        if (meter == null) {
+            //A racing thread gets the same meter back from the registry
+            meter = metrics.meter(MetricRegistry
+                    .name(METRIC_PREFIX, serviceKey, "shed", priority.name().toLowerCase()));
+            meters[priority.ordinal()] = meter;
+        }
+        return meter;
+    }
+
+    private static double load(RevolverExecutionConfig executionConfig,
+            RevolverExecutionEngine engine, AdmissionConfig config) {
+        ThreadPoolConfig threadPoolConfig = executionConfig.getThreadPoolConfig();
+        //No hystrix metrics exist for apis on the semaphore engine; it tracks in-flight itself
+        if (engine instanceof SemaphoreExecutionEngine) {
+            return load(((SemaphoreExecutionEngine) engine)
+                            .inFlight(executionConfig.getThreadPoolKey()), 0,
+                    threadPoolConfig.getConcurrency(), 0, 0, config);
+        }
+        HystrixCommandMetrics commandMetrics = HystrixCommandMetrics
+                .getInstance(HystrixCommandKey.Factory.asKey(executionConfig.getCommandKey()));
+        int latency = commandMetrics == null ? 0 : commandMetrics.getExecutionTimePercentile(99);
+        if (threadPoolConfig.isSemaphoreIsolated()) {
+            int active = commandMetrics == null ? 0
+                    : commandMetrics.getCurrentConcurrentExecutionCount();
+            return load(active, 0, threadPoolConfig.getConcurrency(), 0, latency, config);
+        }
+        HystrixThreadPoolMetrics poolMetrics = HystrixThreadPoolMetrics
+                .getInstance(HystrixThreadPoolKey.Factory.asKey(executionConfig.getThreadPoolKey()));
+        if (poolMetrics == null) {
+            return load(0, 0, threadPoolConfig.getConcurrency(), 0, latency, config);
+        }
+        int queueSize = threadPoolConfig.getMaxRequestQueueSize() <= 0 ? 0
+                : Math.min(threadPoolConfig.getMaxRequestQueueSize(),
+                        threadPoolConfig.getDynamicRequestQueueSize());
+        return load(poolMetrics.getCurrentActiveCount().intValue(),
+                poolMetrics.getCurrentQueueSize().intValue(), threadPoolConfig.getConcurrency(),
+                queueSize, latency, config);
+    }
+
+    static double load(int active, int queued, int concurrency, int queueSize, int latency,
+            AdmissionConfig config) {
+        double load = concurrency <= 0 ? 0 : (double) active / concurrency;
+        if (queueSize > 0) {
+            load = Math.max(load, (double) queued / queueSize);
+        }
+        if (config.getLatencyThresholdInMillis() > 0) {
+            load = Math.max(load, (double) latency / config.getLatencyThresholdInMillis());
+        }
+        return load;
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.admission;
+
+import com.google.common.base.Strings;
+
+/**
+ * Priority of a request at admission; lower priorities are shed first under load
+ *
+ * @author phaneesh
+ */
+public enum RequestPriority {
+    CRITICAL,
+    HIGH,
+    NORMAL,
+    LOW;
+
+    /**
+     * @return priority named by the value (case insensitive) or the default when it is missing or
+     * not a known priority
+     */
+    public static RequestPriority parse(String value, RequestPriority defaultPriority) {
+        if (Strings.isNullOrEmpty(value)) {
+            return defaultPriority;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return defaultPriority;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.dropwizard.revolver.cache;
+
+import io.dropwizard.revolver.http.model.RevolverHttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import javax.ws.rs.core.MultivaluedHashMap;
+import lombok.Getter;
+
+/**
+ * Compact copy of an upstream response: headers are kept as a flat name/value array, with one
+ * pair per value of multi-valued headers.
+ *
+ * @author phaneesh
+ */
+@Getter
+public class CachedResponse {
+
+    private final int statusCode;
+    private final String[] headers;
+    private final byte[] body;
+    private final String etag;
+    private final String lastModified;
+    private final long freshUntil;
+    private final long staleUntil;
+
+    CachedResponse(int statusCode, String[] headers, byte[] body, String etag,
+            String lastModified, long freshUntil, long staleUntil) {
+        this.statusCode = statusCode;
+        this.headers = headers;
+        this.body = body;
+        this.etag = etag;
+        this.lastModified = lastModified;
+        this.freshUntil = freshUntil;
+        this.staleUntil = staleUntil;
+    }
+
+    static CachedResponse of(RevolverHttpResponse response, String etag, String lastModified,
+            long freshUntil, long staleUntil) {
+        List<String> headers = new ArrayList<>();
+        if (response.getHeaders() != null) {
+            for (Map.Entry<String, List<String>> header : response.getHeaders().entrySet()) {
+                if (header.getValue() == null) {
+                    continue;
+                }
+                for (String value : header.getValue()) {
+                    headers.add(header.getKey());
+                    headers.add(value);
+                }
+            }
+        }
+        return new CachedResponse(response.getStatusCode(), headers.toArray(new String[0]),
+                response.getBody(), etag, lastModified, freshUntil, staleUntil);
+    }
+
+    CachedResponse withFreshness(long freshUntil, long staleUntil) {
+        return new CachedResponse(statusCode, headers, body, etag, lastModified, freshUntil,
+                staleUntil);
+    }
+
+    public boolean isFresh(long now) {
+        return now < freshUntil;
+    }
+
+    public boolean isStaleServable(long now) {
+        return now < staleUntil;
+    }
+
+    public boolean isRevalidatable() {
+        return etag != null || lastModified != null;
+    }
+
+    int weight() {
+        int weight = 64 + (body == null ? 0 : body.length);
+        for (String header : headers) {
+            weight += header == null ? 0 : header.length() * 2;
+        }
+        return weight;
+    }
+
+    public RevolverHttpResponse toResponse() {
+        MultivaluedHashMap<String, String> responseHeaders = new MultivaluedHashMap<>();
+        for (int i = 0; i < headers.length; i += 2) {
+            responseHeaders.add(headers[i], headers[i + 1]);
+        }
+        return RevolverHttpResponse.builder().statusCode(statusCode).headers(responseHeaders)
+                .body(body).build();
+    }
+}
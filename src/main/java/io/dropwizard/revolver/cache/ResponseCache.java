@@ -0,0 +1,318 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.dropwizard.revolver.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.dropwizard.revolver.http.model.RevolverHttpResponse;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MultivaluedMap;
+import lombok.Getter;
+
+/**
+ * Response cache of a single api. Entries are fresh for the configured ttl (or the upstream
+ * max-age), may then be served stale while a background refresh runs, and entries carrying a
+ * validator are kept around a while longer so that they can be revalidated with a conditional
+ * request instead of being fetched again. Responses that set cookies, or that vary on a request
+ * header which is not part of the cache key, are never stored.
+ *
+ * @author phaneesh
+ */
+public class ResponseCache {
+
+    private static final String METRIC_PREFIX = "revolver.cache";
+
+    @Getter
+    private final ResponseCacheConfig config;
+    private final Cache<String, CachedResponse> entries;
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    private final Meter hits;
+    private final Meter staleHits;
+    private final Meter misses;
+
+    ResponseCache(ResponseCacheConfig config, String name, MetricRegistry metrics) {
+        this.config = config;
+        this.hits = metrics == null ? null
+                : metrics.meter(MetricRegistry.name(METRIC_PREFIX, name, "hit"));
+        this.staleHits = metrics == null ? null
+                : metrics.meter(MetricRegistry.name(METRIC_PREFIX, name, "stale"));
+        this.misses = metrics == null ? null
+                : metrics.meter(MetricRegistry.name(METRIC_PREFIX, name, "miss"));
+        Caffeine<String, CachedResponse> builder = Caffeine.newBuilder()
+                .expireAfter(new Expiry<String, CachedResponse>() {
+                    @Override
+                    public long expireAfterCreate(String key, CachedResponse value,
+                            long currentTime) {
+                        return retention(value);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, CachedResponse value,
+                            long currentTime, long currentDuration) {
+                        return retention(value);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, CachedResponse value,
+                            long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                });
+        if (config.getMaxSizeInBytes() > 0) {
+            builder.maximumWeight(config.getMaxSizeInBytes())
+                    .weigher((String key, CachedResponse value) -> value.weight());
+        } else {
+            builder.maximumSize(config.getMaxEntries());
+        }
+        this.entries = builder.build();
+    }
+
+    public String key(String path, MultivaluedMap<String, String> queryParams,
+            MultivaluedMap<String, String> headers) {
+        StringBuilder key = new StringBuilder(path);
+        if (queryParams != null && !queryParams.isEmpty()) {
+            key.append('?').append(new TreeMap<>(queryParams));
+        }
+        if (headers != null && config.getKeyHeaders() != null) {
+            config.getKeyHeaders().forEach(header -> key.append('|').append(headers.get(header)));
+        }
+        return key.toString();
+    }
+
+    public CachedResponse get(String key) {
+        return entries.getIfPresent(key);
+    }
+
+    public void hit() {
+        mark(hits);
+    }
+
+    public void staleHit() {
+        mark(staleHits);
+    }
+
+    public void miss() {
+        mark(misses);
+    }
+
+    /**
+     * Adds validators of a cached response so that the upstream can answer with a 304
+     */
+    public void addConditionalHeaders(CachedResponse cached,
+            MultivaluedMap<String, String> headers) {
+        if (cached == null || !config.isHonourCacheControl()) {
+            return;
+        }
+        if (cached.getEtag() != null) {
+            headers.putSingle(HttpHeaders.IF_NONE_MATCH, cached.getEtag());
+        }
+        if (cached.getLastModified() != null) {
+            headers.putSingle(HttpHeaders.IF_MODIFIED_SINCE, cached.getLastModified());
+        }
+    }
+
+    /**
+     * Caches a successful response, or renews the cached one when the upstream confirmed it is
+     * still valid.
+     *
+     * @return the response to serve
+     */
+    public RevolverHttpResponse update(String key, CachedResponse cached,
+            RevolverHttpResponse response) {
+        Map<String, String> cacheControl = cacheControl(header(response, "Cache-Control"));
+        long now = System.currentTimeMillis();
+        long ttl = TimeUnit.SECONDS.toMillis(config.getTtlInSeconds());
+        long staleWhileRevalidate = TimeUnit.SECONDS
+                .toMillis(config.getStaleWhileRevalidateInSeconds());
+        if (config.isHonourCacheControl()) {
+            if (cacheControl.containsKey("no-store") || cacheControl.containsKey("private")) {
+                return response;
+            }
+            String maxAge = cacheControl.containsKey("s-maxage") ? cacheControl.get("s-maxage")
+                    : cacheControl.get("max-age");
+            if (maxAge != null) {
+                ttl = TimeUnit.SECONDS.toMillis(parseSeconds(maxAge));
+            }
+            if (cacheControl.containsKey("no-cache")) {
+                ttl = 0;
+            }
+            if (cacheControl.containsKey("stale-while-revalidate")) {
+                staleWhileRevalidate = TimeUnit.SECONDS
+                        .toMillis(parseSeconds(cacheControl.get("stale-while-revalidate")));
+            }
+            if (cacheControl.containsKey("must-revalidate") || cacheControl
+                    .containsKey("proxy-revalidate")) {
+                staleWhileRevalidate = 0;
+            }
+        }
+        if (!isStorable(response)) {
+            if (cached != null) {
+                entries.invalidate(key);
+            }
+            if (response.getStatusCode() == 304 && cached != null) {
+                //Serve the body we asked to revalidate, with the upstream's updated headers
+                RevolverHttpResponse full = cached.toResponse();
+                if (response.getHeaders() != null) {
+                    full.getHeaders().putAll(response.getHeaders());
+                }
+                return full;
+            }
+            return response;
+        }
+        if (response.getStatusCode() == 304 && cached != null) {
+            CachedResponse renewed = cached
+                    .withFreshness(now + ttl, now + ttl + staleWhileRevalidate);
+            entries.put(key, renewed);
+            return renewed.toResponse();
+        }
+        if (response.getStatusCode() != 200) {
+            return response;
+        }
+        String etag = config.isHonourCacheControl() ? header(response, HttpHeaders.ETAG) : null;
+        String lastModified =
+                config.isHonourCacheControl() ? header(response, HttpHeaders.LAST_MODIFIED) : null;
+        CachedResponse entry = CachedResponse
+                .of(response, etag, lastModified, now + ttl, now + ttl + staleWhileRevalidate);
+        if (retention(entry) > 0) {
+            entries.put(key, entry);
+        }
+        return response;
+    }
+
+    /**
+     * @return true if the caller should refresh the entry; only one refresh runs per key
+     */
+    public boolean startRefresh(String key) {
+        return refreshing.add(key);
+    }
+
+    public void endRefresh(String key) {
+        refreshing.remove(key);
+    }
+
+    public void invalidateAll() {
+        entries.invalidateAll();
+    }
+
+    public long size() {
+        return entries.estimatedSize();
+    }
+
+    //A response for one user must not be served to another
+    private boolean isStorable(RevolverHttpResponse response) {
+        if (!headers(response, "Set-Cookie").isEmpty()) {
+            return false;
+        }
+        for (String vary : headers(response, "Vary")) {
+            for (String name : vary.split(",")) {
+                String header = name.trim();
+                if (!header.isEmpty() && !isKeyHeader(header)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private boolean isKeyHeader(String header) {
+        if (config.getKeyHeaders() == null) {
+            return false;
+        }
+        for (String keyHeader : config.getKeyHeaders()) {
+            if (keyHeader.equalsIgnoreCase(header)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void mark(Meter meter) {
+        if (meter != null) {
+            meter.mark();
+        }
+    }
+
+    //Entries with a validator outlive their stale window by one ttl so they can be revalidated
+    private long retention(CachedResponse value) {
+        long until = value.getStaleUntil();
+        if (value.isRevalidatable()) {
+            until += TimeUnit.SECONDS.toMillis(config.getTtlInSeconds());
+        }
+        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, until - System.currentTimeMillis()));
+    }
+
+    private static String header(RevolverHttpResponse response, String name) {
+        if (response.getHeaders() == null) {
+            return null;
+        }
+        for (String header : response.getHeaders().keySet()) {
+            if (header.equalsIgnoreCase(name)) {
+                return response.getHeaders().getFirst(header);
+            }
+        }
+        return null;
+    }
+
+    private static List<String> headers(RevolverHttpResponse response, String name) {
+        if (response.getHeaders() == null) {
+            return Collections.emptyList();
+        }
+        List<String> values = new ArrayList<>();
+        response.getHeaders().forEach((header, headerValues) -> {
+            if (header.equalsIgnoreCase(name) && headerValues != null) {
+                values.addAll(headerValues);
+            }
+        });
+        return values;
+    }
+
+    private static Map<String, String> cacheControl(String value) {
+        Map<String, String> directives = new HashMap<>();
+        if (value == null) {
+            return directives;
+        }
+        for (String directive : value.split(",")) {
+            String[] parts = directive.trim().split("=", 2);
+            if (!parts[0].isEmpty()) {
+                directives.put(parts[0].toLowerCase(),
+                        parts.length > 1 ? parts[1].replace("\"", "").trim() : null);
+            }
+        }
+        return directives;
+    }
+
+    private static long parseSeconds(String value) {
+        try {
+            return Math.max(0, Long.parseLong(value));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
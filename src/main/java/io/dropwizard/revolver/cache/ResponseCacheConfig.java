@@ -0,0 +1,62 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.dropwizard.revolver.cache;
+
+import java.util.Arrays;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Settings for caching successful GET responses of an api
+ *
+ * @author phaneesh
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResponseCacheConfig {
+
+    private boolean enabled;
+
+    @Builder.Default
+    private int ttlInSeconds = 60;
+
+    //How long an expired response may still be served while it is refreshed in the background
+    @Builder.Default
+    private int staleWhileRevalidateInSeconds = 0;
+
+    @Builder.Default
+    private long maxEntries = 10000;
+
+    //Bounds the cache by response size instead of entry count when set
+    @Builder.Default
+    private long maxSizeInBytes = 0;
+
+    //Request headers that are part of the cache key besides path and query
+    @Builder.Default
+    private List<String> keyHeaders = Arrays.asList("Authorization", "Accept");
+
+    //Use upstream Cache-Control for freshness and ETag/Last-Modified for revalidation
+    @Builder.Default
+    private boolean honourCacheControl = true;
+
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.dropwizard.revolver.cache;
+
+import com.codahale.metrics.MetricRegistry;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Response caches keyed by service.api. A cache is replaced (and so emptied) when the api's cache
+ * config changes.
+ *
+ * @author phaneesh
+ */
+public class ResponseCaches {
+
+    private static final Map<String, ResponseCache> caches = new ConcurrentHashMap<>();
+
+    private static volatile MetricRegistry metrics;
+
+    private ResponseCaches() {
+    }
+
+    /**
+     * Caches created after this record hits, stale hits and misses in the registry
+     */
+    public static void setMetricRegistry(MetricRegistry metricRegistry) {
+        metrics = metricRegistry;
+    }
+
+    /**
+     * @return cache for the api or null when caching is not enabled for it
+     */
+    public static ResponseCache get(String serviceKey, ResponseCacheConfig config) {
+        if (config == null || !config.isEnabled()) {
+            return null;
+        }
+        ResponseCache cache = caches.get(serviceKey);
+        if (cache != null && cache.getConfig().equals(config)) {
+            return cache;
+        }
+        return caches.compute(serviceKey,
+                (key, existing) -> existing != null && existing.getConfig().equals(config)
+                        ? existing : new ResponseCache(config, key, metrics));
+    }
+
+    /**
+     * @return number of entries dropped
+     */
+    public static long invalidate(String service, String api) {
+        ResponseCache cache = caches.get(service + "." + api);
+        if (cache == null) {
+            return 0;
+        }
+        long size = cache.size();
+        cache.invalidateAll();
+        return size;
+    }
+
+    /**
+     * Drops the cached responses of every api of the service
+     *
+     * @return number of entries dropped
+     */
+    public static long invalidate(String service) {
+        String prefix = service + ".";
+        return caches.entrySet().stream().filter(e -> e.getKey().startsWith(prefix))
+                .mapToLong(e -> {
+                    long size = e.getValue().size();
+                    e.getValue().invalidateAll();
+                    return size;
+                }).sum();
+    }
+}
@@ -21,12 +21,15 @@ import com.github.benmanes.caffeine.cache.Caffeine;
 import com.github.benmanes.caffeine.cache.LoadingCache;
 import com.google.common.base.Strings;
 import io.dropwizard.revolver.RevolverBundle;
+import io.dropwizard.revolver.accesslog.AccessLog;
 import io.dropwizard.revolver.base.core.RevolverCallbackRequest;
 import io.dropwizard.revolver.base.core.RevolverCallbackResponse;
 import io.dropwizard.revolver.base.core.RevolverRequestState;
 import io.dropwizard.revolver.core.config.HystrixCommandConfig;
 import io.dropwizard.revolver.core.config.RevolverConfig;
 import io.dropwizard.revolver.core.config.hystrix.ThreadPoolConfig;
+import io.dropwizard.revolver.core.jfr.FlightEventType;
+import io.dropwizard.revolver.core.jfr.FlightEvents;
 import io.dropwizard.revolver.discovery.EndpointSpec;
 import io.dropwizard.revolver.discovery.model.RangerEndpointSpec;
 import io.dropwizard.revolver.discovery.model.SimpleEndpointSpec;
@@ -110,12 +113,15 @@ public class InlineCallbackHandler extends CallbackHandler {
             RevolverCallbackRequest callbackRequest,
             RevolverCallbackResponse callBackResponse) {
         long start = System.currentTimeMillis();
+        long begin = FlightEvents.begin(FlightEventType.CALLBACK);
         try {
             String callbackUri =
                     uri.getScheme() + "://" + uri.getHost() + ":" + (uri.getPort() != -1 ? uri
                             .getPort() : "");
-            log.info("Callback Request URI: {} | Payload: {}", uri.toString(),
-                    new String(callBackResponse.getBody()));
+            if (log.isDebugEnabled()) {
+                log.debug("Callback Request URI: {} | Payload size: {}", uri, callBackResponse
+                        .getBody() == null ? 0 : callBackResponse.getBody().length);
+            }
             RevolverHttpServiceConfig httpCommandConfig = clientLoadingCache
                     .get(CallbackConfigKey.builder().callbackRequest(callbackRequest)
                             .endpoint(callbackUri).build());
@@ -142,17 +148,23 @@ public class InlineCallbackHandler extends CallbackHandler {
                     .method(RevolverHttpApiConfig.RequestMethod.valueOf(method))
                     .service(httpCommandConfig.getService()).build();
             httpCommand.executeAsyncAsObservable(httpRequest).subscribe((response) -> {
-                if (response.getStatusCode() >= 200 && response.getStatusCode() <= 210) {
-                    log.info("Callback success: " + response.toString());
-                } else {
+                AccessLog.callback(requestId, httpRequest.getMethod().name(), uri.getHost(),
+                        uri.getPort(), uri.getRawPath(), response.getStatusCode(),
+                        System.currentTimeMillis() - start);
+                FlightEvents.commit(FlightEventType.CALLBACK, begin, uri.getHost(),
+                        uri.getRawPath(), String.valueOf(response.getStatusCode()));
+                if (response.getStatusCode() < 200 || response.getStatusCode() > 210) {
                     log.error(
-                            "Error from callback for request id: {} | host: {} | Status Code: {} | Response Body: {}",
+                            "Error from callback for request id: {} | host: {} | Status Code: {} | Body Length: {}",
                             requestId, uri.getHost(), response.getStatusCode(),
-                            response.getBody() != null ? new String(response.getBody()) : "NONE");
+                            response.getBody() == null ? 0 : response.getBody().length);
                 }
-            }, (error) -> log
-                    .error("Error from callback for request id: {} | Error: {}", requestId, error));
-            log.info("Callback complete for request id: {} in {} ms", requestId,
+            }, (error) -> {
+                FlightEvents.commit(FlightEventType.CALLBACK, begin, uri.getHost(),
+                        uri.getRawPath(), "ERROR");
+                log.error("Error from callback for request id: {} | Error: {}", requestId, error);
+            });
+            log.debug("Callback dispatched for request id: {} in {} ms", requestId,
                     (System.currentTimeMillis() - start));
         } catch (Exception e) {
             log.error("Error making callback for: {} for request: {}", uri.toString(), requestId,
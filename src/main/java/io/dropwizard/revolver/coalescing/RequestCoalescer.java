@@ -0,0 +1,158 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.dropwizard.revolver.coalescing;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.RatioGauge;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MultivaluedMap;
+
+/**
+ * Single flight execution: the first request for a key runs the call and concurrent requests for
+ * the same key wait for its result instead of making their own upstream call.
+ *
+ * @author phaneesh
+ */
+public class RequestCoalescer {
+
+    private static final String METRIC_PREFIX = "revolver.coalescing";
+
+    //A conditional request can get a 304 that other callers cannot use as their response
+    private static final List<String> CONDITIONAL_HEADERS = Arrays
+            .asList(HttpHeaders.IF_NONE_MATCH, HttpHeaders.IF_MODIFIED_SINCE);
+
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+    private final MetricRegistry metrics;
+
+    public RequestCoalescer(MetricRegistry metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Key identifying requests that can share a response. Query parameters are sorted so that
+     * their order does not matter; only the configured vary headers are considered.
+     */
+    public static String key(String method, String service, String path,
+            MultivaluedMap<String, String> queryParams, MultivaluedMap<String, String> headers,
+            RequestCoalescingConfig config) {
+        StringBuilder key = new StringBuilder(method).append(' ').append(service).append('/')
+                .append(path);
+        if (queryParams != null && !queryParams.isEmpty()) {
+            key.append('?').append(new TreeMap<>(queryParams));
+        }
+        if (headers != null && config.getVaryHeaders() != null) {
+            config.getVaryHeaders()
+                    .forEach(header -> key.append('|').append(headers.get(header)));
+        }
+        return key.toString();
+    }
+
+    /**
+     * Whether a request with these headers may share its response with others; conditional
+     * requests never do.
+     */
+    public static boolean isCoalescable(MultivaluedMap<String, String> headers) {
+        if (headers == null) {
+            return true;
+        }
+        return headers.keySet().stream().noneMatch(header -> CONDITIONAL_HEADERS.stream()
+                .anyMatch(conditional -> conditional.equalsIgnoreCase(header)));
+    }
+
+    /**
+     * Runs the call for the first request of a key; concurrent requests for the same key wait up
+     * to their own remaining time for that result and fail with a {@link TimeoutException} after.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String serviceKey, String key, long timeoutInMs, Callable<T> call)
+            throws Exception {
+        Stats stats = this.stats.computeIfAbsent(serviceKey, Stats::new);
+        CompletableFuture<Object> leader = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, leader);
+        if (existing != null) {
+            stats.coalesced.mark();
+            try {
+                return (T) existing.get(Math.max(0, timeoutInMs), TimeUnit.MILLISECONDS);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof Exception) {
+                    throw (Exception) e.getCause();
+                }
+                throw e;
+            } catch (TimeoutException e) {
+                throw new TimeoutException(
+                        "Timed out waiting for coalesced request on " + serviceKey);
+            }
+        }
+        stats.executed.mark();
+        try {
+            T result = call.call();
+            leader.complete(result);
+            return result;
+        } catch (Exception e) {
+            leader.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, leader);
+        }
+    }
+
+    //Meters of a service key; the ratio gauge is registered once when the key is first seen
+    private class Stats {
+
+        private final Meter executed;
+        private final Meter coalesced;
+
+        private Stats(String serviceKey) {
+            this.executed = metrics
+                    .meter(MetricRegistry.name(METRIC_PREFIX, serviceKey, "executed"));
+            this.coalesced = metrics
+                    .meter(MetricRegistry.name(METRIC_PREFIX, serviceKey, "coalesced"));
+            metrics.gauge(MetricRegistry.name(METRIC_PREFIX, serviceKey, "ratio"),
+                    () -> new CoalescingRatio(this));
+        }
+    }
+
+    //Share of requests in the last minute that were served by another request's execution
+    private static class CoalescingRatio extends RatioGauge {
+
+        private final Stats stats;
+
+        private CoalescingRatio(Stats stats) {
+            this.stats = stats;
+        }
+
+        @Override
+        protected Ratio getRatio() {
+            double coalesced = stats.coalesced.getOneMinuteRate();
+            double executed = stats.executed.getOneMinuteRate();
+            return Ratio.of(coalesced, coalesced + executed);
+        }
+    }
+}
@@ -17,19 +17,28 @@
 
 package io.dropwizard.revolver.core;
 
-import com.netflix.hystrix.HystrixCommand;
 import io.dropwizard.revolver.core.config.ClientConfig;
 import io.dropwizard.revolver.core.config.CommandHandlerConfig;
 import io.dropwizard.revolver.core.config.RevolverServiceConfig;
 import io.dropwizard.revolver.core.config.RuntimeConfig;
+import io.dropwizard.revolver.core.engine.QueueWaitMetrics;
+import io.dropwizard.revolver.core.engine.RevolverExecution;
+import io.dropwizard.revolver.core.engine.RevolverExecutionConfig;
+import io.dropwizard.revolver.core.engine.RevolverExecutionEngine;
+import io.dropwizard.revolver.core.jfr.FlightEventType;
+import io.dropwizard.revolver.core.jfr.FlightEvents;
 import io.dropwizard.revolver.core.model.RevolverRequest;
 import io.dropwizard.revolver.core.model.RevolverResponse;
 import io.dropwizard.revolver.core.tracing.TraceInfo;
+import io.dropwizard.revolver.core.tracing.Tracing;
 import io.dropwizard.revolver.core.util.RevolverCommandHelper;
 import io.dropwizard.revolver.core.util.RevolverExceptionHelper;
+import io.dropwizard.revolver.optimizer.OptimizerMetricsRecorder;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.slf4j.MDC;
@@ -63,15 +72,23 @@ public abstract class RevolverCommand<RequestType extends RevolverRequest, Respo
         RequestType normalizedRequest = RevolverCommandHelper.normalize(request);
         TraceInfo traceInfo = normalizedRequest.getTrace();
         addContextInfo(request, traceInfo);
+        boolean sampled = Tracing.isSampled(traceInfo);
+        long startTime = sampled ? System.currentTimeMillis() : 0;
+        AtomicReference<Throwable> failure = new AtomicReference<>();
         try {
-            ResponseType response = (ResponseType) new RevolverCommandHandler(
-                    RevolverCommandHelper.setter(this, request.getApi()), this.context, this,
-                    normalizedRequest).execute();
+            ResponseType response = getExecutionEngine()
+                    .execute(execution(request.getApi(), normalizedRequest, failure));
             if (log.isDebugEnabled()) {
                 log.debug("Command response: " + response);
             }
+            if (sampled) {
+                trace(request, traceInfo, startTime, failure.get());
+            }
             return response;
         } catch (Throwable t) {
+            if (sampled) {
+                trace(request, traceInfo, startTime, t);
+            }
             Throwable rootCause = ExceptionUtils.getRootCause(t);
             log.error("Error occurred while executing revolver command for service : " + request
                     .getService() + ", for api : " + request.getApi() + " with error : " + t);
@@ -98,21 +115,30 @@ public abstract class RevolverCommand<RequestType extends RevolverRequest, Respo
         RequestType normalizedRequest = RevolverCommandHelper.normalize(request);
         TraceInfo traceInfo = normalizedRequest.getTrace();
         addContextInfo(request, traceInfo);
-        Future<ResponseType> responseFuture = new RevolverCommandHandler(
-                RevolverCommandHelper.setter(this, request.getApi()), this.context, this,
-                normalizedRequest).queue();
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                return responseFuture.get();
-            } catch (Throwable t) {
-                throw new RevolverExecutionException(RevolverExecutionException.Type.SERVICE_ERROR,
-                        String.format("Error executing command %s",
-                                RevolverCommandHelper.getName(request)),
-                        RevolverExceptionHelper.getLeafThrowable(t));
-            } finally {
-                removeContextInfo();
-            }
-        });
+        boolean sampled = Tracing.isSampled(traceInfo);
+        long startTime = sampled ? System.currentTimeMillis() : 0;
+        CompletableFuture<ResponseType> result = new CompletableFuture<>();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        getExecutionEngine().executeAsync(execution(request.getApi(), normalizedRequest, failure))
+                .whenComplete((response, t) -> {
+                    if (sampled) {
+                        trace(request, traceInfo, startTime, t != null ? t : failure.get());
+                    }
+                    try {
+                        if (t == null) {
+                            result.complete(response);
+                        } else {
+                            result.completeExceptionally(new RevolverExecutionException(
+                                    RevolverExecutionException.Type.SERVICE_ERROR,
+                                    String.format("Error executing command %s",
+                                            RevolverCommandHelper.getName(request)),
+                                    RevolverExceptionHelper.getLeafThrowable(t)));
+                        }
+                    } finally {
+                        removeContextInfo();
+                    }
+                });
+        return result;
     }
 
     @SuppressWarnings("unchecked")
@@ -120,8 +146,125 @@ public abstract class RevolverCommand<RequestType extends RevolverRequest, Respo
         RequestType normalizedRequest = RevolverCommandHelper.normalize(request);
         TraceInfo traceInfo = normalizedRequest.getTrace();
         addContextInfo(request, traceInfo);
-        return new RevolverCommandHandler(RevolverCommandHelper.setter(this, request.getApi()),
-                this.context, this, normalizedRequest).toObservable();
+        boolean sampled = Tracing.isSampled(traceInfo);
+        long startTime = sampled ? System.currentTimeMillis() : 0;
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Observable<ResponseType> observable = getExecutionEngine()
+                .observe(execution(request.getApi(), normalizedRequest, failure));
+        if (!sampled) {
+            return observable;
+        }
+        return observable
+                .doOnCompleted(() -> trace(request, traceInfo, startTime, failure.get()))
+                .doOnError(t -> trace(request, traceInfo, startTime, t));
+    }
+
+    private void trace(RequestType request, TraceInfo traceInfo, long startTime,
+            Throwable error) {
+        Tracing.publish(traceInfo,
+                clientConfiguration == null ? null : clientConfiguration.getClientName(),
+                request.getService(), request.getApi(), startTime, error);
+    }
+
+    /**
+     * @param failure receives what the execution failed with, including failures the engine
+     * answered with the fallback
+     */
+    private RevolverExecution<ResponseType> execution(String api, RequestType request,
+            AtomicReference<Throwable> failure) {
+        RevolverExecutionConfig config = RevolverCommandHelper.executionConfig(this, api);
+        //Engines move this to the moment they queue the execution
+        AtomicLong submittedAt = new AtomicLong(System.nanoTime());
+        return RevolverExecution.<ResponseType>builder().config(config).submittedAt(submittedAt)
+                .task(() -> {
+                    checkQueueWait(config.getCommandKey(), request, submittedAt.get());
+                    long start = System.currentTimeMillis();
+                    long begin = FlightEvents.begin(FlightEventType.COMMAND);
+                    OptimizerMetricsRecorder.started(config.getThreadPoolKey());
+                    String status = Tracing.ERROR;
+                    try {
+                        ResponseType response = execute(this.context, request);
+                        status = Tracing.SUCCESS;
+                        return response;
+                    } catch (Exception e) {
+                        failure.compareAndSet(null, e);
+                        throw e;
+                    } finally {
+                        OptimizerMetricsRecorder.completed(config.getThreadPoolKey(),
+                                config.getCommandKey(), System.currentTimeMillis() - start);
+                        FlightEvents.commit(FlightEventType.COMMAND, begin, request.getService(),
+                                request.getApi(), status);
+                    }
+                })
+                .asyncTask(() -> {
+                    try {
+                        checkQueueWait(config.getCommandKey(), request, submittedAt.get());
+                    } catch (TimeoutException e) {
+                        failure.compareAndSet(null, e);
+                        CompletableFuture<ResponseType> expired = new CompletableFuture<>();
+                        expired.completeExceptionally(e);
+                        return expired;
+                    }
+                    long start = System.currentTimeMillis();
+                    long begin = FlightEvents.begin(FlightEventType.COMMAND);
+                    OptimizerMetricsRecorder.started(config.getThreadPoolKey());
+                    CompletableFuture<ResponseType> call = executeAsync(this.context, request);
+                    CompletableFuture<ResponseType> task = call.whenComplete((response, t) -> {
+                        if (t != null) {
+                            failure.compareAndSet(null, t);
+                        }
+                        OptimizerMetricsRecorder.completed(config.getThreadPoolKey(),
+                                config.getCommandKey(), System.currentTimeMillis() - start);
+                        FlightEvents.commit(FlightEventType.COMMAND, begin, request.getService(),
+                                request.getApi(), t == null ? Tracing.SUCCESS : Tracing.ERROR);
+                    });
+                    return cancelling(task, call);
+                })
+                .fallback(cause -> {
+                    failure.compareAndSet(null, cause);
+                    return fallback(this.context, request);
+                }).build();
+    }
+
+    //Cancelling a dependent stage does not reach its source; forward it so the upstream call stops
+    protected static <T> CompletableFuture<T> cancelling(CompletableFuture<T> future,
+            CompletableFuture<?> source) {
+        future.whenComplete((response, t) -> {
+            if (future.isCancelled()) {
+                source.cancel(true);
+            }
+        });
+        return future;
+    }
+
+    //Fails a request that sat in the queue past its usefulness instead of calling upstream
+    private void checkQueueWait(String commandKey, RequestType request, long submittedAt)
+            throws TimeoutException {
+        long waited = System.nanoTime() - submittedAt;
+        QueueWaitMetrics.waited(commandKey, waited);
+        long maxQueueWait = apiConfiguration.getMaxQueueWaitInMillis();
+        if (maxQueueWait > 0 && waited > TimeUnit.MILLISECONDS.toNanos(maxQueueWait)) {
+            QueueWaitMetrics.expired(commandKey);
+            throw new TimeoutException(String.format("%s waited %dms in queue", commandKey,
+                    TimeUnit.NANOSECONDS.toMillis(waited)));
+        }
+        long deadline = getDeadline(request);
+        if (deadline > 0 && deadline <= System.currentTimeMillis()) {
+            QueueWaitMetrics.expired(commandKey);
+            throw new TimeoutException(String.format("%s deadline passed while in queue",
+                    commandKey));
+        }
+    }
+
+    /**
+     * @return epoch millis after which the caller no longer needs the response, 0 if unbounded
+     */
+    protected long getDeadline(RequestType request) {
+        return 0;
+    }
+
+    private RevolverExecutionEngine getExecutionEngine() {
+        return RevolverCommandHelper.executionEngine(runtimeConfig, apiConfiguration);
     }
 
     private void removeContextInfo() {
@@ -139,6 +282,22 @@ public abstract class RevolverCommand<RequestType extends RevolverRequest, Respo
     protected abstract ResponseType execute(ContextType context, RequestType request)
             throws Exception;
 
+    /**
+     * Non blocking variant of {@link #execute(RevolverContext, RevolverRequest)}. Transports that
+     * can complete requests without holding a thread should override this; the default runs the
+     * blocking variant on the calling thread.
+     */
+    protected CompletableFuture<ResponseType> executeAsync(ContextType context,
+            RequestType request) {
+        CompletableFuture<ResponseType> future = new CompletableFuture<>();
+        try {
+            future.complete(execute(context, request));
+        } catch (Exception e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
     protected abstract ResponseType fallback(ContextType context, RequestType request);
 
     protected ClientConfig getClientConfiguration() {
@@ -158,31 +317,4 @@ public abstract class RevolverCommand<RequestType extends RevolverRequest, Respo
         return this.apiConfiguration;
     }
 
-    private static class RevolverCommandHandler<RequestType extends RevolverRequest, ResponseType extends RevolverResponse, ContextType extends RevolverContext, ServiceConfigurationType extends RevolverServiceConfig, CommandHandlerConfigurationType extends CommandHandlerConfig> extends
-            HystrixCommand<ResponseType> {
-
-        private final RevolverCommand<RequestType, ResponseType, ContextType, ServiceConfigurationType, CommandHandlerConfigurationType> handler;
-        private final RequestType request;
-        private final ContextType context;
-
-        RevolverCommandHandler(HystrixCommand.Setter setter, ContextType context,
-                RevolverCommand<RequestType, ResponseType, ContextType, ServiceConfigurationType, CommandHandlerConfigurationType> handler,
-                RequestType request) {
-            super(setter);
-            this.context = context;
-            this.handler = handler;
-            this.request = request;
-        }
-
-        @Override
-        protected ResponseType run() throws Exception {
-            return this.handler.execute(this.context, this.request);
-        }
-
-        @Override
-        protected ResponseType getFallback() {
-            return this.handler.fallback(this.context, this.request);
-        }
-    }
-
 }
@@ -41,5 +41,11 @@ public class CommandHandlerConfig {
 
     private HystrixCommandConfig runtime = new HystrixCommandConfig();
 
+    //Overrides the global execution engine for this api
+    private String executionEngine;
+
+    //Requests that waited longer than this for an execution slot fail without an upstream call
+    private long maxQueueWaitInMillis = 0;
+
 
 }
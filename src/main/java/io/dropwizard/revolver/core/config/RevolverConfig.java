@@ -20,7 +20,10 @@ package io.dropwizard.revolver.core.config;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.collect.Lists;
 import io.dropwizard.Configuration;
+import io.dropwizard.revolver.accesslog.AccessLogConfig;
+import io.dropwizard.revolver.core.tracing.TracingConfig;
 import io.dropwizard.revolver.discovery.ServiceResolverConfig;
+import io.dropwizard.revolver.http.config.StageMetricsConfig;
 import io.dropwizard.revolver.optimizer.config.OptimizerConfig;
 import io.dropwizard.riemann.RiemannConfig;
 import java.util.List;
@@ -107,6 +110,12 @@ public class RevolverConfig extends Configuration {
 
     private ServiceDiscoveryConfig serviceDiscoveryConfig;
 
+    private TracingConfig tracing;
+
+    private StageMetricsConfig stageMetrics;
+
+    private AccessLogConfig accessLog;
+
     @Builder
     public RevolverConfig(ClientConfig clientConfig, RuntimeConfig global,
             ServiceResolverConfig serviceResolverConfig, String hystrixStreamPath,
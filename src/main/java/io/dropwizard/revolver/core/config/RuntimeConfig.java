@@ -38,6 +38,9 @@ public class RuntimeConfig {
     private MetricsConfig metrics = new MetricsConfig();
     private CircuitBreakerConfig circuitBreaker = new CircuitBreakerConfig();
 
+    //Execution engine used by commands that do not pick one; hystrix when not set
+    private String executionEngine;
+
     public MetricsConfig getMetrics() {
         return this.metrics;
     }
@@ -24,4 +24,7 @@ public class ServiceDiscoveryConfig {
     @Default
     private int waitForDiscoveryInMs = 0;
 
+    //Ranger environment of the local zone; preferred by apis with ZONE routing affinity
+    private String zone;
+
 }
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.dropwizard.revolver.core.engine;
+
+import com.netflix.hystrix.HystrixCommand;
+import io.dropwizard.revolver.core.util.RevolverCommandHelper;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+import rx.Observable;
+
+/**
+ * Runs executions as hystrix commands using thread pool or semaphore isolation as configured.
+ *
+ * @author phaneesh
+ */
+public class HystrixExecutionEngine implements RevolverExecutionEngine {
+
+    public static final String NAME = "hystrix";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public <T> T execute(RevolverExecution<T> execution) {
+        RevolverCommandHandler<T> handler = new RevolverCommandHandler<>(execution);
+        execution.submitted();
+        return handler.execute();
+    }
+
+    @Override
+    public <T> CompletableFuture<T> executeAsync(RevolverExecution<T> execution) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        RevolverCommandHandler<T> handler = new RevolverCommandHandler<>(execution);
+        execution.submitted();
+        handler.toObservable().single()
+                .subscribe(future::complete, future::completeExceptionally);
+        return future;
+    }
+
+    @Override
+    public <T> Observable<T> observe(RevolverExecution<T> execution) {
+        return new RevolverCommandHandler<>(execution).toObservable()
+                .doOnSubscribe(execution::submitted);
+    }
+
+    private static class RevolverCommandHandler<T> extends HystrixCommand<T> {
+
+        private final RevolverExecution<T> execution;
+
+        RevolverCommandHandler(RevolverExecution<T> execution) {
+            super(RevolverCommandHelper.setter(execution.getConfig()));
+            this.execution = execution;
+        }
+
+        @Override
+        protected T run() throws Exception {
+            return execution.getTask().call();
+        }
+
+        @Override
+        protected T getFallback() {
+            return execution.getFallback().apply(cause());
+        }
+
+        private Throwable cause() {
+            if (isResponseTimedOut()) {
+                return new TimeoutException(getCommandKey().name() + " timed out");
+            }
+            if (isResponseRejected()) {
+                return new RejectedExecutionException(getCommandKey().name() + " rejected");
+            }
+            Throwable cause = getExecutionException();
+            return cause != null ? cause
+                    : new IllegalStateException(getCommandKey().name() + " failed");
+        }
+    }
+}
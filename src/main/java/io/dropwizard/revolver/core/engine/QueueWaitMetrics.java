@@ -0,0 +1,83 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.core.engine;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time executions spent waiting for a slot before they started, and executions that were failed
+ * because they waited too long. Nothing is recorded until a registry is set; metrics of a command
+ * are resolved once so the execution path never builds metric names.
+ *
+ * @author phaneesh
+ */
+public class QueueWaitMetrics {
+
+    private static final String METRIC_PREFIX = "revolver.queue";
+
+    private static final Map<String, CommandMetrics> commands = new ConcurrentHashMap<>();
+
+    private static volatile MetricRegistry metrics;
+
+    private QueueWaitMetrics() {
+    }
+
+    public static void setMetricRegistry(MetricRegistry metricRegistry) {
+        commands.clear();
+        metrics = metricRegistry;
+    }
+
+    public static void waited(String commandKey, long waitInNanos) {
+        CommandMetrics commandMetrics = get(commandKey);
+        if (commandMetrics != null && waitInNanos >= 0) {
+            commandMetrics.wait.update(waitInNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public static void expired(String commandKey) {
+        CommandMetrics commandMetrics = get(commandKey);
+        if (commandMetrics != null) {
+            commandMetrics.expired.mark();
+        }
+    }
+
+    private static CommandMetrics get(String commandKey) {
+        MetricRegistry registry = metrics;
+        if (registry == null) {
+            return null;
+        }
+        return commands.computeIfAbsent(commandKey, key -> new CommandMetrics(registry, key));
+    }
+
+    private static class CommandMetrics {
+
+        private final Timer wait;
+
+        private final Meter expired;
+
+        CommandMetrics(MetricRegistry registry, String commandKey) {
+            this.wait = registry.timer(MetricRegistry.name(METRIC_PREFIX, commandKey, "wait"));
+            this.expired = registry
+                    .meter(MetricRegistry.name(METRIC_PREFIX, commandKey, "expired"));
+        }
+    }
+}
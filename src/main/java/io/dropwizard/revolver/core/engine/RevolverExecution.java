@@ -0,0 +1,60 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.dropwizard.revolver.core.engine;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * A single invocation handed to an execution engine.
+ *
+ * @author phaneesh
+ */
+@Getter
+@Builder
+public class RevolverExecution<T> {
+
+    private final RevolverExecutionConfig config;
+
+    //Blocking work
+    private final Callable<T> task;
+
+    //Non blocking work; engines that do not need a thread of their own prefer this when present
+    private final Supplier<CompletableFuture<T>> asyncTask;
+
+    //Receives what triggered it: the failure, a timeout, a rejection or an open circuit
+    private final Function<Throwable, T> fallback;
+
+    //System.nanoTime() at which the engine handed the execution to its pool; queue wait is
+    //measured from here
+    private final AtomicLong submittedAt;
+
+    /**
+     * Called by engines right before the execution is queued for a slot.
+     */
+    public void submitted() {
+        if (submittedAt != null) {
+            submittedAt.set(System.nanoTime());
+        }
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.dropwizard.revolver.core.engine;
+
+import io.dropwizard.revolver.core.config.hystrix.CircuitBreakerConfig;
+import io.dropwizard.revolver.core.config.hystrix.MetricsConfig;
+import io.dropwizard.revolver.core.config.hystrix.ThreadPoolConfig;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Effective isolation, circuit breaker and metrics settings of a command after resolving
+ * global, service, thread pool group and api level configuration.
+ *
+ * @author phaneesh
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevolverExecutionConfig {
+
+    private String groupKey;
+
+    private String commandKey;
+
+    private String threadPoolKey;
+
+    private CircuitBreakerConfig circuitBreakerConfig;
+
+    private ThreadPoolConfig threadPoolConfig;
+
+    private MetricsConfig metricsConfig;
+
+    private boolean fallbackEnabled;
+
+}
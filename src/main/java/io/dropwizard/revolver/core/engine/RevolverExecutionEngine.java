@@ -0,0 +1,39 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.dropwizard.revolver.core.engine;
+
+import java.util.concurrent.CompletableFuture;
+import rx.Observable;
+
+/**
+ * Applies isolation, timeouts and circuit breaking around command executions.
+ * Implementations are registered by name with {@link RevolverExecutionEngines}.
+ *
+ * @author phaneesh
+ */
+public interface RevolverExecutionEngine {
+
+    String getName();
+
+    <T> T execute(RevolverExecution<T> execution) throws Exception;
+
+    <T> CompletableFuture<T> executeAsync(RevolverExecution<T> execution);
+
+    <T> Observable<T> observe(RevolverExecution<T> execution);
+
+}
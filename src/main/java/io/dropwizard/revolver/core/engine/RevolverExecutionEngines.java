@@ -0,0 +1,60 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.dropwizard.revolver.core.engine;
+
+import com.google.common.base.Strings;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Registry of execution engines. Hystrix is the default.
+ *
+ * @author phaneesh
+ */
+@Slf4j
+public class RevolverExecutionEngines {
+
+    public static final String DEFAULT_ENGINE = HystrixExecutionEngine.NAME;
+
+    private static final Map<String, RevolverExecutionEngine> engines = new ConcurrentHashMap<>();
+
+    static {
+        register(new HystrixExecutionEngine());
+        register(new SemaphoreExecutionEngine());
+    }
+
+    private RevolverExecutionEngines() {
+    }
+
+    public static void register(RevolverExecutionEngine engine) {
+        engines.put(engine.getName(), engine);
+    }
+
+    public static RevolverExecutionEngine get(String name) {
+        if (Strings.isNullOrEmpty(name)) {
+            return engines.get(DEFAULT_ENGINE);
+        }
+        RevolverExecutionEngine engine = engines.get(name);
+        if (engine == null) {
+            log.warn("Unknown execution engine: {}. Using {}", name, DEFAULT_ENGINE);
+            return engines.get(DEFAULT_ENGINE);
+        }
+        return engine;
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.dropwizard.revolver.core.engine;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock free success/failure counter over a rolling time window split into buckets. A bucket is
+ * recycled by the first writer that observes it belonging to an older slot; concurrent increments
+ * racing with the recycle may be lost, which is acceptable for circuit breaking.
+ *
+ * @author phaneesh
+ */
+public class RollingWindowCounter {
+
+    private final int buckets;
+    private final long bucketSizeInMillis;
+    private final AtomicLongArray slots;
+    private final AtomicLongArray successes;
+    private final AtomicLongArray failures;
+
+    public RollingWindowCounter(long windowInMillis, int buckets) {
+        this.buckets = Math.max(1, buckets);
+        this.bucketSizeInMillis = Math.max(1, windowInMillis / this.buckets);
+        this.slots = new AtomicLongArray(this.buckets);
+        this.successes = new AtomicLongArray(this.buckets);
+        this.failures = new AtomicLongArray(this.buckets);
+        for (int i = 0; i < this.buckets; i++) {
+            slots.set(i, -1);
+        }
+    }
+
+    public void success() {
+        successes.incrementAndGet(bucket(System.currentTimeMillis()));
+    }
+
+    public void failure() {
+        failures.incrementAndGet(bucket(System.currentTimeMillis()));
+    }
+
+    public void reset() {
+        for (int i = 0; i < buckets; i++) {
+            slots.set(i, -1);
+            successes.set(i, 0);
+            failures.set(i, 0);
+        }
+    }
+
+    public long getSuccessCount() {
+        return sum(successes, System.currentTimeMillis());
+    }
+
+    public long getFailureCount() {
+        return sum(failures, System.currentTimeMillis());
+    }
+
+    public int getErrorPercentage() {
+        long now = System.currentTimeMillis();
+        long failed = sum(failures, now);
+        long total = failed + sum(successes, now);
+        return total == 0 ? 0 : (int) (failed * 100 / total);
+    }
+
+    private int bucket(long now) {
+        long slot = now / bucketSizeInMillis;
+        int index = (int) (slot % buckets);
+        long current = slots.get(index);
+        if (current != slot && slots.compareAndSet(index, current, slot)) {
+            successes.set(index, 0);
+            failures.set(index, 0);
+        }
+        return index;
+    }
+
+    private long sum(AtomicLongArray counts, long now) {
+        long oldest = now / bucketSizeInMillis - buckets;
+        long total = 0;
+        for (int i = 0; i < buckets; i++) {
+            if (slots.get(i) > oldest) {
+                total += counts.get(i);
+            }
+        }
+        return total;
+    }
+}
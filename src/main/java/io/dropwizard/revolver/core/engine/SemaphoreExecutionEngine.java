@@ -0,0 +1,340 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.dropwizard.revolver.core.engine;
+
+import io.dropwizard.revolver.core.RevolverExecutionException;
+import io.dropwizard.revolver.core.config.hystrix.CircuitBreakerConfig;
+import io.dropwizard.revolver.core.config.hystrix.MetricsConfig;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import rx.Observable;
+
+/**
+ * Lightweight engine that runs executions on the calling thread (or on the transport's own
+ * threads for async executions). Concurrency is bounded per thread pool key with a counting
+ * limit read from the live thread pool config, and a circuit breaker per command key is driven
+ * by lock free rolling counters.
+ *
+ * Blocking executions run to completion on the calling thread and rely on the transport's own
+ * call timeout to be bounded; one that returns after the configured timeout is still treated as a
+ * timeout. Async executions are timed out by the engine and the underlying task is cancelled.
+ *
+ * @author phaneesh
+ */
+@Slf4j
+public class SemaphoreExecutionEngine implements RevolverExecutionEngine {
+
+    public static final String NAME = "semaphore";
+
+    private static final ScheduledThreadPoolExecutor timeoutScheduler =
+            new ScheduledThreadPoolExecutor(1, r -> {
+                Thread thread = new Thread(r, "revolver-semaphore-engine-timer");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    static {
+        //Timeouts of completed executions are cancelled; drop them from the queue right away
+        timeoutScheduler.setRemoveOnCancelPolicy(true);
+    }
+
+    private final Map<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public <T> T execute(RevolverExecution<T> execution) throws Exception {
+        RevolverExecutionConfig config = execution.getConfig();
+        CircuitBreaker circuitBreaker = circuitBreaker(config);
+        Admission admission = circuitBreaker.allowRequest();
+        if (admission == Admission.REJECTED) {
+            return fallbackOrThrow(execution, new RevolverExecutionException(
+                    RevolverExecutionException.Type.SERVICE_ERROR,
+                    "Circuit open for " + config.getCommandKey()));
+        }
+        AtomicInteger permits = acquire(config);
+        if (permits == null) {
+            circuitBreaker.release(admission);
+            return fallbackOrThrow(execution, rejected(config));
+        }
+        //No queue here: an execution that got a permit starts right away
+        execution.submitted();
+        int timeout = config.getThreadPoolConfig().getTimeout();
+        long start = System.currentTimeMillis();
+        T result;
+        try {
+            result = execution.getTask().call();
+        } catch (Exception e) {
+            circuitBreaker.markFailure(admission);
+            return fallbackOrThrow(execution, e);
+        } finally {
+            permits.decrementAndGet();
+        }
+        if (timeout > 0 && System.currentTimeMillis() - start > timeout) {
+            circuitBreaker.markFailure(admission);
+            return fallbackOrThrow(execution, timedOut(config, timeout));
+        }
+        circuitBreaker.markSuccess(admission);
+        return result;
+    }
+
+    @Override
+    public <T> CompletableFuture<T> executeAsync(RevolverExecution<T> execution) {
+        if (execution.getAsyncTask() == null) {
+            CompletableFuture<T> future = new CompletableFuture<>();
+            try {
+                future.complete(execute(execution));
+            } catch (Exception e) {
+                future.completeExceptionally(e);
+            }
+            return future;
+        }
+        RevolverExecutionConfig config = execution.getConfig();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        CircuitBreaker circuitBreaker = circuitBreaker(config);
+        Admission admission = circuitBreaker.allowRequest();
+        if (admission == Admission.REJECTED) {
+            completeWithFallback(execution, result, new RevolverExecutionException(
+                    RevolverExecutionException.Type.SERVICE_ERROR,
+                    "Circuit open for " + config.getCommandKey()));
+            return result;
+        }
+        AtomicInteger permits = acquire(config);
+        if (permits == null) {
+            circuitBreaker.release(admission);
+            completeWithFallback(execution, result, rejected(config));
+            return result;
+        }
+        execution.submitted();
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true)) {
+                permits.decrementAndGet();
+            }
+        };
+        CompletableFuture<T> task = asyncTask(execution);
+        int timeout = config.getThreadPoolConfig().getTimeout();
+        ScheduledFuture<?> timeoutTask = null;
+        if (timeout > 0 && !task.isDone()) {
+            timeoutTask = timeoutScheduler.schedule(() -> {
+                if (!result.isDone()) {
+                    circuitBreaker.markFailure(admission);
+                    release.run();
+                    completeWithFallback(execution, result, timedOut(config, timeout));
+                    task.cancel(true);
+                }
+            }, timeout, TimeUnit.MILLISECONDS);
+        }
+        ScheduledFuture<?> scheduledTimeout = timeoutTask;
+        task.whenComplete((response, error) -> {
+            if (scheduledTimeout != null) {
+                scheduledTimeout.cancel(false);
+            }
+            if (result.isDone()) {
+                return;
+            }
+            release.run();
+            if (error == null) {
+                circuitBreaker.markSuccess(admission);
+                result.complete(response);
+            } else {
+                circuitBreaker.markFailure(admission);
+                completeWithFallback(execution, result, error);
+            }
+        });
+        return result;
+    }
+
+    @Override
+    public <T> Observable<T> observe(RevolverExecution<T> execution) {
+        return Observable.create(subscriber -> executeAsync(execution)
+                .whenComplete((response, error) -> {
+                    if (error != null) {
+                        subscriber.onError(error);
+                    } else {
+                        subscriber.onNext(response);
+                        subscriber.onCompleted();
+                    }
+                }));
+    }
+
+    /**
+     * @return executions currently holding a permit for the thread pool key
+     */
+    public int inFlight(String threadPoolKey) {
+        AtomicInteger counter = inFlight.get(threadPoolKey);
+        return counter == null ? 0 : counter.get();
+    }
+
+    private static <T> CompletableFuture<T> asyncTask(RevolverExecution<T> execution) {
+        try {
+            return execution.getAsyncTask().get();
+        } catch (Exception e) {
+            CompletableFuture<T> task = new CompletableFuture<>();
+            task.completeExceptionally(e);
+            return task;
+        }
+    }
+
+    private AtomicInteger acquire(RevolverExecutionConfig config) {
+        AtomicInteger counter = inFlight
+                .computeIfAbsent(config.getThreadPoolKey(), k -> new AtomicInteger());
+        if (counter.incrementAndGet() > config.getThreadPoolConfig().getConcurrency()) {
+            counter.decrementAndGet();
+            return null;
+        }
+        return counter;
+    }
+
+    //Rebuilt whenever the command's config changes so that reloads and optimizer updates apply
+    private CircuitBreaker circuitBreaker(RevolverExecutionConfig config) {
+        CircuitBreaker circuitBreaker = circuitBreakers.get(config.getCommandKey());
+        if (circuitBreaker != null && circuitBreaker.matches(config)) {
+            return circuitBreaker;
+        }
+        return circuitBreakers.compute(config.getCommandKey(),
+                (k, current) -> current != null && current.matches(config) ? current
+                        : new CircuitBreaker(config.getCircuitBreakerConfig(),
+                                config.getMetricsConfig()));
+    }
+
+    private static RevolverExecutionException rejected(RevolverExecutionConfig config) {
+        String message = "Concurrency limit reached for " + config.getThreadPoolKey();
+        return new RevolverExecutionException(RevolverExecutionException.Type.SERVICE_ERROR,
+                message, new RejectedExecutionException(message));
+    }
+
+    private static TimeoutException timedOut(RevolverExecutionConfig config, int timeout) {
+        return new TimeoutException(config.getCommandKey() + " timed out after " + timeout + "ms");
+    }
+
+    private static <T> T fallbackOrThrow(RevolverExecution<T> execution, Exception e)
+            throws Exception {
+        if (execution.getConfig().isFallbackEnabled() && execution.getFallback() != null) {
+            return execution.getFallback().apply(e);
+        }
+        throw e;
+    }
+
+    private static <T> void completeWithFallback(RevolverExecution<T> execution,
+            CompletableFuture<T> result, Throwable error) {
+        if (execution.getConfig().isFallbackEnabled() && execution.getFallback() != null) {
+            try {
+                result.complete(execution.getFallback().apply(error));
+                return;
+            } catch (Exception e) {
+                log.error("Fallback failed for {}", execution.getConfig().getCommandKey(), e);
+            }
+        }
+        result.completeExceptionally(error);
+    }
+
+    private enum Admission {
+        //Circuit open
+        REJECTED,
+        //Circuit closed; the result feeds the rolling error percentage
+        ALLOWED,
+        //The single half open request; only its result closes or reopens the circuit
+        TRIAL
+    }
+
+    private static class CircuitBreaker {
+
+        private final CircuitBreakerConfig config;
+        private final int statsTimeInMillis;
+        private final int statsBucketSize;
+        private final RollingWindowCounter counter;
+        private final AtomicBoolean trialInFlight = new AtomicBoolean();
+        //-1 when closed, otherwise the time the circuit was opened
+        private volatile long openedAt = -1;
+
+        CircuitBreaker(CircuitBreakerConfig config, MetricsConfig metricsConfig) {
+            this.config = config;
+            this.statsTimeInMillis = metricsConfig.getStatsTimeInMillis();
+            this.statsBucketSize = metricsConfig.getStatsBucketSize();
+            this.counter = new RollingWindowCounter(statsTimeInMillis, statsBucketSize);
+        }
+
+        boolean matches(RevolverExecutionConfig executionConfig) {
+            MetricsConfig metricsConfig = executionConfig.getMetricsConfig();
+            return Objects.equals(config, executionConfig.getCircuitBreakerConfig())
+                    && statsTimeInMillis == metricsConfig.getStatsTimeInMillis()
+                    && statsBucketSize == metricsConfig.getStatsBucketSize();
+        }
+
+        Admission allowRequest() {
+            long opened = openedAt;
+            if (opened < 0) {
+                return Admission.ALLOWED;
+            }
+            //Half open: let a single trial request through once the sleep window has elapsed
+            return System.currentTimeMillis() - opened >= config.getWaitTimeBeforeRetry()
+                    && trialInFlight.compareAndSet(false, true) ? Admission.TRIAL
+                    : Admission.REJECTED;
+        }
+
+        //The admitted request did not run, so the next request may take the trial
+        void release(Admission admission) {
+            if (admission == Admission.TRIAL) {
+                trialInFlight.set(false);
+            }
+        }
+
+        void markSuccess(Admission admission) {
+            if (admission == Admission.TRIAL) {
+                counter.reset();
+                openedAt = -1;
+                trialInFlight.set(false);
+            } else if (openedAt < 0) {
+                counter.success();
+            }
+        }
+
+        void markFailure(Admission admission) {
+            if (admission == Admission.TRIAL) {
+                openedAt = System.currentTimeMillis();
+                trialInFlight.set(false);
+                return;
+            }
+            //Requests admitted before the circuit opened neither close it nor restart the window
+            if (openedAt >= 0) {
+                return;
+            }
+            counter.failure();
+            long total = counter.getSuccessCount() + counter.getFailureCount();
+            if (total >= config.getNumAcceptableFailuresInTimeWindow()
+                    && counter.getErrorPercentage() >= config.getErrorThresholdPercentage()) {
+                openedAt = System.currentTimeMillis();
+            }
+        }
+    }
+}
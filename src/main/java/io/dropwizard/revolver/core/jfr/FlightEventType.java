@@ -0,0 +1,45 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.core.jfr;
+
+import lombok.Getter;
+
+/**
+ * Flight recorder events emitted by revolver. Every event carries service, api, status and the
+ * elapsed time of the operation; names are what recordings and settings files refer to.
+ *
+ * @author phaneesh
+ */
+public enum FlightEventType {
+
+    COMMAND("io.dropwizard.revolver.Command", "Command Execution"),
+    ROUTE("io.dropwizard.revolver.Route", "Route Resolution"),
+    MAILBOX("io.dropwizard.revolver.Mailbox", "Mailbox Operation"),
+    CALLBACK("io.dropwizard.revolver.Callback", "Callback Dispatch"),
+    OPTIMIZER("io.dropwizard.revolver.Optimizer", "Optimizer Decision");
+
+    @Getter
+    private final String eventName;
+
+    @Getter
+    private final String label;
+
+    FlightEventType(String eventName, String label) {
+        this.eventName = eventName;
+        this.label = label;
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.core.jfr;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Emits revolver events to the JDK flight recorder. Event types are registered once when this
+ * class loads; on runtimes without jdk.jfr every call is a no-op. While no recording has an event
+ * enabled, {@link #begin(FlightEventType)} is a single enabled check and nothing is allocated.
+ *
+ * <pre>
+ * long begin = FlightEvents.begin(FlightEventType.ROUTE);
+ * ...
+ * FlightEvents.commit(FlightEventType.ROUTE, begin, service, api, status);
+ * </pre>
+ *
+ * @author phaneesh
+ */
+@Slf4j
+public class FlightEvents {
+
+    private static final JfrEventEmitter[] emitters = load();
+
+    private FlightEvents() {
+    }
+
+    public static boolean isAvailable() {
+        return emitters != null;
+    }
+
+    public static boolean isEnabled(FlightEventType type) {
+        return emitters != null && emitters[type.ordinal()].isEnabled();
+    }
+
+    /**
+     * @return start time to pass to commit, or 0 when the event is not being recorded
+     */
+    public static long begin(FlightEventType type) {
+        return isEnabled(type) ? System.nanoTime() : 0;
+    }
+
+    public static void commit(FlightEventType type, long begin, String service, String api,
+            String status) {
+        if (begin == 0) {
+            return;
+        }
+        emitters[type.ordinal()].commit(service, api, status, System.nanoTime() - begin);
+    }
+
+    private static JfrEventEmitter[] load() {
+        FlightEventType[] types = FlightEventType.values();
+        JfrEventEmitter[] loaded = new JfrEventEmitter[types.length];
+        try {
+            for (FlightEventType type : types) {
+                loaded[type.ordinal()] = JfrEventEmitter.load(type);
+            }
+            return loaded;
+        } catch (ClassNotFoundException e) {
+            log.info("Flight recorder api not available; revolver events are disabled");
+        } catch (Throwable t) {
+            log.warn("Error registering flight recorder events : {}", t.getMessage());
+        }
+        return null;
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.core.jfr;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Defines an event type through jdk.jfr.EventFactory and commits instances of it. The jdk.jfr
+ * api is only reached through method handles so that this compiles and loads on runtimes
+ * without it; {@link #load(FlightEventType)} fails there and the caller falls back to no-op.
+ *
+ * @author phaneesh
+ */
+class JfrEventEmitter {
+
+    private static final String CATEGORY = "Revolver";
+
+    private static final int SERVICE = 0;
+    private static final int API = 1;
+    private static final int STATUS = 2;
+    private static final int ELAPSED = 3;
+
+    private final MethodHandle isEnabled;
+    private final MethodHandle newEvent;
+    private final MethodHandle set;
+    private final MethodHandle commit;
+
+    private JfrEventEmitter(MethodHandle isEnabled, MethodHandle newEvent, MethodHandle set,
+            MethodHandle commit) {
+        this.isEnabled = isEnabled;
+        this.newEvent = newEvent;
+        this.set = set;
+        this.commit = commit;
+    }
+
+    static JfrEventEmitter load(FlightEventType type) throws Throwable {
+        Class<?> annotationElement = Class.forName("jdk.jfr.AnnotationElement");
+        Class<?> valueDescriptor = Class.forName("jdk.jfr.ValueDescriptor");
+        Class<?> eventFactory = Class.forName("jdk.jfr.EventFactory");
+        Class<?> eventType = Class.forName("jdk.jfr.EventType");
+        Class<?> event = Class.forName("jdk.jfr.Event");
+        Constructor<?> annotation = annotationElement.getConstructor(Class.class, Object.class);
+        Constructor<?> field = valueDescriptor
+                .getConstructor(Class.class, String.class, List.class);
+
+        List<Object> annotations = Arrays.asList(
+                annotation.newInstance(Class.forName("jdk.jfr.Name"), type.getEventName()),
+                annotation.newInstance(Class.forName("jdk.jfr.Label"), type.getLabel()),
+                annotation.newInstance(Class.forName("jdk.jfr.Category"),
+                        new String[]{CATEGORY}));
+        //Order matches the field indexes above
+        List<Object> fields = Arrays.asList(
+                field.newInstance(String.class, "service", label(annotation, "Service")),
+                field.newInstance(String.class, "api", label(annotation, "Api")),
+                field.newInstance(String.class, "status", label(annotation, "Status")),
+                field.newInstance(long.class, "elapsed", Arrays.asList(
+                        annotation.newInstance(Class.forName("jdk.jfr.Label"), "Elapsed"),
+                        annotation.newInstance(Class.forName("jdk.jfr.Timespan"),
+                                "NANOSECONDS"))));
+        Object factory = eventFactory.getMethod("create", List.class, List.class)
+                .invoke(null, annotations, fields);
+        Object registeredType = eventFactory.getMethod("getEventType").invoke(factory);
+
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        return new JfrEventEmitter(
+                lookup.unreflect(eventType.getMethod("isEnabled")).bindTo(registeredType)
+                        .asType(MethodType.methodType(boolean.class)),
+                lookup.unreflect(eventFactory.getMethod("newEvent")).bindTo(factory)
+                        .asType(MethodType.methodType(Object.class)),
+                lookup.unreflect(event.getMethod("set", int.class, Object.class))
+                        .asType(MethodType
+                                .methodType(void.class, Object.class, int.class, Object.class)),
+                lookup.unreflect(event.getMethod("commit"))
+                        .asType(MethodType.methodType(void.class, Object.class)));
+    }
+
+    private static List<Object> label(Constructor<?> annotation, String label) throws Exception {
+        return Collections.singletonList(
+                annotation.newInstance(Class.forName("jdk.jfr.Label"), label));
+    }
+
+    boolean isEnabled() {
+        try {
+            return (boolean) isEnabled.invokeExact();
+        } catch (Throwable t) {
+            return false;
+        }
+    }
+
+    void commit(String service, String api, String status, long elapsedInNanos) {
+        try {
+            Object event = (Object) newEvent.invokeExact();
+            set.invokeExact(event, SERVICE, (Object) service);
+            set.invokeExact(event, API, (Object) api);
+            set.invokeExact(event, STATUS, (Object) status);
+            set.invokeExact(event, ELAPSED, (Object) elapsedInNanos);
+            commit.invokeExact(event);
+        } catch (Throwable t) {
+            //Recording must never fail the operation being recorded
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.core.tracing;
+
+import com.google.common.collect.Lists;
+import io.dropwizard.lifecycle.Managed;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Collects spans into a bounded ring that calling threads publish to without locks and a single
+ * background thread drains in batches to the exporter. Spans published while the ring is full are
+ * dropped and counted rather than blocking the call.
+ *
+ * @author phaneesh
+ */
+@Slf4j
+public class BufferedTraceCollector implements TraceCollector, Managed {
+
+    private final AtomicReferenceArray<Trace> ring;
+    private final int mask;
+    //Next slot to claim by publishers and next slot to drain by the batcher
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong exported = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    private final TraceExporter exporter;
+    private final int batchSize;
+    private final long flushIntervalInMillis;
+    private final List<Trace> batch;
+    private ScheduledExecutorService batcher;
+
+    public BufferedTraceCollector(TracingConfig config, TraceExporter exporter) {
+        int capacity = Integer.highestOneBit(Math.max(2, config.getBufferSize() - 1)) << 1;
+        this.ring = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+        this.exporter = exporter;
+        this.batchSize = Math.max(1, config.getBatchSize());
+        this.flushIntervalInMillis = Math.max(1, config.getFlushIntervalInMillis());
+        this.batch = Lists.newArrayListWithCapacity(batchSize);
+    }
+
+    @Override
+    public void publish(Trace trace) {
+        long slot;
+        do {
+            slot = tail.get();
+            if (slot - head.get() >= ring.length()) {
+                dropped.incrementAndGet();
+                return;
+            }
+        } while (!tail.compareAndSet(slot, slot + 1));
+        ring.lazySet((int) (slot & mask), trace);
+        published.incrementAndGet();
+    }
+
+    @Override
+    public void start() {
+        batcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "revolver-trace-batcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        batcher.scheduleWithFixedDelay(this::drain, flushIntervalInMillis,
+                flushIntervalInMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() throws Exception {
+        if (batcher != null) {
+            batcher.shutdown();
+            batcher.awaitTermination(flushIntervalInMillis, TimeUnit.MILLISECONDS);
+        }
+        drain();
+        exporter.close();
+    }
+
+    /**
+     * Exports everything published so far in batches; only called from the batcher
+     */
+    synchronized void drain() {
+        int drained;
+        do {
+            drained = 0;
+            long next = head.get();
+            while (drained < batchSize) {
+                int index = (int) (next & mask);
+                Trace trace = ring.get(index);
+                //Claimed but not yet written; picked up on the next drain
+                if (trace == null) {
+                    break;
+                }
+                ring.lazySet(index, null);
+                batch.add(trace);
+                next++;
+                drained++;
+            }
+            head.lazySet(next);
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                exporter.export(batch);
+                exported.addAndGet(batch.size());
+            } catch (Exception e) {
+                failed.addAndGet(batch.size());
+                log.warn("Error exporting traces : {}", e.getMessage());
+            } finally {
+                batch.clear();
+            }
+        } while (drained == batchSize);
+    }
+
+    public long getPublished() {
+        return published.get();
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    public long getExported() {
+        return exported.get();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+}
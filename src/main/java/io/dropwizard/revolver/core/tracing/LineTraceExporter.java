@@ -0,0 +1,84 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.core.tracing;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Writes one tab separated line per span: timestamp, duration, service, api, status, caller,
+ * transaction id, request id, parent request id and error reason, with - for missing values
+ *
+ * @author phaneesh
+ */
+public class LineTraceExporter implements TraceExporter {
+
+    private static final char SEPARATOR = '\t';
+    private static final String NONE = "-";
+
+    private final Writer writer;
+    private final boolean closeable;
+
+    public LineTraceExporter(String path) throws IOException {
+        this(path == null ? System.out : new FileOutputStream(path, true), path != null);
+    }
+
+    LineTraceExporter(OutputStream outputStream, boolean closeable) {
+        this.writer = new BufferedWriter(
+                new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        this.closeable = closeable;
+    }
+
+    @Override
+    public void export(List<Trace> traces) throws IOException {
+        for (Trace trace : traces) {
+            writer.write(Long.toString(trace.getTimestamp()));
+            writer.write(SEPARATOR);
+            writer.write(Long.toString(trace.getDuration()));
+            write(trace.getService());
+            write(trace.getApi());
+            write(trace.getStatus());
+            write(trace.getCaller());
+            write(trace.getTransactionId());
+            write(trace.getRequestId());
+            write(trace.getParentRequestId());
+            write(trace.getErrorReason() == null ? null
+                    : trace.getErrorReason().replace('\t', ' ').replace('\n', ' '));
+            writer.write('\n');
+        }
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.flush();
+        if (closeable) {
+            writer.close();
+        }
+    }
+
+    private void write(String value) throws IOException {
+        writer.write(SEPARATOR);
+        writer.write(value == null || value.isEmpty() ? NONE : value);
+    }
+}
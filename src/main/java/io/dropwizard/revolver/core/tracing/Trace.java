@@ -50,6 +50,8 @@ public class Trace {
 
     private boolean error;
 
+    private String status;
+
     private String errorReason;
 
     private Map<String, String> attributes;
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.core.tracing;
+
+import io.dropwizard.revolver.core.util.RevolverExceptionHelper;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Publishes a span per command execution to the configured collector. Sampling is decided from
+ * the transaction id, so every hop of a transaction is either traced or not; nothing is traced
+ * until a collector is set.
+ *
+ * @author phaneesh
+ */
+public class Tracing {
+
+    public static final String SUCCESS = "SUCCESS";
+    public static final String ERROR = "ERROR";
+    public static final String TIMEOUT = "TIMEOUT";
+    public static final String REJECTED = "REJECTED";
+
+    private static final int SAMPLE_SCALE = 10000;
+
+    private static volatile TraceCollector collector;
+    private static volatile int sampleThreshold;
+
+    private Tracing() {
+    }
+
+    public static void setCollector(TraceCollector traceCollector, double sampleRate) {
+        sampleThreshold = (int) Math.round(Math.max(0, Math.min(1, sampleRate)) * SAMPLE_SCALE);
+        collector = traceCollector;
+    }
+
+    public static boolean isSampled(TraceInfo traceInfo) {
+        if (collector == null || traceInfo == null || traceInfo.getTransactionId() == null) {
+            return false;
+        }
+        return Math.floorMod(traceInfo.getTransactionId().hashCode(), SAMPLE_SCALE)
+                < sampleThreshold;
+    }
+
+    /**
+     * @param startTime epoch millis the execution started at
+     * @param error what the execution failed with, null if it succeeded
+     */
+    public static void publish(TraceInfo traceInfo, String caller, String service, String api,
+            long startTime, Throwable error) {
+        TraceCollector traceCollector = collector;
+        if (traceCollector == null) {
+            return;
+        }
+        Throwable cause = error == null ? null : RevolverExceptionHelper.getLeafThrowable(error);
+        traceCollector.publish(Trace.builder().transactionId(traceInfo.getTransactionId())
+                .requestId(traceInfo.getRequestId())
+                .parentRequestId(traceInfo.getParentRequestId()).timestamp(startTime)
+                .duration(System.currentTimeMillis() - startTime).caller(caller)
+                .service(service).api(api).error(error != null).status(status(cause))
+                .errorReason(cause == null ? null
+                        : cause.getClass().getSimpleName() + ": " + cause.getMessage())
+                .build());
+    }
+
+    private static String status(Throwable cause) {
+        if (cause == null) {
+            return SUCCESS;
+        }
+        if (cause instanceof TimeoutException) {
+            return TIMEOUT;
+        }
+        if (cause instanceof RejectedExecutionException) {
+            return REJECTED;
+        }
+        return ERROR;
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.core.tracing;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * @author phaneesh
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class TracingConfig {
+
+    private boolean enabled;
+
+    //Fraction of transactions traced; every hop of a sampled transaction is traced
+    @Builder.Default
+    private double sampleRate = 0.01;
+
+    //Spans held for export; spans published while it is full are dropped
+    @Builder.Default
+    private int bufferSize = 8192;
+
+    @Builder.Default
+    private int batchSize = 512;
+
+    @Builder.Default
+    private long flushIntervalInMillis = 1000;
+
+    //Spans are written to this file, or to stdout when it is not set
+    private String path;
+}
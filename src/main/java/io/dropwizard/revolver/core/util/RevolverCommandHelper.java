@@ -34,6 +34,9 @@ import io.dropwizard.revolver.core.config.RuntimeConfig;
 import io.dropwizard.revolver.core.config.hystrix.CircuitBreakerConfig;
 import io.dropwizard.revolver.core.config.hystrix.MetricsConfig;
 import io.dropwizard.revolver.core.config.hystrix.ThreadPoolConfig;
+import io.dropwizard.revolver.core.engine.RevolverExecutionConfig;
+import io.dropwizard.revolver.core.engine.RevolverExecutionEngine;
+import io.dropwizard.revolver.core.engine.RevolverExecutionEngines;
 import io.dropwizard.revolver.core.model.RevolverRequest;
 import io.dropwizard.revolver.core.tracing.TraceInfo;
 import java.util.Map;
@@ -78,11 +81,16 @@ public class RevolverCommandHelper {
          different group thread pool
          Timeout would be overridden if provided at individual api level
      */
-    public static HystrixCommand.Setter setter(RevolverCommand commandHandler,
+    public static RevolverExecutionConfig executionConfig(RevolverCommand commandHandler,
             String api) {
-        RuntimeConfig runtimeConfig = commandHandler.getRuntimeConfig();
-        RevolverServiceConfig serviceConfiguration = commandHandler.getServiceConfiguration();
-        CommandHandlerConfig config = commandHandler.getApiConfiguration();
+        return executionConfig(commandHandler.getRuntimeConfig(),
+                commandHandler.getServiceConfiguration(), commandHandler.getApiConfiguration(),
+                api, commandHandler.isFallbackEnabled());
+    }
+
+    public static RevolverExecutionConfig executionConfig(RuntimeConfig runtimeConfig,
+            RevolverServiceConfig serviceConfiguration, CommandHandlerConfig config, String api,
+            boolean fallbackEnabled) {
         CircuitBreakerConfig circuitBreakerConfig;
         if (null != runtimeConfig) {
             circuitBreakerConfig = runtimeConfig.getCircuitBreaker();
@@ -133,32 +141,27 @@ public class RevolverCommandHelper {
 
             threadPoolConfig = serviceThreadPoolConfig;
             if (StringUtils.isEmpty(keyName)) {
-                keyName = Joiner.on(".")
-                        .join(commandHandler.getServiceConfiguration().getService(), "shared");
+                keyName = Joiner.on(".").join(serviceConfiguration.getService(), "shared");
             }
 
         } else if (null != config.getRuntime() && null != config.getRuntime().getThreadPool()) {
 
             threadPoolConfig = config.getRuntime().getThreadPool();
-            keyName = Joiner.on(".")
-                    .join(commandHandler.getServiceConfiguration().getService(), api);
+            keyName = Joiner.on(".").join(serviceConfiguration.getService(), api);
 
         } else if (null != serviceThreadPoolConfig) {
             threadPoolConfig = serviceConfiguration.getRuntime().getThreadPool();
             if (StringUtils.isEmpty(keyName)) {
-                keyName = Joiner.on(".")
-                        .join(commandHandler.getServiceConfiguration().getService(), api);
+                keyName = Joiner.on(".").join(serviceConfiguration.getService(), api);
             }
 
         } else if (null != runtimeConfig) {
             threadPoolConfig = runtimeConfig.getThreadPool();
-            keyName = Joiner.on(".")
-                    .join(commandHandler.getServiceConfiguration().getService(), api);
+            keyName = Joiner.on(".").join(serviceConfiguration.getService(), api);
 
         } else {
             threadPoolConfig = new ThreadPoolConfig();
-            keyName = Joiner.on(".")
-                    .join(commandHandler.getServiceConfiguration().getService(), api);
+            keyName = Joiner.on(".").join(serviceConfiguration.getService(), api);
         }
 
         //Setting timeout from api thread pool config
@@ -166,10 +169,33 @@ public class RevolverCommandHelper {
             threadPoolConfig.setTimeout(config.getRuntime().getThreadPool().getTimeout());
         }
 
+        return RevolverExecutionConfig.builder().groupKey(serviceConfiguration.getService())
+                .commandKey(Joiner.on(".").join(serviceConfiguration.getService(), api))
+                .threadPoolKey(keyName).circuitBreakerConfig(circuitBreakerConfig)
+                .threadPoolConfig(threadPoolConfig).metricsConfig(metricsConfig)
+                .fallbackEnabled(fallbackEnabled).build();
+    }
+
+    /**
+     * @return engine configured for the api, falling back to the global one
+     */
+    public static RevolverExecutionEngine executionEngine(RuntimeConfig runtimeConfig,
+            CommandHandlerConfig config) {
+        String engine = config.getExecutionEngine();
+        if (Strings.isNullOrEmpty(engine) && runtimeConfig != null) {
+            engine = runtimeConfig.getExecutionEngine();
+        }
+        return RevolverExecutionEngines.get(engine);
+    }
+
+    public static HystrixCommand.Setter setter(RevolverExecutionConfig executionConfig) {
+        ThreadPoolConfig threadPoolConfig = executionConfig.getThreadPoolConfig();
+        CircuitBreakerConfig circuitBreakerConfig = executionConfig.getCircuitBreakerConfig();
+        MetricsConfig metricsConfig = executionConfig.getMetricsConfig();
         int concurrency = threadPoolConfig.getConcurrency();
         int coreSize = (int) Math.ceil(concurrency * metricsConfig.getCorePoolSizeReductionParam());
         return HystrixCommand.Setter.withGroupKey(
-                HystrixCommandGroupKey.Factory.asKey(serviceConfiguration.getService()))
+                HystrixCommandGroupKey.Factory.asKey(executionConfig.getGroupKey()))
                 .andCommandPropertiesDefaults(HystrixCommandProperties.Setter()
                         .withExecutionIsolationStrategy(threadPoolConfig.isSemaphoreIsolated()
                                 ? HystrixCommandProperties.ExecutionIsolationStrategy.SEMAPHORE
@@ -178,7 +204,7 @@ public class RevolverCommandHelper {
                                 threadPoolConfig.getConcurrency())
                         .withFallbackIsolationSemaphoreMaxConcurrentRequests(
                                 threadPoolConfig.getConcurrency())
-                        .withFallbackEnabled(commandHandler.isFallbackEnabled())
+                        .withFallbackEnabled(executionConfig.isFallbackEnabled())
                         .withCircuitBreakerErrorThresholdPercentage(
                                 circuitBreakerConfig.getErrorThresholdPercentage())
                         .withCircuitBreakerRequestVolumeThreshold(
@@ -192,9 +218,9 @@ public class RevolverCommandHelper {
                                 metricsConfig.getPercentileBucketSize())
                         .withMetricsRollingPercentileWindowInMilliseconds(
                                 metricsConfig.getPercentileTimeInMillis())).andCommandKey(
-                        HystrixCommandKey.Factory.asKey(Joiner.on(".")
-                                .join(commandHandler.getServiceConfiguration().getService(), api)))
-                .andThreadPoolKey(HystrixThreadPoolKey.Factory.asKey(keyName))
+                        HystrixCommandKey.Factory.asKey(executionConfig.getCommandKey()))
+                .andThreadPoolKey(
+                        HystrixThreadPoolKey.Factory.asKey(executionConfig.getThreadPoolKey()))
                 .andThreadPoolPropertiesDefaults(
                         HystrixThreadPoolProperties.Setter().withCoreSize(coreSize)
                                 .withMaxQueueSize(threadPoolConfig.getMaxRequestQueueSize())
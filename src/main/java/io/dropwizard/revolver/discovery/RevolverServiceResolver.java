@@ -22,16 +22,27 @@ import com.flipkart.ranger.healthcheck.HealthcheckStatus;
 import com.flipkart.ranger.model.ServiceNode;
 import com.google.common.base.Strings;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import io.appform.dropwizard.discovery.client.ServiceDiscoveryClient;
 import io.appform.dropwizard.discovery.common.ShardInfo;
+import io.dropwizard.lifecycle.Managed;
 import io.dropwizard.revolver.core.config.ServiceDiscoveryConfig;
+import io.dropwizard.revolver.discovery.affinity.AffinityNodeIndex;
+import io.dropwizard.revolver.discovery.affinity.RoutingAffinityConfig;
 import io.dropwizard.revolver.discovery.model.Endpoint;
 import io.dropwizard.revolver.discovery.model.RangerEndpointSpec;
 import io.dropwizard.revolver.discovery.model.SimpleEndpointSpec;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
@@ -43,16 +54,35 @@ import org.apache.curator.retry.RetryNTimes;
  * @author phaneesh
  */
 @Slf4j
-public class RevolverServiceResolver {
+public class RevolverServiceResolver implements Managed {
+
+    private static final long INITIAL_RETRY_DELAY_IN_MS = 1000;
+    private static final long MAX_RETRY_DELAY_IN_MS = 60000;
 
     private final boolean discoverEnabled;
     private final CuratorFramework curatorFramework;
     private final ServiceResolverConfig resolverConfig;
     private final ExecutorService executorService = Executors.newCachedThreadPool();
+    //Refreshes affinity node indexes and retries discovery clients that failed to start
+    private final ScheduledExecutorService scheduler = Executors
+            .newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "revolver-discovery-scheduler");
+                thread.setDaemon(true);
+                return thread;
+            });
     private final ServiceDiscoveryConfig serviceDiscoveryConfig;
     private ObjectMapper objectMapper;
     @Getter
     private Map<String, ServiceDiscoveryClient> serviceFinders = Maps.newConcurrentMap();
+    @Getter
+    private Map<String, Map<String, ServiceDiscoveryClient>> affinityFinders = Maps
+            .newConcurrentMap();
+    @Getter
+    private Map<String, AffinityNodeIndex> nodeIndexes = Maps.newConcurrentMap();
+    //One latch per ranger service; counted down once every discovery client of the service has started
+    private final Map<String, CountDownLatch> readinessLatches = Maps.newConcurrentMap();
+    //Environments of each service whose discovery client has not started yet after a failure
+    private final Map<String, Set<String>> failedEnvironments = Maps.newConcurrentMap();
 
     @Builder
     public RevolverServiceResolver(ServiceResolverConfig resolverConfig,
@@ -93,6 +123,64 @@ public class RevolverServiceResolver {
                 .resolve(endpointSpecification);
     }
 
+    public Endpoint resolve(EndpointSpec endpointSpecification, RoutingAffinityConfig affinity,
+            String shardKey) {
+        if (affinity == null || !affinity.isEnabled() || affinity.getType() == null) {
+            return resolve(endpointSpecification);
+        }
+        String preferredEnvironment = null;
+        switch (affinity.getType()) {
+            case ZONE:
+                preferredEnvironment =
+                        serviceDiscoveryConfig == null ? null : serviceDiscoveryConfig.getZone();
+                break;
+            case SHARD:
+                preferredEnvironment = shardKey == null || affinity.getShardMapping() == null ? null
+                        : affinity.getShardMapping().get(shardKey);
+                break;
+        }
+        return new SpecResolver(this.discoverEnabled, this.serviceFinders, this.nodeIndexes,
+                preferredEnvironment, affinity.isSpillover()).resolve(endpointSpecification);
+    }
+
+    /**
+     * All currently known healthy endpoints for the spec; a single endpoint for simple specs.
+     */
+    public List<Endpoint> resolveAll(EndpointSpec endpointSpecification) {
+        List<Endpoint> endpoints = new ArrayList<>();
+        endpointSpecification.accept(new SpecVisitor() {
+            @Override
+            public void visit(SimpleEndpointSpec simpleEndpointSpecification) {
+                endpoints.add(Endpoint.builder().host(simpleEndpointSpecification.getHost())
+                        .port(simpleEndpointSpecification.getPort()).build());
+            }
+
+            @Override
+            public void visit(RangerEndpointSpec rangerEndpointSpecification) {
+                ServiceDiscoveryClient discoveryClient = serviceFinders
+                        .get(rangerEndpointSpecification.getService());
+                if (!discoverEnabled || discoveryClient == null) {
+                    return;
+                }
+                discoveryClient.getAllNodes().stream()
+                        .filter(n -> n.getHealthcheckStatus() == HealthcheckStatus.healthy)
+                        .forEach(n -> endpoints.add(
+                                Endpoint.builder().host(n.getHost()).port(n.getPort()).build()));
+            }
+        });
+        return endpoints;
+    }
+
+    @Override
+    public void start() {
+    }
+
+    @Override
+    public void stop() {
+        scheduler.shutdownNow();
+        executorService.shutdownNow();
+    }
+
     public ExecutorService getExecutorService() {
         return executorService;
     }
@@ -111,28 +199,19 @@ public class RevolverServiceResolver {
                 try {
                     if (!serviceFinders.containsKey(rangerEndpointSpecification
                             .getService())) { //Avoid duplicate registration
-                        ServiceDiscoveryClient discoveryClient = ServiceDiscoveryClient
-                                .fromCurator().curator(curatorFramework)
-                                .environment(rangerEndpointSpecification.getEnvironment())
-                                .namespace(resolverConfig.getNamespace()).objectMapper(objectMapper)
-                                .serviceName(rangerEndpointSpecification.getService())
-                                .disableWatchers(serviceDiscoveryConfig.isWatcherDisabled())
-                                .refreshTimeMs(serviceDiscoveryConfig.getRefreshTimeInMs()).build();
+                        ServiceDiscoveryClient discoveryClient = discoveryClient(
+                                rangerEndpointSpecification.getService(),
+                                rangerEndpointSpecification.getEnvironment());
                         serviceFinders
                                 .put(rangerEndpointSpecification.getService(), discoveryClient);
-                        executorService.submit(() -> {
-                            try {
-                                log.info("Service finder starting for: "
-                                        + rangerEndpointSpecification.getService());
-                                discoveryClient.start();
-                                log.info("Initialized ZK service: " + rangerEndpointSpecification
-                                        .getService());
-                            } catch (Exception e) {
-                                log.error("Error registering service finder started for: "
-                                        + rangerEndpointSpecification.getService(), e);
-                            }
-                            return null;
-                        });
+                        String service = rangerEndpointSpecification.getService();
+                        CountDownLatch readinessLatch = new CountDownLatch(
+                                1 + additionalEnvironments(rangerEndpointSpecification).size());
+                        readinessLatches.put(service, readinessLatch);
+                        startDiscoveryClient(service, rangerEndpointSpecification.getEnvironment(),
+                                discoveryClient, readinessLatch);
+                        registerAffinityFinders(rangerEndpointSpecification, discoveryClient,
+                                readinessLatch);
                     }
                 } catch (Exception e) {
                     log.error("Error registering handler for service: " + rangerEndpointSpecification
@@ -142,16 +221,144 @@ public class RevolverServiceResolver {
         });
     }
 
+    ServiceDiscoveryClient discoveryClient(String service, String environment) {
+        return ServiceDiscoveryClient.fromCurator().curator(curatorFramework)
+                .environment(environment).namespace(resolverConfig.getNamespace())
+                .objectMapper(objectMapper).serviceName(service)
+                .disableWatchers(serviceDiscoveryConfig.isWatcherDisabled())
+                .refreshTimeMs(serviceDiscoveryConfig.getRefreshTimeInMs()).build();
+    }
+
+    private void startDiscoveryClient(String service, String environment,
+            ServiceDiscoveryClient discoveryClient, CountDownLatch readinessLatch) {
+        executorService.submit(() -> {
+            try {
+                startClient(service, environment, discoveryClient, INITIAL_RETRY_DELAY_IN_MS);
+            } finally {
+                readinessLatch.countDown();
+            }
+        });
+    }
+
+    //Failed starts mark the service failed and are retried with backoff until the client starts
+    private void startClient(String service, String environment,
+            ServiceDiscoveryClient discoveryClient, long retryDelayInMs) {
+        try {
+            log.info("Service finder starting for: {} environment: {}", service, environment);
+            discoveryClient.start();
+            log.info("Initialized ZK service: {} for environment: {}", service, environment);
+            failedEnvironments.computeIfPresent(service, (key, environments) -> {
+                environments.remove(environment);
+                return environments.isEmpty() ? null : environments;
+            });
+        } catch (Exception e) {
+            failedEnvironments.compute(service, (key, environments) -> {
+                Set<String> failed = environments == null ? Sets.newConcurrentHashSet()
+                        : environments;
+                failed.add(environment);
+                return failed;
+            });
+            log.error("Error registering service finder for: {} environment: {}. Retrying in {}ms",
+                    service, environment, retryDelayInMs, e);
+            if (scheduler.isShutdown()) {
+                return;
+            }
+            scheduler.schedule(() -> executorService.submit(
+                    () -> startClient(service, environment, discoveryClient,
+                            Math.min(retryDelayInMs * 2, MAX_RETRY_DELAY_IN_MS))),
+                    retryDelayInMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static List<String> additionalEnvironments(
+            RangerEndpointSpec rangerEndpointSpecification) {
+        if (rangerEndpointSpecification.getAffinityEnvironments() == null) {
+            return new ArrayList<>();
+        }
+        return rangerEndpointSpecification.getAffinityEnvironments().stream()
+                .filter(environment -> !environment
+                        .equals(rangerEndpointSpecification.getEnvironment()))
+                .distinct().collect(Collectors.toList());
+    }
+
+    /**
+     * Waits until the discovery clients of every registered ranger service have started or the
+     * timeout elapses, whichever comes first.
+     *
+     * @return true if all services finished starting within the timeout
+     */
+    public boolean awaitReadiness(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (Map.Entry<String, CountDownLatch> entry : readinessLatches.entrySet()) {
+            long remaining = deadline - System.nanoTime();
+            if (!entry.getValue().await(Math.max(remaining, 0), TimeUnit.NANOSECONDS)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Services whose discovery clients are still starting up.
+     */
+    public Set<String> getWarmingServices() {
+        return readinessLatches.entrySet().stream().filter(e -> e.getValue().getCount() > 0)
+                .map(Map.Entry::getKey).collect(Collectors.toSet());
+    }
+
+    /**
+     * Services for which at least one discovery client failed to start and has not started on a
+     * retry yet.
+     */
+    public Set<String> getFailedServices() {
+        return Sets.newHashSet(failedEnvironments.keySet());
+    }
+
+    private void registerAffinityFinders(RangerEndpointSpec rangerEndpointSpecification,
+            ServiceDiscoveryClient defaultClient, CountDownLatch readinessLatch) {
+        List<String> environments = additionalEnvironments(rangerEndpointSpecification);
+        if (environments.isEmpty()) {
+            return;
+        }
+        String service = rangerEndpointSpecification.getService();
+        Map<String, ServiceDiscoveryClient> finders = Maps.newConcurrentMap();
+        finders.put(rangerEndpointSpecification.getEnvironment(), defaultClient);
+        environments.forEach(environment -> {
+            ServiceDiscoveryClient discoveryClient = discoveryClient(service, environment);
+            finders.put(environment, discoveryClient);
+            startDiscoveryClient(service, environment, discoveryClient, readinessLatch);
+        });
+        affinityFinders.put(service, finders);
+        AffinityNodeIndex nodeIndex = new AffinityNodeIndex(service);
+        nodeIndexes.put(service, nodeIndex);
+        //Rebuild the index at the same cadence as the discovery clients refresh their node lists
+        scheduler.scheduleWithFixedDelay(() -> nodeIndex.refresh(finders), 0,
+                serviceDiscoveryConfig.getRefreshTimeInMs(), TimeUnit.MILLISECONDS);
+    }
+
     private static class SpecResolver implements SpecVisitor {
 
         private final boolean discoverEnabled;
         private final Map<String, ServiceDiscoveryClient> serviceDiscoveryClients;
+        private final Map<String, AffinityNodeIndex> nodeIndexes;
+        private final String preferredEnvironment;
+        private final boolean spillover;
         private Endpoint endpoint;
 
         private SpecResolver(boolean discoverEnabled,
                 Map<String, ServiceDiscoveryClient> serviceDiscoveryClients) {
+            this(discoverEnabled, serviceDiscoveryClients, null, null, true);
+        }
+
+        private SpecResolver(boolean discoverEnabled,
+                Map<String, ServiceDiscoveryClient> serviceDiscoveryClients,
+                Map<String, AffinityNodeIndex> nodeIndexes, String preferredEnvironment,
+                boolean spillover) {
             this.discoverEnabled = discoverEnabled;
             this.serviceDiscoveryClients = serviceDiscoveryClients;
+            this.nodeIndexes = nodeIndexes;
+            this.preferredEnvironment = preferredEnvironment;
+            this.spillover = spillover;
         }
 
         @Override
@@ -166,6 +373,22 @@ public class RevolverServiceResolver {
                 throw new IllegalAccessError(
                         "Zookeeper is not initialized in config. Discovery based lookups will not be possible.");
             }
+            if (preferredEnvironment != null && nodeIndexes != null) {
+                AffinityNodeIndex nodeIndex = nodeIndexes
+                        .get(rangerEndpointSpecification.getService());
+                if (nodeIndex != null) {
+                    Optional<ServiceNode<ShardInfo>> affinityNode = nodeIndex
+                            .select(preferredEnvironment);
+                    if (affinityNode.isPresent()) {
+                        this.endpoint = Endpoint.builder().host(affinityNode.get().getHost())
+                                .port(affinityNode.get().getPort()).build();
+                        return;
+                    }
+                    if (!spillover) {
+                        return;
+                    }
+                }
+            }
             Optional<ServiceNode<ShardInfo>> node = serviceDiscoveryClients
                     .get(rangerEndpointSpecification.getService()).getNode();
             //Get only the nodes that are healthy
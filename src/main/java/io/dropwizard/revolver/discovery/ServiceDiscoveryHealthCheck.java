@@ -0,0 +1,47 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.dropwizard.revolver.discovery;
+
+import com.codahale.metrics.health.HealthCheck;
+import java.util.Set;
+
+/**
+ * Reports ranger services whose discovery clients are still starting or failed to start.
+ *
+ * @author phaneesh
+ */
+public class ServiceDiscoveryHealthCheck extends HealthCheck {
+
+    private final RevolverServiceResolver serviceResolver;
+
+    public ServiceDiscoveryHealthCheck(RevolverServiceResolver serviceResolver) {
+        this.serviceResolver = serviceResolver;
+    }
+
+    @Override
+    protected Result check() {
+        Set<String> warming = serviceResolver.getWarmingServices();
+        Set<String> failed = serviceResolver.getFailedServices();
+        if (warming.isEmpty() && failed.isEmpty()) {
+            return Result.healthy();
+        }
+        return Result.builder().unhealthy()
+                .withMessage("Service discovery is not ready for all services")
+                .withDetail("warming", warming).withDetail("failed", failed).build();
+    }
+}
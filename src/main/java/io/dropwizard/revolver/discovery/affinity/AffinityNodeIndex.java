@@ -0,0 +1,80 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.dropwizard.revolver.discovery.affinity;
+
+import com.flipkart.ranger.healthcheck.HealthcheckStatus;
+import com.flipkart.ranger.model.ServiceNode;
+import io.appform.dropwizard.discovery.client.ServiceDiscoveryClient;
+import io.appform.dropwizard.discovery.common.ShardInfo;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Precomputed healthy nodes of a service keyed by ranger environment (zone or shard). The index
+ * is rebuilt on every discovery refresh and swapped atomically so lookups never lock.
+ *
+ * @author phaneesh
+ */
+@Slf4j
+public class AffinityNodeIndex {
+
+    private final String service;
+
+    private volatile Map<String, List<ServiceNode<ShardInfo>>> nodes = Collections.emptyMap();
+
+    public AffinityNodeIndex(String service) {
+        this.service = service;
+    }
+
+    public void refresh(Map<String, ServiceDiscoveryClient> finders) {
+        Map<String, List<ServiceNode<ShardInfo>>> updated = new HashMap<>();
+        finders.forEach((environment, finder) -> {
+            try {
+                updated.put(environment, Collections.unmodifiableList(finder.getAllNodes().stream()
+                        .filter(n -> n.getHealthcheckStatus() == HealthcheckStatus.healthy)
+                        .collect(Collectors.toList())));
+            } catch (Exception e) {
+                log.error("Error refreshing node index for service: {} environment: {}", service,
+                        environment, e);
+            }
+        });
+        this.nodes = Collections.unmodifiableMap(updated);
+    }
+
+    public Optional<ServiceNode<ShardInfo>> select(String environment) {
+        if (environment == null) {
+            return Optional.empty();
+        }
+        List<ServiceNode<ShardInfo>> candidates = nodes.get(environment);
+        if (candidates == null || candidates.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(candidates.get(ThreadLocalRandom.current().nextInt(candidates.size())));
+    }
+
+    public Map<String, Integer> nodeCounts() {
+        return nodes.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().size()));
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.dropwizard.revolver.discovery.affinity;
+
+import com.google.common.base.Strings;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.ws.rs.core.MultivaluedMap;
+
+/**
+ * @author phaneesh
+ */
+public class AffinityUtils {
+
+    private static final Pattern PATH_TOKEN = Pattern.compile("\\{([^/]+)\\}");
+
+    private static final Map<String, PathTemplate> pathTemplates = new ConcurrentHashMap<>();
+
+    private AffinityUtils() {
+    }
+
+    public static String getShardKey(RoutingAffinityConfig affinity, String pathTemplate,
+            String path, Map<String, String> pathParams, MultivaluedMap<String, String> headers) {
+        if (affinity == null || !affinity.isEnabled()
+                || affinity.getType() != RoutingAffinityType.SHARD) {
+            return null;
+        }
+        if (!Strings.isNullOrEmpty(affinity.getShardKeyHeader()) && headers != null) {
+            String value = headers.getFirst(affinity.getShardKeyHeader());
+            if (!Strings.isNullOrEmpty(value)) {
+                return value;
+            }
+        }
+        String param = affinity.getShardKeyPathParam();
+        if (Strings.isNullOrEmpty(param)) {
+            return null;
+        }
+        if (pathParams != null && pathParams.containsKey(param)) {
+            return pathParams.get(param);
+        }
+        if (Strings.isNullOrEmpty(pathTemplate) || Strings.isNullOrEmpty(path)) {
+            return null;
+        }
+        return pathTemplates.computeIfAbsent(pathTemplate, PathTemplate::new).extract(path, param);
+    }
+
+    private static String stripSlash(String path) {
+        return path.charAt(0) == '/' ? path.substring(1) : path;
+    }
+
+    private static class PathTemplate {
+
+        private final Pattern pattern;
+        private final List<String> params = new ArrayList<>();
+
+        private PathTemplate(String template) {
+            String path = stripSlash(template);
+            Matcher matcher = PATH_TOKEN.matcher(path);
+            StringBuilder expression = new StringBuilder();
+            int literalStart = 0;
+            //Literal parts may contain regex metacharacters like '.' and must match as is
+            while (matcher.find()) {
+                params.add(matcher.group(1));
+                expression.append(Pattern.quote(path.substring(literalStart, matcher.start())))
+                        .append("([^/]+)");
+                literalStart = matcher.end();
+            }
+            expression.append(Pattern.quote(path.substring(literalStart)));
+            this.pattern = Pattern.compile(expression.toString());
+        }
+
+        private String extract(String path, String param) {
+            int index = params.indexOf(param);
+            if (index == -1) {
+                return null;
+            }
+            Matcher matcher = pattern.matcher(stripSlash(path));
+            return matcher.matches() ? matcher.group(index + 1) : null;
+        }
+    }
+}
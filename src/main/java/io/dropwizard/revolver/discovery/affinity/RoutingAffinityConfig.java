@@ -0,0 +1,56 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.dropwizard.revolver.discovery.affinity;
+
+import java.util.Collections;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Routing affinity for an api. ZONE prefers nodes registered in the local zone environment
+ * (see {@link io.dropwizard.revolver.core.config.ServiceDiscoveryConfig#getZone()}). SHARD picks
+ * the shard environment from a header or path param value using {@link #shardMapping}.
+ *
+ * @author phaneesh
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoutingAffinityConfig {
+
+    private boolean enabled;
+
+    private RoutingAffinityType type;
+
+    private String shardKeyHeader;
+
+    private String shardKeyPathParam;
+
+    //Shard key value to ranger environment of the shard
+    @Builder.Default
+    private Map<String, String> shardMapping = Collections.emptyMap();
+
+    //Fall back to any healthy node when no node is available in the preferred zone/shard
+    @Builder.Default
+    private boolean spillover = true;
+
+}
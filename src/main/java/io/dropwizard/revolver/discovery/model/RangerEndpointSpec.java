@@ -19,6 +19,8 @@ package io.dropwizard.revolver.discovery.model;
 
 import io.dropwizard.revolver.discovery.EndpointSpec;
 import io.dropwizard.revolver.discovery.SpecVisitor;
+import java.util.Collections;
+import java.util.List;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -35,6 +37,11 @@ public class RangerEndpointSpec extends EndpointSpec {
     @Setter
     private String environment;
 
+    //Additional ranger environments (zones/shards) the service is registered in; used for routing affinity
+    @Getter
+    @Setter
+    private List<String> affinityEnvironments = Collections.emptyList();
+
     public RangerEndpointSpec() {
         super(EndpointSpecType.ranger_sharded);
     }
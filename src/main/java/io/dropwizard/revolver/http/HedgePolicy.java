@@ -0,0 +1,120 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.dropwizard.revolver.http;
+
+import io.dropwizard.revolver.http.config.HedgeConfig;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.Getter;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Per api hedging state: the latency based hedge delay and a token bucket that caps hedges to a
+ * share of the api's traffic.
+ *
+ * @author phaneesh
+ */
+public class HedgePolicy {
+
+    private static final Map<String, HedgePolicy> policies = new ConcurrentHashMap<>();
+
+    private static final long REFRESH_INTERVAL = TimeUnit.SECONDS.toNanos(5);
+    private static final long MIN_SAMPLES = 20;
+    //Budget is tracked in thousandths of a hedge; at most ten hedges can be banked for bursts
+    private static final long HEDGE_COST = 1000;
+    private static final long MAX_BUDGET = 10 * HEDGE_COST;
+
+    @Getter
+    private final HedgeConfig config;
+    private final Recorder recorder = new Recorder(2);
+    private final AtomicLong lastRefresh = new AtomicLong(System.nanoTime());
+    private final AtomicLong budget = new AtomicLong();
+    private final long budgetPerRequest;
+    private Histogram intervalHistogram;
+    private volatile long measuredDelayInMs = -1;
+
+    HedgePolicy(HedgeConfig config) {
+        this.config = config;
+        this.budgetPerRequest = (long) (config.getBudgetPercent() * HEDGE_COST / 100.0);
+    }
+
+    /**
+     * @return policy for the api or null when hedging is not enabled for it
+     */
+    public static HedgePolicy get(String serviceKey, HedgeConfig config) {
+        if (config == null || !config.isEnabled()) {
+            return null;
+        }
+        HedgePolicy policy = policies.get(serviceKey);
+        if (policy != null && policy.getConfig().equals(config)) {
+            return policy;
+        }
+        return policies.compute(serviceKey,
+                (key, existing) -> existing != null && existing.getConfig().equals(config)
+                        ? existing : new HedgePolicy(config));
+    }
+
+    /**
+     * @return delay after which to hedge, or -1 while there is not enough latency data
+     */
+    public long getDelayInMs() {
+        if (config.getDelayInMs() > 0) {
+            return config.getDelayInMs();
+        }
+        refresh();
+        long delay = measuredDelayInMs;
+        return delay < 0 ? -1 : Math.max(delay, config.getMinDelayInMs());
+    }
+
+    public void onRequest() {
+        budget.updateAndGet(current -> Math.min(MAX_BUDGET, current + budgetPerRequest));
+    }
+
+    public boolean tryHedge() {
+        while (true) {
+            long current = budget.get();
+            if (current < HEDGE_COST) {
+                return false;
+            }
+            if (budget.compareAndSet(current, current - HEDGE_COST)) {
+                return true;
+            }
+        }
+    }
+
+    public void record(long latencyInMs) {
+        recorder.recordValue(Math.max(0, latencyInMs));
+    }
+
+    private void refresh() {
+        long now = System.nanoTime();
+        long last = lastRefresh.get();
+        if (now - last < REFRESH_INTERVAL || !lastRefresh.compareAndSet(last, now)) {
+            return;
+        }
+        synchronized (this) {
+            intervalHistogram = recorder.getIntervalHistogram(intervalHistogram);
+            if (intervalHistogram.getTotalCount() >= MIN_SAMPLES) {
+                measuredDelayInMs = intervalHistogram.getValueAtPercentile(config.getPercentile());
+            }
+        }
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.http;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Races one or more attempts of the same request. The first non 5xx response wins and the
+ * remaining calls are cancelled; if every attempt fails the last failure is reported. Nothing
+ * blocks: hedges are started from a shared timer.
+ *
+ * The latency of the first attempt is reported on its own, whether it won or not, so that the
+ * hedge delay is learned from what an unhedged call would have taken. A first attempt cancelled
+ * because another won reports the time until it was cancelled.
+ *
+ * @author phaneesh
+ */
+class HedgedCall {
+
+    private static final ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1,
+            runnable -> {
+                Thread thread = new Thread(runnable, "revolver-hedge-timer");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    static {
+        timer.setRemoveOnCancelPolicy(true);
+    }
+
+    private final Call.Factory callFactory;
+    private final LongConsumer primaryLatency;
+    private final List<Call> calls = new CopyOnWriteArrayList<>();
+    private final CompletableFuture<Response> winner = new CompletableFuture<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private volatile ScheduledFuture<?> scheduledHedge;
+
+    /**
+     * @param primaryLatency receives the first attempt's latency in milliseconds
+     */
+    HedgedCall(Call.Factory callFactory, LongConsumer primaryLatency) {
+        this.callFactory = callFactory;
+        this.primaryLatency = primaryLatency;
+        winner.whenComplete((response, error) -> {
+            ScheduledFuture<?> hedge = scheduledHedge;
+            if (hedge != null) {
+                hedge.cancel(false);
+            }
+            if (winner.isCancelled()) {
+                cancelOthers(null);
+            }
+        });
+    }
+
+    void start(Request request) {
+        Call call = callFactory.newCall(request);
+        boolean primary = calls.isEmpty();
+        long start = System.nanoTime();
+        calls.add(call);
+        pending.incrementAndGet();
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                if (primary) {
+                    primaryCompleted(start);
+                }
+                failed(null, e);
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                if (primary) {
+                    primaryCompleted(start);
+                }
+                if (response.code() >= 500) {
+                    failed(response, null);
+                } else if (winner.complete(response)) {
+                    cancelOthers(call);
+                } else {
+                    response.close();
+                }
+            }
+        });
+    }
+
+    /**
+     * Starts the request supplied by the hedge if no attempt has won by then; the hedge may
+     * return null to skip hedging
+     */
+    void hedgeAfter(long delay, TimeUnit unit, Supplier<Request> hedge) {
+        scheduledHedge = timer.schedule(() -> {
+            if (winner.isDone()) {
+                return;
+            }
+            Request request = hedge.get();
+            if (request != null && !winner.isDone()) {
+                start(request);
+            }
+        }, delay, unit);
+    }
+
+    boolean isDone() {
+        return winner.isDone();
+    }
+
+    /**
+     * @return the race's outcome; cancelling it cancels every attempt
+     */
+    CompletableFuture<Response> future() {
+        return winner;
+    }
+
+    private void primaryCompleted(long start) {
+        primaryLatency.accept(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private void failed(Response response, IOException error) {
+        boolean last = pending.decrementAndGet() == 0;
+        if (last && response != null && winner.complete(response)) {
+            return;
+        }
+        if (last && error != null) {
+            winner.completeExceptionally(error);
+        }
+        if (response != null) {
+            response.close();
+        }
+    }
+
+    private void cancelOthers(Call winningCall) {
+        calls.stream().filter(call -> call != winningCall).forEach(Call::cancel);
+    }
+}
@@ -27,9 +27,13 @@ import com.google.common.collect.Lists;
 import io.dropwizard.revolver.RevolverBundle;
 import io.dropwizard.revolver.core.config.HystrixCommandConfig;
 import io.dropwizard.revolver.core.config.hystrix.ThreadPoolConfig;
+import io.dropwizard.revolver.core.model.RevolverClientMetadata;
 import io.dropwizard.revolver.http.auth.BasicAuthConfig;
 import io.dropwizard.revolver.http.auth.TokenAuthConfig;
 import io.dropwizard.revolver.http.config.RevolverHttpServiceConfig;
+import io.dropwizard.revolver.http.metrics.ConnectionChurnListener;
+import io.dropwizard.revolver.http.metrics.HttpClientMetrics;
+import io.dropwizard.revolver.http.metrics.StageEventListener;
 import java.io.IOException;
 import java.io.InputStream;
 import java.security.KeyManagementException;
@@ -45,6 +49,7 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 import javax.net.ssl.HostnameVerifier;
 import javax.net.ssl.KeyManagerFactory;
 import javax.net.ssl.SSLContext;
@@ -89,6 +94,53 @@ public class RevolverHttpClientFactory {
         clientCache.invalidate(serviceConfiguration.getService());
     }
 
+    public static long clientCount() {
+        return clientCache.estimatedSize();
+    }
+
+    public static List<RevolverClientMetadata> clientMetadata() {
+        return clientCache.asMap().keySet().stream().sorted()
+                .map(RevolverHttpClientFactory::clientMetadata).filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Current connection pool and dispatcher state of the live client of a service; null when the
+     * service has no client yet
+     */
+    public static RevolverClientMetadata clientMetadata(String service) {
+        OkHttpClient client = clientCache.getIfPresent(service);
+        if (client == null) {
+            return null;
+        }
+        RevolverHttpServiceConfig serviceConfiguration = RevolverBundle.getServiceConfig()
+                .get(service);
+        ConnectionChurnListener churn = HttpClientMetrics.churn(service);
+        return RevolverClientMetadata.builder().service(service).connectionPoolSize(
+                serviceConfiguration == null ? 0 : serviceConfiguration.getConnectionPoolSize())
+                .connections(client.connectionPool().connectionCount())
+                .idleConnections(client.connectionPool().idleConnectionCount())
+                .maxRequests(client.dispatcher().getMaxRequests())
+                .runningCalls(client.dispatcher().runningCallsCount())
+                .queuedCalls(client.dispatcher().queuedCallsCount())
+                .connectionsOpened(churn.getOpened()).connectionsFailed(churn.getFailed())
+                .build();
+    }
+
+    /**
+     * Applies the service's connection pool size to the dispatcher of its live client. Queued
+     * calls are promoted right away when the limit grows; running calls are never interrupted.
+     */
+    public static void resizeDispatcher(RevolverHttpServiceConfig serviceConfiguration) {
+        OkHttpClient client = clientCache.getIfPresent(serviceConfiguration.getService());
+        if (client == null) {
+            return;
+        }
+        int maxRequests = Math.max(1, serviceConfiguration.getConnectionPoolSize());
+        client.dispatcher().setMaxRequests(maxRequests);
+        client.dispatcher().setMaxRequestsPerHost(maxRequests);
+    }
+
     private static OkHttpClient getOkHttpClient(String service)
             throws KeyStoreException, NoSuchAlgorithmException, CertificateException, IOException, KeyManagementException, UnrecoverableKeyException {
         RevolverHttpServiceConfig serviceConfiguration = RevolverBundle.getServiceConfig()
@@ -102,6 +154,8 @@ public class RevolverHttpClientFactory {
         builder.retryOnConnectionFailure(true);
         setTimeouts(serviceConfiguration, builder);
         builder.dispatcher(dispatcher);
+        builder.eventListenerFactory(
+                StageEventListener.factory(HttpClientMetrics.churn(service)));
         if (serviceConfiguration.isAuthEnabled()) {
             switch (serviceConfiguration.getAuth().getType().toLowerCase()) {
                 case "basic":
@@ -161,7 +215,9 @@ public class RevolverHttpClientFactory {
             builder.connectionPool(new ConnectionPool(serviceConfiguration.getConnectionPoolSize(),
                     serviceConfiguration.getConnectionKeepAliveInMillis(), TimeUnit.MILLISECONDS));
         }
-        return builder.build();
+        OkHttpClient client = builder.build();
+        HttpClientMetrics.register(service, () -> clientMetadata(service));
+        return client;
     }
 
     private static void setTimeouts(RevolverHttpServiceConfig serviceConfiguration,
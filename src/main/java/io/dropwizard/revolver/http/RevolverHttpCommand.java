@@ -21,22 +21,33 @@ import com.collections.CollectionUtils;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
 import io.dropwizard.revolver.RevolverBundle;
+import io.dropwizard.revolver.accesslog.AccessLog;
 import io.dropwizard.revolver.core.RevolverCommand;
 import io.dropwizard.revolver.core.config.ClientConfig;
 import io.dropwizard.revolver.core.config.RuntimeConfig;
 import io.dropwizard.revolver.core.util.RevolverCommandHelper;
 import io.dropwizard.revolver.discovery.EndpointSpec;
+import io.dropwizard.revolver.discovery.affinity.AffinityUtils;
 import io.dropwizard.revolver.discovery.model.Endpoint;
 import io.dropwizard.revolver.exception.RevolverException;
 import io.dropwizard.revolver.http.config.RevolverHttpApiConfig;
 import io.dropwizard.revolver.http.config.RevolverHttpServiceConfig;
+import io.dropwizard.revolver.http.metrics.LatencyStage;
+import io.dropwizard.revolver.http.metrics.StageMetrics;
+import io.dropwizard.revolver.http.metrics.StageTimers;
 import io.dropwizard.revolver.http.model.RevolverHttpRequest;
 import io.dropwizard.revolver.http.model.RevolverHttpResponse;
+import io.dropwizard.revolver.retry.AsyncRetrier;
 import io.dropwizard.revolver.retry.RetryUtils;
-import io.dropwizard.revolver.splitting.RevolverSplitServiceConfig;
 import io.dropwizard.revolver.splitting.SplitConfig;
 import io.dropwizard.revolver.splitting.SplitStrategy;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MultivaluedHashMap;
@@ -44,6 +55,7 @@ import javax.ws.rs.core.MultivaluedMap;
 import lombok.Builder;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
+import okhttp3.Call;
 import okhttp3.HttpUrl;
 import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
@@ -86,32 +98,86 @@ public class RevolverHttpCommand extends
     protected RevolverHttpResponse execute(RevolverHttpContext context,
             RevolverHttpRequest request) throws Exception {
         Preconditions.checkNotNull(client);
+        checkDeadline(request);
+        startDeadline(request);
+        Request httpRequest = buildRequest(request);
+        if (httpRequest == null) {
+            return unsupportedMethod(request);
+        }
+        return executeRequest(getApiConfiguration(), httpRequest, readBody(request), request);
+    }
+
+    /**
+     * Every api is enqueued on the OkHttp dispatcher so that no thread waits for the response;
+     * retries, when enabled, are scheduled without blocking as well.
+     */
+    @Override
+    protected CompletableFuture<RevolverHttpResponse> executeAsync(RevolverHttpContext context,
+            RevolverHttpRequest request) {
         RevolverHttpApiConfig apiConfig = getApiConfiguration();
-        if (apiConfig.getMethods().contains(request.getMethod())) {
-            switch (request.getMethod()) {
-                case GET: {
-                    return doGet(request);
-                }
-                case POST: {
-                    return doPost(request);
-                }
-                case PUT: {
-                    return doPut(request);
-                }
-                case DELETE: {
-                    return doDelete(request);
-                }
-                case HEAD: {
-                    return doHead(request);
-                }
-                case OPTIONS: {
-                    return doOptions(request);
-                }
-                case PATCH: {
-                    return doPatch(request);
+        try {
+            Preconditions.checkNotNull(client);
+            checkDeadline(request);
+            startDeadline(request);
+            Request httpRequest = buildRequest(request);
+            if (httpRequest == null) {
+                return CompletableFuture.completedFuture(unsupportedMethod(request));
+            }
+            long start = System.currentTimeMillis();
+            CompletableFuture<Response> call = isRetryEnabled(apiConfig) ? retryAsync(apiConfig,
+                    httpRequest, request) : attempt(apiConfig, httpRequest, request);
+            return cancelling(call.thenApply(response -> {
+                try {
+                    return getHttpResponse(apiConfig, httpRequest, request, response,
+                            readBody(request), System.currentTimeMillis() - start);
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                } finally {
+                    response.close();
                 }
+            }), call);
+        } catch (Exception e) {
+            CompletableFuture<RevolverHttpResponse> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        }
+    }
+
+    private Request buildRequest(RevolverHttpRequest request) throws RevolverException {
+        if (!getApiConfiguration().getMethods().contains(request.getMethod())) {
+            return null;
+        }
+        switch (request.getMethod()) {
+            case GET: {
+                return doGet(request);
+            }
+            case POST: {
+                return doPost(request);
+            }
+            case PUT: {
+                return doPut(request);
+            }
+            case DELETE: {
+                return doDelete(request);
+            }
+            case HEAD: {
+                return doHead(request);
+            }
+            case OPTIONS: {
+                return doOptions(request);
+            }
+            case PATCH: {
+                return doPatch(request);
             }
         }
+        return null;
+    }
+
+    private boolean readBody(RevolverHttpRequest request) {
+        return request.getMethod() != RevolverHttpApiConfig.RequestMethod.HEAD;
+    }
+
+    private RevolverHttpResponse unsupportedMethod(RevolverHttpRequest request) {
         MultivaluedMap<String, String> headers = new MultivaluedHashMap<>();
         headers.putSingle("X-REQUEST-PATH", request.getPath());
         headers.putSingle("X-REQUEST-METHOD", request.getMethod().name());
@@ -133,19 +199,18 @@ public class RevolverHttpCommand extends
         if (endpointSpec == null) {
             endpointSpec = this.getServiceConfiguration().getEndpoint();
         }
-        Endpoint endpoint = RevolverBundle.serviceNameResolver.resolve(endpointSpec);
+        String shardKey = AffinityUtils
+                .getShardKey(apiConfiguration.getRoutingAffinity(), apiConfiguration.getPath(),
+                        request.getPath(), request.getPathParams(), request.getHeaders());
+        Endpoint endpoint = RevolverBundle.serviceNameResolver
+                .resolve(endpointSpec, apiConfiguration.getRoutingAffinity(), shardKey);
         if (endpoint == null) {
-            if (Strings.isNullOrEmpty(getServiceConfiguration().getFallbackAddress())) {
+            endpoint = RevolverHttpEndpointCache.get(getServiceConfiguration())
+                    .getFallbackEndpoint();
+            if (endpoint == null) {
                 throw new RevolverException(503, "R999",
                         "Service [" + request.getPath() + "] Unavailable");
             }
-            String[] address = getServiceConfiguration().getFallbackAddress().split(":");
-            if (address.length == 1) {
-                endpoint = Endpoint.builder().host(address[0]).port(80).build();
-            } else {
-                endpoint = Endpoint.builder().host(address[0]).port(Integer.parseInt(address[1]))
-                        .build();
-            }
         }
         return generateURI(request, apiConfiguration, endpoint);
     }
@@ -167,13 +232,7 @@ public class RevolverHttpCommand extends
                 || StringUtils.isEmpty(serviceEndPoint)) {
             return null;
         }
-        for (RevolverSplitServiceConfig splitServiceConfig : serviceConfig.getServiceSplitConfig()
-                .getConfigs()) {
-            if (splitServiceConfig.getName().equals(serviceEndPoint)) {
-                return splitServiceConfig.getEndpoint();
-            }
-        }
-        return null;
+        return RevolverHttpEndpointCache.get(serviceConfig).getSplitEndpoint(serviceEndPoint);
     }
 
     private RevolverHttpResponse executeRequest(RevolverHttpApiConfig apiConfiguration,
@@ -182,22 +241,21 @@ public class RevolverHttpCommand extends
         Response response = null;
         try {
             long start = System.currentTimeMillis();
-            if (null != apiConfiguration.getRetryConfig() && apiConfiguration.getRetryConfig()
-                    .isEnabled()) {
+            if (isAsyncRetry(apiConfiguration)) {
+                response = awaitUntilDeadline(
+                        retryAsync(apiConfiguration, request, originalRequest), originalRequest);
+            } else if (isRetryEnabled(apiConfiguration)) {
                 response = RetryUtils.getRetryer(apiConfiguration).call(() -> {
                     val url = getServiceUrl(originalRequest, getApiConfiguration());
-                    return client.newCall(request.newBuilder().url(url).build()).execute();
+                    return call(apiConfiguration, request.newBuilder().url(url).build(),
+                            originalRequest);
                 });
             } else {
-                response = client.newCall(request).execute();
+                response = call(apiConfiguration, request, originalRequest);
             }
             long end = System.currentTimeMillis();
-            val httpResponse = getHttpResponse(apiConfiguration, response, readBody);
-            log.info("[{}/{}] {} {}:{}{} {} {}ms", apiConfiguration.getApi(),
-                    apiConfiguration.getPath(), request.method(), request.url().host(),
-                    request.url().port(), request.url().encodedPath(), httpResponse.getStatusCode(),
-                    (end - start));
-            return httpResponse;
+            return getHttpResponse(apiConfiguration, request, originalRequest, response, readBody,
+                    end - start);
         } catch (Exception e) {
             log.error("Error executing service request for service : " + request.url(), e);
             throw e;
@@ -208,10 +266,180 @@ public class RevolverHttpCommand extends
         }
     }
 
-    private RevolverHttpResponse doGet(RevolverHttpRequest request) throws Exception {
+    private boolean isRetryEnabled(RevolverHttpApiConfig apiConfiguration) {
+        return null != apiConfiguration.getRetryConfig() && apiConfiguration.getRetryConfig()
+                .isEnabled();
+    }
+
+    private boolean isAsyncRetry(RevolverHttpApiConfig apiConfiguration) {
+        return isRetryEnabled(apiConfiguration) && apiConfiguration.getRetryConfig().isAsync();
+    }
+
+    private CompletableFuture<Response> retryAsync(RevolverHttpApiConfig apiConfiguration,
+            Request request, RevolverHttpRequest originalRequest) {
+        AtomicBoolean first = new AtomicBoolean(true);
+        return AsyncRetrier.execute(
+                retryRequest -> attempt(apiConfiguration, retryRequest, originalRequest),
+                getServiceConfiguration().getService() + "." + apiConfiguration.getApi(),
+                apiConfiguration.getRetryConfig(), System.nanoTime() + TimeUnit.MILLISECONDS
+                        .toNanos(getRemainingInMs(originalRequest)), () -> {
+                    if (first.getAndSet(false)) {
+                        return request;
+                    }
+                    return request.newBuilder()
+                            .url(getServiceUrl(originalRequest, apiConfiguration)).build();
+                });
+    }
+
+    /**
+     * Time budget of a call to this api when the request carries no deadline of its own.
+     */
+    public long getTimeoutInMs() {
+        return getTimeoutInMs(getApiConfiguration());
+    }
+
+    private long getTimeoutInMs(RevolverHttpApiConfig apiConfiguration) {
+        if (null != apiConfiguration.getRuntime() && null != apiConfiguration.getRuntime()
+                .getThreadPool()) {
+            return apiConfiguration.getRuntime().getThreadPool().getTimeout();
+        }
+        return RevolverCommandHelper.executionConfig(this, apiConfiguration.getApi())
+                .getThreadPoolConfig().getTimeout();
+    }
+
+    //Time left until the execution's deadline: the api timeout from its start, capped by the
+    //caller's deadline if it sent one
+    private long getRemainingInMs(RevolverHttpRequest originalRequest) {
+        if (originalRequest.getDeadline() > 0) {
+            return originalRequest.getDeadline() - System.currentTimeMillis();
+        }
+        return getTimeoutInMs(getApiConfiguration());
+    }
+
+    @Override
+    protected long getDeadline(RevolverHttpRequest request) {
+        return request.getDeadline();
+    }
+
+    //Retries and hedges share one api timeout from when the execution started, not one each
+    private void startDeadline(RevolverHttpRequest request) {
+        long timeout = getTimeoutInMs(getApiConfiguration());
+        if (timeout <= 0) {
+            return;
+        }
+        long deadline = System.currentTimeMillis() + timeout;
+        if (request.getDeadline() <= 0 || request.getDeadline() > deadline) {
+            request.setDeadline(deadline);
+        }
+    }
+
+    private void checkDeadline(RevolverHttpRequest request) throws RevolverException {
+        if (request.getDeadline() > 0 && request.getDeadline() <= System.currentTimeMillis()) {
+            throw new RevolverException(504, "R998",
+                    "Deadline exceeded for [" + request.getPath() + "]");
+        }
+    }
+
+    //Every upstream call is bounded by the remaining time, which is also forwarded upstream
+    private Call newCall(Request request, RevolverHttpRequest originalRequest) {
+        long remaining = Math.max(1, getRemainingInMs(originalRequest));
+        Call call = client.newCall(request.newBuilder()
+                .header(RevolversHttpHeaders.TIMEOUT_HEADER, Long.toString(remaining)).build());
+        call.timeout().timeout(remaining, TimeUnit.MILLISECONDS);
+        return call;
+    }
+
+    //Only reached from the blocking path; the wait is bounded by the remaining time
+    private Response awaitUntilDeadline(CompletableFuture<Response> future,
+            RevolverHttpRequest originalRequest) throws Exception {
+        try {
+            return future.get(Math.max(1, getRemainingInMs(originalRequest)),
+                    TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        } catch (InterruptedException | TimeoutException e) {
+            future.cancel(true);
+            throw e;
+        }
+    }
+
+    private Response call(RevolverHttpApiConfig apiConfiguration, Request request,
+            RevolverHttpRequest originalRequest) throws Exception {
+        HedgePolicy hedgePolicy = hedgePolicy(apiConfiguration, request);
+        if (hedgePolicy == null) {
+            return newCall(request, originalRequest).execute();
+        }
+        CompletableFuture<Response> hedged = hedged(hedgePolicy, apiConfiguration, request,
+                originalRequest);
+        try {
+            return hedged.get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        } catch (InterruptedException e) {
+            hedged.cancel(true);
+            throw e;
+        }
+    }
+
+    //Every async attempt, the first one and each retry, is hedged like a blocking call
+    private CompletableFuture<Response> attempt(RevolverHttpApiConfig apiConfiguration,
+            Request request, RevolverHttpRequest originalRequest) {
+        HedgePolicy hedgePolicy = hedgePolicy(apiConfiguration, request);
+        if (hedgePolicy == null) {
+            return AsyncRetrier.enqueue(newCall(request, originalRequest));
+        }
+        return hedged(hedgePolicy, apiConfiguration, request, originalRequest);
+    }
+
+    private HedgePolicy hedgePolicy(RevolverHttpApiConfig apiConfiguration, Request request) {
+        if (!"GET".equals(request.method()) && !"HEAD".equals(request.method())) {
+            return null;
+        }
+        return HedgePolicy
+                .get(getServiceConfiguration().getService() + "." + apiConfiguration.getApi(),
+                        apiConfiguration.getHedge());
+    }
+
+    private CompletableFuture<Response> hedged(HedgePolicy hedgePolicy,
+            RevolverHttpApiConfig apiConfiguration, Request request,
+            RevolverHttpRequest originalRequest) {
+        hedgePolicy.onRequest();
+        HedgedCall hedgedCall = new HedgedCall(hedge -> newCall(hedge, originalRequest),
+                hedgePolicy::record);
+        hedgedCall.start(request);
+        long delay = hedgePolicy.getDelayInMs();
+        if (delay >= 0) {
+            hedgedCall.hedgeAfter(delay, TimeUnit.MILLISECONDS, () -> {
+                if (!hedgePolicy.tryHedge()) {
+                    return null;
+                }
+                try {
+                    return hedgeRequest(apiConfiguration, request, originalRequest);
+                } catch (RevolverException e) {
+                    log.debug("Not hedging {}: {}", request.url(), e.getMessage());
+                    return null;
+                }
+            });
+        }
+        return hedgedCall.future();
+    }
+
+    //Hedge against a different endpoint than the one already being tried, if there is one
+    private Request hedgeRequest(RevolverHttpApiConfig apiConfiguration, Request request,
+            RevolverHttpRequest originalRequest) throws RevolverException {
+        for (int i = 0; i < 3; i++) {
+            HttpUrl url = getServiceUrl(originalRequest, apiConfiguration);
+            if (!url.host().equals(request.url().host()) || url.port() != request.url().port()) {
+                return request.newBuilder().url(url).build();
+            }
+        }
+        return null;
+    }
+
+    private Request doGet(RevolverHttpRequest request) throws RevolverException {
         Request.Builder httpRequest = initializeRequest(request);
         httpRequest.get();
-        return executeRequest(getApiConfiguration(), httpRequest.build(), true, request);
+        return httpRequest.build();
     }
 
     private Request.Builder initializeRequest(RevolverHttpRequest request)
@@ -220,28 +448,33 @@ public class RevolverHttpCommand extends
         val httpRequest = new Request.Builder().url(url);
         addHeaders(request, httpRequest);
         trackingHeaders(request, httpRequest);
+        StageTimers stageTimers = StageMetrics
+                .timers(getServiceConfiguration().getService(), getApiConfiguration().getApi());
+        if (stageTimers != null && stageTimers.isNetworkEnabled()) {
+            httpRequest.tag(StageTimers.class, stageTimers);
+        }
         return httpRequest;
     }
 
-    private RevolverHttpResponse doOptions(RevolverHttpRequest request) throws Exception {
+    private Request doOptions(RevolverHttpRequest request) throws RevolverException {
         Request.Builder httpRequest = initializeRequest(request);
         httpRequest.method("OPTIONS", null);
-        return executeRequest(getApiConfiguration(), httpRequest.build(), true, request);
+        return httpRequest.build();
     }
 
-    private RevolverHttpResponse doHead(RevolverHttpRequest request) throws Exception {
+    private Request doHead(RevolverHttpRequest request) throws RevolverException {
         Request.Builder httpRequest = initializeRequest(request);
         httpRequest.head();
-        return executeRequest(getApiConfiguration(), httpRequest.build(), false, request);
+        return httpRequest.build();
     }
 
-    private RevolverHttpResponse doDelete(RevolverHttpRequest request) throws Exception {
+    private Request doDelete(RevolverHttpRequest request) throws RevolverException {
         Request.Builder httpRequest = initializeRequest(request);
         httpRequest.delete();
-        return executeRequest(getApiConfiguration(), httpRequest.build(), true, request);
+        return httpRequest.build();
     }
 
-    private RevolverHttpResponse doPatch(RevolverHttpRequest request) throws Exception {
+    private Request doPatch(RevolverHttpRequest request) throws RevolverException {
         Request.Builder httpRequest = initializeRequest(request);
         if (request.getBody() != null) {
             if (null != request.getHeaders() && StringUtils
@@ -255,10 +488,10 @@ public class RevolverHttpCommand extends
         } else {
             httpRequest.patch(RequestBody.create(MediaType.parse("*/*"), new byte[0]));
         }
-        return executeRequest(getApiConfiguration(), httpRequest.build(), true, request);
+        return httpRequest.build();
     }
 
-    private RevolverHttpResponse doPost(RevolverHttpRequest request) throws Exception {
+    private Request doPost(RevolverHttpRequest request) throws RevolverException {
         Request.Builder httpRequest = initializeRequest(request);
         if (request.getBody() != null) {
             if (null != request.getHeaders() && StringUtils
@@ -272,10 +505,10 @@ public class RevolverHttpCommand extends
         } else {
             httpRequest.post(RequestBody.create(MediaType.parse("*/*"), new byte[0]));
         }
-        return executeRequest(getApiConfiguration(), httpRequest.build(), true, request);
+        return httpRequest.build();
     }
 
-    private RevolverHttpResponse doPut(RevolverHttpRequest request) throws Exception {
+    private Request doPut(RevolverHttpRequest request) throws RevolverException {
         Request.Builder httpRequest = initializeRequest(request);
         if (request.getBody() != null) {
             if (null != request.getHeaders() && StringUtils
@@ -289,31 +522,40 @@ public class RevolverHttpCommand extends
         } else {
             httpRequest.put(RequestBody.create(MediaType.parse("*/*"), new byte[0]));
         }
-        return executeRequest(getApiConfiguration(), httpRequest.build(), true, request);
+        return httpRequest.build();
+    }
+
+    private void accessLog(RevolverHttpApiConfig apiConfiguration, Request httpRequest,
+            RevolverHttpRequest request, int status, long latencyInMillis) {
+        AccessLog.upstream(getServiceConfiguration().getService(), apiConfiguration.getApi(),
+                httpRequest.method(), httpRequest.url().host(), httpRequest.url().port(),
+                httpRequest.url().encodedPath(), status, latencyInMillis,
+                request.getTrace() == null ? null : request.getTrace().getRequestId());
     }
 
     private HttpUrl generateURI(RevolverHttpRequest request,
             RevolverHttpApiConfig apiConfiguration, Endpoint endpoint) {
-        val builder = new HttpUrl.Builder();
+        val builder = RevolverHttpEndpointCache.get(getServiceConfiguration()).getBaseUrl(endpoint)
+                .newBuilder();
         addQueryParams(request, builder);
-        if (getServiceConfiguration().isSecured()) {
-            builder.scheme("https");
-        } else {
-            builder.scheme("http");
-        }
-        builder.host(endpoint.getHost()).port(endpoint.getPort())
-                .encodedPath(resolvePath(apiConfiguration, request));
+        long resolveStart = StageMetrics.start(LatencyStage.RESOLVE_PATH);
+        builder.encodedPath(resolvePath(apiConfiguration, request));
+        StageMetrics.record(getServiceConfiguration().getService(), apiConfiguration.getApi(),
+                LatencyStage.RESOLVE_PATH, resolveStart);
         return builder.build();
     }
 
     private RevolverHttpResponse getHttpResponse(RevolverHttpApiConfig apiConfiguration,
-            Response response, boolean readBody) throws Exception {
+            Request httpRequest, RevolverHttpRequest request, Response response, boolean readBody,
+            long latencyInMillis) throws Exception {
+        accessLog(apiConfiguration, httpRequest, request, response.code(), latencyInMillis);
         if (apiConfiguration.getAcceptableResponseCodes() != null && !apiConfiguration
                 .getAcceptableResponseCodes().isEmpty() && !apiConfiguration
                 .getAcceptableResponseCodes().contains(response.code())) {
-            if (response.body() != null) {
-                log.error("Response: " + response.body().string());
-            }
+            log.error(
+                    "Unacceptable response for request id: {} | Status Code: {} | Body Length: {}",
+                    request.getTrace() == null ? null : request.getTrace().getRequestId(),
+                    response.code(), response.body() == null ? 0 : response.body().contentLength());
             throw new Exception(
                     String.format("HTTP %s %s failed with [%d - %s]", apiConfiguration.getMethods(),
                             apiConfiguration.getApi(), response.code(), response.message()));
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.dropwizard.revolver.http;
+
+import io.dropwizard.revolver.RevolverBundle;
+import io.dropwizard.revolver.discovery.model.Endpoint;
+import io.dropwizard.revolver.http.config.ConnectionWarmupConfig;
+import io.dropwizard.revolver.http.config.RevolverHttpServiceConfig;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.internal.http.HttpMethod;
+
+/**
+ * Fills the connection pool of a service's client by firing concurrent lightweight requests at
+ * every resolved endpoint, so that the first real requests do not pay for TCP/TLS handshakes.
+ *
+ * @author phaneesh
+ */
+@Slf4j
+public class RevolverHttpConnectionWarmer {
+
+    private RevolverHttpConnectionWarmer() {
+    }
+
+    /**
+     * Warms up all services that have warmup enabled and waits for them to finish or time out.
+     */
+    public static void warmUp(Collection<RevolverHttpServiceConfig> serviceConfigs) {
+        long deadline = System.nanoTime();
+        Map<String, CountDownLatch> pending = new HashMap<>();
+        for (RevolverHttpServiceConfig serviceConfig : serviceConfigs) {
+            if (!isEnabled(serviceConfig)) {
+                continue;
+            }
+            pending.put(serviceConfig.getService(), warmUpAsync(serviceConfig));
+            deadline = Math.max(deadline, System.nanoTime() + TimeUnit.MILLISECONDS
+                    .toNanos(serviceConfig.getWarmup().getTimeoutInMs()));
+        }
+        for (Map.Entry<String, CountDownLatch> entry : pending.entrySet()) {
+            try {
+                long remaining = deadline - System.nanoTime();
+                if (!entry.getValue().await(Math.max(remaining, 0), TimeUnit.NANOSECONDS)) {
+                    log.warn("Connection warmup timed out for service: {}", entry.getKey());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Starts warming up connections for the service without waiting for completion.
+     *
+     * @return latch that opens once all warmup calls have completed
+     */
+    public static CountDownLatch warmUpAsync(RevolverHttpServiceConfig serviceConfig) {
+        if (!isEnabled(serviceConfig) || RevolverBundle.getServiceNameResolver() == null) {
+            return new CountDownLatch(0);
+        }
+        ConnectionWarmupConfig warmupConfig = serviceConfig.getWarmup();
+        List<Endpoint> endpoints = RevolverBundle.getServiceNameResolver()
+                .resolveAll(serviceConfig.getEndpoint());
+        int connections = Math.max(1, serviceConfig.getConnectionPoolSize() > 0 ? Math
+                .min(warmupConfig.getConnections(), serviceConfig.getConnectionPoolSize())
+                : warmupConfig.getConnections());
+        CountDownLatch latch = new CountDownLatch(endpoints.size() * connections);
+        if (endpoints.isEmpty()) {
+            return latch;
+        }
+        OkHttpClient client = RevolverHttpClientFactory.buildClient(serviceConfig).newBuilder()
+                .callTimeout(warmupConfig.getTimeoutInMs(), TimeUnit.MILLISECONDS).build();
+        AtomicInteger opened = new AtomicInteger();
+        for (Endpoint endpoint : endpoints) {
+            HttpUrl url = new HttpUrl.Builder().scheme(serviceConfig.isSecured() ? "https" : "http")
+                    .host(endpoint.getHost()).port(endpoint.getPort())
+                    .encodedPath(warmupConfig.getPath()).build();
+            String method = warmupConfig.getMethod().toUpperCase();
+            Request request = new Request.Builder().url(url).method(method,
+                    HttpMethod.requiresRequestBody(method) ? RequestBody.create(null, new byte[0])
+                            : null).build();
+            for (int i = 0; i < connections; i++) {
+                client.newCall(request).enqueue(new Callback() {
+                    @Override
+                    public void onFailure(Call call, IOException e) {
+                        log.debug("Connection warmup failed for service: {} endpoint: {}",
+                                serviceConfig.getService(), url, e);
+                        complete();
+                    }
+
+                    @Override
+                    public void onResponse(Call call, Response response) {
+                        response.close();
+                        opened.incrementAndGet();
+                        complete();
+                    }
+
+                    private void complete() {
+                        latch.countDown();
+                        if (latch.getCount() == 0) {
+                            log.info("Connection warmup completed for service: {} with {}/{} calls",
+                                    serviceConfig.getService(), opened.get(),
+                                    endpoints.size() * connections);
+                        }
+                    }
+                });
+            }
+        }
+        return latch;
+    }
+
+    private static boolean isEnabled(RevolverHttpServiceConfig serviceConfig) {
+        return serviceConfig.getWarmup() != null && serviceConfig.getWarmup().isEnabled();
+    }
+}
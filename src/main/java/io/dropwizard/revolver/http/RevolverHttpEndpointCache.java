@@ -0,0 +1,103 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.dropwizard.revolver.http;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.google.common.base.Strings;
+import io.dropwizard.revolver.discovery.EndpointSpec;
+import io.dropwizard.revolver.discovery.model.Endpoint;
+import io.dropwizard.revolver.http.config.RevolverHttpServiceConfig;
+import io.dropwizard.revolver.splitting.RevolverSplitServiceConfig;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import lombok.Getter;
+import okhttp3.HttpUrl;
+
+/**
+ * Per service data derived from configuration that is otherwise recomputed on every request:
+ * split endpoints by name, the parsed fallback endpoint and base urls for resolved endpoints.
+ * Entries are keyed on the service configuration instance, so a config reload (which creates new
+ * instances) transparently rebuilds them.
+ *
+ * @author phaneesh
+ */
+public class RevolverHttpEndpointCache {
+
+    private static final LoadingCache<RevolverHttpServiceConfig, ServiceEndpoints> cache = Caffeine
+            .newBuilder().weakKeys().build(ServiceEndpoints::new);
+
+    private RevolverHttpEndpointCache() {
+    }
+
+    public static ServiceEndpoints get(RevolverHttpServiceConfig serviceConfig) {
+        return cache.get(serviceConfig);
+    }
+
+    public static class ServiceEndpoints {
+
+        private final Map<String, EndpointSpec> splitEndpoints;
+
+        @Getter
+        private final Endpoint fallbackEndpoint;
+
+        private final String scheme;
+
+        //Nodes come and go with discovery updates; stale base urls age out
+        private final LoadingCache<Endpoint, HttpUrl> baseUrls;
+
+        ServiceEndpoints(RevolverHttpServiceConfig serviceConfig) {
+            Map<String, EndpointSpec> splits = new HashMap<>();
+            if (serviceConfig.getServiceSplitConfig() != null
+                    && serviceConfig.getServiceSplitConfig().getConfigs() != null) {
+                for (RevolverSplitServiceConfig splitServiceConfig : serviceConfig
+                        .getServiceSplitConfig().getConfigs()) {
+                    splits.putIfAbsent(splitServiceConfig.getName(),
+                            splitServiceConfig.getEndpoint());
+                }
+            }
+            this.splitEndpoints = Collections.unmodifiableMap(splits);
+            this.fallbackEndpoint = parseAddress(serviceConfig.getFallbackAddress());
+            this.scheme = serviceConfig.isSecured() ? "https" : "http";
+            this.baseUrls = Caffeine.newBuilder().expireAfterAccess(10, TimeUnit.MINUTES)
+                    .build(endpoint -> new HttpUrl.Builder().scheme(scheme)
+                            .host(endpoint.getHost()).port(endpoint.getPort()).build());
+        }
+
+        public EndpointSpec getSplitEndpoint(String name) {
+            return splitEndpoints.get(name);
+        }
+
+        public HttpUrl getBaseUrl(Endpoint endpoint) {
+            return baseUrls.get(endpoint);
+        }
+
+        private static Endpoint parseAddress(String address) {
+            if (Strings.isNullOrEmpty(address)) {
+                return null;
+            }
+            String[] parts = address.split(":");
+            if (parts.length == 1) {
+                return Endpoint.builder().host(parts[0]).port(80).build();
+            }
+            return Endpoint.builder().host(parts[0]).port(Integer.parseInt(parts[1])).build();
+        }
+    }
+}
@@ -37,5 +37,10 @@ public interface RevolversHttpHeaders {
     String CALLBACK_RESPONSE_CODE = "X-RESPONSE-CODE";
     String RETRY_AFTER = "X-RETRY-AFTER";
     String DYAMIC_MAILBOX = "X-DYNAMIC-MAILBOX";
+    //Time in milliseconds the caller is willing to wait for the response
+    String TIMEOUT_HEADER = "X-REQUEST-TIMEOUT";
+    //One of CRITICAL, HIGH, NORMAL, LOW; lower priorities are shed first under load. Capped at
+    //the api's admission max priority
+    String PRIORITY_HEADER = "X-REQUEST-PRIORITY";
 
 }
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.dropwizard.revolver.http.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Hedging of idempotent (GET/HEAD) calls: when the first attempt has not completed after the
+ * hedge delay a second attempt is sent to a different endpoint and the first success wins.
+ *
+ * @author phaneesh
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HedgeConfig {
+
+    private boolean enabled;
+
+    //Fixed hedge delay; when 0 the delay is the configured percentile of measured latency
+    private long delayInMs;
+
+    @Builder.Default
+    private double percentile = 95.0;
+
+    @Builder.Default
+    private long minDelayInMs = 5;
+
+    //Maximum share of requests that may be hedged
+    @Builder.Default
+    private double budgetPercent = 5.0;
+
+}
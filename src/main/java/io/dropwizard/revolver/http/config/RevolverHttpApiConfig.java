@@ -17,9 +17,14 @@
 
 package io.dropwizard.revolver.http.config;
 
+import io.dropwizard.revolver.admission.AdmissionConfig;
+import io.dropwizard.revolver.cache.ResponseCacheConfig;
+import io.dropwizard.revolver.coalescing.RequestCoalescingConfig;
 import io.dropwizard.revolver.core.config.ApiLatencyConfig;
 import io.dropwizard.revolver.core.config.CommandHandlerConfig;
 import io.dropwizard.revolver.core.config.HystrixCommandConfig;
+import io.dropwizard.revolver.discovery.affinity.RoutingAffinityConfig;
+import io.dropwizard.revolver.limiter.AdaptiveConcurrencyConfig;
 import io.dropwizard.revolver.retry.RevolverApiRetryConfig;
 import io.dropwizard.revolver.splitting.RevolverHttpApiSplitConfig;
 import java.util.Collections;
@@ -63,6 +68,18 @@ public class RevolverHttpApiConfig extends CommandHandlerConfig {
 
     private ApiLatencyConfig apiLatencyConfig;
 
+    private RoutingAffinityConfig routingAffinity;
+
+    private AdaptiveConcurrencyConfig adaptiveConcurrency;
+
+    private HedgeConfig hedge;
+
+    private RequestCoalescingConfig coalescing;
+
+    private ResponseCacheConfig cache;
+
+    private AdmissionConfig admission;
+
     @NotNull
     @NotEmpty
     @Singular
@@ -78,8 +95,9 @@ public class RevolverHttpApiConfig extends CommandHandlerConfig {
     public RevolverHttpApiConfig(String api, HystrixCommandConfig runtime, String path,
             @Singular Set<RequestMethod> methods, Set<Integer> acceptableResponseCodes,
             boolean sharedPool, RevolverHttpApiSplitConfig splitConfig,
-            RevolverApiRetryConfig retryConfig) {
-        super(api, sharedPool, runtime);
+            RevolverApiRetryConfig retryConfig, String executionEngine,
+            long maxQueueWaitInMillis) {
+        super(api, sharedPool, runtime, executionEngine, maxQueueWaitInMillis);
         this.path = path;
         this.methods = methods;
         this.acceptableResponseCodes = acceptableResponseCodes;
@@ -56,6 +56,7 @@ public class RevolverHttpServiceConfig extends RevolverServiceConfig {
     private boolean compression;
     private int connectionKeepAliveInMillis = 30000;
     private RevolverHttpServiceSplitConfig serviceSplitConfig;
+    private ConnectionWarmupConfig warmup;
 
     @Builder
     public RevolverHttpServiceConfig(String type, String service, EndpointSpec enpoint,
@@ -64,7 +65,7 @@ public class RevolverHttpServiceConfig extends RevolverServiceConfig {
             @Singular("api") Set<RevolverHttpApiConfig> apis, boolean trackingHeaders,
             boolean compression, int connectionKeepAliveInMillis,
             ThreadPoolGroupConfig threadPoolGroupConfig,
-            RevolverHttpServiceSplitConfig serviceSplitConfig) {
+            RevolverHttpServiceSplitConfig serviceSplitConfig, ConnectionWarmupConfig warmup) {
         super(type, service);
         this.endpoint = enpoint;
         this.connectionPoolSize = connectionPoolSize;
@@ -79,6 +80,7 @@ public class RevolverHttpServiceConfig extends RevolverServiceConfig {
         this.connectionKeepAliveInMillis = connectionKeepAliveInMillis;
         this.threadPoolGroupConfig = threadPoolGroupConfig;
         this.serviceSplitConfig = serviceSplitConfig;
+        this.warmup = warmup;
     }
 
 }
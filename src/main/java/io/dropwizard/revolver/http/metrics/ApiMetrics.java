@@ -0,0 +1,80 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.http.metrics;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Response metrics of one api. Handles are resolved when the route is registered so that
+ * recording a response is an array lookup; exact status meters are resolved on first use and
+ * kept in an array indexed by status code. Nothing is registered until a registry is set.
+ *
+ * @author phaneesh
+ */
+public class ApiMetrics {
+
+    private static final int MAX_STATUS = 600;
+
+    private static volatile MetricRegistry metrics;
+
+    private final MetricRegistry registry;
+
+    private final String prefix;
+
+    private final Timer latency;
+
+    private final Meter[] statusClasses = new Meter[MAX_STATUS / 100];
+
+    private final AtomicReferenceArray<Meter> statuses = new AtomicReferenceArray<>(MAX_STATUS);
+
+    private ApiMetrics(MetricRegistry registry, String service, String api) {
+        this.registry = registry;
+        this.prefix = MetricRegistry.name(service, api);
+        this.latency = registry.timer(MetricRegistry.name(prefix, "latency"));
+        for (int i = 1; i < statusClasses.length; i++) {
+            statusClasses[i] = registry.meter(MetricRegistry.name(prefix, i + "xx"));
+        }
+    }
+
+    public static void setMetricRegistry(MetricRegistry metricRegistry) {
+        metrics = metricRegistry;
+    }
+
+    public static ApiMetrics register(String service, String api) {
+        MetricRegistry registry = metrics;
+        return registry == null ? null : new ApiMetrics(registry, service, api);
+    }
+
+    public void record(int status, long elapsedInNanos) {
+        latency.update(elapsedInNanos, TimeUnit.NANOSECONDS);
+        if (status < 100 || status >= MAX_STATUS) {
+            return;
+        }
+        statusClasses[status / 100].mark();
+        Meter meter = statuses.get(status);
+        if (meter == null) {
+            //A racing thread gets the same meter back from the registry
+            meter = registry.meter(MetricRegistry.name(prefix, Integer.toString(status)));
+            statuses.set(status, meter);
+        }
+        meter.mark();
+    }
+}
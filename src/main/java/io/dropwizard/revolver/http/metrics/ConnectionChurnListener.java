@@ -0,0 +1,96 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.http.metrics;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.Protocol;
+
+/**
+ * Counts connections a client opens and fails to open. It holds no per call state, so one
+ * instance is shared by every call of a service. Connections counted while no registry is set
+ * are not reported.
+ *
+ * @author phaneesh
+ */
+public class ConnectionChurnListener extends EventListener {
+
+    private final String service;
+
+    private volatile Meters meters;
+
+    ConnectionChurnListener(String service) {
+        this.service = service;
+    }
+
+    @Override
+    public void connectEnd(Call call, InetSocketAddress inetSocketAddress, Proxy proxy,
+            Protocol protocol) {
+        meters().opened.mark();
+    }
+
+    @Override
+    public void connectFailed(Call call, InetSocketAddress inetSocketAddress, Proxy proxy,
+            Protocol protocol, IOException ioe) {
+        meters().failed.mark();
+    }
+
+    public long getOpened() {
+        return meters().opened.getCount();
+    }
+
+    public long getFailed() {
+        return meters().failed.getCount();
+    }
+
+    private Meters meters() {
+        MetricRegistry registry = HttpClientMetrics.getMetricRegistry();
+        Meters current = meters;
+        if (current == null || current.registry != registry) {
+            current = new Meters(registry, service);
+            meters = current;
+        }
+        return current;
+    }
+
+    private static class Meters {
+
+        private final MetricRegistry registry;
+
+        private final Meter opened;
+
+        private final Meter failed;
+
+        private Meters(MetricRegistry registry, String service) {
+            this.registry = registry;
+            if (registry == null) {
+                this.opened = new Meter();
+                this.failed = new Meter();
+            } else {
+                this.opened = registry
+                        .meter(HttpClientMetrics.connectionsMetric(service, "opened"));
+                this.failed = registry
+                        .meter(HttpClientMetrics.connectionsMetric(service, "failed"));
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.http.metrics;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import io.dropwizard.revolver.core.model.RevolverClientMetadata;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Connection pool, dispatcher and connection churn gauges of the http client of each service.
+ * Churn is counted for the lifetime of the process, across client rebuilds; gauges are only
+ * registered once a registry is set.
+ *
+ * @author phaneesh
+ */
+public class HttpClientMetrics {
+
+    private static final String METRIC_PREFIX = "revolver.client";
+
+    private static final Map<String, ConnectionChurnListener> listeners = new ConcurrentHashMap<>();
+
+    private static volatile MetricRegistry metrics;
+
+    private HttpClientMetrics() {
+    }
+
+    public static void setMetricRegistry(MetricRegistry metricRegistry) {
+        metrics = metricRegistry;
+    }
+
+    static MetricRegistry getMetricRegistry() {
+        return metrics;
+    }
+
+    static String connectionsMetric(String service, String name) {
+        return MetricRegistry.name(METRIC_PREFIX, service, "connections", name);
+    }
+
+    /**
+     * Listener of the service; its meters are resolved against whichever registry is set when
+     * connections are counted, so it can be created before the registry is.
+     */
+    public static ConnectionChurnListener churn(String service) {
+        return listeners.computeIfAbsent(service, ConnectionChurnListener::new);
+    }
+
+    /**
+     * Registers gauges that read the current client of the service through the given supplier
+     */
+    public static void register(String service, Supplier<RevolverClientMetadata> metadata) {
+        MetricRegistry registry = metrics;
+        if (registry == null) {
+            return;
+        }
+        gauge(registry, service, metadata, "connections.total",
+                RevolverClientMetadata::getConnections);
+        gauge(registry, service, metadata, "connections.idle",
+                RevolverClientMetadata::getIdleConnections);
+        gauge(registry, service, metadata, "dispatcher.running",
+                RevolverClientMetadata::getRunningCalls);
+        gauge(registry, service, metadata, "dispatcher.queued",
+                RevolverClientMetadata::getQueuedCalls);
+    }
+
+    private static void gauge(MetricRegistry registry, String service,
+            Supplier<RevolverClientMetadata> metadata, String name,
+            Function<RevolverClientMetadata, Integer> value) {
+        registry.gauge(MetricRegistry.name(METRIC_PREFIX, service, name),
+                () -> (Gauge<Integer>) () -> {
+                    RevolverClientMetadata current = metadata.get();
+                    return current == null ? 0 : value.apply(current);
+                });
+    }
+}
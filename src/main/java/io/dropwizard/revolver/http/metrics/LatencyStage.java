@@ -0,0 +1,50 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.dropwizard.revolver.http.metrics;
+
+import lombok.Getter;
+
+/**
+ * Stages of a proxied call that can be timed individually. Network stages are reported by the
+ * http client; the rest are timed around the corresponding step in revolver.
+ *
+ * @author phaneesh
+ */
+public enum LatencyStage {
+
+    DNS("dns", true),
+    CONNECT("connect", true),
+    TLS("tls", true),
+    POOL_WAIT("pool_wait", true),
+    TTFB("ttfb", true),
+    BODY_READ("body_read", true),
+    RESOLVE_PATH("resolve_path", false),
+    PERSISTENCE("persistence", false),
+    TRANSFORM("transform", false);
+
+    @Getter
+    private final String metricName;
+
+    @Getter
+    private final boolean network;
+
+    LatencyStage(String metricName, boolean network) {
+        this.metricName = metricName;
+        this.network = network;
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.dropwizard.revolver.http.metrics;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.List;
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Protocol;
+import okhttp3.Request;
+
+/**
+ * Times the network stages of a call into the {@link StageTimers} tagged on its request. Calls
+ * without a tag only get the shared connection churn listener of their service.
+ *
+ * Pool wait is the time from call start to connection acquisition less any dns and connect
+ * time in between, so for async calls it includes the wait in the dispatcher queue. A
+ * connection is counted as reused when it was acquired without being connected first.
+ *
+ * @author phaneesh
+ */
+public class StageEventListener extends EventListener {
+
+    private final StageTimers timers;
+
+    private final ConnectionChurnListener churn;
+
+    private long callStart;
+    private long dnsStart;
+    private long connectStart;
+    private long secureConnectStart;
+    private long requestEnd;
+    private long responseBodyStart;
+    private long setupInNanos;
+    private boolean connecting;
+    private boolean acquired;
+
+    StageEventListener(StageTimers timers, ConnectionChurnListener churn) {
+        this.timers = timers;
+        this.churn = churn;
+    }
+
+    public static EventListener.Factory factory(ConnectionChurnListener churn) {
+        return call -> create(call, churn);
+    }
+
+    static EventListener create(Call call, ConnectionChurnListener churn) {
+        StageTimers timers = call.request().tag(StageTimers.class);
+        if (timers == null || !timers.isNetworkEnabled()) {
+            return churn == null ? EventListener.NONE : churn;
+        }
+        return new StageEventListener(timers, churn);
+    }
+
+    @Override
+    public void callStart(Call call) {
+        callStart = System.nanoTime();
+    }
+
+    @Override
+    public void dnsStart(Call call, String domainName) {
+        dnsStart = System.nanoTime();
+    }
+
+    @Override
+    public void dnsEnd(Call call, String domainName, List<InetAddress> inetAddressList) {
+        long elapsed = System.nanoTime() - dnsStart;
+        setupInNanos += elapsed;
+        timers.record(LatencyStage.DNS, elapsed);
+    }
+
+    @Override
+    public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+        connectStart = System.nanoTime();
+        connecting = true;
+    }
+
+    @Override
+    public void secureConnectStart(Call call) {
+        secureConnectStart = System.nanoTime();
+    }
+
+    @Override
+    public void secureConnectEnd(Call call, Handshake handshake) {
+        timers.record(LatencyStage.TLS, System.nanoTime() - secureConnectStart);
+    }
+
+    @Override
+    public void connectEnd(Call call, InetSocketAddress inetSocketAddress, Proxy proxy,
+            Protocol protocol) {
+        long elapsed = System.nanoTime() - connectStart;
+        setupInNanos += elapsed;
+        timers.record(LatencyStage.CONNECT, elapsed);
+        if (churn != null) {
+            churn.connectEnd(call, inetSocketAddress, proxy, protocol);
+        }
+    }
+
+    @Override
+    public void connectFailed(Call call, InetSocketAddress inetSocketAddress, Proxy proxy,
+            Protocol protocol, IOException ioe) {
+        setupInNanos += System.nanoTime() - connectStart;
+        if (churn != null) {
+            churn.connectFailed(call, inetSocketAddress, proxy, protocol, ioe);
+        }
+    }
+
+    @Override
+    public void connectionAcquired(Call call, Connection connection) {
+        if (!acquired) {
+            acquired = true;
+            timers.record(LatencyStage.POOL_WAIT,
+                    Math.max(0, System.nanoTime() - callStart - setupInNanos));
+        }
+        timers.connectionAcquired(!connecting);
+        connecting = false;
+    }
+
+    @Override
+    public void requestHeadersEnd(Call call, Request request) {
+        requestEnd = System.nanoTime();
+    }
+
+    @Override
+    public void requestBodyEnd(Call call, long byteCount) {
+        requestEnd = System.nanoTime();
+    }
+
+    @Override
+    public void responseHeadersStart(Call call) {
+        if (requestEnd != 0) {
+            timers.record(LatencyStage.TTFB, System.nanoTime() - requestEnd);
+        }
+    }
+
+    @Override
+    public void responseBodyStart(Call call) {
+        responseBodyStart = System.nanoTime();
+    }
+
+    @Override
+    public void responseBodyEnd(Call call, long byteCount) {
+        if (responseBodyStart != 0) {
+            timers.record(LatencyStage.BODY_READ, System.nanoTime() - responseBodyStart);
+        }
+    }
+}
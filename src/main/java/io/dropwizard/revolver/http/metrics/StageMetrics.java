@@ -0,0 +1,80 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.dropwizard.revolver.http.metrics;
+
+import com.codahale.metrics.MetricRegistry;
+import io.dropwizard.revolver.http.config.StageMetricsConfig;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per service/api stage timers. Nothing is recorded until a registry and an enabled config are
+ * set; a stage that is switched off skips even the clock read.
+ *
+ * @author phaneesh
+ */
+public class StageMetrics {
+
+    private static final String METRIC_PREFIX = "revolver.stage";
+
+    private static final Map<String, Map<String, StageTimers>> timers = new ConcurrentHashMap<>();
+
+    private static volatile MetricRegistry metrics;
+
+    private static volatile StageMetricsConfig config;
+
+    private StageMetrics() {
+    }
+
+    public static void setup(MetricRegistry metricRegistry, StageMetricsConfig stageMetricsConfig) {
+        timers.clear();
+        metrics = metricRegistry;
+        config = stageMetricsConfig;
+    }
+
+    public static boolean isEnabled(LatencyStage stage) {
+        StageMetricsConfig stageConfig = config;
+        return metrics != null && stageConfig != null && stageConfig.isEnabled()
+                && stageConfig.getStages().contains(stage);
+    }
+
+    public static StageTimers timers(String service, String api) {
+        MetricRegistry registry = metrics;
+        StageMetricsConfig stageConfig = config;
+        if (registry == null || stageConfig == null || !stageConfig.isEnabled()) {
+            return null;
+        }
+        return timers.computeIfAbsent(service, s -> new ConcurrentHashMap<>())
+                .computeIfAbsent(api, a -> new StageTimers(registry,
+                        MetricRegistry.name(METRIC_PREFIX, service, api), stageConfig.getStages()));
+    }
+
+    public static long start(LatencyStage stage) {
+        return isEnabled(stage) ? System.nanoTime() : 0;
+    }
+
+    public static void record(String service, String api, LatencyStage stage, long start) {
+        if (start == 0) {
+            return;
+        }
+        StageTimers stageTimers = timers(service, api);
+        if (stageTimers != null) {
+            stageTimers.record(stage, System.nanoTime() - start);
+        }
+    }
+}
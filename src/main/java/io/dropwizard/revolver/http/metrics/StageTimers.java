@@ -0,0 +1,94 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.dropwizard.revolver.http.metrics;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.RatioGauge;
+import com.codahale.metrics.Timer;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timers of one service/api, resolved once so the request path never builds metric names
+ *
+ * @author phaneesh
+ */
+public class StageTimers {
+
+    private final Timer[] timers = new Timer[LatencyStage.values().length];
+
+    private final Meter reused;
+
+    private final Meter created;
+
+    private final boolean network;
+
+    StageTimers(MetricRegistry registry, String prefix, Set<LatencyStage> stages) {
+        boolean networkStages = false;
+        for (LatencyStage stage : stages) {
+            timers[stage.ordinal()] = registry
+                    .timer(MetricRegistry.name(prefix, stage.getMetricName()));
+            networkStages |= stage.isNetwork();
+        }
+        this.network = networkStages;
+        if (networkStages) {
+            this.reused = registry.meter(MetricRegistry.name(prefix, "connection", "reused"));
+            this.created = registry.meter(MetricRegistry.name(prefix, "connection", "created"));
+            Meter reusedMeter = this.reused;
+            Meter createdMeter = this.created;
+            registry.gauge(MetricRegistry.name(prefix, "connection", "reuse_ratio"),
+                    () -> new RatioGauge() {
+                        @Override
+                        protected Ratio getRatio() {
+                            return Ratio.of(reusedMeter.getCount(),
+                                    reusedMeter.getCount() + createdMeter.getCount());
+                        }
+                    });
+        } else {
+            this.reused = null;
+            this.created = null;
+        }
+    }
+
+    public boolean isEnabled(LatencyStage stage) {
+        return timers[stage.ordinal()] != null;
+    }
+
+    public boolean isNetworkEnabled() {
+        return network;
+    }
+
+    public void record(LatencyStage stage, long elapsedInNanos) {
+        Timer timer = timers[stage.ordinal()];
+        if (timer != null && elapsedInNanos >= 0) {
+            timer.update(elapsedInNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public void connectionAcquired(boolean reusedConnection) {
+        if (!network) {
+            return;
+        }
+        if (reusedConnection) {
+            reused.mark();
+        } else {
+            created.mark();
+        }
+    }
+}
@@ -17,7 +17,10 @@
 
 package io.dropwizard.revolver.http.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import io.dropwizard.revolver.core.engine.RevolverExecutionConfig;
 import io.dropwizard.revolver.http.config.RevolverHttpApiConfig;
+import io.dropwizard.revolver.http.metrics.ApiMetrics;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -32,11 +35,18 @@ import lombok.ToString;
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
-@EqualsAndHashCode
-@ToString
+@EqualsAndHashCode(exclude = {"metrics", "executionConfig"})
+@ToString(exclude = {"metrics", "executionConfig"})
 public class ApiPathMap {
 
     private RevolverHttpApiConfig api;
 
     private String path;
+
+    @JsonIgnore
+    private ApiMetrics metrics;
+
+    //Resolved when the route is registered so that admission does not resolve it per request
+    @JsonIgnore
+    private RevolverExecutionConfig executionConfig;
 }
@@ -17,6 +17,7 @@
 
 package io.dropwizard.revolver.http.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.google.common.collect.Maps;
 import io.dropwizard.revolver.core.model.RevolverRequest;
 import io.dropwizard.revolver.core.tracing.TraceInfo;
@@ -42,6 +43,10 @@ public class RevolverHttpRequest extends RevolverRequest {
     private RevolverHttpApiConfig.RequestMethod method;
     private byte[] body;
 
+    //Epoch millis after which the caller no longer waits for the response; 0 when not known
+    @JsonIgnore
+    private long deadline;
+
     public RevolverHttpRequest() {
         this.headers = new MultivaluedHashMap<>();
         this.queryParams = new MultivaluedHashMap<>();
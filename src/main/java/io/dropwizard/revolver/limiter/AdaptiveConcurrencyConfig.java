@@ -0,0 +1,69 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.dropwizard.revolver.limiter;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Settings for the gradient based adaptive concurrency limit of an api
+ *
+ * @author phaneesh
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AdaptiveConcurrencyConfig {
+
+    private boolean enabled;
+
+    @Builder.Default
+    private int initialLimit = 20;
+
+    @Builder.Default
+    private int minLimit = 1;
+
+    @Builder.Default
+    private int maxLimit = 1000;
+
+    //Weight of a new limit estimate against the current limit
+    @Builder.Default
+    private double smoothing = 0.2;
+
+    //How much the short term rtt may exceed the long term rtt before the limit is reduced
+    @Builder.Default
+    private double rttTolerance = 1.5;
+
+    //Number of samples the short and long term rtt averages span
+    @Builder.Default
+    private int shortWindow = 10;
+
+    @Builder.Default
+    private int longWindow = 600;
+
+    //Multiplicative decrease applied on timeouts and upstream overload responses
+    @Builder.Default
+    private double backoffRatio = 0.9;
+
+    @Builder.Default
+    private int retryAfterInSeconds = 1;
+
+}
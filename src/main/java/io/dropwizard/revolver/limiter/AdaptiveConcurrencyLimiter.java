@@ -0,0 +1,114 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.dropwizard.revolver.limiter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.Getter;
+
+/**
+ * Gradient style concurrency limiter. The limit follows the ratio of the long term to the short
+ * term round trip time: it grows while latency stays flat and shrinks as soon as queueing shows up
+ * upstream, and backs off multiplicatively on timeouts and overload responses.
+ *
+ * @author phaneesh
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    @Getter
+    private final AdaptiveConcurrencyConfig config;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final double shortAlpha;
+    private final double longAlpha;
+    private volatile double limit;
+    private volatile double shortRttNanos;
+    private volatile double longRttNanos;
+
+    public AdaptiveConcurrencyLimiter(AdaptiveConcurrencyConfig config) {
+        this.config = config;
+        this.limit = config.getInitialLimit();
+        this.shortAlpha = 2.0 / (Math.max(1, config.getShortWindow()) + 1);
+        this.longAlpha = 2.0 / (Math.max(1, config.getLongWindow()) + 1);
+    }
+
+    /**
+     * @return the in flight count at admission, or -1 if the request must be rejected
+     */
+    public int tryAcquire() {
+        int current = inFlight.incrementAndGet();
+        if (current > (int) limit) {
+            inFlight.decrementAndGet();
+            return -1;
+        }
+        return current;
+    }
+
+    public void onSuccess(long rttNanos, int inFlightAtStart) {
+        inFlight.decrementAndGet();
+        sample(rttNanos, inFlightAtStart);
+    }
+
+    public void onDropped() {
+        inFlight.decrementAndGet();
+        synchronized (this) {
+            limit = Math.max(config.getMinLimit(), limit * config.getBackoffRatio());
+        }
+    }
+
+    public void onIgnore() {
+        inFlight.decrementAndGet();
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public double getShortRttInMillis() {
+        return shortRttNanos / 1_000_000.0;
+    }
+
+    public double getLongRttInMillis() {
+        return longRttNanos / 1_000_000.0;
+    }
+
+    private synchronized void sample(long rttNanos, int inFlightAtStart) {
+        if (rttNanos <= 0) {
+            return;
+        }
+        shortRttNanos = shortRttNanos == 0 ? rttNanos
+                : shortRttNanos * (1 - shortAlpha) + rttNanos * shortAlpha;
+        longRttNanos = longRttNanos == 0 ? rttNanos
+                : longRttNanos * (1 - longAlpha) + rttNanos * longAlpha;
+        //Let the long term average recover quickly after a sustained latency drop
+        if (longRttNanos > 2 * shortRttNanos) {
+            longRttNanos *= 0.95;
+        }
+        //Do not grow the limit when demand does not use it
+        if (inFlightAtStart < limit / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5,
+                Math.min(1.0, config.getRttTolerance() * longRttNanos / shortRttNanos));
+        double estimate = limit * gradient + Math.sqrt(limit);
+        double smoothed = limit * (1 - config.getSmoothing()) + estimate * config.getSmoothing();
+        limit = Math.max(config.getMinLimit(), Math.min(config.getMaxLimit(), smoothed));
+    }
+}
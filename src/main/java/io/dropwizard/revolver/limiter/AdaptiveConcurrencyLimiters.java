@@ -0,0 +1,85 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.dropwizard.revolver.limiter;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Adaptive concurrency limiters keyed by service.api. A limiter is replaced when the api's
+ * limiter config changes; metrics always report the current one.
+ *
+ * @author phaneesh
+ */
+public class AdaptiveConcurrencyLimiters {
+
+    private static final String METRIC_PREFIX = "revolver.limiter";
+
+    private final Map<String, AdaptiveConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+    private final MetricRegistry metrics;
+
+    public AdaptiveConcurrencyLimiters(MetricRegistry metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * @return limiter for the api or null when adaptive concurrency is not enabled for it
+     */
+    public AdaptiveConcurrencyLimiter get(String serviceKey, AdaptiveConcurrencyConfig config) {
+        if (config == null || !config.isEnabled()) {
+            return null;
+        }
+        AdaptiveConcurrencyLimiter limiter = limiters.get(serviceKey);
+        if (limiter != null && limiter.getConfig().equals(config)) {
+            return limiter;
+        }
+        return limiters.compute(serviceKey, (key, existing) -> {
+            if (existing != null && existing.getConfig().equals(config)) {
+                return existing;
+            }
+            if (existing == null) {
+                registerMetrics(key);
+            }
+            return new AdaptiveConcurrencyLimiter(config);
+        });
+    }
+
+    public Meter rejected(String serviceKey) {
+        return metrics.meter(MetricRegistry.name(METRIC_PREFIX, serviceKey, "rejected"));
+    }
+
+    private void registerMetrics(String serviceKey) {
+        gauge(serviceKey, "limit", AdaptiveConcurrencyLimiter::getLimit);
+        gauge(serviceKey, "inflight", AdaptiveConcurrencyLimiter::getInFlight);
+        gauge(serviceKey, "rtt.short", AdaptiveConcurrencyLimiter::getShortRttInMillis);
+        gauge(serviceKey, "rtt.long", AdaptiveConcurrencyLimiter::getLongRttInMillis);
+    }
+
+    private void gauge(String serviceKey, String name,
+            Function<AdaptiveConcurrencyLimiter, Number> value) {
+        metrics.gauge(MetricRegistry.name(METRIC_PREFIX, serviceKey, name),
+                () -> (Gauge<Number>) () -> {
+                    AdaptiveConcurrencyLimiter limiter = limiters.get(serviceKey);
+                    return limiter == null ? 0 : value.apply(limiter);
+                });
+    }
+}
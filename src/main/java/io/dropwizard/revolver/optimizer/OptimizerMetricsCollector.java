@@ -1,16 +1,18 @@
 package io.dropwizard.revolver.optimizer;
 
-import com.codahale.metrics.Gauge;
-import com.codahale.metrics.MetricRegistry;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import io.dropwizard.revolver.optimizer.config.OptimizerConfig;
-import io.dropwizard.revolver.optimizer.config.OptimizerTimeConfig;
-import io.dropwizard.revolver.optimizer.utils.OptimizerUtils;
-import java.util.SortedMap;
+import io.dropwizard.revolver.optimizer.config.OptimizerMetricsCollectorConfig;
+import io.dropwizard.revolver.optimizer.simulator.OptimizerRecording;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
 
 /***
  Created by nitish.goyal on 29/03/19
@@ -21,93 +23,58 @@ import lombok.extern.slf4j.Slf4j;
 @Data
 public class OptimizerMetricsCollector implements Runnable {
 
-    private MetricRegistry metrics;
-    private OptimizerMetricsCache optimizerMetricsCache;
+    private OptimizerMetricsStore optimizerMetricsStore;
     private OptimizerConfig optimizerConfig;
 
     @Override
     public void run() {
 
         log.info("Running optimiser metrics collection job");
-        SortedMap<String, Gauge> gauges = metrics.getGauges();
-        Long time = System.currentTimeMillis();
+        long time = System.currentTimeMillis();
 
         try {
-            captureThreadPoolMetrics(gauges, time);
-            captureTimeMetrics(gauges, time);
+            OptimizerMetricsCollectorConfig collectorConfig = optimizerConfig == null ? null
+                    : optimizerConfig.getMetricsCollectorConfig();
+            boolean recording = collectorConfig != null
+                    && collectorConfig.getRecordingPath() != null;
+            List<String> recorded = Lists.newArrayList();
+            OptimizerMetricsStore.Window window = optimizerMetricsStore.open(time);
+            try {
+                if (recording) {
+                    Map<String, Map<String, Histogram>> drained = Maps.newHashMap();
+                    OptimizerMetricsRecorder.drain((metric, key) -> {
+                        Histogram histogram = window.histogram(metric, key);
+                        drained.computeIfAbsent(metric, k -> Maps.newHashMap())
+                                .put(key, histogram);
+                        return histogram;
+                    });
+                    long windowInMillis = collectorConfig.getTimeUnit()
+                            .toMillis(collectorConfig.getRepeatAfter());
+                    drained.forEach((metric, histograms) -> histograms.forEach(
+                            (key, histogram) -> recorded.add(OptimizerRecording
+                                    .encode(time, windowInMillis, metric, key,
+                                            OptimizerMetricsRecorder.LATENCY.equals(metric)
+                                                    ? OptimizerMetricsRecorder.poolOf(key) : key,
+                                            histogram))));
+                } else {
+                    OptimizerMetricsRecorder.drain(window::histogram);
+                }
+            } finally {
+                window.close();
+            }
+            if (!recorded.isEmpty()) {
+                record(collectorConfig.getRecordingPath(), recorded);
+            }
         } catch (Exception e) {
             log.error("Error occurred while executing metrics collector : ", e);
         }
     }
 
-
-    private void captureThreadPoolMetrics(SortedMap<String, Gauge> gauges, Long time) {
-        gauges.forEach((k, v) -> {
-            String[] splits = k.split("\\.");
-            if (splits.length < 3) {
-                return;
-            }
-            int length = splits.length;
-            String metricName = splits[length - 1];
-            if (!(OptimizerUtils.getMetricsToRead().contains(metricName)) || !((v
-                    .getValue() instanceof Number))) {
-                return;
-            }
-            StringBuilder sb = new StringBuilder();
-            String delimiter = "";
-            for (int i = 1; i < length - 1; i++) {
-                sb.append(delimiter);
-                sb.append(splits[i]);
-                delimiter = ".";
-            }
-            OptimizerCacheKey key = new OptimizerCacheKey(time, sb.toString());
-            if (optimizerMetricsCache.get(key) == null) {
-                optimizerMetricsCache.put(key, OptimizerMetrics.builder().metrics(Maps.newHashMap())
-                        .aggregationAlgo(OptimizerMetrics.AggregationAlgo.MAX).build());
-            }
-            OptimizerMetrics optimizerMetrics = optimizerMetricsCache.get(key);
-            if (optimizerMetrics == null) {
-                return;
-            }
-            optimizerMetrics.getMetrics().put(metricName, (Number) v.getValue());
-
-        });
-    }
-
-    private void captureTimeMetrics(SortedMap<String, Gauge> gauges, Long time) {
-        OptimizerTimeConfig timeConfig = optimizerConfig.getTimeConfig();
-        gauges.forEach((k, v) -> {
-            if (timeConfig == null || !timeConfig.isEnabled()) {
-                return;
-            }
-            String[] splits = k.split("\\.");
-            if (splits.length < 4) {
-                return;
-            }
-            int length = splits.length;
-            String metricName = splits[length - 1];
-            if (!(timeConfig.getLatencyMetrics().contains(metricName)) || !((v
-                    .getValue() instanceof Number))) {
-                return;
-            }
-            StringBuilder sb = new StringBuilder();
-            String delimiter = "";
-            for (int i = 1; i < length - 1; i++) {
-                sb.append(delimiter);
-                sb.append(splits[i]);
-                delimiter = ".";
-            }
-            OptimizerCacheKey key = new OptimizerCacheKey(time, sb.toString());
-            if (optimizerMetricsCache.get(key) == null) {
-                optimizerMetricsCache.put(key, OptimizerMetrics.builder().metrics(Maps.newHashMap())
-                        .aggregationAlgo(OptimizerMetrics.AggregationAlgo.AVG).build());
-            }
-            OptimizerMetrics optimizerMetrics = optimizerMetricsCache.get(key);
-            if (optimizerMetrics == null) {
-                return;
-            }
-            optimizerMetrics.getMetrics().put(metricName, (Number) v.getValue());
-
-        });
+    private void record(String recordingPath, List<String> recorded) {
+        try {
+            OptimizerRecording.append(Paths.get(recordingPath), recorded);
+        } catch (Exception e) {
+            log.error("Error recording optimizer metrics : ", e);
+        }
     }
 }
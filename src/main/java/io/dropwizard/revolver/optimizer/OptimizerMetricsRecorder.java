@@ -0,0 +1,102 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.optimizer;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Records execution latency per command and concurrency per pool as calls start and complete.
+ * The collector drains interval histograms from here, so the optimizer can merge them over its
+ * window and read true window percentiles. Nothing is recorded until the optimizer enables it.
+ *
+ * @author phaneesh
+ */
+public class OptimizerMetricsRecorder {
+
+    public static final String LATENCY = "latency";
+    public static final String CONCURRENCY = "concurrency";
+
+    private static final Map<String, Recorder> latencies = new ConcurrentHashMap<>();
+    private static final Map<String, Recorder> concurrencies = new ConcurrentHashMap<>();
+    private static final Map<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+    private static final Map<String, String> pools = new ConcurrentHashMap<>();
+
+    private static volatile boolean enabled;
+
+    private OptimizerMetricsRecorder() {
+    }
+
+    public static void setEnabled(boolean enabled) {
+        OptimizerMetricsRecorder.enabled = enabled;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void started(String poolKey) {
+        if (!enabled) {
+            return;
+        }
+        int current = inFlight.computeIfAbsent(poolKey, key -> new AtomicInteger())
+                .incrementAndGet();
+        recorder(concurrencies, poolKey).recordValue(current);
+    }
+
+    public static void completed(String poolKey, String commandKey, long latencyInMillis) {
+        if (!enabled) {
+            return;
+        }
+        AtomicInteger current = inFlight.get(poolKey);
+        if (current != null) {
+            current.decrementAndGet();
+        }
+        pools.putIfAbsent(commandKey, poolKey);
+        recorder(latencies, commandKey).recordValue(Math.max(0, latencyInMillis));
+    }
+
+    /**
+     * Hands over everything recorded since the previous call into the histograms the target
+     * returns for each metric and key, and starts new intervals
+     */
+    public static void drain(BiFunction<String, String, Histogram> target) {
+        latencies.forEach((key, recorder) -> recorder
+                .getIntervalHistogramInto(target.apply(LATENCY, key)));
+        concurrencies.forEach((key, recorder) -> recorder
+                .getIntervalHistogramInto(target.apply(CONCURRENCY, key)));
+    }
+
+    /**
+     * Pool the command last completed on; null if it hasn't completed since startup
+     */
+    public static String poolOf(String commandKey) {
+        return pools.get(commandKey);
+    }
+
+    private static Recorder recorder(Map<String, Recorder> recorders, String key) {
+        Recorder recorder = recorders.get(key);
+        if (recorder == null) {
+            recorder = recorders.computeIfAbsent(key, k -> new Recorder(2));
+        }
+        return recorder;
+    }
+}
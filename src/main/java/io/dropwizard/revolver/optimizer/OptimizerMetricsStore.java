@@ -0,0 +1,175 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.optimizer;
+
+import com.google.common.collect.Maps;
+import io.dropwizard.revolver.optimizer.config.OptimizerMetricsCollectorConfig;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.Builder;
+import lombok.Getter;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Optimizer metrics for the caching window held in a fixed ring of time buckets, one per
+ * collection run. Each bucket keeps a histogram per metric and pool/api, indexed by an id
+ * assigned the first time the pair is seen, and reuses them from run to run, so collection
+ * doesn't allocate once every pair has been seen. A bucket is written by one collection run at a
+ * time without locks; readers copy buckets and drop any that changed while being copied.
+ *
+ * @author phaneesh
+ */
+public class OptimizerMetricsStore {
+
+    //Ids by metric, then pool/api name
+    private final Map<String, Map<String, Integer>> ids = new ConcurrentHashMap<>();
+    private final Bucket[] buckets;
+    private final AtomicLong cursor = new AtomicLong();
+    private final long windowInMillis;
+    private int nextId;
+
+    @Getter
+    private final OptimizerMetricsCollectorConfig optimizerMetricsCollectorConfig;
+
+    @Builder
+    public OptimizerMetricsStore(OptimizerMetricsCollectorConfig optimizerMetricsCollectorConfig) {
+        this.optimizerMetricsCollectorConfig = optimizerMetricsCollectorConfig;
+        this.windowInMillis = TimeUnit.MINUTES
+                .toMillis(optimizerMetricsCollectorConfig.getCachingWindowInMinutes());
+        long runInMillis = Math.max(1, optimizerMetricsCollectorConfig.getTimeUnit()
+                .toMillis(optimizerMetricsCollectorConfig.getRepeatAfter()));
+        int size = (int) Math.max(1, (windowInMillis + runInMillis - 1) / runInMillis);
+        this.buckets = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            buckets[i] = new Bucket();
+        }
+    }
+
+    /**
+     * Claims the oldest bucket for a collection run and clears it; the bucket is invisible to
+     * readers until it is closed
+     */
+    public Window open(long time) {
+        Bucket bucket = buckets[(int) (cursor.getAndIncrement() % buckets.length)];
+        bucket.version.incrementAndGet();
+        bucket.time = time;
+        for (Histogram histogram : bucket.histograms) {
+            if (histogram != null) {
+                histogram.reset();
+            }
+        }
+        return new Window(bucket);
+    }
+
+    /**
+     * Histograms of the metric over the caching window merged per pool/api
+     */
+    public Map<String, Histogram> snapshot(String metric) {
+        Map<String, Histogram> merged = Maps.newHashMap();
+        Map<String, Integer> metricIds = ids.get(metric);
+        if (metricIds == null) {
+            return merged;
+        }
+        long oldest = System.currentTimeMillis() - windowInMillis;
+        for (Bucket bucket : buckets) {
+            long version = bucket.version.get();
+            if ((version & 1) != 0 || version == 0 || bucket.time < oldest) {
+                continue;
+            }
+            Map<String, Histogram> copied = Maps.newHashMap();
+            try {
+                Histogram[] histograms = bucket.histograms;
+                metricIds.forEach((name, id) -> {
+                    if (id < histograms.length && histograms[id] != null) {
+                        copied.put(name, histograms[id].copy());
+                    }
+                });
+            } catch (RuntimeException e) {
+                //Torn by a run that reclaimed the bucket; it is dropped below
+            }
+            if (bucket.version.get() != version) {
+                continue;
+            }
+            copied.forEach((name, histogram) -> {
+                Histogram current = merged.get(name);
+                if (current == null) {
+                    merged.put(name, histogram);
+                } else {
+                    current.add(histogram);
+                }
+            });
+        }
+        return merged;
+    }
+
+    private int id(String metric, String name) {
+        Map<String, Integer> metricIds = ids.get(metric);
+        Integer id = metricIds == null ? null : metricIds.get(name);
+        return id != null ? id : assign(metric, name);
+    }
+
+    private synchronized int assign(String metric, String name) {
+        return ids.computeIfAbsent(metric, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(name, k -> nextId++);
+    }
+
+    private static class Bucket {
+
+        //Odd while a collection run is writing the bucket
+        private final AtomicLong version = new AtomicLong();
+        private volatile long time;
+        private volatile Histogram[] histograms = new Histogram[0];
+    }
+
+    /**
+     * A bucket being written by a collection run
+     */
+    public class Window {
+
+        private final Bucket bucket;
+
+        private Window(Bucket bucket) {
+            this.bucket = bucket;
+        }
+
+        /**
+         * The bucket's histogram for the metric and pool/api, to be filled by the caller
+         */
+        public Histogram histogram(String metric, String name) {
+            int id = id(metric, name);
+            Histogram[] histograms = bucket.histograms;
+            if (id >= histograms.length) {
+                histograms = Arrays.copyOf(histograms, Math.max(id + 1, histograms.length * 2));
+                bucket.histograms = histograms;
+            }
+            if (histograms[id] == null) {
+                histograms[id] = new Histogram(2);
+            }
+            return histograms[id];
+        }
+
+        /**
+         * Publishes the bucket to readers
+         */
+        public void close() {
+            bucket.version.incrementAndGet();
+        }
+    }
+}
@@ -1,7 +1,6 @@
 package io.dropwizard.revolver.optimizer;
 
 import com.google.common.collect.Maps;
-import io.dropwizard.revolver.RevolverBundle;
 import io.dropwizard.revolver.core.config.ApiLatencyConfig;
 import io.dropwizard.revolver.core.config.RevolverConfig;
 import io.dropwizard.revolver.core.config.RevolverServiceConfig;
@@ -12,15 +11,15 @@ import io.dropwizard.revolver.optimizer.config.OptimizerConcurrencyConfig;
 import io.dropwizard.revolver.optimizer.config.OptimizerConfig;
 import io.dropwizard.revolver.optimizer.config.OptimizerTimeConfig;
 import io.dropwizard.revolver.optimizer.utils.OptimizerUtils;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicLong;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
 
 /***
  Created by nitish.goyal on 29/03/19
@@ -34,162 +33,98 @@ public class RevolverConfigUpdater implements Runnable {
 
     private RevolverConfig revolverConfig;
     private OptimizerConfig optimizerConfig;
-    private OptimizerMetricsCache optimizerMetricsCache;
+    private OptimizerMetricsStore optimizerMetricsStore;
 
     @Override
     public void run() {
         try {
             log.info("Running revolver config updater job with exception catching enabled");
-            Map<String, OptimizerAggregatedMetrics> optimizerAggregatedMetricsMap = Maps.newHashMap();
-            Map<OptimizerCacheKey, OptimizerMetrics> metricsCache = optimizerMetricsCache.getCache();
-            if (metricsCache.isEmpty()) {
-                log.info("Metrics cache is empty");
+            //Histograms of the caching window merged so percentiles cover the whole window
+            Map<String, Histogram> latencies = optimizerMetricsStore
+                    .snapshot(OptimizerMetricsRecorder.LATENCY);
+            Map<String, Histogram> concurrencies = optimizerMetricsStore
+                    .snapshot(OptimizerMetricsRecorder.CONCURRENCY);
+            if (latencies.isEmpty() && concurrencies.isEmpty()) {
+                log.info("Metrics store is empty");
                 return;
             }
 
-            Map<String, Integer> keyVsMetricCount = Maps.newHashMap();
-            AtomicLong metricsCount = new AtomicLong(0);
-            Map<String, Number> aggregatedAppLevelMetricsValues = Maps.newHashMap();
-
-            metricsCache.forEach((key, optimizerMetrics) -> {
-                if (optimizerAggregatedMetricsMap.get(key.getName()) == null) {
-                    optimizerAggregatedMetricsMap.put(key.getName(),
-                            OptimizerAggregatedMetrics.builder().metricsAggValueMap(Maps.newHashMap())
-                                    .build());
+            Map<String, OptimizerAggregatedMetrics> optimizerAggregatedMetricsMap = Maps.newHashMap();
+            Histogram appLatency = new Histogram(2);
+            latencies.forEach((name, histogram) -> {
+                if (histogram.getTotalCount() == 0) {
+                    return;
                 }
-
-                OptimizerAggregatedMetrics optimizerAggregatedMetrics = optimizerAggregatedMetricsMap
-                        .get(key.getName());
-                Map<String, Number> aggregatedMetricsValues = optimizerAggregatedMetrics
-                        .getMetricsAggValueMap();
-
-                optimizerMetrics.getMetrics().forEach((metric, value) -> {
-                    aggregateAppLevelMetrics(aggregatedAppLevelMetricsValues, metric, value,
-                            metricsCount);
-                    aggregateApiLevelMetrics(optimizerMetrics, aggregatedMetricsValues, metric, value,
-                            keyVsMetricCount, key);
-                });
-
+                appLatency.add(histogram);
+                Map<String, Number> aggregatedMetricsValues = aggregatedMetrics(
+                        optimizerAggregatedMetricsMap, name);
+                latencyMetrics().forEach(metric -> aggregatedMetricsValues.put(metric,
+                        histogram.getValueAtPercentile(OptimizerUtils.percentile(metric))));
             });
+            concurrencies.forEach((name, histogram) -> aggregatedMetrics(
+                    optimizerAggregatedMetricsMap, name)
+                    .put(OptimizerUtils.ROLLING_MAX_ACTIVE_THREADS, histogram.getMaxValue()));
 
-            updateAvgOfMetrics(keyVsMetricCount, optimizerAggregatedMetricsMap,
-                    aggregatedAppLevelMetricsValues, metricsCount);
-
-            updateRevolverConfig(optimizerAggregatedMetricsMap);
-            updateLatencyThreshold(aggregatedAppLevelMetricsValues);
+            updateRevolverConfig(optimizerAggregatedMetricsMap, latencies);
+            updateLatencyThreshold(appLatency);
         } catch (Exception e) {
             log.error("Revolver config counldn't be updated : " + e);
         }
 
     }
 
-    private void updateAvgOfMetrics(Map<String, Integer> keyVsMetricCount,
-            Map<String, OptimizerAggregatedMetrics> optimizerAggregatedMetricsMap,
-            Map<String, Number> aggregatedAppLevelMetricsValues, AtomicLong metricsCount) {
-
-        keyVsMetricCount.forEach((k, v) -> {
-            OptimizerAggregatedMetrics optimizerAggregatedMetrics = optimizerAggregatedMetricsMap
-                    .get(k);
-            optimizerAggregatedMetrics.getMetricsAggValueMap()
-                    .forEach((metric, aggregatedValue) -> {
-                        if (v != 0) {
-                            optimizerAggregatedMetrics.getMetricsAggValueMap()
-                                    .put(metric, aggregatedValue.intValue() / v);
-                        }
-                    });
-        });
-
-        aggregatedAppLevelMetricsValues.forEach((k, v) -> {
-            aggregatedAppLevelMetricsValues.put(k, v.intValue() / metricsCount.get());
-        });
+    private static Map<String, Number> aggregatedMetrics(
+            Map<String, OptimizerAggregatedMetrics> optimizerAggregatedMetricsMap, String name) {
+        return optimizerAggregatedMetricsMap.computeIfAbsent(name,
+                k -> OptimizerAggregatedMetrics.builder().metricsAggValueMap(Maps.newHashMap())
+                        .build()).getMetricsAggValueMap();
     }
 
-    private void updateLatencyThreshold(Map<String, Number> aggregatedAppLevelMetricsValues) {
-
+    private List<String> latencyMetrics() {
         OptimizerTimeConfig optimizerTimeConfig = optimizerConfig.getTimeConfig();
-        if (optimizerTimeConfig == null || !optimizerTimeConfig.isEnabled()
-                || aggregatedAppLevelMetricsValues
-                .get(optimizerTimeConfig.getAppLatencyMetric()) == null) {
-            return;
+        if (optimizerTimeConfig == null || optimizerTimeConfig.getLatencyMetrics() == null) {
+            return Collections.emptyList();
         }
-        int latencyThresholdValue = aggregatedAppLevelMetricsValues
-                .get(optimizerTimeConfig.getAppLatencyMetric()).intValue();
-        optimizerTimeConfig.setAppLatencyThresholdValue(latencyThresholdValue);
+        return optimizerTimeConfig.getLatencyMetrics();
     }
 
-    private void aggregateAppLevelMetrics(Map<String, Number> aggregatedAppLevelMetricsValues,
-            String metric, Number value, AtomicLong metricsCount) {
+    private void updateLatencyThreshold(Histogram appLatency) {
 
         OptimizerTimeConfig optimizerTimeConfig = optimizerConfig.getTimeConfig();
-        if (optimizerTimeConfig == null || !optimizerTimeConfig.isEnabled() || !optimizerTimeConfig
-                .getAppLatencyMetric().equals(metric)
-                || value.intValue() == 0) {
+        if (optimizerTimeConfig == null || !optimizerTimeConfig.isEnabled()
+                || appLatency.getTotalCount() == 0) {
             return;
         }
-        metricsCount.addAndGet(1);
-        if (aggregatedAppLevelMetricsValues.get(metric) == null) {
-            aggregatedAppLevelMetricsValues.put(metric, value);
-        } else {
-            aggregatedAppLevelMetricsValues.put(metric,
-                    (aggregatedAppLevelMetricsValues.get(metric).intValue() + value.intValue()));
-        }
-        if (OptimizerUtils.LATENCY_PERCENTILE_995.equals(metric)) {
-            log.info("Aggregated 99%ile for app : "
-                    + aggregatedAppLevelMetricsValues.get(metric).intValue() / metricsCount.get());
-        }
-    }
-
-    private void aggregateApiLevelMetrics(OptimizerMetrics optimizerMetrics,
-            Map<String, Number> aggregatedMetricsValues, String metric, Number value,
-            Map<String, Integer> keyVsMetricCount, OptimizerCacheKey key) {
-        OptimizerMetrics.AggregationAlgo aggregationAlgo = optimizerMetrics.getAggregationAlgo();
-        switch (aggregationAlgo) {
-            case MAX:
-                if (aggregatedMetricsValues.get(metric) == null
-                        || aggregatedMetricsValues.get(metric).intValue() < value.intValue()) {
-                    aggregatedMetricsValues.put(metric, value);
-                }
-                break;
-            case AVG:
-                keyVsMetricCount.putIfAbsent(key.getName(), 0);
-                if (aggregatedMetricsValues.get(metric) == null) {
-                    aggregatedMetricsValues.put(metric, value);
-                    keyVsMetricCount.put(key.getName(), 1);
-                } else {
-                    keyVsMetricCount.put(key.getName(), keyVsMetricCount.get(key.getName()) + 1);
-                    aggregatedMetricsValues.put(metric,
-                            (aggregatedMetricsValues.get(metric).intValue() + value.intValue()));
-                }
-        }
+        int latencyThresholdValue = (int) appLatency.getValueAtPercentile(
+                OptimizerUtils.percentile(optimizerTimeConfig.getAppLatencyMetric()));
+        log.info("Aggregated " + optimizerTimeConfig.getAppLatencyMetric() + " for app : "
+                + latencyThresholdValue);
+        optimizerTimeConfig.setAppLatencyThresholdValue(latencyThresholdValue);
     }
 
     private void updateRevolverConfig(
-            Map<String, OptimizerAggregatedMetrics> optimizerAggregatedMetricsMap) {
-        AtomicBoolean configUpdated = new AtomicBoolean();
+            Map<String, OptimizerAggregatedMetrics> optimizerAggregatedMetricsMap,
+            Map<String, Histogram> latencies) {
         revolverConfig.getServices().forEach(revolverServiceConfig -> {
             if (revolverServiceConfig.getThreadPoolGroupConfig() != null) {
                 revolverServiceConfig.getThreadPoolGroupConfig().getThreadPools()
                         .forEach(threadPoolConfig -> {
-                            updatedPoolSettings(threadPoolConfig, optimizerAggregatedMetricsMap,
-                                    configUpdated);
+                            updatedPoolSettings(revolverServiceConfig, threadPoolConfig,
+                                    optimizerAggregatedMetricsMap);
                         });
             }
             if (revolverServiceConfig instanceof RevolverHttpServiceConfig) {
                 ((RevolverHttpServiceConfig) revolverServiceConfig).getApis().forEach(api -> {
                     updatedApiSettings(revolverServiceConfig, api, optimizerAggregatedMetricsMap,
-                            configUpdated);
+                            latencies);
                 });
             }
         });
-
-        if (configUpdated.get()) {
-            RevolverBundle.loadServiceConfiguration(revolverConfig);
-        }
     }
 
-    private void updatedPoolSettings(ThreadPoolConfig threadPoolConfig,
-            Map<String, OptimizerAggregatedMetrics> optimizerAggregatedMetricsMap,
-            AtomicBoolean configUpdated) {
+    private void updatedPoolSettings(RevolverServiceConfig revolverServiceConfig,
+            ThreadPoolConfig threadPoolConfig,
+            Map<String, OptimizerAggregatedMetrics> optimizerAggregatedMetricsMap) {
 
         OptimizerConcurrencyConfig optimizerConcurrencyConfig = optimizerConfig
                 .getConcurrencyConfig();
@@ -203,15 +138,15 @@ public class RevolverConfigUpdater implements Runnable {
         if (optimizerAggregatedMetrics == null) {
             return;
         }
-        updateConcurrencySetting(threadPoolConfig, optimizerAggregatedMetrics, configUpdated,
-                threadPoolConfig.getThreadPoolName());
+        updateConcurrencySetting(revolverServiceConfig, threadPoolConfig,
+                optimizerAggregatedMetrics, threadPoolConfig.getThreadPoolName());
 
     }
 
     private void updatedApiSettings(RevolverServiceConfig revolverServiceConfig,
             RevolverHttpApiConfig api,
             Map<String, OptimizerAggregatedMetrics> optimizerAggregatedMetricsMap,
-            AtomicBoolean configUpdated) {
+            Map<String, Histogram> latencies) {
 
         String key = revolverServiceConfig.getService() + "." + api.getApi();
         OptimizerAggregatedMetrics optimizerAggregatedMetrics = optimizerAggregatedMetricsMap
@@ -220,16 +155,17 @@ public class RevolverConfigUpdater implements Runnable {
         if (optimizerAggregatedMetrics == null) {
             return;
         }
-        updateConcurrencySetting(api.getRuntime().getThreadPool(), optimizerAggregatedMetrics,
-                configUpdated, api.getApi());
-        updateTimeoutSettings(api.getRuntime().getThreadPool(), optimizerAggregatedMetrics,
-                configUpdated, api);
+        updateConcurrencySetting(revolverServiceConfig, api.getRuntime().getThreadPool(),
+                optimizerAggregatedMetrics, key);
+        TimeoutController.update(optimizerConfig.getTimeoutControllerConfig(),
+                revolverServiceConfig, api, latencies.get(key));
         updateLatencySettings(api, optimizerAggregatedMetrics);
     }
 
-    private void updateConcurrencySetting(ThreadPoolConfig threadPoolConfig,
-            OptimizerAggregatedMetrics optimizerAggregatedMetrics, AtomicBoolean configUpdated,
-            String poolName) {
+    //Concurrency changes are applied to the live pool; they don't need a full reload
+    private void updateConcurrencySetting(RevolverServiceConfig revolverServiceConfig,
+            ThreadPoolConfig threadPoolConfig,
+            OptimizerAggregatedMetrics optimizerAggregatedMetrics, String poolName) {
         OptimizerConcurrencyConfig optimizerConcurrencyConfig = optimizerConfig
                 .getConcurrencyConfig();
         if (optimizerConcurrencyConfig == null || !optimizerConfig.getConcurrencyConfig()
@@ -248,25 +184,11 @@ public class RevolverConfigUpdater implements Runnable {
         int maxRollingActiveThreads = optimizerAggregatedMetrics.getMetricsAggValueMap()
                 .get(OptimizerUtils.ROLLING_MAX_ACTIVE_THREADS).intValue();
         int concurrency = threadPoolConfig.getConcurrency();
-
-        if (maxRollingActiveThreads == 0) {
-            threadPoolConfig.setConcurrency(3);
-            log.info("Setting concurrency for : " + poolName + " from : " + concurrency + " to : "
-                    + threadPoolConfig.getConcurrency() + ", maxRollingActiveThreads : "
-                    + maxRollingActiveThreads);
-            return;
-        }
-
-        if ((maxRollingActiveThreads > concurrency * concurrencyConfig.getMaxThreshold()
-                || maxRollingActiveThreads < concurrency * concurrencyConfig.getMinThreshold())
-                && maxRollingActiveThreads
-                < threadPoolConfig.getInitialConcurrency() * concurrencyConfig
-                .getMaxThreadsMultiplier()) {
-
-            int updatedConcurrency = (int) Math
-                    .ceil(maxRollingActiveThreads * concurrencyConfig.getBandwidth());
-            threadPoolConfig.setConcurrency(updatedConcurrency);
-            configUpdated.set(true);
+        int updatedConcurrency = optimizedConcurrency(concurrencyConfig, concurrency,
+                threadPoolConfig.getInitialConcurrency(), maxRollingActiveThreads);
+        if (updatedConcurrency != concurrency) {
+            ThreadPoolResizer.resize(revolverConfig, revolverServiceConfig, poolName,
+                    threadPoolConfig, updatedConcurrency);
             log.info("Setting concurrency for : " + poolName + " from : " + concurrency + " to : "
                     + updatedConcurrency + ", maxRollingActiveThreads : "
                     + maxRollingActiveThreads);
@@ -274,45 +196,22 @@ public class RevolverConfigUpdater implements Runnable {
 
     }
 
-    private void updateTimeoutSettings(ThreadPoolConfig threadPool,
-            OptimizerAggregatedMetrics optimizerAggregatedMetrics, AtomicBoolean configUpdated,
-            RevolverHttpApiConfig api) {
-
-        OptimizerTimeConfig timeoutConfig = optimizerConfig.getTimeConfig();
-        if (timeoutConfig == null || !timeoutConfig.isEnabled()
-                || optimizerAggregatedMetrics.getMetricsAggValueMap()
-                .get(timeoutConfig.getTimeoutMetric()) == null) {
-            return;
-        }
-        int meanTimeoutValue = optimizerAggregatedMetrics.getMetricsAggValueMap()
-                .get(timeoutConfig.getTimeoutMetric()).intValue();
-
-        if (meanTimeoutValue <= 0) {
-            return;
-        }
-
-        int currentTimeout = threadPool.getTimeout();
-        int newTimeout = currentTimeout;
-
-        Set<RevolverHttpApiConfig.RequestMethod> methods = api.getMethods();
-        double timeoutBuffer;
-
-        if (methods.isEmpty() || !(methods.contains(RevolverHttpApiConfig.RequestMethod.GET))) {
-            timeoutBuffer = timeoutConfig.getAllMethodTimeoutBuffer();
-        } else {
-            timeoutBuffer = timeoutConfig.getGetMethodTimeoutBuffer();
+    /**
+     * Concurrency the optimizer picks for a pool given its peak active threads over the window;
+     * the current concurrency if it would leave the pool as is
+     */
+    public static int optimizedConcurrency(OptimizerConcurrencyConfig concurrencyConfig,
+            int concurrency, int initialConcurrency, int maxRollingActiveThreads) {
+        if (maxRollingActiveThreads == 0) {
+            return 3;
         }
-
-        if (currentTimeout < meanTimeoutValue || currentTimeout > (meanTimeoutValue
-                * timeoutBuffer)) {
-            newTimeout = (int) (meanTimeoutValue * timeoutBuffer);
-            configUpdated.set(true);
+        if ((maxRollingActiveThreads > concurrency * concurrencyConfig.getMaxThreshold()
+                || maxRollingActiveThreads < concurrency * concurrencyConfig.getMinThreshold())
+                && maxRollingActiveThreads
+                < initialConcurrency * concurrencyConfig.getMaxThreadsMultiplier()) {
+            return (int) Math.ceil(maxRollingActiveThreads * concurrencyConfig.getBandwidth());
         }
-        log.info("Setting timeout for : " + api.getApi() + " from : " + threadPool.getTimeout()
-                + " to : " + newTimeout + ", " + "meanTimeoutValue : " + meanTimeoutValue
-                + ", with timeout buffer : " + timeoutBuffer);
-        //threadPool.setTimeout(newTimeout);
-
+        return concurrency;
     }
 
     private void updateLatencySettings(RevolverHttpApiConfig api,
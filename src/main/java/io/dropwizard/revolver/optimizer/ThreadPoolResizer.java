@@ -0,0 +1,143 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.optimizer;
+
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
+import com.netflix.config.ConfigurationManager;
+import io.dropwizard.revolver.RevolverBundle;
+import io.dropwizard.revolver.core.config.RevolverConfig;
+import io.dropwizard.revolver.core.config.RevolverServiceConfig;
+import io.dropwizard.revolver.core.config.hystrix.MetricsConfig;
+import io.dropwizard.revolver.core.config.hystrix.ThreadPoolConfig;
+import io.dropwizard.revolver.core.jfr.FlightEventType;
+import io.dropwizard.revolver.core.jfr.FlightEvents;
+import io.dropwizard.revolver.http.config.RevolverHttpServiceConfig;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Changes the concurrency of a single pool on a running gateway: the pool config (read live by
+ * the semaphore engine), the hystrix thread pool size and the service's OkHttp dispatcher limits.
+ * Hystrix caches thread pool properties per key, so sizes are pushed as dynamic properties which
+ * the pool applies before its next execution; in-flight calls are not affected.
+ *
+ * @author phaneesh
+ */
+@Slf4j
+public class ThreadPoolResizer {
+
+    private static final int MAX_EVENTS = 100;
+    private static final String HYSTRIX_THREAD_POOL_PROPERTY = "hystrix.threadpool.%s.%s";
+
+    //Pools whose hystrix sizes have been overridden, by hystrix thread pool key
+    private static final Map<String, Integer> overrides = new ConcurrentHashMap<>();
+    private static final Deque<PoolResizeEvent> events = new ConcurrentLinkedDeque<>();
+
+    private ThreadPoolResizer() {
+    }
+
+    /**
+     * @param poolKey hystrix thread pool key: the pool name for thread pool groups, service.api
+     * otherwise
+     */
+    public static synchronized void resize(RevolverConfig revolverConfig,
+            RevolverServiceConfig serviceConfig, String poolKey, ThreadPoolConfig threadPoolConfig,
+            int concurrency) {
+        int current = threadPoolConfig.getConcurrency();
+        if (current == concurrency) {
+            return;
+        }
+        long begin = FlightEvents.begin(FlightEventType.OPTIMIZER);
+        threadPoolConfig.setConcurrency(concurrency);
+        applyHystrixSize(revolverConfig, poolKey, concurrency);
+        int connectionPoolSize = 0;
+        if (serviceConfig instanceof RevolverHttpServiceConfig) {
+            connectionPoolSize = RevolverBundle
+                    .updateConnectionPool((RevolverHttpServiceConfig) serviceConfig);
+        }
+        PoolResizeEvent event = PoolResizeEvent.builder().time(System.currentTimeMillis())
+                .service(serviceConfig.getService()).pool(poolKey).fromConcurrency(current)
+                .toConcurrency(concurrency).connectionPoolSize(connectionPoolSize).build();
+        events.addFirst(event);
+        while (events.size() > MAX_EVENTS) {
+            events.pollLast();
+        }
+        log.info("Resized pool {} of service {} from {} to {}, connection pool size {}", poolKey,
+                serviceConfig.getService(), current, concurrency, connectionPoolSize);
+        FlightEvents.commit(FlightEventType.OPTIMIZER, begin, serviceConfig.getService(), poolKey,
+                "CONCURRENCY " + current + " -> " + concurrency);
+    }
+
+    /**
+     * Re-applies overridden hystrix sizes from the given config so that a full reload is not
+     * masked by an earlier resize
+     */
+    public static synchronized void sync(RevolverConfig revolverConfig) {
+        if (overrides.isEmpty() || revolverConfig.getServices() == null) {
+            return;
+        }
+        revolverConfig.getServices().forEach(service -> {
+            if (service.getThreadPoolGroupConfig() != null
+                    && service.getThreadPoolGroupConfig().getThreadPools() != null) {
+                service.getThreadPoolGroupConfig().getThreadPools()
+                        .forEach(pool -> sync(revolverConfig, pool.getThreadPoolName(), pool));
+            }
+            if (service instanceof RevolverHttpServiceConfig) {
+                ((RevolverHttpServiceConfig) service).getApis().stream()
+                        .filter(api -> api.getRuntime() != null
+                                && api.getRuntime().getThreadPool() != null && Strings
+                                .isNullOrEmpty(api.getRuntime().getThreadPool().getThreadPoolName()))
+                        .forEach(api -> sync(revolverConfig,
+                                service.getService() + "." + api.getApi(),
+                                api.getRuntime().getThreadPool()));
+            }
+        });
+    }
+
+    public static List<PoolResizeEvent> getEvents() {
+        return ImmutableList.copyOf(events);
+    }
+
+    private static void sync(RevolverConfig revolverConfig, String poolKey,
+            ThreadPoolConfig threadPoolConfig) {
+        Integer concurrency = overrides.get(poolKey);
+        if (concurrency != null && concurrency != threadPoolConfig.getConcurrency()) {
+            applyHystrixSize(revolverConfig, poolKey, threadPoolConfig.getConcurrency());
+        }
+    }
+
+    //Same core size reduction as the command setter
+    private static void applyHystrixSize(RevolverConfig revolverConfig, String poolKey,
+            int concurrency) {
+        MetricsConfig metricsConfig =
+                revolverConfig.getGlobal() != null && revolverConfig.getGlobal().getMetrics() != null
+                        ? revolverConfig.getGlobal().getMetrics() : new MetricsConfig();
+        int coreSize = (int) Math.ceil(concurrency * metricsConfig.getCorePoolSizeReductionParam());
+        ConfigurationManager.getConfigInstance()
+                .setProperty(String.format(HYSTRIX_THREAD_POOL_PROPERTY, poolKey, "coreSize"),
+                        coreSize);
+        ConfigurationManager.getConfigInstance()
+                .setProperty(String.format(HYSTRIX_THREAD_POOL_PROPERTY, poolKey, "maximumSize"),
+                        concurrency);
+        overrides.put(poolKey, concurrency);
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.optimizer;
+
+import com.google.common.collect.ImmutableList;
+import com.netflix.config.ConfigurationManager;
+import io.dropwizard.revolver.core.config.RevolverConfig;
+import io.dropwizard.revolver.core.config.RevolverServiceConfig;
+import io.dropwizard.revolver.core.config.hystrix.ThreadPoolConfig;
+import io.dropwizard.revolver.core.jfr.FlightEventType;
+import io.dropwizard.revolver.core.jfr.FlightEvents;
+import io.dropwizard.revolver.http.config.RevolverHttpApiConfig;
+import io.dropwizard.revolver.http.config.RevolverHttpApiConfig.RequestMethod;
+import io.dropwizard.revolver.http.config.RevolverHttpServiceConfig;
+import io.dropwizard.revolver.optimizer.config.TimeoutControllerConfig;
+import io.dropwizard.revolver.optimizer.utils.OptimizerUtils;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Moves each api's timeout towards a buffered tail latency of its last window, within a floor and
+ * a ceiling, by a bounded step and only when the change is worth making. The timeout is applied
+ * to the api config, which bounds every OkHttp call and semaphore isolated execution, and to the
+ * hystrix execution timeout of the api's command as a dynamic property.
+ *
+ * @author phaneesh
+ */
+@Slf4j
+public class TimeoutController {
+
+    private static final int MAX_EVENTS = 100;
+    private static final String HYSTRIX_TIMEOUT_PROPERTY =
+            "hystrix.command.%s.execution.isolation.thread.timeoutInMilliseconds";
+
+    //Apis whose timeout is being controlled, by command key
+    private static final Map<String, ControlledTimeout> controlled = new ConcurrentHashMap<>();
+    private static final Deque<TimeoutChangeEvent> events = new ConcurrentLinkedDeque<>();
+
+    private TimeoutController() {
+    }
+
+    public static synchronized void update(TimeoutControllerConfig config,
+            RevolverServiceConfig serviceConfig, RevolverHttpApiConfig api, Histogram latency) {
+        if (config == null || !config.isEnabled() || latency == null
+                || latency.getTotalCount() < Math.max(1, config.getMinSamples())
+                || api.getRuntime() == null || api.getRuntime().getThreadPool() == null) {
+            return;
+        }
+        ThreadPoolConfig threadPool = api.getRuntime().getThreadPool();
+        String key = serviceConfig.getService() + "." + api.getApi();
+        int current = threadPool.getTimeout();
+        ControlledTimeout controlledTimeout = controlled
+                .computeIfAbsent(key, k -> new ControlledTimeout(current, current));
+        int ceiling = config.getMaxTimeoutInMillis() > 0 ? config.getMaxTimeoutInMillis()
+                : controlledTimeout.configured;
+
+        boolean read = isRead(api);
+        String metric = read ? config.getReadTimeoutMetric() : config.getWriteTimeoutMetric();
+        double buffer = read ? config.getReadTimeoutBuffer() : config.getWriteTimeoutBuffer();
+        long metricValue = latency.getValueAtPercentile(OptimizerUtils.percentile(metric));
+        int target = targetTimeout(config, ceiling, metricValue, buffer);
+        int next = nextTimeout(config, current, target);
+        if (next == current) {
+            return;
+        }
+        long begin = FlightEvents.begin(FlightEventType.OPTIMIZER);
+        threadPool.setTimeout(next);
+        applyHystrixTimeout(key, next);
+        controlledTimeout.applied = next;
+
+        events.addFirst(TimeoutChangeEvent.builder().time(System.currentTimeMillis())
+                .service(serviceConfig.getService()).api(api.getApi()).metric(metric)
+                .metricValue(metricValue).samples(latency.getTotalCount()).targetTimeout(target)
+                .fromTimeout(current).toTimeout(next).build());
+        while (events.size() > MAX_EVENTS) {
+            events.pollLast();
+        }
+        log.info("Setting timeout for : {} from : {} to : {}, {} : {}, target : {}", key, current,
+                next, metric, metricValue, target);
+        FlightEvents.commit(FlightEventType.OPTIMIZER, begin, serviceConfig.getService(),
+                api.getApi(), "TIMEOUT " + current + " -> " + next);
+    }
+
+    /**
+     * Buffered latency clamped to the floor and the ceiling
+     */
+    public static int targetTimeout(TimeoutControllerConfig config, int ceiling,
+            long metricValue, double buffer) {
+        int target = (int) Math.min(Integer.MAX_VALUE, Math.ceil(metricValue * buffer));
+        return Math.max(config.getMinTimeoutInMillis(), Math.min(ceiling, target));
+    }
+
+    /**
+     * One bounded step from the current timeout towards the target; the current timeout if the
+     * target is within the hysteresis band
+     */
+    public static int nextTimeout(TimeoutControllerConfig config, int current, int target) {
+        if (Math.abs(target - current) <= current * config.getHysteresis()) {
+            return current;
+        }
+        if (target > current) {
+            int step = Math.max(1, (int) Math.ceil(current * config.getMaxIncrease()));
+            return Math.min(target, current + step);
+        }
+        int step = Math.max(1, (int) Math.ceil(current * config.getMaxDecrease()));
+        return Math.max(target, current - step);
+    }
+
+    /**
+     * Carries controlled timeouts over a config reload. An api whose configured timeout was
+     * changed in the reload is handed back to the new value.
+     */
+    public static synchronized void sync(RevolverConfig revolverConfig) {
+        if (controlled.isEmpty() || revolverConfig.getServices() == null) {
+            return;
+        }
+        revolverConfig.getServices().stream()
+                .filter(service -> service instanceof RevolverHttpServiceConfig)
+                .forEach(service -> ((RevolverHttpServiceConfig) service).getApis().stream()
+                        .filter(api -> api.getRuntime() != null
+                                && api.getRuntime().getThreadPool() != null)
+                        .forEach(api -> sync(service.getService() + "." + api.getApi(),
+                                api.getRuntime().getThreadPool())));
+    }
+
+    public static List<TimeoutChangeEvent> getEvents() {
+        return ImmutableList.copyOf(events);
+    }
+
+    private static void sync(String key, ThreadPoolConfig threadPool) {
+        ControlledTimeout controlledTimeout = controlled.get(key);
+        if (controlledTimeout == null) {
+            return;
+        }
+        if (threadPool.getTimeout() == controlledTimeout.configured) {
+            threadPool.setTimeout(controlledTimeout.applied);
+        } else {
+            controlled.remove(key);
+            applyHystrixTimeout(key, threadPool.getTimeout());
+        }
+    }
+
+    private static boolean isRead(RevolverHttpApiConfig api) {
+        return !api.getMethods().isEmpty() && api.getMethods().stream()
+                .allMatch(method -> method == RequestMethod.GET || method == RequestMethod.HEAD);
+    }
+
+    //Hystrix caches command properties per key, so the timeout is pushed as a dynamic property
+    private static void applyHystrixTimeout(String commandKey, int timeout) {
+        ConfigurationManager.getConfigInstance()
+                .setProperty(String.format(HYSTRIX_TIMEOUT_PROPERTY, commandKey), timeout);
+    }
+
+    @AllArgsConstructor
+    private static class ControlledTimeout {
+
+        private final int configured;
+        private int applied;
+    }
+}
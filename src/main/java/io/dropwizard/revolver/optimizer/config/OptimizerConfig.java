@@ -24,5 +24,6 @@ public class OptimizerConfig {
     private OptimizerMetricsCollectorConfig metricsCollectorConfig;
     private OptimizerConcurrencyConfig concurrencyConfig;
     private OptimizerTimeConfig timeConfig;
+    private TimeoutControllerConfig timeoutControllerConfig;
 
 }
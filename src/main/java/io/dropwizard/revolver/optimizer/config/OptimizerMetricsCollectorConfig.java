@@ -22,4 +22,7 @@ public class OptimizerMetricsCollectorConfig {
     private int cachingWindowInMinutes = 30;
 
     private int concurrency = 2;
+
+    //Appends every collected window to this file for offline replay; not recorded when unset
+    private String recordingPath;
 }
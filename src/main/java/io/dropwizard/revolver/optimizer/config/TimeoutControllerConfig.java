@@ -0,0 +1,56 @@
+package io.dropwizard.revolver.optimizer.config;
+
+import static io.dropwizard.revolver.optimizer.utils.OptimizerUtils.LATENCY_PERCENTILE_99;
+import static io.dropwizard.revolver.optimizer.utils.OptimizerUtils.LATENCY_PERCENTILE_999;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Guardrails for the per api timeout controller. Apis that only serve GET/HEAD are tuned off
+ * the read metric and buffer, every other api off the write ones.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class TimeoutControllerConfig {
+
+    private boolean enabled;
+
+    @Builder.Default
+    private String readTimeoutMetric = LATENCY_PERCENTILE_99;
+
+    @Builder.Default
+    private double readTimeoutBuffer = 1.3;
+
+    @Builder.Default
+    private String writeTimeoutMetric = LATENCY_PERCENTILE_999;
+
+    @Builder.Default
+    private double writeTimeoutBuffer = 1.5;
+
+    @Builder.Default
+    private int minTimeoutInMillis = 50;
+
+    //0 caps every api at the timeout it was configured with
+    @Builder.Default
+    private int maxTimeoutInMillis = 0;
+
+    //Largest change per run as a fraction of the current timeout
+    @Builder.Default
+    private double maxIncrease = 1.0;
+
+    @Builder.Default
+    private double maxDecrease = 0.2;
+
+    //Changes within this fraction of the current timeout are ignored
+    @Builder.Default
+    private double hysteresis = 0.1;
+
+    //Windows with fewer calls than this leave the timeout alone
+    @Builder.Default
+    private long minSamples = 100;
+}
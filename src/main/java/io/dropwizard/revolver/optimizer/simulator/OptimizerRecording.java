@@ -0,0 +1,103 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.optimizer.simulator;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import io.dropwizard.revolver.optimizer.OptimizerMetricsRecorder;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.DataFormatException;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Reads and writes the optimizer recording: one line per collected histogram holding the window
+ * it was collected in, the metric, the command or pool it belongs to and the histogram in
+ * compressed HdrHistogram form.
+ *
+ * @author phaneesh
+ */
+public class OptimizerRecording {
+
+    private static final String SEPARATOR = "\t";
+    private static final String NONE = "-";
+
+    private OptimizerRecording() {
+    }
+
+    public static String encode(long time, long windowInMillis, String metric, String name,
+            String pool, Histogram histogram) {
+        ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+        int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+        byte[] bytes = Arrays.copyOf(buffer.array(), length);
+        return String.join(SEPARATOR, String.valueOf(time), String.valueOf(windowInMillis),
+                metric, name, pool == null ? NONE : pool,
+                Base64.getEncoder().encodeToString(bytes));
+    }
+
+    public static synchronized void append(Path path, List<String> lines) throws IOException {
+        Files.write(path, lines, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Windows in the recording in time order, with command latencies folded into their pools
+     */
+    public static List<RecordedWindow> read(Path path) throws IOException, DataFormatException {
+        TreeMap<Long, RecordedWindow> windows = new TreeMap<>();
+        for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            String[] parts = line.split(SEPARATOR);
+            if (parts.length != 6) {
+                throw new IOException("Invalid optimizer recording line : " + line);
+            }
+            long time = Long.parseLong(parts[0]);
+            RecordedWindow window = windows.computeIfAbsent(time,
+                    t -> RecordedWindow.builder().time(t)
+                            .windowInMillis(Long.parseLong(parts[1]))
+                            .latencies(Maps.newHashMap()).concurrencies(Maps.newHashMap())
+                            .build());
+            Histogram histogram = Histogram.decodeFromCompressedByteBuffer(
+                    ByteBuffer.wrap(Base64.getDecoder().decode(parts[5])), 0);
+            String pool = NONE.equals(parts[4]) ? parts[3] : parts[4];
+            merge(OptimizerMetricsRecorder.LATENCY.equals(parts[2]) ? window.getLatencies()
+                    : window.getConcurrencies(), pool, histogram);
+        }
+        return Lists.newArrayList(windows.values());
+    }
+
+    private static void merge(Map<String, Histogram> histograms, String pool,
+            Histogram histogram) {
+        Histogram merged = histograms.get(pool);
+        if (merged == null) {
+            histograms.put(pool, histogram);
+        } else {
+            merged.add(histogram);
+        }
+    }
+}
@@ -0,0 +1,303 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.optimizer.simulator;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import com.google.common.collect.Lists;
+import io.dropwizard.jackson.Jackson;
+import io.dropwizard.revolver.core.config.hystrix.ThreadPoolConfig;
+import io.dropwizard.revolver.optimizer.RevolverConfigUpdater;
+import io.dropwizard.revolver.optimizer.TimeoutController;
+import io.dropwizard.revolver.optimizer.config.OptimizerConcurrencyConfig;
+import io.dropwizard.revolver.optimizer.config.OptimizerConfig;
+import io.dropwizard.revolver.optimizer.config.OptimizerConfigUpdaterConfig;
+import io.dropwizard.revolver.optimizer.config.OptimizerMetricsCollectorConfig;
+import io.dropwizard.revolver.optimizer.config.TimeoutControllerConfig;
+import io.dropwizard.revolver.optimizer.utils.OptimizerUtils;
+import java.io.File;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.TreeSet;
+import lombok.AllArgsConstructor;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Replays a recording through the optimizer's concurrency and timeout decisions against a
+ * queueing model of each pool, so optimizer settings can be compared offline. Every window's
+ * recorded requests arrive uniformly over the window and take a service time drawn from the
+ * window's latency histogram; a pool runs them FIFO on its threads and rejects them once the
+ * hystrix queue is full. Timeouts move with the timeout controller and count against the
+ * timeout in force when the request arrived.
+ *
+ * @author phaneesh
+ */
+public class OptimizerSimulator {
+
+    private final OptimizerConfig optimizerConfig;
+    private final Map<String, ThreadPoolConfig> threadPools;
+    private final long seed;
+
+    public OptimizerSimulator(OptimizerConfig optimizerConfig,
+            Map<String, ThreadPoolConfig> threadPools) {
+        this(optimizerConfig, threadPools, 0);
+    }
+
+    public OptimizerSimulator(OptimizerConfig optimizerConfig,
+            Map<String, ThreadPoolConfig> threadPools, long seed) {
+        this.optimizerConfig = optimizerConfig;
+        this.threadPools = threadPools;
+        this.seed = seed;
+    }
+
+    /**
+     * Usage: OptimizerSimulator recording [optimizer-config.yml] [thread-pools.yml]
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println(
+                    "Usage: OptimizerSimulator recording [optimizer-config.yml] [thread-pools.yml]");
+            System.exit(1);
+        }
+        ObjectMapper yamlMapper = Jackson.newObjectMapper(new YAMLFactory());
+        OptimizerConfig optimizerConfig = args.length > 1 ? yamlMapper
+                .readValue(new File(args[1]), OptimizerConfig.class)
+                : OptimizerUtils.getDefaultOptimizerConfig();
+        Map<String, ThreadPoolConfig> threadPools = args.length > 2 ? yamlMapper
+                .readValue(new File(args[2]), new TypeReference<Map<String, ThreadPoolConfig>>() {
+                }) : Collections.emptyMap();
+        List<SimulationReport> reports = new OptimizerSimulator(optimizerConfig, threadPools)
+                .simulate(OptimizerRecording.read(Paths.get(args[0])));
+        System.out.println(Jackson.newObjectMapper().writerWithDefaultPrettyPrinter()
+                .writeValueAsString(reports));
+    }
+
+    public List<SimulationReport> simulate(List<RecordedWindow> windows) {
+        TreeSet<String> pools = new TreeSet<>();
+        windows.forEach(window -> pools.addAll(window.getLatencies().keySet()));
+        List<SimulationReport> reports = Lists.newArrayList();
+        pools.forEach(pool -> reports.add(simulate(pool, windows)));
+        return reports;
+    }
+
+    private SimulationReport simulate(String pool, List<RecordedWindow> windows) {
+        ThreadPoolConfig threadPool = threadPool(pool, windows);
+        int concurrency = threadPool.getConcurrency();
+        int initialConcurrency = threadPool.getInitialConcurrency() > 0 ? threadPool
+                .getInitialConcurrency() : concurrency;
+        int queueSize = threadPool.getMaxRequestQueueSize() <= 0 ? 0 : Math
+                .min(threadPool.getMaxRequestQueueSize(),
+                        threadPool.getDynamicRequestQueueSize());
+        int updateEvery = updateEvery(windows);
+        int cachingWindows = cachingWindows(windows);
+
+        Random random = new Random(seed ^ pool.hashCode());
+        PriorityQueue<Long> threads = new PriorityQueue<>();
+        resize(threads, 0, concurrency);
+        Deque<Long> queued = new ArrayDeque<>();
+        Deque<WindowStats> cached = new ArrayDeque<>();
+        Histogram queueWaits = new Histogram(2);
+
+        long requests = 0;
+        long rejected = 0;
+        long timedOut = 0;
+        long busyTime = 0;
+        long capacity = 0;
+        int maxBusyThreads = 0;
+        int resizes = 0;
+        int timeout = threadPool.getTimeout();
+
+        for (int i = 0; i < windows.size(); i++) {
+            RecordedWindow window = windows.get(i);
+            Histogram latency = window.getLatencies().get(pool);
+            WindowStats stats = new WindowStats(0, new Histogram(2));
+            if (latency != null && latency.getTotalCount() > 0) {
+                long[] arrivals = new long[(int) latency.getTotalCount()];
+                long start = window.getTime() - window.getWindowInMillis();
+                for (int j = 0; j < arrivals.length; j++) {
+                    arrivals[j] = start + (long) (random.nextDouble() * window
+                            .getWindowInMillis());
+                }
+                Arrays.sort(arrivals);
+                for (long arrival : arrivals) {
+                    requests++;
+                    while (!queued.isEmpty() && queued.peekFirst() <= arrival) {
+                        queued.pollFirst();
+                    }
+                    long free = threads.peek();
+                    if (free > arrival && queued.size() >= queueSize) {
+                        rejected++;
+                        continue;
+                    }
+                    threads.poll();
+                    long started = Math.max(arrival, free);
+                    long service = latency.getValueAtPercentile(random.nextDouble() * 100.0);
+                    //A timed out execution releases its thread once the timeout has elapsed
+                    long occupancy = timeout > 0 ? Math
+                            .min(service, Math.max(0, timeout - (started - arrival))) : service;
+                    threads.add(started + occupancy);
+                    if (started > arrival) {
+                        queued.addLast(started);
+                    }
+                    queueWaits.recordValue(started - arrival);
+                    stats.latencies.recordValue(service);
+                    busyTime += occupancy;
+                    if (started - arrival + service > timeout) {
+                        timedOut++;
+                    }
+                    stats.maxBusyThreads = Math.max(stats.maxBusyThreads, busy(threads, arrival));
+                }
+            }
+            capacity += concurrency * window.getWindowInMillis();
+            maxBusyThreads = Math.max(maxBusyThreads, stats.maxBusyThreads);
+            cached.addLast(stats);
+            while (cached.size() > cachingWindows) {
+                cached.pollFirst();
+            }
+            if ((i + 1) % updateEvery != 0) {
+                continue;
+            }
+            int updatedConcurrency = optimizedConcurrency(cached, concurrency,
+                    initialConcurrency);
+            if (updatedConcurrency != concurrency) {
+                resize(threads, concurrency, updatedConcurrency);
+                concurrency = updatedConcurrency;
+                resizes++;
+            }
+            timeout = controlledTimeout(cached, timeout, threadPool.getTimeout());
+        }
+
+        return SimulationReport.builder().pool(pool).requests(requests).rejected(rejected)
+                .timedOut(timedOut).averageQueueWaitInMillis(queueWaits.getMean())
+                .maxQueueWaitInMillis(queueWaits.getMaxValue()).maxBusyThreads(maxBusyThreads)
+                .threadUtilization(capacity == 0 ? 0 : (double) busyTime / capacity)
+                .initialConcurrency(threadPool.getConcurrency()).finalConcurrency(concurrency)
+                .resizes(resizes).initialTimeout(threadPool.getTimeout()).finalTimeout(timeout)
+                .build();
+    }
+
+    private int optimizedConcurrency(Deque<WindowStats> cached, int concurrency,
+            int initialConcurrency) {
+        OptimizerConcurrencyConfig concurrencyConfig = optimizerConfig.getConcurrencyConfig();
+        int maxBusyThreads = cached.stream().mapToInt(stats -> stats.maxBusyThreads).max()
+                .orElse(0);
+        //The live optimizer has no metrics for a pool that saw no traffic over the window
+        if (concurrencyConfig == null || !concurrencyConfig.isEnabled() || maxBusyThreads == 0) {
+            return concurrency;
+        }
+        return RevolverConfigUpdater
+                .optimizedConcurrency(concurrencyConfig, concurrency, initialConcurrency,
+                        maxBusyThreads);
+    }
+
+    //Pools are not tied to a method class, so they are tuned like apis taking writes
+    private int controlledTimeout(Deque<WindowStats> cached, int timeout, int configured) {
+        TimeoutControllerConfig controllerConfig = optimizerConfig.getTimeoutControllerConfig();
+        if (controllerConfig == null || !controllerConfig.isEnabled()) {
+            return timeout;
+        }
+        Histogram latencies = new Histogram(2);
+        cached.forEach(stats -> latencies.add(stats.latencies));
+        if (latencies.getTotalCount() < Math.max(1, controllerConfig.getMinSamples())) {
+            return timeout;
+        }
+        int ceiling = controllerConfig.getMaxTimeoutInMillis() > 0 ? controllerConfig
+                .getMaxTimeoutInMillis() : configured;
+        int target = TimeoutController.targetTimeout(controllerConfig, ceiling,
+                latencies.getValueAtPercentile(
+                        OptimizerUtils.percentile(controllerConfig.getWriteTimeoutMetric())),
+                controllerConfig.getWriteTimeoutBuffer());
+        return TimeoutController.nextTimeout(controllerConfig, timeout, target);
+    }
+
+    private ThreadPoolConfig threadPool(String pool, List<RecordedWindow> windows) {
+        ThreadPoolConfig threadPool = threadPools.get(pool);
+        if (threadPool != null) {
+            return threadPool;
+        }
+        //Without a configured pool start from the most threads the pool was seen using
+        int observed = windows.stream().map(window -> window.getConcurrencies().get(pool))
+                .filter(histogram -> histogram != null && histogram.getTotalCount() > 0)
+                .mapToInt(histogram -> (int) histogram.getMaxValue()).max().orElse(1);
+        threadPool = new ThreadPoolConfig();
+        threadPool.setThreadPoolName(pool);
+        threadPool.setConcurrency(observed);
+        threadPool.setInitialConcurrency(observed);
+        return threadPool;
+    }
+
+    private int updateEvery(List<RecordedWindow> windows) {
+        OptimizerConfigUpdaterConfig updaterConfig = optimizerConfig.getConfigUpdaterConfig();
+        if (updaterConfig == null) {
+            updaterConfig = new OptimizerConfigUpdaterConfig();
+        }
+        long windowInMillis = windowInMillis(windows);
+        return (int) Math.max(1, Math.round((double) updaterConfig.getTimeUnit()
+                .toMillis(updaterConfig.getRepeatAfter()) / windowInMillis));
+    }
+
+    private int cachingWindows(List<RecordedWindow> windows) {
+        OptimizerMetricsCollectorConfig collectorConfig = optimizerConfig
+                .getMetricsCollectorConfig();
+        if (collectorConfig == null) {
+            collectorConfig = new OptimizerMetricsCollectorConfig();
+        }
+        long windowInMillis = windowInMillis(windows);
+        return (int) Math.max(1, Math.ceil(
+                (double) collectorConfig.getCachingWindowInMinutes() * 60000 / windowInMillis));
+    }
+
+    private static long windowInMillis(List<RecordedWindow> windows) {
+        return windows.stream().mapToLong(RecordedWindow::getWindowInMillis)
+                .filter(window -> window > 0).findFirst().orElse(1);
+    }
+
+    //Threads added are free straight away; threads removed are the ones that free up first
+    private static void resize(PriorityQueue<Long> threads, int from, int to) {
+        for (int i = from; i < to; i++) {
+            threads.add(Long.MIN_VALUE);
+        }
+        for (int i = to; i < from; i++) {
+            threads.poll();
+        }
+    }
+
+    private static int busy(PriorityQueue<Long> threads, long time) {
+        int busy = 0;
+        for (long free : threads) {
+            if (free > time) {
+                busy++;
+            }
+        }
+        return busy;
+    }
+
+    @AllArgsConstructor
+    private static class WindowStats {
+
+        private int maxBusyThreads;
+        private Histogram latencies;
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.optimizer.simulator;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * What a pool would have seen over the replayed recording under the optimizer
+ *
+ * @author phaneesh
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SimulationReport {
+
+    private String pool;
+
+    private long requests;
+
+    private long rejected;
+
+    private long timedOut;
+
+    private double averageQueueWaitInMillis;
+
+    private long maxQueueWaitInMillis;
+
+    private int maxBusyThreads;
+
+    private double threadUtilization;
+
+    private int initialConcurrency;
+
+    private int finalConcurrency;
+
+    private int resizes;
+
+    private int initialTimeout;
+
+    private int finalTimeout;
+}
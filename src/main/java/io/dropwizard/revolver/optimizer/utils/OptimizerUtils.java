@@ -6,8 +6,6 @@ import io.dropwizard.revolver.optimizer.config.OptimizerConfig;
 import io.dropwizard.revolver.optimizer.config.OptimizerConfigUpdaterConfig;
 import io.dropwizard.revolver.optimizer.config.OptimizerMetricsCollectorConfig;
 import io.dropwizard.revolver.optimizer.config.OptimizerTimeConfig;
-import java.util.Collections;
-import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 /***
@@ -16,17 +14,21 @@ import java.util.concurrent.TimeUnit;
 public class OptimizerUtils {
 
     public static final String ROLLING_MAX_ACTIVE_THREADS = "rollingMaxActiveThreads";
-    public static final String THREAD_POOL_PREFIX = "HystrixThreadPool";
     public static final String LATENCY_PERCENTILE_99 = "latencyExecute_percentile_99";
     public static final String LATENCY_PERCENTILE_995 = "latencyExecute_percentile_995";
     public static final String LATENCY_PERCENTILE_50 = "latencyExecute_percentile_50";
     public static final String LATENCY_PERCENTILE_75 = "latencyExecute_percentile_75";
+    public static final String LATENCY_PERCENTILE_999 = "latencyExecute_percentile_999";
 
-    private static final List<String> METRICS_TO_READ = Lists
-            .newArrayList("propertyValue_maximumSize", ROLLING_MAX_ACTIVE_THREADS);
-
-    public static List<String> getMetricsToRead() {
-        return Collections.unmodifiableList(METRICS_TO_READ);
+    /**
+     * Percentile named by a latency metric, e.g. 99.5 for latencyExecute_percentile_995
+     */
+    public static double percentile(String latencyMetric) {
+        String digits = latencyMetric.substring(latencyMetric.lastIndexOf('_') + 1);
+        if (digits.length() > 2) {
+            digits = digits.substring(0, 2) + "." + digits.substring(2);
+        }
+        return Double.parseDouble(digits);
     }
 
     public static OptimizerConfig getDefaultOptimizerConfig() {
@@ -29,6 +29,7 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.Strings;
+import io.dropwizard.revolver.accesslog.AccessLog;
 import io.dropwizard.revolver.aeroapike.AerospikeConnectionManager;
 import io.dropwizard.revolver.base.core.RevolverCallbackRequest;
 import io.dropwizard.revolver.base.core.RevolverCallbackResponse;
@@ -96,6 +97,7 @@ public class AeroSpikePersistenceProvider implements PersistenceProvider {
     @Override
     public void saveRequest(String requestId, String mailboxId, String mailboxAuthId,
             RevolverCallbackRequest request, int ttl) throws Exception {
+        long start = System.currentTimeMillis();
         Key key = new Key(mailBoxConfig.getNamespace(), MAILBOX_SET_NAME, requestId);
         try {
             Bin service = new Bin(BinNames.SERVICE, request.getService());
@@ -125,7 +127,7 @@ public class AeroSpikePersistenceProvider implements PersistenceProvider {
                     .put(wp, key, service, api, mode, method, path, mailBoxId, mailboxAuthIdBin, queryParams,
                             callbackUri, requestHeaders, requestBody, requestTime, created, updated,
                             state);
-            log.info("Mailbox Message saved. Key: {} | TTL: {}", requestId, ttl);
+            AccessLog.mailbox("saveRequest", requestId, System.currentTimeMillis() - start);
         } catch (JsonProcessingException e) {
             log.warn("Error encoding request", e);
         }
@@ -203,8 +205,7 @@ public class AeroSpikePersistenceProvider implements PersistenceProvider {
                     .operate(wp, key, Operation.put(state), Operation.put(responseHeaders),
                             Operation.put(responseBody), Operation.put(responseStatusCode),
                             Operation.put(responseTime), Operation.put(updated));
-            log.info("Response save complete for request id: {} in {} ms", requestId,
-                    (System.currentTimeMillis() - start));
+            AccessLog.mailbox("saveResponse", requestId, System.currentTimeMillis() - start);
         } catch (JsonProcessingException e) {
             log.warn("Error encoding response headers", e);
         }
@@ -338,8 +339,7 @@ public class AeroSpikePersistenceProvider implements PersistenceProvider {
             return null;
         }
         RevolverCallbackRequest request = recordToRequest(record);
-        log.info("Callback request fetch for request id: {} complete in {} ms", requestId,
-                (System.currentTimeMillis() - start));
+        AccessLog.mailbox("request", requestId, System.currentTimeMillis() - start);
         return request;
     }
 
@@ -0,0 +1,364 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.persistence;
+
+import com.aerospike.client.AerospikeException;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import io.dropwizard.revolver.base.core.RevolverCallbackRequest;
+import io.dropwizard.revolver.base.core.RevolverCallbackResponse;
+import io.dropwizard.revolver.base.core.RevolverCallbackResponses;
+import io.dropwizard.revolver.base.core.RevolverRequestState;
+import io.dropwizard.revolver.core.jfr.FlightEventType;
+import io.dropwizard.revolver.core.jfr.FlightEvents;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import lombok.Getter;
+
+/**
+ * Wraps any persistence provider with a timer and an error meter per operation, request and
+ * response size histograms and result counts of mailbox queries, all under
+ * revolver.mailbox.&lt;name&gt; so that providers can be compared on the same metrics. Aerospike
+ * failures are also counted by result code. Every operation is also emitted as a mailbox flight
+ * event with an OK or ERROR status.
+ *
+ * Record sizes are estimated from the body, headers, query params and path; the store's own
+ * encoding overhead is not included.
+ *
+ * @author phaneesh
+ */
+public class InstrumentedPersistenceProvider implements PersistenceProvider {
+
+    private static final String METRIC_PREFIX = "revolver.mailbox";
+
+    @Getter
+    private final PersistenceProvider provider;
+
+    private final MetricRegistry registry;
+    private final String providerName;
+    private final String prefix;
+
+    private final Operation exists;
+    private final Operation saveRequest;
+    private final Operation setRequestState;
+    private final Operation saveResponse;
+    private final Operation requestState;
+    private final Operation response;
+    private final Operation request;
+    private final Operation requestsByMailbox;
+    private final Operation requestsByMailboxAuth;
+    private final Operation responsesByMailbox;
+    private final Operation responsesByMailboxAuth;
+
+    private final Histogram requestSize;
+    private final Histogram requestBodySize;
+    private final Histogram responseSize;
+    private final Histogram responseBodySize;
+
+    public InstrumentedPersistenceProvider(PersistenceProvider provider, MetricRegistry registry,
+            String name) {
+        this.provider = provider;
+        this.registry = registry;
+        this.providerName = name;
+        this.prefix = MetricRegistry.name(METRIC_PREFIX, name);
+        this.exists = new Operation("exists");
+        this.saveRequest = new Operation("saveRequest");
+        this.setRequestState = new Operation("setRequestState");
+        this.saveResponse = new Operation("saveResponse");
+        this.requestState = new Operation("requestState");
+        this.response = new Operation("response");
+        this.request = new Operation("request");
+        this.requestsByMailbox = new Operation("requestsByMailbox");
+        this.requestsByMailboxAuth = new Operation("requestsByMailboxAuth");
+        this.responsesByMailbox = new Operation("responsesByMailbox");
+        this.responsesByMailboxAuth = new Operation("responsesByMailboxAuth");
+        this.requestSize = registry.histogram(MetricRegistry.name(prefix, "request", "size"));
+        this.requestBodySize = registry
+                .histogram(MetricRegistry.name(prefix, "request", "body", "size"));
+        this.responseSize = registry.histogram(MetricRegistry.name(prefix, "response", "size"));
+        this.responseBodySize = registry
+                .histogram(MetricRegistry.name(prefix, "response", "body", "size"));
+    }
+
+    @Override
+    public boolean exists(String requestId) {
+        long start = System.nanoTime();
+        try {
+            boolean found = provider.exists(requestId);
+            exists.completed(start);
+            return found;
+        } catch (RuntimeException e) {
+            exists.failed(start, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public void saveRequest(String requestId, String mailboxId, String mailboxAuthId,
+            RevolverCallbackRequest callbackRequest) {
+        record(callbackRequest);
+        long start = System.nanoTime();
+        try {
+            provider.saveRequest(requestId, mailboxId, mailboxAuthId, callbackRequest);
+            saveRequest.completed(start);
+        } catch (RuntimeException e) {
+            saveRequest.failed(start, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public void saveRequest(String requestId, String mailboxId, String mailboxAuthId,
+            RevolverCallbackRequest callbackRequest, int ttl) throws Exception {
+        record(callbackRequest);
+        long start = System.nanoTime();
+        try {
+            provider.saveRequest(requestId, mailboxId, mailboxAuthId, callbackRequest, ttl);
+            saveRequest.completed(start);
+        } catch (Exception e) {
+            saveRequest.failed(start, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public void setRequestState(String requestId, RevolverRequestState state, int ttl)
+            throws Exception {
+        long start = System.nanoTime();
+        try {
+            provider.setRequestState(requestId, state, ttl);
+            setRequestState.completed(start);
+        } catch (Exception e) {
+            setRequestState.failed(start, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public void saveResponse(String requestId, RevolverCallbackResponse callbackResponse, int ttl)
+            throws Exception {
+        record(callbackResponse);
+        long start = System.nanoTime();
+        try {
+            provider.saveResponse(requestId, callbackResponse, ttl);
+            saveResponse.completed(start);
+        } catch (Exception e) {
+            saveResponse.failed(start, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public RevolverRequestState requestState(String requestId) {
+        long start = System.nanoTime();
+        try {
+            RevolverRequestState state = provider.requestState(requestId);
+            requestState.completed(start);
+            return state;
+        } catch (RuntimeException e) {
+            requestState.failed(start, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public RevolverRequestState requestState(String requestId, String mailBoxAuthId) {
+        long start = System.nanoTime();
+        try {
+            RevolverRequestState state = provider.requestState(requestId, mailBoxAuthId);
+            requestState.completed(start);
+            return state;
+        } catch (RuntimeException e) {
+            requestState.failed(start, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public RevolverCallbackResponse response(String requestId, String mailBoxAuthId) {
+        long start = System.nanoTime();
+        try {
+            RevolverCallbackResponse callbackResponse = provider
+                    .response(requestId, mailBoxAuthId);
+            response.completed(start);
+            return callbackResponse;
+        } catch (RuntimeException e) {
+            response.failed(start, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public RevolverCallbackRequest request(String requestId) {
+        long start = System.nanoTime();
+        try {
+            RevolverCallbackRequest callbackRequest = provider.request(requestId);
+            request.completed(start);
+            return callbackRequest;
+        } catch (RuntimeException e) {
+            request.failed(start, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public RevolverCallbackRequest request(String requestId, String mailBoxAuthId) {
+        long start = System.nanoTime();
+        try {
+            RevolverCallbackRequest callbackRequest = provider.request(requestId, mailBoxAuthId);
+            request.completed(start);
+            return callbackRequest;
+        } catch (RuntimeException e) {
+            request.failed(start, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public List<RevolverCallbackRequest> requestsByMailbox(String mailboxId) {
+        long start = System.nanoTime();
+        try {
+            return requestsByMailbox.completed(start, provider.requestsByMailbox(mailboxId));
+        } catch (RuntimeException e) {
+            requestsByMailbox.failed(start, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public List<RevolverCallbackRequest> requestsByMailboxAuth(String mailboxAuthId) {
+        long start = System.nanoTime();
+        try {
+            return requestsByMailboxAuth
+                    .completed(start, provider.requestsByMailboxAuth(mailboxAuthId));
+        } catch (RuntimeException e) {
+            requestsByMailboxAuth.failed(start, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public List<RevolverCallbackResponses> responsesByMailbox(String mailboxId) {
+        long start = System.nanoTime();
+        try {
+            return responsesByMailbox.completed(start, provider.responsesByMailbox(mailboxId));
+        } catch (RuntimeException e) {
+            responsesByMailbox.failed(start, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public List<RevolverCallbackResponses> responsesByMailboxAuth(String mailboxAuthId) {
+        long start = System.nanoTime();
+        try {
+            return responsesByMailboxAuth
+                    .completed(start, provider.responsesByMailboxAuth(mailboxAuthId));
+        } catch (RuntimeException e) {
+            responsesByMailboxAuth.failed(start, e);
+            throw e;
+        }
+    }
+
+    private void record(RevolverCallbackRequest callbackRequest) {
+        if (callbackRequest == null) {
+            return;
+        }
+        int body = callbackRequest.getBody() == null ? 0 : callbackRequest.getBody().length;
+        requestBodySize.update(body);
+        requestSize.update(body + size(callbackRequest.getHeaders())
+                + size(callbackRequest.getQueryParams()) + length(callbackRequest.getPath())
+                + length(callbackRequest.getCallbackUri()));
+    }
+
+    private void record(RevolverCallbackResponse callbackResponse) {
+        if (callbackResponse == null) {
+            return;
+        }
+        int body = callbackResponse.getBody() == null ? 0 : callbackResponse.getBody().length;
+        responseBodySize.update(body);
+        responseSize.update(body + size(callbackResponse.getHeaders()));
+    }
+
+    private static long size(Map<String, List<String>> values) {
+        if (values == null) {
+            return 0;
+        }
+        long size = 0;
+        for (Map.Entry<String, List<String>> entry : values.entrySet()) {
+            size += length(entry.getKey());
+            if (entry.getValue() != null) {
+                for (String value : entry.getValue()) {
+                    size += length(value);
+                }
+            }
+        }
+        return size;
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+    private class Operation {
+
+        private final String name;
+        private final Timer timer;
+        private final Meter errors;
+        private Histogram results;
+
+        private Operation(String name) {
+            this.name = name;
+            this.timer = registry.timer(MetricRegistry.name(prefix, name));
+            this.errors = registry.meter(MetricRegistry.name(prefix, name, "errors"));
+        }
+
+        private void completed(long start) {
+            timer.update(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            flightEvent(start, "OK");
+        }
+
+        private <T> List<T> completed(long start, List<T> values) {
+            completed(start);
+            if (results == null) {
+                results = registry.histogram(MetricRegistry.name(prefix, name, "results"));
+            }
+            results.update(values == null ? 0 : values.size());
+            return values;
+        }
+
+        private void failed(long start, Exception e) {
+            timer.update(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            errors.mark();
+            if (e instanceof AerospikeException) {
+                registry.meter(MetricRegistry.name(prefix, "result",
+                        Integer.toString(((AerospikeException) e).getResultCode()))).mark();
+            }
+            flightEvent(start, "ERROR");
+        }
+
+        //start is a System.nanoTime reading, the same clock FlightEvents.begin returns
+        private void flightEvent(long start, String status) {
+            if (FlightEvents.isEnabled(FlightEventType.MAILBOX)) {
+                FlightEvents.commit(FlightEventType.MAILBOX, start, providerName, name, status);
+            }
+        }
+    }
+}
@@ -20,6 +20,9 @@ package io.dropwizard.revolver.resource;
 import com.codahale.metrics.annotation.Metered;
 import com.google.common.collect.ImmutableMap;
 import io.dropwizard.revolver.RevolverBundle;
+import io.dropwizard.revolver.cache.ResponseCaches;
+import io.dropwizard.revolver.optimizer.ThreadPoolResizer;
+import io.dropwizard.revolver.optimizer.TimeoutController;
 import io.swagger.annotations.ApiOperation;
 import java.util.stream.Collectors;
 import javax.inject.Singleton;
@@ -109,6 +112,46 @@ public class RevolverApiManageResource {
         }
     }
 
+    @Path("/v1/manage/api/cache/{service}/{api}/invalidate")
+    @POST
+    @Metered
+    @ApiOperation(value = "Invalidate cached responses of an API")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response invalidateCache(@PathParam("service") String service,
+            @PathParam("api") String api) {
+        return Response.ok(ImmutableMap.<String, Object>builder().put("service", service)
+                .put("api", api).put("invalidated", ResponseCaches.invalidate(service, api))
+                .build()).build();
+    }
+
+    @Path("/v1/manage/api/cache/{service}/invalidate")
+    @POST
+    @Metered
+    @ApiOperation(value = "Invalidate cached responses of all APIs of a service")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response invalidateCache(@PathParam("service") String service) {
+        return Response.ok(ImmutableMap.<String, Object>builder().put("service", service)
+                .put("invalidated", ResponseCaches.invalidate(service)).build()).build();
+    }
+
+    @Path("/v1/manage/pool/events")
+    @GET
+    @Metered
+    @ApiOperation(value = "Recent live pool resizes")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response poolEvents() {
+        return Response.ok(ThreadPoolResizer.getEvents()).build();
+    }
+
+    @Path("/v1/manage/timeout/events")
+    @GET
+    @Metered
+    @ApiOperation(value = "Recent live api timeout changes")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response timeoutEvents() {
+        return Response.ok(TimeoutController.getEvents()).build();
+    }
+
     @Path("/v1/manage/api/status")
     @GET
     @Metered
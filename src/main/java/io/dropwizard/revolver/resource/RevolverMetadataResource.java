@@ -32,6 +32,7 @@ import io.dropwizard.revolver.core.model.RevolverMetadataResponse;
 import io.dropwizard.revolver.core.model.RevolverServiceMetadata;
 import io.dropwizard.revolver.discovery.RevolverServiceResolver;
 import io.dropwizard.revolver.discovery.model.RangerEndpointSpec;
+import io.dropwizard.revolver.http.RevolverHttpClientFactory;
 import io.dropwizard.revolver.http.config.RevolverHttpApiConfig;
 import io.dropwizard.revolver.http.config.RevolverHttpServiceConfig;
 import io.swagger.annotations.ApiOperation;
@@ -145,6 +146,17 @@ public class RevolverMetadataResource {
                 .put("sharedThreads", sharedThreads).build()).build();
     }
 
+    @Path("/v1/metadata/config/clients")
+    @GET
+    @Metered
+    @ApiOperation(value = "Get connection pool and dispatcher state of the http clients")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response clients() {
+        return Response.ok(ImmutableMap.<String, Object>builder()
+                .put("clients", RevolverHttpClientFactory.clientCount())
+                .put("services", RevolverHttpClientFactory.clientMetadata()).build()).build();
+    }
+
     private List<RevolverApiMetadata> apiMetadataList(RevolverHttpServiceConfig httpServiceConfig) {
         return httpServiceConfig.getApis().parallelStream()
                 .map(a -> RevolverApiMetadata.builder().async(a.isAsync()).name(a.getApi())
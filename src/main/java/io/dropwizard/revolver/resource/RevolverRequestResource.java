@@ -18,7 +18,6 @@
 package io.dropwizard.revolver.resource;
 
 import com.codahale.metrics.MetricRegistry;
-import com.codahale.metrics.annotation.Metered;
 import com.collections.CollectionUtils;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -26,20 +25,35 @@ import com.google.common.base.Strings;
 import io.dropwizard.jersey.PATCH;
 import io.dropwizard.msgpack.MsgPackMediaType;
 import io.dropwizard.revolver.RevolverBundle;
+import io.dropwizard.revolver.admission.AdmissionConfig;
+import io.dropwizard.revolver.admission.AdmissionController;
+import io.dropwizard.revolver.admission.RequestPriority;
 import io.dropwizard.revolver.base.core.RevolverAckMessage;
 import io.dropwizard.revolver.base.core.RevolverCallbackRequest;
 import io.dropwizard.revolver.base.core.RevolverCallbackResponse;
 import io.dropwizard.revolver.base.core.RevolverRequestState;
+import io.dropwizard.revolver.cache.CachedResponse;
+import io.dropwizard.revolver.cache.ResponseCache;
+import io.dropwizard.revolver.cache.ResponseCaches;
 import io.dropwizard.revolver.callback.InlineCallbackHandler;
+import io.dropwizard.revolver.coalescing.RequestCoalescer;
 import io.dropwizard.revolver.core.config.ApiLatencyConfig;
 import io.dropwizard.revolver.core.config.RevolverConfig;
+import io.dropwizard.revolver.core.engine.RevolverExecutionConfig;
+import io.dropwizard.revolver.core.jfr.FlightEventType;
+import io.dropwizard.revolver.core.jfr.FlightEvents;
 import io.dropwizard.revolver.core.tracing.TraceInfo;
+import io.dropwizard.revolver.core.util.RevolverCommandHelper;
 import io.dropwizard.revolver.http.RevolverHttpCommand;
 import io.dropwizard.revolver.http.RevolversHttpHeaders;
 import io.dropwizard.revolver.http.config.RevolverHttpApiConfig;
+import io.dropwizard.revolver.http.metrics.LatencyStage;
+import io.dropwizard.revolver.http.metrics.StageMetrics;
 import io.dropwizard.revolver.http.model.ApiPathMap;
 import io.dropwizard.revolver.http.model.RevolverHttpRequest;
 import io.dropwizard.revolver.http.model.RevolverHttpResponse;
+import io.dropwizard.revolver.limiter.AdaptiveConcurrencyLimiter;
+import io.dropwizard.revolver.limiter.AdaptiveConcurrencyLimiters;
 import io.dropwizard.revolver.optimizer.config.OptimizerConfig;
 import io.dropwizard.revolver.optimizer.config.OptimizerTimeConfig;
 import io.dropwizard.revolver.persistence.PersistenceProvider;
@@ -56,6 +70,7 @@ import java.time.Instant;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeoutException;
 import java.util.regex.Matcher;
@@ -94,12 +109,21 @@ public class RevolverRequestResource {
             .singletonMap("message", "Duplicate");
     private static Map<String, String> SERVICE_UNAVAILABLE_RESPONSE = Collections
             .singletonMap("message", "Service Unavailable");
+    private static final Map<String, String> DEADLINE_EXCEEDED_RESPONSE = Collections
+            .singletonMap("message", "Deadline Exceeded");
     private final ObjectMapper jsonObjectMapper;
     private final ObjectMapper msgPackObjectMapper;
     private final PersistenceProvider persistenceProvider;
     private final InlineCallbackHandler callbackHandler;
     private final MetricRegistry metrics;
     private final RevolverConfig revolverConfig;
+    private final AdaptiveConcurrencyLimiters concurrencyLimiters;
+    private final RequestCoalescer requestCoalescer;
+    private final AdmissionController admissionController;
+    //Shed and limiter rejections are built once; serialising per rejection would add load when
+    //overloaded
+    private final byte[] shedJsonResponse;
+    private final byte[] shedMsgPackResponse;
 
     public RevolverRequestResource(ObjectMapper jsonObjectMapper, ObjectMapper msgPackObjectMapper,
             PersistenceProvider persistenceProvider, InlineCallbackHandler callbackHandler,
@@ -110,95 +134,86 @@ public class RevolverRequestResource {
         this.callbackHandler = callbackHandler;
         this.metrics = metrics;
         this.revolverConfig = revolverConfig;
+        this.concurrencyLimiters = new AdaptiveConcurrencyLimiters(metrics);
+        this.requestCoalescer = new RequestCoalescer(metrics);
+        this.admissionController = new AdmissionController(metrics);
+        try {
+            this.shedJsonResponse = jsonObjectMapper
+                    .writeValueAsBytes(SERVICE_UNAVAILABLE_RESPONSE);
+            this.shedMsgPackResponse = msgPackObjectMapper
+                    .writeValueAsBytes(SERVICE_UNAVAILABLE_RESPONSE);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to serialise service unavailable response", e);
+        }
     }
 
     @GET
     @Path(value = "/{service}/{path: .*}")
-    @Metered
     @ApiOperation(value = "Revolver GET api endpoint")
     public Response get(@PathParam("service") String service, @PathParam("path") String path,
             @Context HttpHeaders headers, @Context UriInfo uriInfo) throws Exception {
-        Response response = processRequest(service, RevolverHttpApiConfig.RequestMethod.GET, path,
+        return processRequest(service, RevolverHttpApiConfig.RequestMethod.GET, path,
                 headers, uriInfo, null);
-        pushMetrics(response, service, path);
-        return response;
     }
 
     @HEAD
     @Path(value = "/{service}/{path: .*}")
-    @Metered
     @ApiOperation(value = "Revolver HEAD api endpoint")
     public Response head(@PathParam("service") String service, @PathParam("path") String path,
             @Context HttpHeaders headers, @Context UriInfo uriInfo) throws Exception {
-        Response response = processRequest(service, RevolverHttpApiConfig.RequestMethod.HEAD, path,
+        return processRequest(service, RevolverHttpApiConfig.RequestMethod.HEAD, path,
                 headers, uriInfo, null);
-        pushMetrics(response, service, path);
-        return response;
     }
 
     @POST
     @Path(value = "/{service}/{path: .*}")
-    @Metered
     @ApiOperation(value = "Revolver POST api endpoint")
     public Response post(@PathParam("service") String service, @PathParam("path") String path,
             @Context HttpHeaders headers, @Context UriInfo uriInfo, byte[] body) throws Exception {
-        Response response = processRequest(service, RevolverHttpApiConfig.RequestMethod.POST, path,
+        return processRequest(service, RevolverHttpApiConfig.RequestMethod.POST, path,
                 headers, uriInfo, body);
-        pushMetrics(response, service, path);
-        return response;
     }
 
     @PUT
     @Path(value = "/{service}/{path: .*}")
-    @Metered
     @ApiOperation(value = "Revolver PUT api endpoint")
     public Response put(@PathParam("service") String service, @PathParam("path") String path,
             @Context HttpHeaders headers, @Context UriInfo uriInfo, byte[] body) throws Exception {
-        Response response = processRequest(service, RevolverHttpApiConfig.RequestMethod.PUT, path,
+        return processRequest(service, RevolverHttpApiConfig.RequestMethod.PUT, path,
                 headers, uriInfo, body);
-        pushMetrics(response, service, path);
-        return response;
     }
 
     @DELETE
     @Path(value = "/{service}/{path: .*}")
-    @Metered
     @ApiOperation(value = "Revolver DELETE api endpoint")
     public Response delete(@PathParam("service") String service, @PathParam("path") String path,
             @Context HttpHeaders headers, @Context UriInfo uriInfo) throws Exception {
-        Response response = processRequest(service, RevolverHttpApiConfig.RequestMethod.DELETE,
+        return processRequest(service, RevolverHttpApiConfig.RequestMethod.DELETE,
                 path, headers, uriInfo, null);
-        pushMetrics(response, service, path);
-        return response;
     }
 
     @PATCH
     @Path(value = "/{service}/{path: .*}")
-    @Metered
     @ApiOperation(value = "Revolver PATCH api endpoint")
     public Response patch(@PathParam("service") String service, @PathParam("path") String path,
             @Context HttpHeaders headers, @Context UriInfo uriInfo, byte[] body) throws Exception {
-        Response response = processRequest(service, RevolverHttpApiConfig.RequestMethod.PATCH, path,
+        return processRequest(service, RevolverHttpApiConfig.RequestMethod.PATCH, path,
                 headers, uriInfo, body);
-        pushMetrics(response, service, path);
-        return response;
     }
 
     @OPTIONS
     @Path(value = "/{service}/{path: .*}")
-    @Metered
     @ApiOperation(value = "Revolver OPTIONS api endpoint")
     public Response options(@PathParam("service") String service, @PathParam("path") String path,
             @Context HttpHeaders headers, @Context UriInfo uriInfo, byte[] body) throws Exception {
-        Response response = processRequest(service, RevolverHttpApiConfig.RequestMethod.OPTIONS,
+        return processRequest(service, RevolverHttpApiConfig.RequestMethod.OPTIONS,
                 path, headers, uriInfo, body);
-        pushMetrics(response, service, path);
-        return response;
     }
 
 
     private Response processRequest(String service, RevolverHttpApiConfig.RequestMethod method,
             String path, HttpHeaders headers, UriInfo uriInfo, byte[] body) throws Exception {
+        long start = System.nanoTime();
         val apiMap = resolvePath(service, path, headers);
         if (apiMap == null) {
             return Response.status(Response.Status.BAD_REQUEST).entity(ResponseTransformationUtil
@@ -207,6 +222,23 @@ public class RevolverRequestResource {
                                     : MediaType.APPLICATION_JSON, jsonObjectMapper,
                             msgPackObjectMapper)).build();
         }
+        //Exceptions are mapped to responses outside the resource; count them as server errors
+        int status = Response.Status.INTERNAL_SERVER_ERROR.getStatusCode();
+        try {
+            Response response = processRequest(service, apiMap, method, path, headers, uriInfo,
+                    body);
+            status = response.getStatus();
+            return response;
+        } finally {
+            if (apiMap.getMetrics() != null) {
+                apiMap.getMetrics().record(status, System.nanoTime() - start);
+            }
+        }
+    }
+
+    private Response processRequest(String service, ApiPathMap apiMap,
+            RevolverHttpApiConfig.RequestMethod method, String path, HttpHeaders headers,
+            UriInfo uriInfo, byte[] body) throws Exception {
         String serviceKey = service + "." + apiMap.getApi().getApi();
         if (RevolverBundle.apiStatus.containsKey(serviceKey) && !RevolverBundle.apiStatus
                 .get(serviceKey)) {
@@ -216,10 +248,27 @@ public class RevolverRequestResource {
                                     : MediaType.APPLICATION_JSON, jsonObjectMapper,
                             msgPackObjectMapper)).build();
         }
+        AdmissionConfig admission = apiMap.getApi().getAdmission();
+        if (admission != null && admission.isEnabled() && !admit(service, serviceKey, apiMap,
+                admission, headers)) {
+            return serviceUnavailable(headers, admission.getRetryAfterInSeconds());
+        }
         val callMode = getCallMode(apiMap, headers);
+        long deadline = getDeadline(headers);
+        boolean sync = Strings.isNullOrEmpty(callMode)
+                || RevolverHttpCommand.CALL_MODE_CALLBACK_SYNC.equalsIgnoreCase(callMode);
+        //Nobody is waiting for the response any more; don't spend upstream capacity on it
+        if (sync && deadline > 0 && deadline <= System.currentTimeMillis()) {
+            return Response.status(Response.Status.GATEWAY_TIMEOUT)
+                    .entity(ResponseTransformationUtil.transform(DEADLINE_EXCEEDED_RESPONSE,
+                            headers.getMediaType() != null ? headers.getMediaType().toString()
+                                    : MediaType.APPLICATION_JSON, jsonObjectMapper,
+                            msgPackObjectMapper)).build();
+        }
 
         if (Strings.isNullOrEmpty(callMode)) {
-            return executeInline(service, apiMap.getApi(), method, path, headers, uriInfo, body);
+            return executeInline(service, apiMap.getApi(), method, path, headers, uriInfo, body,
+                    deadline);
         }
         switch (callMode.toUpperCase()) {
             case RevolverHttpCommand.CALL_MODE_POLLING:
@@ -245,8 +294,9 @@ public class RevolverRequestResource {
                                             .toString() : MediaType.APPLICATION_JSON,
                                     jsonObjectMapper, msgPackObjectMapper)).build();
                 }
-                return executeCallbackSync(service, apiMap.getApi(), method, path, headers, uriInfo,
-                        body);
+                return executeWithLimit(serviceKey, apiMap.getApi(), headers,
+                        () -> executeCallbackSync(service, apiMap.getApi(), method, path, headers,
+                                uriInfo, body, deadline));
         }
         return Response.status(Response.Status.BAD_REQUEST).entity(ResponseTransformationUtil
                 .transform(BAD_REQUEST_RESPONSE,
@@ -255,7 +305,74 @@ public class RevolverRequestResource {
                         msgPackObjectMapper)).build();
     }
 
+    private Response executeWithLimit(String serviceKey, RevolverHttpApiConfig api,
+            HttpHeaders headers, Callable<Response> call) throws Exception {
+        AdaptiveConcurrencyLimiter limiter = concurrencyLimiters
+                .get(serviceKey, api.getAdaptiveConcurrency());
+        if (limiter == null) {
+            return call.call();
+        }
+        int inFlight = limiter.tryAcquire();
+        if (inFlight < 0) {
+            concurrencyLimiters.rejected(serviceKey).mark();
+            return serviceUnavailable(headers, limiter.getConfig().getRetryAfterInSeconds());
+        }
+        long start = System.nanoTime();
+        try {
+            Response response = call.call();
+            int status = response.getStatus();
+            if (status == 429 || status == 503 || status == 504) {
+                limiter.onDropped();
+            } else if (status >= 500) {
+                limiter.onIgnore();
+            } else {
+                limiter.onSuccess(System.nanoTime() - start, inFlight);
+            }
+            return response;
+        } catch (TimeoutException e) {
+            limiter.onDropped();
+            throw e;
+        } catch (Exception e) {
+            limiter.onIgnore();
+            throw e;
+        }
+    }
+
+    private boolean admit(String service, String serviceKey, ApiPathMap apiMap,
+            AdmissionConfig admission, HttpHeaders headers) {
+        RequestPriority priority = admission
+                .priority(headers.getHeaderString(RevolversHttpHeaders.PRIORITY_HEADER));
+        RevolverExecutionConfig executionConfig = apiMap.getExecutionConfig();
+        if (executionConfig == null) {
+            executionConfig = RevolverCommandHelper.executionConfig(
+                    RevolverBundle.getHttpCommand(service, apiMap.getApi().getApi()),
+                    apiMap.getApi().getApi());
+            apiMap.setExecutionConfig(executionConfig);
+        }
+        return admissionController.admit(serviceKey, admission, priority, executionConfig,
+                RevolverCommandHelper.executionEngine(
+                        revolverConfig == null ? null : revolverConfig.getGlobal(),
+                        apiMap.getApi()));
+    }
+
+    private Response serviceUnavailable(HttpHeaders headers, int retryAfterInSeconds) {
+        boolean msgPack = headers.getMediaType() != null && headers.getMediaType().toString()
+                .startsWith(MsgPackMediaType.APPLICATION_MSGPACK);
+        return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, retryAfterInSeconds)
+                .entity(msgPack ? shedMsgPackResponse : shedJsonResponse).build();
+    }
+
     private ApiPathMap resolvePath(String service, String path, HttpHeaders headers) {
+        long begin = FlightEvents.begin(FlightEventType.ROUTE);
+        ApiPathMap apiMap = resolveSplitPath(service, path, headers);
+        FlightEvents.commit(FlightEventType.ROUTE, begin, service,
+                apiMap == null ? null : apiMap.getApi().getApi(),
+                apiMap == null ? "UNMATCHED" : "MATCHED");
+        return apiMap;
+    }
+
+    private ApiPathMap resolveSplitPath(String service, String path, HttpHeaders headers) {
         val apiMap = RevolverBundle.matchPath(service, path);
         if (apiMap == null) {
             return null;
@@ -360,32 +477,160 @@ public class RevolverRequestResource {
         return callMode;
     }
 
+    //Absolute deadline from the caller's remaining time budget, 0 if it did not send one
+    private long getDeadline(HttpHeaders headers) {
+        String timeout = headers.getHeaderString(RevolversHttpHeaders.TIMEOUT_HEADER);
+        if (Strings.isNullOrEmpty(timeout)) {
+            return 0;
+        }
+        try {
+            return System.currentTimeMillis() + Long.parseLong(timeout.trim());
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring invalid {} header: {}", RevolversHttpHeaders.TIMEOUT_HEADER,
+                    timeout);
+            return 0;
+        }
+    }
+
     private Response executeInline(String service, RevolverHttpApiConfig api,
             RevolverHttpApiConfig.RequestMethod method, String path, HttpHeaders headers,
-            UriInfo uriInfo, byte[] body) throws IOException, TimeoutException {
+            UriInfo uriInfo, byte[] body, long deadline) throws Exception {
         val sanatizedHeaders = new MultivaluedHashMap<String, String>();
         headers.getRequestHeaders().forEach(sanatizedHeaders::put);
         cleanHeaders(sanatizedHeaders, api);
         val httpCommand = RevolverBundle.getHttpCommand(service, api.getApi());
-        RevolverHttpResponse revolverHttpResponse = execute(httpCommand, service, api, method, path,
-                headers, uriInfo, body, sanatizedHeaders);
-        return transform(headers, revolverHttpResponse, api.getApi(), path, method);
+        String serviceKey = service + "." + api.getApi();
+        ResponseCache cache = method == RevolverHttpApiConfig.RequestMethod.GET ? ResponseCaches
+                .get(serviceKey, api.getCache()) : null;
+        String cacheKey = null;
+        CachedResponse cached = null;
+        if (cache != null) {
+            cacheKey = cache.key(path, uriInfo.getQueryParameters(), headers.getRequestHeaders());
+            cached = cache.get(cacheKey);
+            long now = System.currentTimeMillis();
+            if (cached != null && cached.isFresh(now)) {
+                cache.hit();
+                return transform(headers, cached.toResponse(), service, api.getApi(), path, method);
+            }
+            if (cached != null && cached.isStaleServable(now)) {
+                cache.staleHit();
+                refresh(cache, cacheKey, cached, httpCommand,
+                        buildRequest(service, api, method, path, headers, uriInfo, body,
+                                new MultivaluedHashMap<String, String>(sanatizedHeaders), 0));
+                return transform(headers, cached.toResponse(), service, api.getApi(), path, method);
+            }
+            cache.miss();
+            cache.addConditionalHeaders(cached, sanatizedHeaders);
+        }
+        //Only upstream calls take a limiter permit; cache hits would skew its latency samples
+        String cacheKeyToUpdate = cacheKey;
+        CachedResponse cachedToUpdate = cached;
+        return executeWithLimit(serviceKey, api, headers,
+                () -> executeUpstream(httpCommand, service, api, method, path, headers, uriInfo,
+                        body, sanatizedHeaders, deadline, cache, cacheKeyToUpdate,
+                        cachedToUpdate));
+    }
+
+    private Response executeUpstream(RevolverHttpCommand httpCommand, String service,
+            RevolverHttpApiConfig api, RevolverHttpApiConfig.RequestMethod method, String path,
+            HttpHeaders headers, UriInfo uriInfo, byte[] body,
+            MultivaluedHashMap<String, String> sanatizedHeaders, long deadline,
+            ResponseCache cache, String cacheKey, CachedResponse cached) throws Exception {
+        RevolverHttpResponse revolverHttpResponse;
+        //Sanitized headers also carry the validators the cache added for revalidation
+        if (method == RevolverHttpApiConfig.RequestMethod.GET && null != api.getCoalescing()
+                && api.getCoalescing().isEnabled() && RequestCoalescer
+                .isCoalescable(sanatizedHeaders)) {
+            String key = RequestCoalescer
+                    .key(method.name(), service, path, uriInfo.getQueryParameters(),
+                            headers.getRequestHeaders(), api.getCoalescing());
+            revolverHttpResponse = requestCoalescer.execute(service + "." + api.getApi(), key,
+                    remainingInMs(httpCommand, deadline),
+                    () -> execute(httpCommand, service, api, method, path, headers, uriInfo, body,
+                            sanatizedHeaders, deadline));
+        } else {
+            revolverHttpResponse = execute(httpCommand, service, api, method, path, headers,
+                    uriInfo, body, sanatizedHeaders, deadline);
+        }
+        if (cache != null) {
+            revolverHttpResponse = cache.update(cacheKey, cached, revolverHttpResponse);
+        }
+        return transform(headers, revolverHttpResponse, service, api.getApi(), path, method);
+    }
+
+    //Time a request may still wait: its own deadline if it sent one, otherwise the api timeout
+    private static long remainingInMs(RevolverHttpCommand httpCommand, long deadline) {
+        if (deadline > 0) {
+            return deadline - System.currentTimeMillis();
+        }
+        long timeout = httpCommand.getTimeoutInMs();
+        return timeout > 0 ? timeout : Long.MAX_VALUE;
     }
 
     private RevolverHttpResponse execute(RevolverHttpCommand httpCommand, String service,
             RevolverHttpApiConfig api, RevolverHttpApiConfig.RequestMethod method, String path,
             HttpHeaders headers, UriInfo uriInfo, byte[] body,
-            MultivaluedHashMap<String, String> sanatizedHeaders) throws TimeoutException {
-        return httpCommand.execute(RevolverHttpRequest.builder().traceInfo(TraceInfo.builder()
+            MultivaluedHashMap<String, String> sanatizedHeaders, long deadline)
+            throws TimeoutException {
+        return httpCommand.execute(buildRequest(service, api, method, path, headers, uriInfo, body,
+                sanatizedHeaders, deadline));
+    }
+
+    private RevolverHttpRequest buildRequest(String service, RevolverHttpApiConfig api,
+            RevolverHttpApiConfig.RequestMethod method, String path, HttpHeaders headers,
+            UriInfo uriInfo, byte[] body, MultivaluedHashMap<String, String> sanatizedHeaders,
+            long deadline) {
+        RevolverHttpRequest request = RevolverHttpRequest.builder().traceInfo(TraceInfo.builder()
                 .requestId(headers.getHeaderString(RevolversHttpHeaders.REQUEST_ID_HEADER))
                 .transactionId(headers.getHeaderString(RevolversHttpHeaders.TXN_ID_HEADER))
                 .timestamp(System.currentTimeMillis()).build()).api(api.getApi()).service(service)
                 .path(path).method(method).headers(sanatizedHeaders)
-                .queryParams(uriInfo.getQueryParameters()).body(body).build());
+                .queryParams(uriInfo.getQueryParameters()).body(body).build();
+        request.setDeadline(deadline);
+        return request;
+    }
+
+    //Revalidates a stale cache entry in the background; the caller has already been served
+    private void refresh(ResponseCache cache, String key, CachedResponse cached,
+            RevolverHttpCommand httpCommand, RevolverHttpRequest request) {
+        if (!cache.startRefresh(key)) {
+            return;
+        }
+        try {
+            cache.addConditionalHeaders(cached, request.getHeaders());
+            httpCommand.executeAsync(request).whenComplete((response, error) -> {
+                try {
+                    if (error != null) {
+                        log.warn("Error refreshing cached response for {}.{}: {}",
+                                request.getService(), request.getApi(), error.getMessage());
+                    } else {
+                        cache.update(key, cached, response);
+                    }
+                } finally {
+                    cache.endRefresh(key);
+                }
+            });
+        } catch (Exception e) {
+            cache.endRefresh(key);
+            log.warn("Error refreshing cached response for {}.{}: {}", request.getService(),
+                    request.getApi(), e.getMessage());
+        }
+    }
+
+    private Response transform(HttpHeaders headers, RevolverHttpResponse response,
+            String service, String api, String path, RevolverHttpApiConfig.RequestMethod method)
+            throws IOException {
+        long transformStart = StageMetrics.start(LatencyStage.TRANSFORM);
+        try {
+            return transformResponse(headers, response, api, path, method);
+        } finally {
+            StageMetrics.record(service, api, LatencyStage.TRANSFORM, transformStart);
+        }
     }
 
-    private Response transform(HttpHeaders headers, RevolverHttpResponse response, String api,
-            String path, RevolverHttpApiConfig.RequestMethod method) throws IOException {
+    private Response transformResponse(HttpHeaders headers, RevolverHttpResponse response,
+            String api, String path, RevolverHttpApiConfig.RequestMethod method)
+            throws IOException {
         val httpResponse = Response.status(response.getStatusCode());
         //Add all the headers except content type header
         if (response.getHeaders() != null) {
@@ -472,6 +717,7 @@ public class RevolverRequestResource {
                 headers.getHeaderString(RevolversHttpHeaders.MAILBOX_TTL_HEADER) != null ? Integer
                         .parseInt(headers.getHeaderString(RevolversHttpHeaders.MAILBOX_TTL_HEADER))
                         : -1;
+        long persistenceStart = StageMetrics.start(LatencyStage.PERSISTENCE);
         //Short circuit if it is a duplicate request
         if (persistenceProvider.exists(requestId)) {
             return Response.status(Response.Status.NOT_ACCEPTABLE).entity(ResponseTransformationUtil
@@ -489,6 +735,7 @@ public class RevolverRequestResource {
                                 .getFirst(RevolversHttpHeaders.CALLBACK_METHOD_HEADER))
                         .service(service).path(path).headers(headers.getRequestHeaders())
                         .queryParams(uriInfo.getQueryParameters()).body(body).build(), mailBoxTtl);
+        StageMetrics.record(service, api.getApi(), LatencyStage.PERSISTENCE, persistenceStart);
         CompletableFuture<RevolverHttpResponse> response = httpCommand.executeAsync(
                 RevolverHttpRequest.builder().traceInfo(
                         TraceInfo.builder().requestId(requestId).transactionId(transactionId)
@@ -506,7 +753,7 @@ public class RevolverRequestResource {
                         .setRequestState(requestId, RevolverRequestState.RESPONDED, mailBoxTtl);
                 saveResponse(requestId, result, callMode, mailBoxTtl);
             }
-            Response httpResponse = transform(headers, result, api.getApi(), path, method);
+            Response httpResponse = transform(headers, result, service, api.getApi(), path, method);
             if (api.getApiLatencyConfig() != null) {
                 httpResponse.getHeaders().putSingle(RevolversHttpHeaders.RETRY_AFTER,
                         api.getApiLatencyConfig().getLatency());
@@ -547,7 +794,7 @@ public class RevolverRequestResource {
 
     private Response executeCallbackSync(String service, RevolverHttpApiConfig api,
             RevolverHttpApiConfig.RequestMethod method, String path, HttpHeaders headers,
-            UriInfo uriInfo, byte[] body) throws Exception {
+            UriInfo uriInfo, byte[] body, long deadline) throws Exception {
         val sanatizedHeaders = new MultivaluedHashMap<String, String>();
         headers.getRequestHeaders().forEach(sanatizedHeaders::put);
         cleanHeaders(sanatizedHeaders, api);
@@ -561,6 +808,7 @@ public class RevolverRequestResource {
                 headers.getHeaderString(RevolversHttpHeaders.MAILBOX_TTL_HEADER) != null ? Integer
                         .parseInt(headers.getHeaderString(RevolversHttpHeaders.MAILBOX_TTL_HEADER))
                         : -1;
+        long persistenceStart = StageMetrics.start(LatencyStage.PERSISTENCE);
         //Short circuit if it is a duplicate request
         if (persistenceProvider.exists(requestId)) {
             return Response.status(Response.Status.NOT_ACCEPTABLE).entity(ResponseTransformationUtil
@@ -578,15 +826,17 @@ public class RevolverRequestResource {
                                 .getFirst(RevolversHttpHeaders.CALLBACK_METHOD_HEADER))
                         .service(service).path(path).headers(headers.getRequestHeaders())
                         .queryParams(uriInfo.getQueryParameters()).body(body).build(), mailBoxTtl);
-        CompletableFuture<RevolverHttpResponse> response = httpCommand.executeAsync(
-                RevolverHttpRequest.builder().traceInfo(
-                        TraceInfo.builder().requestId(requestId).transactionId(transactionId)
-                                .timestamp(System.currentTimeMillis()).build()).api(api.getApi())
-                        .service(service).path(path).method(method).headers(sanatizedHeaders)
-                        .queryParams(uriInfo.getQueryParameters()).body(body).build());
+        StageMetrics.record(service, api.getApi(), LatencyStage.PERSISTENCE, persistenceStart);
+        RevolverHttpRequest request = RevolverHttpRequest.builder().traceInfo(
+                TraceInfo.builder().requestId(requestId).transactionId(transactionId)
+                        .timestamp(System.currentTimeMillis()).build()).api(api.getApi())
+                .service(service).path(path).method(method).headers(sanatizedHeaders)
+                .queryParams(uriInfo.getQueryParameters()).body(body).build();
+        request.setDeadline(deadline);
+        CompletableFuture<RevolverHttpResponse> response = httpCommand.executeAsync(request);
         persistenceProvider.setRequestState(requestId, RevolverRequestState.REQUESTED, mailBoxTtl);
         val result = response.get();
-        return transform(headers, result, api.getApi(), path, method);
+        return transform(headers, result, service, api.getApi(), path, method);
     }
 
     private void saveResponse(String requestId, RevolverHttpResponse result, String callMode,
@@ -602,13 +852,4 @@ public class RevolverRequestResource {
             log.error("Error saving response!", e);
         }
     }
-
-    private void pushMetrics(Response response, String service, String path) {
-        val apiMap = RevolverBundle.matchPath(service, path);
-        if (apiMap == null) {
-            return;
-        }
-        String api = apiMap.getApi().getApi();
-        metrics.meter(String.format("%s.%s.%s", service, api, response.getStatus()));
-    }
 }
@@ -0,0 +1,194 @@
+package io.dropwizard.revolver.retry;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/***
+ Retries a call without holding a thread: attempts are enqueued on the OkHttp dispatcher and
+ backoffs are scheduled on a shared timer. A retry is only scheduled if it can start before the
+ deadline and the api's {@link RetryBudget} allows it. An attempt may itself be a race of
+ several calls, such as a hedged call.
+ ***/
+@Slf4j
+public class AsyncRetrier {
+
+    private static final ScheduledExecutorService timer = Executors
+            .newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "revolver-retry-timer");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    private static final Map<String, RetryBudget> budgets = new ConcurrentHashMap<>();
+
+    private static final ValidResponseFilter retryFilter = new ValidResponseFilter();
+
+    private final Function<Request, CompletableFuture<Response>> attemptStarter;
+    private final RevolverApiRetryConfig config;
+    private final RetryBudget budget;
+    private final long deadline;
+    private final Callable<Request> requests;
+    private final CompletableFuture<Response> result = new CompletableFuture<>();
+    private final AtomicInteger attempts = new AtomicInteger();
+    private volatile CompletableFuture<Response> inFlight;
+
+    private AsyncRetrier(Function<Request, CompletableFuture<Response>> attemptStarter,
+            RevolverApiRetryConfig config, RetryBudget budget, long deadline,
+            Callable<Request> requests) {
+        this.attemptStarter = attemptStarter;
+        this.config = config;
+        this.budget = budget;
+        this.deadline = deadline;
+        this.requests = requests;
+    }
+
+    /**
+     * @param attemptStarter starts an attempt; cancelling the returned future must cancel it
+     * @param apiKey key the retry budget is tracked against
+     * @param deadline {@link System#nanoTime()} after which no attempt should be started
+     * @param requests supplies the request for every attempt, so endpoints can be re-resolved
+     */
+    public static CompletableFuture<Response> execute(
+            Function<Request, CompletableFuture<Response>> attemptStarter, String apiKey,
+            RevolverApiRetryConfig config, long deadline, Callable<Request> requests) {
+        RetryBudget budget = budgets.computeIfAbsent(apiKey, key -> new RetryBudget(
+                config.getBudgetPercent() > 0 ? config.getBudgetPercent()
+                        : RevolverApiRetryConfig.BUDGET_PERCENT));
+        budget.onRequest();
+        AsyncRetrier retrier = new AsyncRetrier(attemptStarter, config, budget, deadline, requests);
+        retrier.result.whenComplete((response, error) -> {
+            CompletableFuture<Response> attempt = retrier.inFlight;
+            if (retrier.result.isCancelled() && attempt != null) {
+                attempt.cancel(true);
+            }
+        });
+        retrier.attempt();
+        return retrier.result;
+    }
+
+    static long backoffInMillis(RevolverApiRetryConfig config, int attempt) {
+        long initial = config.getInitialBackoffInMillis() > 0 ? config.getInitialBackoffInMillis()
+                : RevolverApiRetryConfig.INITIAL_BACKOFF_IN_MILLIS;
+        long maximum = config.getMaximumBackoffInMillis() > 0 ? config.getMaximumBackoffInMillis()
+                : RevolverApiRetryConfig.MAXIMUM_BACKOFF_IN_MILLIS;
+        WaitStrategy waitStrategy =
+                config.getWaitStrategy() == null ? WaitStrategy.EXPONENTIAL
+                        : config.getWaitStrategy();
+        long backoff;
+        switch (waitStrategy) {
+            case NO_WAIT:
+                return 0;
+            case FIXED:
+                backoff = initial;
+                break;
+            case INCREMENTAL:
+                backoff = initial + config.getIncrementByInMillis() * (attempt - 1);
+                break;
+            case FIBONACCI:
+                long previous = 0;
+                long current = 1;
+                for (int i = 1; i < attempt && current < maximum; i++) {
+                    long next = previous + current;
+                    previous = current;
+                    current = next;
+                }
+                backoff = initial * current;
+                break;
+            case EXPONENTIAL:
+            default:
+                backoff = initial << Math.min(attempt - 1, 30);
+        }
+        backoff = Math.min(Math.max(0, backoff), maximum);
+        return config.isJitter() ? ThreadLocalRandom.current().nextLong(backoff + 1) : backoff;
+    }
+
+    /**
+     * @return future of the enqueued call; cancelling it cancels the call
+     */
+    public static CompletableFuture<Response> enqueue(Call call) {
+        CompletableFuture<Response> future = new CompletableFuture<>();
+        future.whenComplete((response, error) -> {
+            if (future.isCancelled()) {
+                call.cancel();
+            }
+        });
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                future.completeExceptionally(e);
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                if (!future.complete(response)) {
+                    response.close();
+                }
+            }
+        });
+        return future;
+    }
+
+    private void onResponse(Response response) {
+        if (retryFilter.test(response) && scheduleRetry()) {
+            response.close();
+            return;
+        }
+        if (!result.complete(response)) {
+            response.close();
+        }
+    }
+
+    private void attempt() {
+        if (result.isDone()) {
+            return;
+        }
+        attempts.incrementAndGet();
+        try {
+            CompletableFuture<Response> attempt = attemptStarter.apply(requests.call());
+            inFlight = attempt;
+            attempt.whenComplete((response, error) -> {
+                if (error != null) {
+                    result.completeExceptionally(error);
+                } else {
+                    onResponse(response);
+                }
+            });
+        } catch (Exception e) {
+            result.completeExceptionally(e);
+        }
+    }
+
+    private boolean scheduleRetry() {
+        int maxRetry = config.getMaxRetry() > 0 ? config.getMaxRetry()
+                : RevolverApiRetryConfig.MAX_RETRY;
+        int attempt = attempts.get();
+        if (result.isDone() || attempt >= maxRetry) {
+            return false;
+        }
+        long backoff = backoffInMillis(config, attempt);
+        if (System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoff) >= deadline) {
+            log.debug("Not retrying as attempt {} would start after the deadline", attempt + 1);
+            return false;
+        }
+        if (!budget.tryRetry()) {
+            log.debug("Not retrying as retry budget is exhausted");
+            return false;
+        }
+        timer.schedule(this::attempt, backoff, TimeUnit.MILLISECONDS);
+        return true;
+    }
+}
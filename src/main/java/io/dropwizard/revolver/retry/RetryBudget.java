@@ -0,0 +1,37 @@
+package io.dropwizard.revolver.retry;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/***
+ Token bucket capping retries of an api to a share of its requests. Every request deposits
+ budgetPercent/100 of a retry; a retry withdraws a whole one.
+ ***/
+public class RetryBudget {
+
+    //Budget is tracked in thousandths of a retry; at most ten retries can be banked for bursts
+    private static final long RETRY_COST = 1000;
+    private static final long MAX_BUDGET = 10 * RETRY_COST;
+
+    private final AtomicLong budget = new AtomicLong();
+    private final long budgetPerRequest;
+
+    public RetryBudget(double budgetPercent) {
+        this.budgetPerRequest = (long) (budgetPercent * RETRY_COST / 100.0);
+    }
+
+    public void onRequest() {
+        budget.updateAndGet(current -> Math.min(MAX_BUDGET, current + budgetPerRequest));
+    }
+
+    public boolean tryRetry() {
+        while (true) {
+            long current = budget.get();
+            if (current < RETRY_COST) {
+                return false;
+            }
+            if (budget.compareAndSet(current, current - RETRY_COST)) {
+                return true;
+            }
+        }
+    }
+}
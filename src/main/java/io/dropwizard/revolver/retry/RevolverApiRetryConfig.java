@@ -19,6 +19,9 @@ public class RevolverApiRetryConfig {
     public static final int MAX_RETRY = 3;
     public static final int MAXIMUM_WAIT_TIME_IN_SECONDS = 10;
     public static final long INCREMENT_BY_IN_MILLIS = 200;
+    public static final long INITIAL_BACKOFF_IN_MILLIS = 50;
+    public static final long MAXIMUM_BACKOFF_IN_MILLIS = 1000;
+    public static final double BUDGET_PERCENT = 10;
 
     @NotNull
     private boolean enabled;
@@ -35,4 +38,25 @@ public class RevolverApiRetryConfig {
     @DefaultValue(value = "200")
     private long incrementByInMillis = INCREMENT_BY_IN_MILLIS;
 
+    //Schedule attempts on a timer and stop retrying once the command timeout would be exceeded
+    @DefaultValue(value = "false")
+    private boolean async;
+
+    @DefaultValue(value = "50")
+    @Builder.Default
+    private long initialBackoffInMillis = INITIAL_BACKOFF_IN_MILLIS;
+
+    @DefaultValue(value = "1000")
+    @Builder.Default
+    private long maximumBackoffInMillis = MAXIMUM_BACKOFF_IN_MILLIS;
+
+    @DefaultValue(value = "true")
+    @Builder.Default
+    private boolean jitter = true;
+
+    //Retries allowed as a percentage of requests to the api (async mode)
+    @DefaultValue(value = "10")
+    @Builder.Default
+    private double budgetPercent = BUDGET_PERCENT;
+
 }
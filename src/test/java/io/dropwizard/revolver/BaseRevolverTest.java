@@ -45,8 +45,8 @@ import io.dropwizard.revolver.handler.ConfigSource;
 import io.dropwizard.revolver.http.config.RevolverHttpApiConfig;
 import io.dropwizard.revolver.http.config.RevolverHttpServiceConfig;
 import io.dropwizard.revolver.http.config.RevolverHttpsServiceConfig;
-import io.dropwizard.revolver.optimizer.OptimizerMetricsCache;
 import io.dropwizard.revolver.optimizer.OptimizerMetricsCollector;
+import io.dropwizard.revolver.optimizer.OptimizerMetricsStore;
 import io.dropwizard.revolver.optimizer.RevolverConfigUpdater;
 import io.dropwizard.revolver.optimizer.config.OptimizerConfig;
 import io.dropwizard.revolver.optimizer.utils.OptimizerUtils;
@@ -337,7 +337,7 @@ public class BaseRevolverTest {
     public WireMockRule wireMockRule = new WireMockRule(9999, 9933);
     protected RevolverConfigUpdater revolverConfigUpdater;
     protected OptimizerMetricsCollector optimizerMetricsCollector;
-    protected OptimizerMetricsCache optimizerMetricsCache;
+    protected OptimizerMetricsStore optimizerMetricsStore;
     private MetricRegistry metricRegistry = new MetricRegistry();
 
     @Before
@@ -366,14 +366,14 @@ public class BaseRevolverTest {
                 .persistenceProvider(inMemoryPersistenceProvider).revolverConfig(revolverConfig)
                 .build();
 
-        optimizerMetricsCache = OptimizerMetricsCache.builder()
+        optimizerMetricsStore = OptimizerMetricsStore.builder()
                 .optimizerMetricsCollectorConfig(optimizerConfig.getMetricsCollectorConfig())
                 .build();
-        optimizerMetricsCollector = OptimizerMetricsCollector.builder().metrics(metricRegistry)
-                .optimizerMetricsCache(optimizerMetricsCache).optimizerConfig(optimizerConfig)
+        optimizerMetricsCollector = OptimizerMetricsCollector.builder()
+                .optimizerMetricsStore(optimizerMetricsStore).optimizerConfig(optimizerConfig)
                 .build();
         revolverConfigUpdater = RevolverConfigUpdater.builder()
-                .optimizerMetricsCache(optimizerMetricsCache).revolverConfig(revolverConfig)
+                .optimizerMetricsStore(optimizerMetricsStore).revolverConfig(revolverConfig)
                 .optimizerConfig(optimizerConfig).build();
     }
 }
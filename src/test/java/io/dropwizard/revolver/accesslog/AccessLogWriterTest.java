@@ -0,0 +1,100 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.accesslog;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * @author phaneesh
+ */
+public class AccessLogWriterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testWritesFixedSchemaLines() throws Exception {
+        File file = folder.newFile("access.log");
+        AccessLogConfig config = AccessLogConfig.builder().path(file.getPath()).bufferSize(16)
+                .build();
+        AccessLogWriter writer = new AccessLogWriter(config);
+        assertTrue(writer.append(AccessLogRecord.Type.UPSTREAM, "test", "get", "GET", "localhost",
+                8080, "/v1/test", 200, 12, "r1"));
+        assertTrue(writer.append(AccessLogRecord.Type.MAILBOX, null, "saveRequest", null, null, 0,
+                null, 0, 3, "r2"));
+        writer.drain();
+        List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0)
+                .endsWith("\tUPSTREAM\ttest\tget\tGET\tlocalhost\t8080\t/v1/test\t200\t12\tr1"));
+        assertTrue(lines.get(1).endsWith("\tMAILBOX\t-\tsaveRequest\t-\t-\t0\t-\t0\t3\tr2"));
+        assertEquals(2, writer.getWritten());
+        writer.stop();
+    }
+
+    @Test
+    public void testDropsWhenFull() throws Exception {
+        File file = folder.newFile("access.log");
+        AccessLogWriter writer = new AccessLogWriter(
+                AccessLogConfig.builder().path(file.getPath()).bufferSize(4).build());
+        for (int i = 0; i < 4; i++) {
+            assertTrue(writer.append(AccessLogRecord.Type.UPSTREAM, "test", "api" + i, "GET",
+                    "localhost", 80, "/", 200, 1, null));
+        }
+        assertFalse(writer.append(AccessLogRecord.Type.UPSTREAM, "test", "api4", "GET",
+                "localhost", 80, "/", 200, 1, null));
+        assertEquals(1, writer.getDropped());
+        writer.drain();
+        //Slots are reused once drained
+        assertTrue(writer.append(AccessLogRecord.Type.UPSTREAM, "test", "api5", "GET",
+                "localhost", 80, "/", 200, 1, null));
+        writer.drain();
+        List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        assertEquals(5, lines.size());
+        assertTrue(lines.get(4).contains("\tapi5\t"));
+        writer.stop();
+    }
+
+    @Test
+    public void testRollsOverAtMaxSize() throws Exception {
+        File file = new File(folder.getRoot(), "access.log");
+        AccessLogWriter writer = new AccessLogWriter(AccessLogConfig.builder().path(file.getPath())
+                .bufferSize(16).maxFileSizeInBytes(10).archivedFileCount(2).build());
+        for (int i = 0; i < 4; i++) {
+            writer.append(AccessLogRecord.Type.UPSTREAM, "test", "api" + i, "GET", "localhost", 80,
+                    "/", 200, 1, null);
+            writer.drain();
+        }
+        writer.stop();
+        assertEquals(1, Files.readAllLines(file.toPath(), StandardCharsets.UTF_8).size());
+        assertTrue(new File(folder.getRoot(), "access.log.1").exists());
+        assertTrue(new File(folder.getRoot(), "access.log.2").exists());
+        assertFalse(new File(folder.getRoot(), "access.log.3").exists());
+        assertTrue(Files.readAllLines(file.toPath(), StandardCharsets.UTF_8).get(0)
+                .contains("\tapi3\t"));
+    }
+}
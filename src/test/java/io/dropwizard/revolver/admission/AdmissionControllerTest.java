@@ -0,0 +1,108 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.dropwizard.revolver.admission;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.codahale.metrics.MetricRegistry;
+import io.dropwizard.revolver.core.config.hystrix.CircuitBreakerConfig;
+import io.dropwizard.revolver.core.config.hystrix.MetricsConfig;
+import io.dropwizard.revolver.core.config.hystrix.ThreadPoolConfig;
+import io.dropwizard.revolver.core.engine.RevolverExecution;
+import io.dropwizard.revolver.core.engine.RevolverExecutionConfig;
+import io.dropwizard.revolver.core.engine.SemaphoreExecutionEngine;
+import java.util.concurrent.CompletableFuture;
+import org.junit.Test;
+
+/**
+ * @author phaneesh
+ */
+public class AdmissionControllerTest {
+
+    @Test
+    public void testLoadIsHighestUtilisation() {
+        AdmissionConfig config = AdmissionConfig.builder().enabled(true)
+                .latencyThresholdInMillis(100).build();
+        assertEquals(0.5, AdmissionController.load(5, 0, 10, 50, 10, config), 0.001);
+        assertEquals(0.8, AdmissionController.load(3, 40, 10, 50, 10, config), 0.001);
+        assertEquals(2.0, AdmissionController.load(1, 0, 10, 50, 200, config), 0.001);
+        assertEquals(0.1, AdmissionController.load(1, 0, 10, 0, 200,
+                AdmissionConfig.builder().enabled(true).build()), 0.001);
+    }
+
+    @Test
+    public void testLowerPrioritiesAreShedFirst() {
+        AdmissionConfig config = AdmissionConfig.builder().enabled(true).build();
+        double load = AdmissionController.load(7, 0, 10, 50, 0, config);
+        assertTrue(load >= config.shedLoad(RequestPriority.LOW));
+        assertFalse(load >= config.shedLoad(RequestPriority.NORMAL));
+        assertFalse(100 >= config.shedLoad(RequestPriority.CRITICAL));
+    }
+
+    @Test
+    public void testPriorityParsing() {
+        assertEquals(RequestPriority.LOW, RequestPriority.parse("low", RequestPriority.NORMAL));
+        assertEquals(RequestPriority.NORMAL, RequestPriority.parse(null, RequestPriority.NORMAL));
+        assertEquals(RequestPriority.HIGH, RequestPriority.parse("unknown", RequestPriority.HIGH));
+    }
+
+    @Test
+    public void testClaimedPriorityIsCappedAtMaxPriority() {
+        AdmissionConfig config = AdmissionConfig.builder().enabled(true).build();
+        assertEquals(RequestPriority.HIGH, config.priority("critical"));
+        assertEquals(RequestPriority.LOW, config.priority("low"));
+        assertEquals(RequestPriority.NORMAL, config.priority(null));
+        AdmissionConfig trusted = AdmissionConfig.builder().enabled(true)
+                .maxPriority(RequestPriority.CRITICAL).build();
+        assertEquals(RequestPriority.CRITICAL, trusted.priority("critical"));
+    }
+
+    @Test
+    public void testSemaphoreEngineLoadIsInFlight() {
+        ThreadPoolConfig threadPoolConfig = new ThreadPoolConfig();
+        threadPoolConfig.setConcurrency(10);
+        RevolverExecutionConfig executionConfig = RevolverExecutionConfig.builder()
+                .groupKey("test").commandKey("test.admission").threadPoolKey("test.admission")
+                .threadPoolConfig(threadPoolConfig)
+                .circuitBreakerConfig(new CircuitBreakerConfig())
+                .metricsConfig(new MetricsConfig()).build();
+        SemaphoreExecutionEngine engine = new SemaphoreExecutionEngine();
+        MetricRegistry metrics = new MetricRegistry();
+        AdmissionController controller = new AdmissionController(metrics);
+        AdmissionConfig config = AdmissionConfig.builder().enabled(true).build();
+        assertTrue(controller.admit("test.admission", config, RequestPriority.LOW,
+                executionConfig, engine));
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        for (int i = 0; i < 7; i++) {
+            engine.executeAsync(RevolverExecution.<String>builder().config(executionConfig)
+                    .asyncTask(() -> pending).build());
+        }
+        assertFalse(controller.admit("test.admission", config, RequestPriority.LOW,
+                executionConfig, engine));
+        assertFalse(controller.admit("test.admission", config, RequestPriority.LOW,
+                executionConfig, engine));
+        assertEquals(2, metrics.meter("revolver.admission.test.admission.shed.low").getCount());
+        assertTrue(controller.admit("test.admission", config, RequestPriority.NORMAL,
+                executionConfig, engine));
+        pending.complete("done");
+        assertTrue(controller.admit("test.admission", config, RequestPriority.LOW,
+                executionConfig, engine));
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.cache;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.codahale.metrics.MetricRegistry;
+import io.dropwizard.revolver.http.model.RevolverHttpResponse;
+import java.util.Arrays;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+import org.junit.Test;
+
+/**
+ * @author phaneesh
+ */
+public class ResponseCacheTest {
+
+    private static RevolverHttpResponse response(int status, String... headers) {
+        MultivaluedMap<String, String> responseHeaders = new MultivaluedHashMap<>();
+        for (int i = 0; i < headers.length; i += 2) {
+            responseHeaders.putSingle(headers[i], headers[i + 1]);
+        }
+        return RevolverHttpResponse.builder().statusCode(status).headers(responseHeaders)
+                .body("response".getBytes()).build();
+    }
+
+    @Test
+    public void testSuccessfulResponseIsCached() {
+        ResponseCache cache = ResponseCaches.get("test.cached",
+                ResponseCacheConfig.builder().enabled(true).build());
+        cache.update("key", null, response(200, "Content-Type", "application/json"));
+        CachedResponse cached = cache.get("key");
+        assertNotNull(cached);
+        assertTrue(cached.isFresh(System.currentTimeMillis()));
+        assertArrayEquals("response".getBytes(), cached.toResponse().getBody());
+        assertEquals("application/json",
+                cached.toResponse().getHeaders().getFirst("Content-Type"));
+
+        cache.update("error", null, response(500));
+        assertNull(cache.get("error"));
+    }
+
+    @Test
+    public void testCacheControlIsHonoured() {
+        ResponseCache cache = ResponseCaches.get("test.cachecontrol",
+                ResponseCacheConfig.builder().enabled(true).build());
+        cache.update("nostore", null, response(200, "Cache-Control", "no-store"));
+        assertNull(cache.get("nostore"));
+        cache.update("nocache", null, response(200, "Cache-Control", "no-cache", "ETag", "\"1\""));
+        CachedResponse cached = cache.get("nocache");
+        assertNotNull(cached);
+        assertFalse(cached.isFresh(System.currentTimeMillis()));
+
+        MultivaluedMap<String, String> headers = new MultivaluedHashMap<>();
+        cache.addConditionalHeaders(cached, headers);
+        assertEquals("\"1\"", headers.getFirst(HttpHeaders.IF_NONE_MATCH));
+    }
+
+    @Test
+    public void testNotModifiedRenewsCachedResponse() {
+        ResponseCache cache = ResponseCaches.get("test.revalidate",
+                ResponseCacheConfig.builder().enabled(true).build());
+        cache.update("key", null, response(200, "Cache-Control", "max-age=0", "ETag", "\"1\""));
+        CachedResponse cached = cache.get("key");
+        assertFalse(cached.isFresh(System.currentTimeMillis()));
+        RevolverHttpResponse renewed = cache.update("key", cached, response(304));
+        assertEquals(200, renewed.getStatusCode());
+        assertArrayEquals("response".getBytes(), renewed.getBody());
+        assertTrue(cache.get("key").isFresh(System.currentTimeMillis()));
+    }
+
+    @Test
+    public void testInvalidate() {
+        ResponseCache cache = ResponseCaches.get("test.invalidate",
+                ResponseCacheConfig.builder().enabled(true).build());
+        cache.update("key", null, response(200));
+        assertNotNull(cache.get("key"));
+        ResponseCaches.invalidate("test", "invalidate");
+        assertNull(cache.get("key"));
+    }
+
+    @Test
+    public void testUserSpecificResponsesAreNotCached() {
+        ResponseCache cache = ResponseCaches.get("test.private",
+                ResponseCacheConfig.builder().enabled(true).build());
+        cache.update("cookie", null, response(200, "Set-Cookie", "session=1"));
+        assertNull(cache.get("cookie"));
+        cache.update("vary", null, response(200, "Vary", "Accept, Cookie"));
+        assertNull(cache.get("vary"));
+        cache.update("keyed", null, response(200, "Vary", "accept"));
+        assertNotNull(cache.get("keyed"));
+    }
+
+    @Test
+    public void testMultiValuedHeadersAreKept() {
+        ResponseCache cache = ResponseCaches.get("test.multivalued",
+                ResponseCacheConfig.builder().enabled(true).build());
+        RevolverHttpResponse response = response(200);
+        response.getHeaders().add("Link", "</a>; rel=next");
+        response.getHeaders().add("Link", "</b>; rel=prev");
+        cache.update("key", null, response);
+        assertEquals(Arrays.asList("</a>; rel=next", "</b>; rel=prev"),
+                cache.get("key").toResponse().getHeaders().get("Link"));
+    }
+
+    @Test
+    public void testMetersAreResolvedPerCache() {
+        MetricRegistry metrics = new MetricRegistry();
+        ResponseCaches.setMetricRegistry(metrics);
+        try {
+            ResponseCache cache = ResponseCaches.get("test.metered",
+                    ResponseCacheConfig.builder().enabled(true).build());
+            cache.hit();
+            cache.hit();
+            cache.miss();
+            assertEquals(2, metrics.meter("revolver.cache.test.metered.hit").getCount());
+            assertEquals(1, metrics.meter("revolver.cache.test.metered.miss").getCount());
+        } finally {
+            ResponseCaches.setMetricRegistry(null);
+        }
+    }
+}
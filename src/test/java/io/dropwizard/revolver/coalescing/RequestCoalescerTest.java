@@ -0,0 +1,148 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.dropwizard.revolver.coalescing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.codahale.metrics.MetricRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+import org.junit.Test;
+
+/**
+ * @author phaneesh
+ */
+public class RequestCoalescerTest {
+
+    @Test
+    public void testConcurrentRequestsShareExecution() throws Exception {
+        MetricRegistry metrics = new MetricRegistry();
+        RequestCoalescer coalescer = new RequestCoalescer(metrics);
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(executor.submit(
+                        () -> coalescer.execute("test.api", "GET test/v1", 5000, () -> {
+                            executions.incrementAndGet();
+                            release.await(5, TimeUnit.SECONDS);
+                            return "response";
+                        })));
+            }
+            while (metrics.meter("revolver.coalescing.test.api.coalesced").getCount() < 3) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+            for (Future<String> result : results) {
+                assertEquals("response", result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, executions.get());
+            assertEquals(1, metrics.meter("revolver.coalescing.test.api.executed").getCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testFollowerWaitIsBounded() throws Exception {
+        MetricRegistry metrics = new MetricRegistry();
+        RequestCoalescer coalescer = new RequestCoalescer(metrics);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> leader = executor.submit(
+                    () -> coalescer.execute("test.api", "GET test/v1", 5000, () -> {
+                        started.countDown();
+                        release.await(5, TimeUnit.SECONDS);
+                        return "response";
+                    }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            long start = System.currentTimeMillis();
+            try {
+                coalescer.execute("test.api", "GET test/v1", 50, () -> "unexpected");
+                fail("Follower should time out");
+            } catch (TimeoutException e) {
+                assertTrue(System.currentTimeMillis() - start < 1000);
+            }
+            release.countDown();
+            assertEquals("response", leader.get(5, TimeUnit.SECONDS));
+            assertEquals(1, metrics.meter("revolver.coalescing.test.api.coalesced").getCount());
+            assertEquals(1, metrics.getGauges().size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testKeyDependsOnVaryHeaders() {
+        RequestCoalescingConfig config = RequestCoalescingConfig.builder().enabled(true).build();
+        MultivaluedMap<String, String> query = new MultivaluedHashMap<>();
+        query.putSingle("id", "1");
+        MultivaluedMap<String, String> first = new MultivaluedHashMap<>();
+        first.putSingle("Authorization", "a");
+        first.putSingle("X-Request-Id", "1");
+        MultivaluedMap<String, String> second = new MultivaluedHashMap<>();
+        second.putSingle("Authorization", "a");
+        second.putSingle("X-Request-Id", "2");
+        MultivaluedMap<String, String> third = new MultivaluedHashMap<>();
+        third.putSingle("Authorization", "b");
+        assertEquals(RequestCoalescer.key("GET", "test", "v1/test", query, first, config),
+                RequestCoalescer.key("GET", "test", "v1/test", query, second, config));
+        assertNotEquals(RequestCoalescer.key("GET", "test", "v1/test", query, first, config),
+                RequestCoalescer.key("GET", "test", "v1/test", query, third, config));
+    }
+
+    @Test
+    public void testKeyDependsOnCookie() {
+        RequestCoalescingConfig config = RequestCoalescingConfig.builder().enabled(true).build();
+        MultivaluedMap<String, String> first = new MultivaluedHashMap<>();
+        first.putSingle("Cookie", "session=a");
+        MultivaluedMap<String, String> second = new MultivaluedHashMap<>();
+        second.putSingle("Cookie", "session=b");
+        assertNotEquals(RequestCoalescer.key("GET", "test", "v1/test", null, first, config),
+                RequestCoalescer.key("GET", "test", "v1/test", null, second, config));
+    }
+
+    @Test
+    public void testConditionalRequestsAreNotCoalesced() {
+        MultivaluedMap<String, String> headers = new MultivaluedHashMap<>();
+        headers.putSingle("Authorization", "a");
+        assertTrue(RequestCoalescer.isCoalescable(headers));
+        headers.putSingle("if-none-match", "\"v1\"");
+        assertFalse(RequestCoalescer.isCoalescable(headers));
+        headers.remove("if-none-match");
+        headers.putSingle("If-Modified-Since", "Mon, 19 Oct 2026 10:00:00 GMT");
+        assertFalse(RequestCoalescer.isCoalescable(headers));
+    }
+}
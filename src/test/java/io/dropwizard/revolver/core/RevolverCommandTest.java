@@ -0,0 +1,177 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.dropwizard.revolver.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.codahale.metrics.MetricRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.dropwizard.revolver.core.config.CommandHandlerConfig;
+import io.dropwizard.revolver.core.config.RevolverServiceConfig;
+import io.dropwizard.revolver.core.config.hystrix.ThreadPoolConfig;
+import io.dropwizard.revolver.core.engine.HystrixExecutionEngine;
+import io.dropwizard.revolver.core.engine.QueueWaitMetrics;
+import io.dropwizard.revolver.core.engine.SemaphoreExecutionEngine;
+import io.dropwizard.revolver.core.model.RevolverRequest;
+import io.dropwizard.revolver.core.model.RevolverResponse;
+import io.dropwizard.revolver.core.tracing.TraceInfo;
+import io.dropwizard.revolver.core.util.RevolverExceptionHelper;
+import io.dropwizard.revolver.exception.TimeoutExceptionMapper;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.ws.rs.core.Response;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author phaneesh
+ */
+public class RevolverCommandTest {
+
+    private final MetricRegistry metrics = new MetricRegistry();
+
+    @Before
+    public void setup() {
+        QueueWaitMetrics.setMetricRegistry(metrics);
+    }
+
+    @After
+    public void tearDown() {
+        QueueWaitMetrics.setMetricRegistry(null);
+    }
+
+    @Test
+    public void testQueueWaitExpiry() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        //Well above the time a cold pool needs to start its first execution
+        TestCommand command = new TestCommand(HystrixExecutionEngine.NAME, "queued", 1, 250,
+                release);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<RevolverResponse> first = executor
+                    .submit(() -> command.execute(request("queued")));
+            long deadline = System.currentTimeMillis() + 5000;
+            while (command.calls.get() == 0) {
+                assertTrue("First request did not start", System.currentTimeMillis() < deadline);
+                assertFalse("First request failed", first.isDone());
+                Thread.sleep(5);
+            }
+            Future<RevolverResponse> queued = executor
+                    .submit(() -> command.execute(request("queued")));
+            Thread.sleep(1000);
+            release.countDown();
+            first.get(5, TimeUnit.SECONDS);
+            try {
+                queued.get(5, TimeUnit.SECONDS);
+                fail("Queued request should have expired");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof TimeoutException);
+            }
+            assertEquals(1, command.calls.get());
+            assertEquals(1, metrics.meter("revolver.queue.test.queued.expired").getCount());
+            assertTrue(metrics.timer("revolver.queue.test.queued.wait").getCount() > 0);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testAsyncDeadlineExpiryAnswersGatewayTimeout() throws Exception {
+        TestCommand command = new TestCommand(SemaphoreExecutionEngine.NAME, "async", 10, 0,
+                new CountDownLatch(0));
+        command.deadline = System.currentTimeMillis() - 1;
+        try {
+            command.executeAsync(request("async")).get(5, TimeUnit.SECONDS);
+            fail("Expired request should fail");
+        } catch (ExecutionException e) {
+            Throwable cause = RevolverExceptionHelper.getLeafThrowable(e);
+            assertTrue(cause instanceof TimeoutException);
+            Response response = new TimeoutExceptionMapper(new ObjectMapper())
+                    .toResponse((TimeoutException) cause);
+            assertEquals(Response.Status.GATEWAY_TIMEOUT.getStatusCode(), response.getStatus());
+        }
+        assertEquals(0, command.calls.get());
+        assertEquals(1, metrics.meter("revolver.queue.test.async.expired").getCount());
+    }
+
+    private static RevolverRequest request(String api) {
+        return RevolverRequest.requestBuilder().type("test").service("test").api(api)
+                .trace(TraceInfo.builder().requestId("request").transactionId("transaction")
+                        .build()).build();
+    }
+
+    private static class TestCommand extends
+            RevolverCommand<RevolverRequest, RevolverResponse, RevolverContext, RevolverServiceConfig, CommandHandlerConfig> {
+
+        private final AtomicInteger calls = new AtomicInteger();
+        private final CountDownLatch release;
+        private volatile long deadline;
+
+        private TestCommand(String engine, String api, int concurrency, long maxQueueWait,
+                CountDownLatch release) {
+            super(new RevolverContext(), null, null, new RevolverServiceConfig("test", "test"),
+                    handlerConfig(engine, api, concurrency, maxQueueWait));
+            this.release = release;
+        }
+
+        private static CommandHandlerConfig handlerConfig(String engine, String api,
+                int concurrency, long maxQueueWait) {
+            CommandHandlerConfig config = new CommandHandlerConfig();
+            config.setApi(api);
+            config.setExecutionEngine(engine);
+            config.setMaxQueueWaitInMillis(maxQueueWait);
+            ThreadPoolConfig threadPool = new ThreadPoolConfig();
+            threadPool.setConcurrency(concurrency);
+            config.getRuntime().setThreadPool(threadPool);
+            return config;
+        }
+
+        @Override
+        public boolean isFallbackEnabled() {
+            return false;
+        }
+
+        @Override
+        protected RevolverResponse execute(RevolverContext context, RevolverRequest request)
+                throws Exception {
+            calls.incrementAndGet();
+            release.await(5, TimeUnit.SECONDS);
+            return new RevolverResponse();
+        }
+
+        @Override
+        protected RevolverResponse fallback(RevolverContext context, RevolverRequest request) {
+            return null;
+        }
+
+        @Override
+        protected long getDeadline(RevolverRequest request) {
+            return deadline;
+        }
+    }
+}
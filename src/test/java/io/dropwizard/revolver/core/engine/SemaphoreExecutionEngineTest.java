@@ -0,0 +1,243 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.dropwizard.revolver.core.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import io.dropwizard.revolver.core.RevolverExecutionException;
+import io.dropwizard.revolver.core.config.hystrix.CircuitBreakerConfig;
+import io.dropwizard.revolver.core.config.hystrix.MetricsConfig;
+import io.dropwizard.revolver.core.config.hystrix.ThreadPoolConfig;
+import io.dropwizard.revolver.core.util.RevolverExceptionHelper;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Test;
+
+/**
+ * @author phaneesh
+ */
+public class SemaphoreExecutionEngineTest {
+
+    private final SemaphoreExecutionEngine engine = new SemaphoreExecutionEngine();
+
+    private static RevolverExecutionConfig config(String key, int concurrency, int timeout) {
+        ThreadPoolConfig threadPoolConfig = new ThreadPoolConfig();
+        threadPoolConfig.setConcurrency(concurrency);
+        threadPoolConfig.setTimeout(timeout);
+        return RevolverExecutionConfig.builder().groupKey("test").commandKey(key)
+                .threadPoolKey(key).threadPoolConfig(threadPoolConfig)
+                .circuitBreakerConfig(new CircuitBreakerConfig(5, 60000, 50))
+                .metricsConfig(new MetricsConfig()).build();
+    }
+
+    @Test
+    public void testCircuitOpensOnFailures() throws Exception {
+        RevolverExecution<String> failing = RevolverExecution.<String>builder()
+                .config(config("test.failing", 10, 1000)).task(() -> {
+                    throw new IllegalStateException("failed");
+                }).build();
+        for (int i = 0; i < 5; i++) {
+            try {
+                engine.execute(failing);
+                fail();
+            } catch (IllegalStateException e) {
+                //expected
+            }
+        }
+        try {
+            engine.execute(RevolverExecution.<String>builder().config(config("test.failing", 10, 1000))
+                    .task(() -> "ok").build());
+            fail();
+        } catch (RevolverExecutionException e) {
+            assertTrue(e.getMessage().startsWith("Circuit open"));
+        }
+    }
+
+    @Test
+    public void testConcurrencyLimit() throws Exception {
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        RevolverExecutionConfig config = config("test.limited", 1, 0);
+        CompletableFuture<String> first = engine.executeAsync(RevolverExecution.<String>builder()
+                .config(config).asyncTask(() -> pending).build());
+        try {
+            engine.execute(RevolverExecution.<String>builder().config(config).task(() -> "ok")
+                    .build());
+            fail();
+        } catch (RevolverExecutionException e) {
+            assertTrue(e.getMessage().startsWith("Concurrency limit"));
+        }
+        pending.complete("done");
+        assertEquals("done", first.get());
+        assertEquals("ok", engine.execute(RevolverExecution.<String>builder().config(config)
+                .task(() -> "ok").build()));
+    }
+
+    @Test
+    public void testAsyncTimeoutUsesFallback() throws Exception {
+        RevolverExecutionConfig config = config("test.timeout", 10, 50);
+        try {
+            engine.executeAsync(RevolverExecution.<String>builder().config(config)
+                    .asyncTask(CompletableFuture::new).build()).get();
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof TimeoutException);
+        }
+        config.setFallbackEnabled(true);
+        assertEquals("fallback", engine.executeAsync(RevolverExecution.<String>builder()
+                .config(config).asyncTask(CompletableFuture::new).fallback(e -> "fallback")
+                .build()).get());
+    }
+
+    @Test
+    public void testAsyncTimeoutCancelsTask() throws Exception {
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        try {
+            engine.executeAsync(RevolverExecution.<String>builder()
+                    .config(config("test.cancel", 1, 50)).asyncTask(() -> pending).build()).get();
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof TimeoutException);
+        }
+        assertTrue(pending.isCancelled());
+        assertEquals(0, engine.inFlight("test.cancel"));
+    }
+
+    @Test
+    public void testSyncTimeout() throws Exception {
+        RevolverExecutionConfig config = config("test.sync.timeout", 10, 20);
+        try {
+            engine.execute(RevolverExecution.<String>builder().config(config).task(() -> {
+                Thread.sleep(100);
+                return "late";
+            }).build());
+            fail();
+        } catch (TimeoutException e) {
+            //expected
+        }
+        config.setFallbackEnabled(true);
+        assertEquals("fallback", engine.execute(RevolverExecution.<String>builder().config(config)
+                .task(() -> {
+                    Thread.sleep(100);
+                    return "late";
+                }).fallback(e -> "fallback").build()));
+    }
+
+    @Test
+    public void testCircuitBreakerFollowsConfigChanges() throws Exception {
+        RevolverExecution<String> failing = RevolverExecution.<String>builder()
+                .config(config("test.reload", 10, 1000)).task(() -> {
+                    throw new IllegalStateException("failed");
+                }).build();
+        for (int i = 0; i < 5; i++) {
+            try {
+                engine.execute(failing);
+                fail();
+            } catch (IllegalStateException e) {
+                //expected
+            }
+        }
+        RevolverExecutionConfig reloaded = config("test.reload", 10, 1000);
+        reloaded.setCircuitBreakerConfig(new CircuitBreakerConfig(10, 60000, 50));
+        assertEquals("ok", engine.execute(RevolverExecution.<String>builder().config(reloaded)
+                .task(() -> "ok").build()));
+    }
+
+    @Test
+    public void testFallbackReceivesCause() throws Exception {
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        RevolverExecutionConfig config = config("test.cause", 1, 50);
+        config.setFallbackEnabled(true);
+        AtomicReference<Throwable> timedOut = new AtomicReference<>();
+        CompletableFuture<String> first = engine.executeAsync(RevolverExecution.<String>builder()
+                .config(config).asyncTask(() -> pending).fallback(e -> {
+                    timedOut.set(e);
+                    return "fallback";
+                }).build());
+        AtomicReference<Throwable> rejected = new AtomicReference<>();
+        engine.execute(RevolverExecution.<String>builder().config(config).task(() -> "ok")
+                .fallback(e -> {
+                    rejected.set(e);
+                    return "fallback";
+                }).build());
+        assertTrue(RevolverExceptionHelper.getLeafThrowable(rejected.get())
+                instanceof RejectedExecutionException);
+        assertEquals("fallback", first.get());
+        assertTrue(timedOut.get() instanceof TimeoutException);
+    }
+
+    @Test
+    public void testRejectedTrialDoesNotKeepCircuitOpen() throws Exception {
+        RevolverExecutionConfig config = config("test.trial", 2, 1000);
+        config.setCircuitBreakerConfig(new CircuitBreakerConfig(5, 100, 50));
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        engine.executeAsync(RevolverExecution.<String>builder().config(config)
+                .asyncTask(() -> pending).build());
+        openCircuit(config);
+        Thread.sleep(150);
+        //The trial is admitted by the circuit but finds no free permit
+        config.getThreadPoolConfig().setConcurrency(1);
+        try {
+            engine.execute(RevolverExecution.<String>builder().config(config).task(() -> "ok")
+                    .build());
+            fail();
+        } catch (RevolverExecutionException e) {
+            assertTrue(e.getMessage().startsWith("Concurrency limit"));
+        }
+        config.getThreadPoolConfig().setConcurrency(2);
+        assertEquals("ok", engine.execute(RevolverExecution.<String>builder().config(config)
+                .task(() -> "ok").build()));
+        pending.complete("done");
+    }
+
+    @Test
+    public void testOnlyTrialClosesCircuit() throws Exception {
+        RevolverExecutionConfig config = config("test.stale", 10, 1000);
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        CompletableFuture<String> started = engine.executeAsync(RevolverExecution
+                .<String>builder().config(config).asyncTask(() -> pending).build());
+        openCircuit(config);
+        //Admitted before the circuit opened; its success must not close it
+        pending.complete("done");
+        assertEquals("done", started.get());
+        try {
+            engine.execute(RevolverExecution.<String>builder().config(config).task(() -> "ok")
+                    .build());
+            fail();
+        } catch (RevolverExecutionException e) {
+            assertTrue(e.getMessage().startsWith("Circuit open"));
+        }
+    }
+
+    private void openCircuit(RevolverExecutionConfig config) throws Exception {
+        for (int i = 0; i < 5; i++) {
+            try {
+                engine.execute(RevolverExecution.<String>builder().config(config).task(() -> {
+                    throw new IllegalStateException("failed");
+                }).build());
+                fail();
+            } catch (IllegalStateException e) {
+                //expected
+            }
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.core.jfr;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import com.codahale.metrics.MetricRegistry;
+import io.dropwizard.revolver.base.core.RevolverRequestState;
+import io.dropwizard.revolver.persistence.InMemoryPersistenceProvider;
+import io.dropwizard.revolver.persistence.InstrumentedPersistenceProvider;
+import io.dropwizard.revolver.persistence.PersistenceProvider;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.xml.parsers.DocumentBuilderFactory;
+import org.junit.Assume;
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+/**
+ * @author phaneesh
+ */
+public class FlightEventsTest {
+
+    @Test
+    public void testSettingsProfileEnablesEveryEvent() throws Exception {
+        Map<String, Map<String, String>> events = new HashMap<>();
+        try (InputStream settings = getClass().getResourceAsStream("/revolver/jfr/revolver.jfc")) {
+            assertNotNull(settings);
+            Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder()
+                    .parse(settings);
+            assertEquals("configuration", document.getDocumentElement().getTagName());
+            NodeList eventNodes = document.getElementsByTagName("event");
+            for (int i = 0; i < eventNodes.getLength(); i++) {
+                Element event = (Element) eventNodes.item(i);
+                Map<String, String> values = new HashMap<>();
+                NodeList settingNodes = event.getElementsByTagName("setting");
+                for (int j = 0; j < settingNodes.getLength(); j++) {
+                    Element setting = (Element) settingNodes.item(j);
+                    values.put(setting.getAttribute("name"), setting.getTextContent().trim());
+                }
+                events.put(event.getAttribute("name"), values);
+            }
+        }
+        assertEquals(FlightEventType.values().length, events.size());
+        for (FlightEventType type : FlightEventType.values()) {
+            Map<String, String> values = events.get(type.getEventName());
+            assertNotNull(type.getEventName(), values);
+            assertEquals("true", values.get("enabled"));
+            //Events are committed at completion; any threshold above zero would drop them all
+            assertEquals("0 ms", values.get("threshold"));
+        }
+    }
+
+    @Test
+    public void testNothingRecordedWithoutRecording() {
+        for (FlightEventType type : FlightEventType.values()) {
+            long begin = FlightEvents.begin(type);
+            assertEquals(0, begin);
+            FlightEvents.commit(type, begin, "test", "api", "SUCCESS");
+        }
+        assertTrue(FlightEvents.isAvailable() || !FlightEvents.isEnabled(FlightEventType.COMMAND));
+    }
+
+    /**
+     * jdk.jfr is reached reflectively, like the emitter does, so this compiles on runtimes
+     * without it and is skipped there.
+     */
+    @Test
+    public void testMailboxEventsAreRecorded() throws Exception {
+        Assume.assumeTrue("Flight recorder not available", FlightEvents.isAvailable());
+        Class<?> recordingClass = Class.forName("jdk.jfr.Recording");
+        Object recording = recordingClass.getConstructor().newInstance();
+        Path dump = Files.createTempFile("revolver", ".jfr");
+        try {
+            Object settings = recordingClass.getMethod("enable", String.class)
+                    .invoke(recording, FlightEventType.MAILBOX.getEventName());
+            Class.forName("jdk.jfr.EventSettings").getMethod("withThreshold", Duration.class)
+                    .invoke(settings, Duration.ZERO);
+            recordingClass.getMethod("start").invoke(recording);
+            assertTrue(FlightEvents.isEnabled(FlightEventType.MAILBOX));
+
+            PersistenceProvider provider = new InstrumentedPersistenceProvider(
+                    new InMemoryPersistenceProvider() {
+                        @Override
+                        public RevolverRequestState requestState(String requestId) {
+                            throw new IllegalStateException("unavailable");
+                        }
+                    }, new MetricRegistry(), "jfr_test");
+            provider.exists("r1");
+            try {
+                provider.requestState("r1");
+            } catch (IllegalStateException e) {
+                //Expected: recorded as a failed operation
+            }
+
+            recordingClass.getMethod("stop").invoke(recording);
+            recordingClass.getMethod("dump", Path.class).invoke(recording, dump);
+        } finally {
+            recordingClass.getMethod("close").invoke(recording);
+        }
+        try {
+            List<?> events = (List<?>) Class.forName("jdk.jfr.consumer.RecordingFile")
+                    .getMethod("readAllEvents", Path.class).invoke(null, dump);
+            Class<?> recordedEvent = Class.forName("jdk.jfr.consumer.RecordedEvent");
+            Method eventType = recordedEvent.getMethod("getEventType");
+            Method typeName = Class.forName("jdk.jfr.EventType").getMethod("getName");
+            Method value = recordedEvent.getMethod("getValue", String.class);
+            Method duration = recordedEvent.getMethod("getDuration", String.class);
+            Map<String, String> statuses = new HashMap<>();
+            for (Object event : events) {
+                if (!FlightEventType.MAILBOX.getEventName()
+                        .equals(typeName.invoke(eventType.invoke(event)))
+                        || !"jfr_test".equals(value.invoke(event, "service"))) {
+                    continue;
+                }
+                statuses.put((String) value.invoke(event, "api"),
+                        (String) value.invoke(event, "status"));
+                assertTrue(value.invoke(event, "elapsed") instanceof Long);
+                assertFalse(((Duration) duration.invoke(event, "elapsed")).isNegative());
+            }
+            assertEquals(2, statuses.size());
+            assertEquals("OK", statuses.get("exists"));
+            assertEquals("ERROR", statuses.get("requestState"));
+        } finally {
+            Files.deleteIfExists(dump);
+        }
+    }
+}
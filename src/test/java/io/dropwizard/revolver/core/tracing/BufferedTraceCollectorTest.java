@@ -0,0 +1,109 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.core.tracing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.Lists;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.junit.Test;
+
+/**
+ * @author phaneesh
+ */
+public class BufferedTraceCollectorTest {
+
+    private final List<List<Trace>> batches = Lists.newArrayList();
+
+    private final TraceExporter exporter = new TraceExporter() {
+        @Override
+        public void export(List<Trace> traces) {
+            batches.add(Lists.newArrayList(traces));
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    @Test
+    public void testDrainsInBatches() {
+        BufferedTraceCollector collector = new BufferedTraceCollector(
+                TracingConfig.builder().bufferSize(16).batchSize(4).build(), exporter);
+        for (int i = 0; i < 10; i++) {
+            collector.publish(trace("api" + i));
+        }
+        collector.drain();
+        assertEquals(3, batches.size());
+        assertEquals(4, batches.get(0).size());
+        assertEquals(2, batches.get(2).size());
+        assertEquals("api9", batches.get(2).get(1).getApi());
+        assertEquals(10, collector.getExported());
+        assertEquals(0, collector.getDropped());
+    }
+
+    @Test
+    public void testDropsWhenFull() {
+        BufferedTraceCollector collector = new BufferedTraceCollector(
+                TracingConfig.builder().bufferSize(8).batchSize(100).build(), exporter);
+        for (int i = 0; i < 12; i++) {
+            collector.publish(trace("api" + i));
+        }
+        assertEquals(8, collector.getPublished());
+        assertEquals(4, collector.getDropped());
+        collector.drain();
+        collector.publish(trace("again"));
+        collector.drain();
+        assertEquals(9, collector.getExported());
+        assertEquals("again", batches.get(1).get(0).getApi());
+    }
+
+    @Test
+    public void testLineFormat() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        LineTraceExporter lineExporter = new LineTraceExporter(out, false);
+        lineExporter.export(Lists.newArrayList(
+                Trace.builder().timestamp(1000).duration(25).service("test").api("get")
+                        .status(Tracing.ERROR).transactionId("t1").requestId("r1")
+                        .errorReason("IOException: reset\nby peer").build()));
+        assertEquals("1000\t25\ttest\tget\tERROR\t-\tt1\tr1\t-\tIOException: reset by peer\n",
+                new String(out.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testSamplingIsPerTransaction() {
+        TraceInfo traceInfo = TraceInfo.builder().transactionId("txn").requestId("r1").build();
+        Tracing.setCollector(null, 1.0);
+        assertFalse(Tracing.isSampled(traceInfo));
+        Tracing.setCollector(trace -> {
+        }, 1.0);
+        assertTrue(Tracing.isSampled(traceInfo));
+        Tracing.setCollector(trace -> {
+        }, 0.0);
+        assertFalse(Tracing.isSampled(traceInfo));
+        Tracing.setCollector(null, 0.0);
+    }
+
+    private static Trace trace(String api) {
+        return Trace.builder().service("test").api(api).timestamp(System.currentTimeMillis())
+                .build();
+    }
+}
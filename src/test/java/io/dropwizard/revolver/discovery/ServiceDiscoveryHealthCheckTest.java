@@ -0,0 +1,98 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.dropwizard.revolver.discovery;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+import com.codahale.metrics.health.HealthCheck;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.appform.dropwizard.discovery.client.ServiceDiscoveryClient;
+import io.dropwizard.revolver.core.config.ServiceDiscoveryConfig;
+import io.dropwizard.revolver.discovery.model.RangerEndpointSpec;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+/**
+ * @author phaneesh
+ */
+public class ServiceDiscoveryHealthCheckTest {
+
+    @Test
+    public void testReadyWithoutRangerServices() throws Exception {
+        RevolverServiceResolver resolver = RevolverServiceResolver.builder()
+                .objectMapper(new ObjectMapper())
+                .serviceDiscoveryConfig(ServiceDiscoveryConfig.builder().build()).build();
+        long start = System.nanoTime();
+        assertTrue(resolver.awaitReadiness(10, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+        assertTrue(resolver.getWarmingServices().isEmpty());
+        assertTrue(new ServiceDiscoveryHealthCheck(resolver).execute().isHealthy());
+    }
+
+    @Test
+    public void testUnhealthyWhileWarming() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        ServiceDiscoveryClient client = mock(ServiceDiscoveryClient.class);
+        doAnswer(invocation -> started.await(5, TimeUnit.SECONDS)).when(client).start();
+        RevolverServiceResolver resolver = resolver(client);
+        resolver.register(new RangerEndpointSpec("warming", "production"));
+        assertFalse(resolver.awaitReadiness(50, TimeUnit.MILLISECONDS));
+        assertEquals(Collections.singleton("warming"), resolver.getWarmingServices());
+        assertFalse(new ServiceDiscoveryHealthCheck(resolver).execute().isHealthy());
+        started.countDown();
+        assertTrue(resolver.awaitReadiness(5, TimeUnit.SECONDS));
+        assertTrue(new ServiceDiscoveryHealthCheck(resolver).execute().isHealthy());
+    }
+
+    @Test
+    public void testUnhealthyUntilFailedClientStarts() throws Exception {
+        ServiceDiscoveryClient client = mock(ServiceDiscoveryClient.class);
+        doThrow(new IllegalStateException("Zookeeper unavailable")).doNothing().when(client)
+                .start();
+        RevolverServiceResolver resolver = resolver(client);
+        resolver.register(new RangerEndpointSpec("failing", "production"));
+        assertTrue(resolver.awaitReadiness(5, TimeUnit.SECONDS));
+        assertEquals(Collections.singleton("failing"), resolver.getFailedServices());
+        HealthCheck.Result result = new ServiceDiscoveryHealthCheck(resolver).execute();
+        assertFalse(result.isHealthy());
+        assertEquals(Collections.singleton("failing"), result.getDetails().get("failed"));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!resolver.getFailedServices().isEmpty()
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertTrue(new ServiceDiscoveryHealthCheck(resolver).execute().isHealthy());
+    }
+
+    private static RevolverServiceResolver resolver(ServiceDiscoveryClient client) {
+        return new RevolverServiceResolver(ServiceResolverConfig.builder().build(),
+                new ObjectMapper(), null, ServiceDiscoveryConfig.builder().build()) {
+            @Override
+            ServiceDiscoveryClient discoveryClient(String service, String environment) {
+                return client;
+            }
+        };
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.dropwizard.revolver.discovery.affinity;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import com.google.common.collect.ImmutableMap;
+import java.util.Collections;
+import javax.ws.rs.core.MultivaluedHashMap;
+import org.junit.Test;
+
+/**
+ * @author phaneesh
+ */
+public class AffinityUtilsTest {
+
+    @Test
+    public void testShardKeyFromHeader() {
+        RoutingAffinityConfig affinity = RoutingAffinityConfig.builder().enabled(true)
+                .type(RoutingAffinityType.SHARD).shardKeyHeader("X-SHARD").build();
+        MultivaluedHashMap<String, String> headers = new MultivaluedHashMap<>();
+        headers.putSingle("X-SHARD", "shard-1");
+        assertEquals("shard-1", AffinityUtils
+                .getShardKey(affinity, "{version}/test", "v1/test", Collections.emptyMap(),
+                        headers));
+    }
+
+    @Test
+    public void testShardKeyFromPath() {
+        RoutingAffinityConfig affinity = RoutingAffinityConfig.builder().enabled(true)
+                .type(RoutingAffinityType.SHARD).shardKeyPathParam("operation").build();
+        assertEquals("abc", AffinityUtils
+                .getShardKey(affinity, "{version}/test/{operation}", "/v1/test/abc",
+                        Collections.emptyMap(), new MultivaluedHashMap<>()));
+        assertEquals("xyz", AffinityUtils
+                .getShardKey(affinity, "{version}/test/{operation}", "/v1/test/abc",
+                        ImmutableMap.of("operation", "xyz"), new MultivaluedHashMap<>()));
+    }
+
+    @Test
+    public void testTemplateLiteralsMatchExactly() {
+        RoutingAffinityConfig affinity = RoutingAffinityConfig.builder().enabled(true)
+                .type(RoutingAffinityType.SHARD).shardKeyPathParam("operation").build();
+        assertEquals("abc", AffinityUtils
+                .getShardKey(affinity, "v1.0/test+(x)/{operation}", "/v1.0/test+(x)/abc",
+                        Collections.emptyMap(), new MultivaluedHashMap<>()));
+        assertNull(AffinityUtils
+                .getShardKey(affinity, "v1.0/test+(x)/{operation}", "/v1x0/test+(x)/abc",
+                        Collections.emptyMap(), new MultivaluedHashMap<>()));
+    }
+
+    @Test
+    public void testNoShardKeyForZoneAffinity() {
+        RoutingAffinityConfig affinity = RoutingAffinityConfig.builder().enabled(true)
+                .type(RoutingAffinityType.ZONE).shardKeyPathParam("operation").build();
+        assertNull(AffinityUtils
+                .getShardKey(affinity, "{version}/test/{operation}", "/v1/test/abc",
+                        Collections.emptyMap(), new MultivaluedHashMap<>()));
+    }
+}
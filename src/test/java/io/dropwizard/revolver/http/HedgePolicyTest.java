@@ -0,0 +1,59 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.dropwizard.revolver.http;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import io.dropwizard.revolver.http.config.HedgeConfig;
+import org.junit.Test;
+
+/**
+ * @author phaneesh
+ */
+public class HedgePolicyTest {
+
+    @Test
+    public void testDisabled() {
+        assertNull(HedgePolicy.get("test.disabled", null));
+        assertNull(HedgePolicy.get("test.disabled", HedgeConfig.builder().build()));
+    }
+
+    @Test
+    public void testBudget() {
+        HedgePolicy policy = HedgePolicy.get("test.budget",
+                HedgeConfig.builder().enabled(true).delayInMs(20).budgetPercent(10).build());
+        assertEquals(20, policy.getDelayInMs());
+        for (int i = 0; i < 9; i++) {
+            policy.onRequest();
+        }
+        assertFalse(policy.tryHedge());
+        policy.onRequest();
+        assertTrue(policy.tryHedge());
+        assertFalse(policy.tryHedge());
+    }
+
+    @Test
+    public void testNoMeasuredDelayWithoutSamples() {
+        HedgePolicy policy = HedgePolicy
+                .get("test.measured", HedgeConfig.builder().enabled(true).build());
+        assertEquals(-1, policy.getDelayInMs());
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.http;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ * @author phaneesh
+ */
+public class HedgedCallTest {
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule(9977);
+
+    private final OkHttpClient client = new OkHttpClient();
+
+    @Test
+    public void testHedgeWinsAndPrimaryLatencyIsRecorded() throws Exception {
+        wireMockRule.stubFor(get(urlEqualTo("/slow"))
+                .willReturn(aResponse().withStatus(200).withFixedDelay(2000)));
+        wireMockRule.stubFor(get(urlEqualTo("/fast")).willReturn(aResponse().withStatus(200)));
+        AtomicLong primaryLatency = new AtomicLong(-1);
+        CountDownLatch primaryDone = new CountDownLatch(1);
+        HedgedCall hedgedCall = new HedgedCall(client, latency -> {
+            primaryLatency.set(latency);
+            primaryDone.countDown();
+        });
+        hedgedCall.start(request("/slow"));
+        hedgedCall.hedgeAfter(50, TimeUnit.MILLISECONDS, () -> request("/fast"));
+        try (Response response = hedgedCall.future().get(5, TimeUnit.SECONDS)) {
+            assertEquals("/fast", response.request().url().encodedPath());
+        }
+        //The losing primary is cancelled and reports how long it ran
+        assertTrue(primaryDone.await(5, TimeUnit.SECONDS));
+        assertTrue(primaryLatency.get() >= 50);
+        assertTrue(primaryLatency.get() < 2000);
+    }
+
+    @Test
+    public void testNoHedgeWhenPrimaryIsFast() throws Exception {
+        wireMockRule.stubFor(get(urlEqualTo("/fast")).willReturn(aResponse().withStatus(200)));
+        CompletableFuture<Request> hedged = new CompletableFuture<>();
+        HedgedCall hedgedCall = new HedgedCall(client, latency -> {
+        });
+        hedgedCall.start(request("/fast"));
+        hedgedCall.hedgeAfter(500, TimeUnit.MILLISECONDS, () -> {
+            hedged.complete(request("/fast"));
+            return null;
+        });
+        try (Response response = hedgedCall.future().get(5, TimeUnit.SECONDS)) {
+            assertEquals(200, response.code());
+        }
+        Thread.sleep(600);
+        assertFalse(hedged.isDone());
+    }
+
+    private static Request request(String path) {
+        return new Request.Builder().url("http://localhost:9977" + path).get().build();
+    }
+}
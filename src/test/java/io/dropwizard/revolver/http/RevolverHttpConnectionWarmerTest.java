@@ -0,0 +1,75 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.dropwizard.revolver.http;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.verify;
+import static org.junit.Assert.assertTrue;
+
+import io.dropwizard.revolver.BaseRevolverTest;
+import io.dropwizard.revolver.discovery.model.SimpleEndpointSpec;
+import io.dropwizard.revolver.http.config.ConnectionWarmupConfig;
+import io.dropwizard.revolver.http.config.RevolverHttpServiceConfig;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+/**
+ * @author phaneesh
+ */
+public class RevolverHttpConnectionWarmerTest extends BaseRevolverTest {
+
+    @Test
+    public void testWarmupCallsAreCappedAtPoolSize() throws Exception {
+        stubFor(get(urlEqualTo("/warmup")).willReturn(aResponse().withStatus(200)));
+        CountDownLatch latch = RevolverHttpConnectionWarmer.warmUpAsync(serviceConfig(
+                ConnectionWarmupConfig.builder().enabled(true).connections(3).path("/warmup")
+                        .method("GET").build()));
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        verify(2, getRequestedFor(urlEqualTo("/warmup")));
+    }
+
+    @Test
+    public void testWarmupIsBoundedByTimeout() throws Exception {
+        stubFor(get(urlEqualTo("/warmup"))
+                .willReturn(aResponse().withStatus(200).withFixedDelay(3000)));
+        RevolverHttpServiceConfig serviceConfig = serviceConfig(
+                ConnectionWarmupConfig.builder().enabled(true).connections(1).path("/warmup")
+                        .method("GET").timeoutInMs(200).build());
+        long start = System.currentTimeMillis();
+        RevolverHttpConnectionWarmer.warmUp(Collections.singletonList(serviceConfig));
+        assertTrue(System.currentTimeMillis() - start < 2000);
+        //Timed out calls count down the latch as well
+        assertTrue(RevolverHttpConnectionWarmer.warmUpAsync(serviceConfig)
+                .await(2, TimeUnit.SECONDS));
+    }
+
+    private static RevolverHttpServiceConfig serviceConfig(ConnectionWarmupConfig warmup) {
+        SimpleEndpointSpec endpoint = new SimpleEndpointSpec();
+        endpoint.setHost("localhost");
+        endpoint.setPort(9999);
+        return RevolverHttpServiceConfig.builder().authEnabled(false).connectionPoolSize(2)
+                .secured(false).enpoint(endpoint).service("test").type("http").warmup(warmup)
+                .build();
+    }
+}
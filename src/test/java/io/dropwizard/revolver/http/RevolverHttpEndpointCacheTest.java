@@ -0,0 +1,59 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.dropwizard.revolver.http;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import io.dropwizard.revolver.discovery.model.Endpoint;
+import io.dropwizard.revolver.discovery.model.SimpleEndpointSpec;
+import io.dropwizard.revolver.http.config.RevolverHttpServiceConfig;
+import io.dropwizard.revolver.splitting.RevolverHttpServiceSplitConfig;
+import io.dropwizard.revolver.splitting.RevolverSplitServiceConfig;
+import java.util.Collections;
+import org.junit.Test;
+
+/**
+ * @author phaneesh
+ */
+public class RevolverHttpEndpointCacheTest {
+
+    @Test
+    public void testServiceEndpoints() {
+        SimpleEndpointSpec splitEndpoint = new SimpleEndpointSpec();
+        splitEndpoint.setHost("split-host");
+        splitEndpoint.setPort(9000);
+        RevolverHttpServiceConfig serviceConfig = RevolverHttpServiceConfig.builder()
+                .service("cached").type("http").serviceSplitConfig(
+                        RevolverHttpServiceSplitConfig.builder().configs(Collections.singletonList(
+                                RevolverSplitServiceConfig.builder().name("v2")
+                                        .endpoint(splitEndpoint).build())).build()).build();
+        serviceConfig.setFallbackAddress("fallback-host:8080");
+        RevolverHttpEndpointCache.ServiceEndpoints endpoints = RevolverHttpEndpointCache
+                .get(serviceConfig);
+
+        assertSame(endpoints, RevolverHttpEndpointCache.get(serviceConfig));
+        assertSame(splitEndpoint, endpoints.getSplitEndpoint("v2"));
+        assertNull(endpoints.getSplitEndpoint("v3"));
+        assertEquals("fallback-host", endpoints.getFallbackEndpoint().getHost());
+        assertEquals(8080, endpoints.getFallbackEndpoint().getPort());
+        assertEquals("http://localhost:9999/", endpoints
+                .getBaseUrl(Endpoint.builder().host("localhost").port(9999).build()).toString());
+    }
+}
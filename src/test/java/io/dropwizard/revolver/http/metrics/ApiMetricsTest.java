@@ -0,0 +1,73 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.http.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import com.codahale.metrics.MetricRegistry;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * @author phaneesh
+ */
+public class ApiMetricsTest {
+
+    private final MetricRegistry registry = new MetricRegistry();
+
+    @After
+    public void tearDown() {
+        ApiMetrics.setMetricRegistry(null);
+    }
+
+    @Test
+    public void testNothingRegisteredWithoutRegistry() {
+        assertNull(ApiMetrics.register("test", "api"));
+    }
+
+    @Test
+    public void testRecordsStatusClassExactStatusAndLatency() {
+        ApiMetrics.setMetricRegistry(registry);
+        ApiMetrics apiMetrics = ApiMetrics.register("test", "api");
+        assertNotNull(apiMetrics);
+        apiMetrics.record(200, TimeUnit.MILLISECONDS.toNanos(5));
+        apiMetrics.record(204, TimeUnit.MILLISECONDS.toNanos(5));
+        apiMetrics.record(503, TimeUnit.MILLISECONDS.toNanos(5));
+        apiMetrics.record(200, TimeUnit.MILLISECONDS.toNanos(5));
+        assertEquals(3, registry.meter("test.api.2xx").getCount());
+        assertEquals(1, registry.meter("test.api.5xx").getCount());
+        assertEquals(0, registry.meter("test.api.4xx").getCount());
+        assertEquals(2, registry.meter("test.api.200").getCount());
+        assertEquals(1, registry.meter("test.api.204").getCount());
+        assertEquals(1, registry.meter("test.api.503").getCount());
+        assertEquals(4, registry.timer("test.api.latency").getCount());
+        assertFalse(registry.getMeters().containsKey("test.api.404"));
+    }
+
+    @Test
+    public void testOutOfRangeStatusOnlyRecordsLatency() {
+        ApiMetrics.setMetricRegistry(registry);
+        ApiMetrics apiMetrics = ApiMetrics.register("test", "api");
+        apiMetrics.record(999, 1000);
+        assertEquals(1, registry.timer("test.api.latency").getCount());
+        assertFalse(registry.getMeters().containsKey("test.api.999"));
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.http.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import com.codahale.metrics.MetricRegistry;
+import io.dropwizard.revolver.core.model.RevolverClientMetadata;
+import io.dropwizard.revolver.http.config.StageMetricsConfig;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicReference;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * @author phaneesh
+ */
+public class HttpClientMetricsTest {
+
+    private final MetricRegistry registry = new MetricRegistry();
+
+    @After
+    public void tearDown() {
+        HttpClientMetrics.setMetricRegistry(null);
+    }
+
+    @Test
+    public void testCountsConnectionChurn() {
+        HttpClientMetrics.setMetricRegistry(registry);
+        ConnectionChurnListener churn = HttpClientMetrics.churn("churn-test");
+        assertSame(churn, HttpClientMetrics.churn("churn-test"));
+        churn.connectEnd(null, null, null, null);
+        churn.connectEnd(null, null, null, null);
+        churn.connectFailed(null, null, null, null, new IOException("refused"));
+        assertEquals(2, churn.getOpened());
+        assertEquals(1, churn.getFailed());
+        assertEquals(2,
+                registry.meter("revolver.client.churn-test.connections.opened").getCount());
+    }
+
+    @Test
+    public void testChurnCreatedBeforeRegistryIsReported() {
+        ConnectionChurnListener churn = HttpClientMetrics.churn("early-test");
+        HttpClientMetrics.setMetricRegistry(registry);
+        churn.connectEnd(null, null, null, null);
+        assertEquals(1,
+                registry.meter("revolver.client.early-test.connections.opened").getCount());
+        assertEquals(1, churn.getOpened());
+    }
+
+    @Test
+    public void testStageListenerForwardsChurn() {
+        HttpClientMetrics.setMetricRegistry(registry);
+        ConnectionChurnListener churn = HttpClientMetrics.churn("forward-test");
+        StageMetrics.setup(registry, StageMetricsConfig.builder().enabled(true).build());
+        StageEventListener listener = new StageEventListener(
+                StageMetrics.timers("forward-test", "api"), churn);
+        listener.connectStart(null, null, null);
+        listener.connectEnd(null, null, null, null);
+        assertEquals(1, churn.getOpened());
+        StageMetrics.setup(null, null);
+        assertSame(churn, StageEventListener.create(new OkHttpClient()
+                .newCall(new Request.Builder().url("http://localhost/").build()), churn));
+    }
+
+    @Test
+    public void testGaugesReadCurrentClient() {
+        HttpClientMetrics.setMetricRegistry(registry);
+        AtomicReference<RevolverClientMetadata> current = new AtomicReference<>();
+        HttpClientMetrics.register("gauge-test", current::get);
+        assertEquals(0, registry.getGauges().get("revolver.client.gauge-test.dispatcher.queued")
+                .getValue());
+        current.set(RevolverClientMetadata.builder().service("gauge-test").connections(4)
+                .idleConnections(3).runningCalls(1).queuedCalls(2).build());
+        assertEquals(2, registry.getGauges().get("revolver.client.gauge-test.dispatcher.queued")
+                .getValue());
+        assertEquals(3, registry.getGauges().get("revolver.client.gauge-test.connections.idle")
+                .getValue());
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.http.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.codahale.metrics.MetricRegistry;
+import io.dropwizard.revolver.http.config.StageMetricsConfig;
+import java.util.EnumSet;
+import okhttp3.EventListener;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * @author phaneesh
+ */
+public class StageMetricsTest {
+
+    private final MetricRegistry registry = new MetricRegistry();
+
+    @After
+    public void tearDown() {
+        StageMetrics.setup(null, null);
+    }
+
+    @Test
+    public void testDisabledRecordsNothing() {
+        StageMetrics.setup(registry, StageMetricsConfig.builder().build());
+        assertEquals(0, StageMetrics.start(LatencyStage.TRANSFORM));
+        assertNull(StageMetrics.timers("test", "api"));
+        assertTrue(registry.getMetrics().isEmpty());
+    }
+
+    @Test
+    public void testOnlySelectedStagesAreTimed() {
+        StageMetrics.setup(registry, StageMetricsConfig.builder().enabled(true)
+                .stages(EnumSet.of(LatencyStage.TRANSFORM)).build());
+        assertEquals(0, StageMetrics.start(LatencyStage.PERSISTENCE));
+        long start = StageMetrics.start(LatencyStage.TRANSFORM);
+        assertTrue(start != 0);
+        StageMetrics.record("test", "api", LatencyStage.TRANSFORM, start);
+        assertEquals(1, registry.timer("revolver.stage.test.api.transform").getCount());
+        assertFalse(registry.getTimers().containsKey("revolver.stage.test.api.persistence"));
+        StageTimers timers = StageMetrics.timers("test", "api");
+        assertSame(timers, StageMetrics.timers("test", "api"));
+        assertFalse(timers.isNetworkEnabled());
+    }
+
+    @Test
+    public void testEventListenerTracksConnectionReuse() {
+        StageMetrics.setup(registry, StageMetricsConfig.builder().enabled(true).build());
+        StageTimers timers = StageMetrics.timers("test", "api");
+
+        StageEventListener fresh = new StageEventListener(timers, null);
+        fresh.callStart(null);
+        fresh.connectStart(null, null, null);
+        fresh.connectEnd(null, null, null, null);
+        fresh.connectionAcquired(null, null);
+        fresh.requestHeadersEnd(null, null);
+        fresh.responseHeadersStart(null);
+        fresh.responseBodyStart(null);
+        fresh.responseBodyEnd(null, 0);
+
+        StageEventListener pooled = new StageEventListener(timers, null);
+        pooled.callStart(null);
+        pooled.connectionAcquired(null, null);
+
+        assertEquals(1, registry.meter("revolver.stage.test.api.connection.created").getCount());
+        assertEquals(1, registry.meter("revolver.stage.test.api.connection.reused").getCount());
+        assertEquals(0.5, (Double) registry.getGauges()
+                .get("revolver.stage.test.api.connection.reuse_ratio").getValue(), 0.001);
+        assertEquals(1, registry.timer("revolver.stage.test.api.connect").getCount());
+        assertEquals(2, registry.timer("revolver.stage.test.api.pool_wait").getCount());
+        assertEquals(1, registry.timer("revolver.stage.test.api.ttfb").getCount());
+        assertEquals(1, registry.timer("revolver.stage.test.api.body_read").getCount());
+    }
+
+    @Test
+    public void testUntaggedCallsAreNotListened() {
+        StageMetrics.setup(registry, StageMetricsConfig.builder().enabled(true).build());
+        Request request = new Request.Builder().url("http://localhost/test").build();
+        EventListener listener = StageEventListener
+                .create(new OkHttpClient().newCall(request), null);
+        assertSame(EventListener.NONE, listener);
+        Request tagged = request.newBuilder()
+                .tag(StageTimers.class, StageMetrics.timers("test", "api")).build();
+        assertTrue(StageEventListener.create(new OkHttpClient().newCall(tagged), null)
+                instanceof StageEventListener);
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.dropwizard.revolver.limiter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+/**
+ * @author phaneesh
+ */
+public class AdaptiveConcurrencyLimiterTest {
+
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    public void testRejectsOverLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(
+                AdaptiveConcurrencyConfig.builder().enabled(true).initialLimit(2).build());
+        assertEquals(1, limiter.tryAcquire());
+        assertEquals(2, limiter.tryAcquire());
+        assertEquals(-1, limiter.tryAcquire());
+        limiter.onIgnore();
+        assertEquals(2, limiter.tryAcquire());
+    }
+
+    @Test
+    public void testLimitFollowsLatency() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(
+                AdaptiveConcurrencyConfig.builder().enabled(true).initialLimit(20).build());
+        for (int i = 0; i < 200; i++) {
+            int inFlight = limiter.tryAcquire();
+            limiter.onSuccess(10 * MILLIS, Math.max(inFlight, limiter.getLimit()));
+        }
+        int steady = limiter.getLimit();
+        assertTrue(steady > 20);
+        for (int i = 0; i < 50; i++) {
+            int inFlight = limiter.tryAcquire();
+            limiter.onSuccess(100 * MILLIS, Math.max(inFlight, limiter.getLimit()));
+        }
+        assertTrue(limiter.getLimit() < steady);
+    }
+
+    @Test
+    public void testBackoffOnDrop() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(
+                AdaptiveConcurrencyConfig.builder().enabled(true).initialLimit(100).build());
+        limiter.tryAcquire();
+        limiter.onDropped();
+        assertEquals(90, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+}
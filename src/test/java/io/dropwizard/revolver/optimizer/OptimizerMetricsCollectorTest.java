@@ -1,12 +1,8 @@
 package io.dropwizard.revolver.optimizer;
 
-import static io.dropwizard.revolver.optimizer.utils.OptimizerUtils.LATENCY_PERCENTILE_50;
-import static io.dropwizard.revolver.optimizer.utils.OptimizerUtils.LATENCY_PERCENTILE_75;
 import static io.dropwizard.revolver.optimizer.utils.OptimizerUtils.LATENCY_PERCENTILE_99;
-import static io.dropwizard.revolver.optimizer.utils.OptimizerUtils.ROLLING_MAX_ACTIVE_THREADS;
-import static io.dropwizard.revolver.optimizer.utils.OptimizerUtils.THREAD_POOL_PREFIX;
+import static io.dropwizard.revolver.optimizer.utils.OptimizerUtils.LATENCY_PERCENTILE_995;
 
-import com.codahale.metrics.Gauge;
 import com.codahale.metrics.MetricRegistry;
 import io.dropwizard.revolver.BaseRevolverTest;
 import io.dropwizard.revolver.RevolverBundle;
@@ -21,6 +17,7 @@ import java.security.UnrecoverableKeyException;
 import java.security.cert.CertificateException;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
+import org.HdrHistogram.Histogram;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.ClassRule;
@@ -42,89 +39,43 @@ public class OptimizerMetricsCollectorTest extends BaseRevolverTest {
     public void setup()
             throws CertificateException, InterruptedException, UnrecoverableKeyException, NoSuchAlgorithmException, KeyStoreException, KeyManagementException, IOException {
         super.setup();
-        MetricRegistry metrics = optimizerMetricsCollector.getMetrics();
-        metrics.gauge(THREAD_POOL_PREFIX + ".test-without-pool.test." + ROLLING_MAX_ACTIVE_THREADS,
-                new MetricRegistry.MetricSupplier<Gauge>() {
-                    @Override
-                    public Gauge newMetric() {
-                        return new Gauge() {
-                            @Override
-                            public Object getValue() {
-                                return 10;
-                            }
-                        };
-                    }
-                });
-
-        metrics.gauge(THREAD_POOL_PREFIX + ".test." + ROLLING_MAX_ACTIVE_THREADS,
-                new MetricRegistry.MetricSupplier<Gauge>() {
-                    @Override
-                    public Gauge newMetric() {
-                        return new Gauge() {
-                            @Override
-                            public Object getValue() {
-                                return 10;
-                            }
-                        };
-                    }
-                });
-
-        metrics.gauge("test" + ".test.test." + LATENCY_PERCENTILE_99,
-                new MetricRegistry.MetricSupplier<Gauge>() {
-                    @Override
-                    public Gauge newMetric() {
-                        return new Gauge() {
-                            @Override
-                            public Object getValue() {
-                                return 200;
-                            }
-                        };
-                    }
-                });
-
-        metrics.gauge("test" + ".test.test." + LATENCY_PERCENTILE_50,
-                new MetricRegistry.MetricSupplier<Gauge>() {
-                    @Override
-                    public Gauge newMetric() {
-                        return new Gauge() {
-                            @Override
-                            public Object getValue() {
-                                return 100;
-                            }
-                        };
-                    }
-                });
-
-        metrics.gauge("test" + ".test.test." + LATENCY_PERCENTILE_75,
-                new MetricRegistry.MetricSupplier<Gauge>() {
-                    @Override
-                    public Gauge newMetric() {
-                        return new Gauge() {
-                            @Override
-                            public Object getValue() {
-                                return 150;
-                            }
-                        };
-                    }
-                });
-
+        OptimizerMetricsRecorder.setEnabled(true);
+        for (int i = 0; i < 10; i++) {
+            OptimizerMetricsRecorder.started("test-without-pool.test");
+            OptimizerMetricsRecorder.started("test");
+        }
+        for (int i = 0; i < 10; i++) {
+            OptimizerMetricsRecorder.completed("test-without-pool.test", "test.test", 100 + i * 10);
+            OptimizerMetricsRecorder.completed("test", "test.test", 100 + i * 10);
+        }
     }
 
     @Test
     public void testMetricsBuilder() {
         optimizerMetricsCollector.run();
-        Map<OptimizerCacheKey, OptimizerMetrics> cache = optimizerMetricsCache.getCache();
+        Map<String, Histogram> concurrencies = optimizerMetricsStore
+                .snapshot(OptimizerMetricsRecorder.CONCURRENCY);
         AtomicBoolean metricFound = new AtomicBoolean(false);
-        cache.forEach((k, v) -> {
-            if (v.getMetrics().containsKey(ROLLING_MAX_ACTIVE_THREADS)
-                    && v.getMetrics().get(ROLLING_MAX_ACTIVE_THREADS).intValue() == 10
-                    && OptimizerUtils.getMetricsToRead().contains(ROLLING_MAX_ACTIVE_THREADS)) {
+        concurrencies.forEach((k, v) -> {
+            if (v.getMaxValue() == 10) {
                 metricFound.set(true);
             }
         });
         Assert.assertTrue(metricFound.get());
     }
 
+    @Test
+    public void testWindowPercentiles() {
+        optimizerMetricsCollector.run();
+        Histogram latency = optimizerMetricsStore.snapshot(OptimizerMetricsRecorder.LATENCY)
+                .get("test.test");
+        Assert.assertNotNull(latency);
+        Assert.assertEquals(190,
+                latency.getValueAtPercentile(OptimizerUtils.percentile(LATENCY_PERCENTILE_99)),
+                1);
+        Assert.assertEquals(99.5, OptimizerUtils.percentile(LATENCY_PERCENTILE_995), 0.001);
+    }
+
 
     @Test
     public void testNoConfigUpdateInRevolver() {
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.optimizer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import io.dropwizard.revolver.optimizer.config.OptimizerMetricsCollectorConfig;
+import java.util.concurrent.TimeUnit;
+import org.HdrHistogram.Histogram;
+import org.junit.Test;
+
+/**
+ * @author phaneesh
+ */
+public class OptimizerMetricsStoreTest {
+
+    private final OptimizerMetricsStore store = OptimizerMetricsStore.builder()
+            .optimizerMetricsCollectorConfig(
+                    OptimizerMetricsCollectorConfig.builder().repeatAfter(1)
+                            .timeUnit(TimeUnit.MINUTES).cachingWindowInMinutes(3).build())
+            .build();
+
+    @Test
+    public void testSnapshotMergesWindow() {
+        long now = System.currentTimeMillis();
+        collect(now, "test.test", 100, 2);
+        collect(now, "test.test", 200, 3);
+        Histogram latency = store.snapshot(OptimizerMetricsRecorder.LATENCY).get("test.test");
+        assertEquals(5, latency.getTotalCount());
+        assertEquals(200, latency.getMaxValue());
+        assertTrue(store.snapshot(OptimizerMetricsRecorder.CONCURRENCY).isEmpty());
+    }
+
+    @Test
+    public void testRingKeepsLastBuckets() {
+        long now = System.currentTimeMillis();
+        for (int i = 1; i <= 5; i++) {
+            collect(now, "test.test", i * 100, 1);
+        }
+        Histogram latency = store.snapshot(OptimizerMetricsRecorder.LATENCY).get("test.test");
+        assertEquals(3, latency.getTotalCount());
+        assertEquals(300, latency.getMinValue());
+    }
+
+    @Test
+    public void testExpiredBucketsAreSkipped() {
+        collect(System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(5), "test.test", 100, 1);
+        collect(System.currentTimeMillis(), "test.test", 200, 1);
+        Histogram latency = store.snapshot(OptimizerMetricsRecorder.LATENCY).get("test.test");
+        assertEquals(1, latency.getTotalCount());
+        assertEquals(200, latency.getMaxValue());
+    }
+
+    @Test
+    public void testHistogramsAreReused() {
+        long now = System.currentTimeMillis();
+        OptimizerMetricsStore.Window window = store.open(now);
+        Histogram first = window.histogram(OptimizerMetricsRecorder.LATENCY, "test.test");
+        window.close();
+        for (int i = 0; i < 2; i++) {
+            store.open(now).close();
+        }
+        window = store.open(now);
+        assertSame(first, window.histogram(OptimizerMetricsRecorder.LATENCY, "test.test"));
+        assertEquals(0, first.getTotalCount());
+        window.close();
+    }
+
+    @Test
+    public void testOpenBucketIsNotRead() {
+        OptimizerMetricsStore.Window window = store.open(System.currentTimeMillis());
+        window.histogram(OptimizerMetricsRecorder.LATENCY, "test.test").recordValue(100);
+        assertTrue(store.snapshot(OptimizerMetricsRecorder.LATENCY).isEmpty());
+        window.close();
+        assertEquals(1, store.snapshot(OptimizerMetricsRecorder.LATENCY).get("test.test")
+                .getTotalCount());
+    }
+
+    private void collect(long time, String name, long value, long count) {
+        OptimizerMetricsStore.Window window = store.open(time);
+        window.histogram(OptimizerMetricsRecorder.LATENCY, name).recordValueWithCount(value, count);
+        window.close();
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.dropwizard.revolver.optimizer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import com.google.common.collect.Lists;
+import com.netflix.config.ConfigurationManager;
+import io.dropwizard.revolver.core.config.RevolverConfig;
+import io.dropwizard.revolver.core.config.RevolverServiceConfig;
+import io.dropwizard.revolver.core.config.RuntimeConfig;
+import io.dropwizard.revolver.core.config.ThreadPoolGroupConfig;
+import io.dropwizard.revolver.core.config.hystrix.ThreadPoolConfig;
+import org.apache.commons.configuration.AbstractConfiguration;
+import org.junit.Test;
+
+/**
+ * @author phaneesh
+ */
+public class ThreadPoolResizerTest {
+
+    private final AbstractConfiguration properties = ConfigurationManager.getConfigInstance();
+
+    @Test
+    public void testResize() {
+        ThreadPoolConfig pool = pool("resizer-pool", 4);
+        RevolverServiceConfig service = service("resizer", pool);
+        ThreadPoolResizer.resize(config(service), service, "resizer-pool", pool, 8);
+
+        assertEquals(8, pool.getConcurrency());
+        assertEquals(6, properties.getInt("hystrix.threadpool.resizer-pool.coreSize"));
+        assertEquals(8, properties.getInt("hystrix.threadpool.resizer-pool.maximumSize"));
+        PoolResizeEvent event = ThreadPoolResizer.getEvents().get(0);
+        assertEquals("resizer", event.getService());
+        assertEquals("resizer-pool", event.getPool());
+        assertEquals(4, event.getFromConcurrency());
+        assertEquals(8, event.getToConcurrency());
+        assertEquals(0, event.getConnectionPoolSize());
+    }
+
+    @Test
+    public void testResizeToSameConcurrencyIsIgnored() {
+        ThreadPoolConfig pool = pool("unchanged-pool", 4);
+        RevolverServiceConfig service = service("unchanged", pool);
+        int events = ThreadPoolResizer.getEvents().size();
+        ThreadPoolResizer.resize(config(service), service, "unchanged-pool", pool, 4);
+
+        assertEquals(events, ThreadPoolResizer.getEvents().size());
+        assertFalse(properties.containsKey("hystrix.threadpool.unchanged-pool.maximumSize"));
+    }
+
+    @Test
+    public void testSyncAfterReload() {
+        ThreadPoolConfig pool = pool("reloaded-pool", 4);
+        RevolverServiceConfig service = service("reloaded", pool);
+        ThreadPoolResizer.resize(config(service), service, "reloaded-pool", pool, 10);
+        assertEquals(10, properties.getInt("hystrix.threadpool.reloaded-pool.maximumSize"));
+
+        //A reload brings back the configured size, which must win over the earlier resize
+        ThreadPoolConfig reloaded = pool("reloaded-pool", 6);
+        ThreadPoolResizer.sync(config(service("reloaded", reloaded)));
+
+        assertEquals(5, properties.getInt("hystrix.threadpool.reloaded-pool.coreSize"));
+        assertEquals(6, properties.getInt("hystrix.threadpool.reloaded-pool.maximumSize"));
+    }
+
+    private static ThreadPoolConfig pool(String name, int concurrency) {
+        ThreadPoolConfig pool = new ThreadPoolConfig();
+        pool.setThreadPoolName(name);
+        pool.setConcurrency(concurrency);
+        return pool;
+    }
+
+    private static RevolverServiceConfig service(String name, ThreadPoolConfig pool) {
+        RevolverServiceConfig service = new RevolverServiceConfig("test", name);
+        service.setThreadPoolGroupConfig(ThreadPoolGroupConfig.builder()
+                .threadPools(Lists.newArrayList(pool)).build());
+        return service;
+    }
+
+    private static RevolverConfig config(RevolverServiceConfig service) {
+        return RevolverConfig.builder().global(new RuntimeConfig()).service(service).build();
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.optimizer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import io.dropwizard.revolver.core.config.HystrixCommandConfig;
+import io.dropwizard.revolver.core.config.hystrix.ThreadPoolConfig;
+import io.dropwizard.revolver.http.config.RevolverHttpApiConfig;
+import io.dropwizard.revolver.http.config.RevolverHttpServiceConfig;
+import io.dropwizard.revolver.optimizer.config.TimeoutControllerConfig;
+import org.HdrHistogram.Histogram;
+import org.junit.Test;
+
+/**
+ * @author phaneesh
+ */
+public class TimeoutControllerTest {
+
+    private final TimeoutControllerConfig config = TimeoutControllerConfig.builder().enabled(true)
+            .readTimeoutMetric("latencyExecute_percentile_99").readTimeoutBuffer(1.3)
+            .writeTimeoutMetric("latencyExecute_percentile_999").writeTimeoutBuffer(1.5)
+            .minTimeoutInMillis(50).maxIncrease(1.0).maxDecrease(0.2).hysteresis(0.1)
+            .minSamples(100).build();
+
+    @Test
+    public void testTargetIsClamped() {
+        assertEquals(50, TimeoutController.targetTimeout(config, 2000, 10, 1.3));
+        assertEquals(2000, TimeoutController.targetTimeout(config, 2000, 5000, 1.3));
+        assertEquals(130, TimeoutController.targetTimeout(config, 2000, 100, 1.3));
+    }
+
+    @Test
+    public void testStepsAreBounded() {
+        assertEquals(1600, TimeoutController.nextTimeout(config, 2000, 130));
+        assertEquals(400, TimeoutController.nextTimeout(config, 200, 1000));
+        assertEquals(150, TimeoutController.nextTimeout(config, 100, 150));
+    }
+
+    @Test
+    public void testHysteresis() {
+        assertEquals(1000, TimeoutController.nextTimeout(config, 1000, 950));
+        assertEquals(1000, TimeoutController.nextTimeout(config, 1000, 1100));
+        assertEquals(800, TimeoutController.nextTimeout(config, 1000, 700));
+    }
+
+    @Test
+    public void testUpdateAppliesAndAudits() {
+        ThreadPoolConfig threadPool = ThreadPoolConfig.builder().concurrency(10).timeout(2000)
+                .build();
+        RevolverHttpApiConfig api = RevolverHttpApiConfig.configBuilder().api("read")
+                .method(RevolverHttpApiConfig.RequestMethod.GET).path("read")
+                .runtime(HystrixCommandConfig.builder().threadPool(threadPool).build()).build();
+        RevolverHttpServiceConfig service = RevolverHttpServiceConfig.builder()
+                .service("timeout-controller").type("http").api(api).build();
+        Histogram latency = new Histogram(2);
+        latency.recordValueWithCount(100, 1000);
+
+        TimeoutController.update(config, service, api, latency);
+        assertEquals(1600, threadPool.getTimeout());
+        TimeoutController.update(config, service, api, latency);
+        assertEquals(1280, threadPool.getTimeout());
+        assertTrue(TimeoutController.getEvents().stream()
+                .anyMatch(event -> "timeout-controller".equals(event.getService())
+                        && event.getFromTimeout() == 1600 && event.getToTimeout() == 1280));
+    }
+
+    @Test
+    public void testUpdateNeedsEnoughSamples() {
+        ThreadPoolConfig threadPool = ThreadPoolConfig.builder().concurrency(10).timeout(2000)
+                .build();
+        RevolverHttpApiConfig api = RevolverHttpApiConfig.configBuilder().api("sparse")
+                .method(RevolverHttpApiConfig.RequestMethod.POST).path("sparse")
+                .runtime(HystrixCommandConfig.builder().threadPool(threadPool).build()).build();
+        RevolverHttpServiceConfig service = RevolverHttpServiceConfig.builder()
+                .service("timeout-controller").type("http").api(api).build();
+        Histogram latency = new Histogram(2);
+        latency.recordValueWithCount(100, 10);
+
+        TimeoutController.update(config, service, api, latency);
+        assertEquals(2000, threadPool.getTimeout());
+    }
+}
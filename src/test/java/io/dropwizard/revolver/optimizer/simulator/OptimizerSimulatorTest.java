@@ -0,0 +1,136 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.optimizer.simulator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import io.dropwizard.revolver.core.config.hystrix.ThreadPoolConfig;
+import io.dropwizard.revolver.optimizer.OptimizerMetricsRecorder;
+import io.dropwizard.revolver.optimizer.utils.OptimizerUtils;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import org.HdrHistogram.Histogram;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * @author phaneesh
+ */
+public class OptimizerSimulatorTest {
+
+    private static final long WINDOW = 30000;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testUndersizedPoolRejects() {
+        List<SimulationReport> reports = new OptimizerSimulator(
+                OptimizerUtils.getDefaultOptimizerConfig(),
+                ImmutableMap.of("test", threadPool(2, 0))).simulate(windows(4, 3000, 100));
+        assertEquals(1, reports.size());
+        assertEquals(12000, reports.get(0).getRequests());
+        assertTrue(reports.get(0).getRejected() > 0);
+    }
+
+    @Test
+    public void testSizedPoolDoesNotReject() {
+        List<SimulationReport> reports = new OptimizerSimulator(
+                OptimizerUtils.getDefaultOptimizerConfig(),
+                ImmutableMap.of("test", threadPool(50, 0))).simulate(windows(4, 3000, 100));
+        assertEquals(0, reports.get(0).getRejected());
+        assertEquals(0, reports.get(0).getMaxQueueWaitInMillis());
+        assertTrue(reports.get(0).getMaxBusyThreads() <= 50);
+    }
+
+    @Test
+    public void testOptimizerGrowsSaturatedPool() {
+        List<SimulationReport> reports = new OptimizerSimulator(
+                OptimizerUtils.getDefaultOptimizerConfig(),
+                ImmutableMap.of("test", threadPool(4, 10))).simulate(windows(20, 3000, 100));
+        SimulationReport report = reports.get(0);
+        assertEquals(4, report.getInitialConcurrency());
+        assertTrue(report.getResizes() > 0);
+        assertTrue(report.getFinalConcurrency() > 4);
+    }
+
+    @Test
+    public void testTimedOutExecutionsReleaseThreads() {
+        ThreadPoolConfig threadPool = threadPool(50, 0);
+        threadPool.setTimeout(1000);
+        SimulationReport report = new OptimizerSimulator(
+                OptimizerUtils.getDefaultOptimizerConfig(), ImmutableMap.of("test", threadPool))
+                .simulate(windows(1, 300, 5000)).get(0);
+        assertEquals(0, report.getRejected());
+        assertEquals(300, report.getTimedOut());
+        assertEquals(0.2, report.getThreadUtilization(), 0.001);
+    }
+
+    @Test
+    public void testRecordingReplaysPerPool() throws Exception {
+        Path recording = folder.newFile("optimizer.recording").toPath();
+        Histogram latency = new Histogram(2);
+        latency.recordValueWithCount(100, 300);
+        Histogram concurrency = new Histogram(2);
+        concurrency.recordValue(7);
+        OptimizerRecording.append(recording, Lists.newArrayList(
+                OptimizerRecording.encode(WINDOW, WINDOW, OptimizerMetricsRecorder.LATENCY,
+                        "test.a", "test", latency),
+                OptimizerRecording.encode(WINDOW, WINDOW, OptimizerMetricsRecorder.LATENCY,
+                        "test.b", "test", latency),
+                OptimizerRecording.encode(WINDOW, WINDOW, OptimizerMetricsRecorder.CONCURRENCY,
+                        "test", "test", concurrency)));
+        List<RecordedWindow> windows = OptimizerRecording.read(recording);
+        assertEquals(1, windows.size());
+        assertEquals(600, windows.get(0).getLatencies().get("test").getTotalCount());
+        assertEquals(7, windows.get(0).getConcurrencies().get("test").getMaxValue());
+
+        List<SimulationReport> reports = new OptimizerSimulator(
+                OptimizerUtils.getDefaultOptimizerConfig(), Collections.emptyMap())
+                .simulate(windows);
+        assertEquals(600, reports.get(0).getRequests());
+        assertEquals(7, reports.get(0).getInitialConcurrency());
+    }
+
+    private static ThreadPoolConfig threadPool(int concurrency, int queueSize) {
+        ThreadPoolConfig threadPool = new ThreadPoolConfig();
+        threadPool.setThreadPoolName("test");
+        threadPool.setConcurrency(concurrency);
+        threadPool.setInitialConcurrency(concurrency);
+        threadPool.setMaxRequestQueueSize(queueSize);
+        threadPool.setDynamicRequestQueueSize(queueSize);
+        return threadPool;
+    }
+
+    private static List<RecordedWindow> windows(int count, long requests, long latencyInMillis) {
+        List<RecordedWindow> windows = Lists.newArrayList();
+        for (int i = 1; i <= count; i++) {
+            Histogram latency = new Histogram(2);
+            latency.recordValueWithCount(latencyInMillis, requests);
+            windows.add(RecordedWindow.builder().time(i * WINDOW).windowInMillis(WINDOW)
+                    .latencies(ImmutableMap.of("test", latency))
+                    .concurrencies(Maps.newHashMap()).build());
+        }
+        return windows;
+    }
+}
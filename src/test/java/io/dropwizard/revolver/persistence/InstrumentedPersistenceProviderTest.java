@@ -0,0 +1,87 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.persistence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import com.aerospike.client.AerospikeException;
+import com.aerospike.client.ResultCode;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.collect.ImmutableMap;
+import io.dropwizard.revolver.base.core.RevolverCallbackRequest;
+import io.dropwizard.revolver.base.core.RevolverCallbackResponse;
+import java.util.Collections;
+import org.junit.Test;
+
+/**
+ * @author phaneesh
+ */
+public class InstrumentedPersistenceProviderTest {
+
+    private final MetricRegistry registry = new MetricRegistry();
+
+    @Test
+    public void testTimesOperationsAndRecordsSizes() throws Exception {
+        PersistenceProvider provider = new InstrumentedPersistenceProvider(
+                new InMemoryPersistenceProvider(), registry, "in_memory");
+        provider.saveRequest("r1", "m1", null, RevolverCallbackRequest.builder()
+                .path("/v1/test")
+                .headers(ImmutableMap.of("X-Id", Collections.singletonList("abc")))
+                .body(new byte[100]).build());
+        provider.saveResponse("r1",
+                RevolverCallbackResponse.builder().body(new byte[50]).statusCode(200).build(), 60);
+        provider.request("r1");
+        assertEquals(1, provider.requestsByMailbox("m1").size());
+
+        assertEquals(1, registry.timer("revolver.mailbox.in_memory.saveRequest").getCount());
+        assertEquals(1, registry.timer("revolver.mailbox.in_memory.saveResponse").getCount());
+        assertEquals(1, registry.timer("revolver.mailbox.in_memory.request").getCount());
+        assertEquals(100, registry.histogram("revolver.mailbox.in_memory.request.body.size")
+                .getSnapshot().getMax());
+        assertEquals(115, registry.histogram("revolver.mailbox.in_memory.request.size")
+                .getSnapshot().getMax());
+        assertEquals(50, registry.histogram("revolver.mailbox.in_memory.response.body.size")
+                .getSnapshot().getMax());
+        assertEquals(1,
+                registry.histogram("revolver.mailbox.in_memory.requestsByMailbox.results")
+                        .getSnapshot().getMax());
+    }
+
+    @Test
+    public void testCountsErrorsByResultCode() {
+        PersistenceProvider provider = new InstrumentedPersistenceProvider(
+                new InMemoryPersistenceProvider() {
+                    @Override
+                    public void saveResponse(String requestId, RevolverCallbackResponse response,
+                            int ttl) {
+                        throw new AerospikeException(ResultCode.TIMEOUT);
+                    }
+                }, registry, "aerospike");
+        try {
+            provider.saveResponse("r1", RevolverCallbackResponse.builder().build(), 60);
+            fail("Expected failure to propagate");
+        } catch (Exception e) {
+            assertEquals(AerospikeException.class, e.getClass());
+        }
+        assertEquals(1, registry.timer("revolver.mailbox.aerospike.saveResponse").getCount());
+        assertEquals(1, registry.meter("revolver.mailbox.aerospike.saveResponse.errors")
+                .getCount());
+        assertEquals(1, registry.meter("revolver.mailbox.aerospike.result." + ResultCode.TIMEOUT)
+                .getCount());
+    }
+}
@@ -20,13 +20,16 @@ package io.dropwizard.revolver.resource;
 import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
 import static com.github.tomakehurst.wiremock.client.WireMock.delete;
 import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.head;
+import static com.github.tomakehurst.wiremock.client.WireMock.matching;
 import static com.github.tomakehurst.wiremock.client.WireMock.options;
 import static com.github.tomakehurst.wiremock.client.WireMock.patch;
 import static com.github.tomakehurst.wiremock.client.WireMock.post;
 import static com.github.tomakehurst.wiremock.client.WireMock.put;
 import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.verify;
 import static org.junit.Assert.assertEquals;
 
 import com.codahale.metrics.MetricRegistry;
@@ -123,5 +126,25 @@ public class RevolverRequestResourceTest extends BaseRevolverTest {
                 .getStatus());
     }
 
+    @Test
+    public void testExpiredDeadline() {
+        stubFor(get(urlEqualTo("/v1/test")).willReturn(
+                aResponse().withStatus(200).withHeader("Content-Type", "application/json")));
+        assertEquals(504, resources.client().target("/apis/test/v1/test").request()
+                .header(RevolversHttpHeaders.REQUEST_ID_HEADER, UUID.randomUUID().toString())
+                .header(RevolversHttpHeaders.TXN_ID_HEADER, UUID.randomUUID().toString())
+                .header(RevolversHttpHeaders.TIMEOUT_HEADER, "0").get().getStatus());
+    }
 
+    @Test
+    public void testDeadlinePropagation() {
+        stubFor(get(urlEqualTo("/v1/test")).willReturn(
+                aResponse().withStatus(200).withHeader("Content-Type", "application/json")));
+        assertEquals(200, resources.client().target("/apis/test/v1/test").request()
+                .header(RevolversHttpHeaders.REQUEST_ID_HEADER, UUID.randomUUID().toString())
+                .header(RevolversHttpHeaders.TXN_ID_HEADER, UUID.randomUUID().toString())
+                .header(RevolversHttpHeaders.TIMEOUT_HEADER, "60000").get().getStatus());
+        verify(getRequestedFor(urlEqualTo("/v1/test"))
+                .withHeader(RevolversHttpHeaders.TIMEOUT_HEADER, matching("[0-9]{1,5}")));
+    }
 }
@@ -0,0 +1,54 @@
+package io.dropwizard.revolver.retry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/***
+ Tests for millisecond backoffs and the retry budget used by async retries
+ ***/
+public class AsyncRetrierTest {
+
+    @Test
+    public void testBackoffWithoutJitter() {
+        RevolverApiRetryConfig config = RevolverApiRetryConfig.builder().enabled(true).async(true)
+                .waitStrategy(WaitStrategy.EXPONENTIAL).initialBackoffInMillis(50)
+                .maximumBackoffInMillis(300).build();
+        assertEquals(50, AsyncRetrier.backoffInMillis(config, 1));
+        assertEquals(100, AsyncRetrier.backoffInMillis(config, 2));
+        assertEquals(200, AsyncRetrier.backoffInMillis(config, 3));
+        assertEquals(300, AsyncRetrier.backoffInMillis(config, 4));
+
+        config.setWaitStrategy(WaitStrategy.FIBONACCI);
+        assertEquals(50, AsyncRetrier.backoffInMillis(config, 2));
+        assertEquals(100, AsyncRetrier.backoffInMillis(config, 3));
+        assertEquals(150, AsyncRetrier.backoffInMillis(config, 4));
+
+        config.setWaitStrategy(WaitStrategy.NO_WAIT);
+        assertEquals(0, AsyncRetrier.backoffInMillis(config, 3));
+    }
+
+    @Test
+    public void testJitteredBackoffIsBounded() {
+        RevolverApiRetryConfig config = RevolverApiRetryConfig.builder().enabled(true).async(true)
+                .waitStrategy(WaitStrategy.FIXED).initialBackoffInMillis(40).jitter(true).build();
+        for (int i = 0; i < 100; i++) {
+            long backoff = AsyncRetrier.backoffInMillis(config, 1);
+            assertTrue(backoff >= 0 && backoff <= 40);
+        }
+    }
+
+    @Test
+    public void testRetryBudget() {
+        RetryBudget budget = new RetryBudget(20);
+        for (int i = 0; i < 4; i++) {
+            budget.onRequest();
+        }
+        assertFalse(budget.tryRetry());
+        budget.onRequest();
+        assertTrue(budget.tryRetry());
+        assertFalse(budget.tryRetry());
+    }
+}